@@ -0,0 +1,121 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletScheduler;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeSharedVirtualTime;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link CloudletSchedulerTimeShared#updateVmProcessing(double, List)} with the given
+ * number of cloudlets sharing the PEs of a VM, and compares it with
+ * {@link CloudletSchedulerTimeSharedVirtualTime}. The cloudlets are long enough not to finish
+ * during the benchmark, so each operation advances the processing of all of them and estimates
+ * their finish times.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CloudletSchedulerTimeSharedBenchmark {
+
+	/** The length of the cloudlets, in MI. */
+	private static final long CLOUDLET_LENGTH = 1000000000000L;
+
+	/** The MIPS of each PE of the VM. */
+	private static final double PE_MIPS = 1000;
+
+	/** The number of cloudlets. */
+	@Param({ "10", "100", "1000" })
+	public int cloudlets;
+
+	/** The number of PEs of the VM. */
+	@Param({ "4" })
+	public int pes;
+
+	/** The scheduler, timeShared or virtualTime. */
+	@Param({ "timeShared", "virtualTime" })
+	public String schedulerType;
+
+	/** The scheduler. */
+	private CloudletScheduler scheduler;
+
+	/** The MIPS share of the VM. */
+	private List<Double> mipsShare;
+
+	/** The current simulation time. */
+	private double time;
+
+	/**
+	 * Submits the cloudlets to a new scheduler.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		mipsShare = new ArrayList<Double>();
+		for (int i = 0; i < pes; i++) {
+			mipsShare.add(PE_MIPS);
+		}
+		if ("virtualTime".equals(schedulerType)) {
+			scheduler = new CloudletSchedulerTimeSharedVirtualTime();
+		} else {
+			scheduler = new CloudletSchedulerTimeShared();
+		}
+		time = 0;
+		scheduler.updateVmProcessing(time, mipsShare);
+		UtilizationModelFull utilizationModel = new UtilizationModelFull();
+		for (int i = 0; i < cloudlets; i++) {
+			Cloudlet cloudlet = new Cloudlet(
+					i,
+					CLOUDLET_LENGTH,
+					1,
+					300,
+					300,
+					utilizationModel,
+					utilizationModel,
+					utilizationModel);
+			cloudlet.setUserId(0);
+			cloudlet.setResourceParameter(0, 0);
+			scheduler.cloudletSubmit(cloudlet);
+		}
+	}
+
+	/**
+	 * Updates the processing of the cloudlets one second later.
+	 *
+	 * @return the estimated finish time of the next cloudlet
+	 */
+	@Benchmark
+	public double updateVmProcessing() {
+		time += 1;
+		return scheduler.updateVmProcessing(time, mipsShare);
+	}
+
+}
@@ -0,0 +1,275 @@
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Calendar;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.EventQueue;
+import org.cloudbus.cloudsim.core.EventQueueBinaryHeap;
+import org.cloudbus.cloudsim.core.FutureQueue;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+
+/**
+ * Measures the memory allocated by the simulation engine with and without the recycling of the
+ * events. First, a set of entities that only send events to each other is simulated, which gives
+ * the number of bytes allocated per event. Then, the Local Regression (LR) / Minimum Migration
+ * Time (MMT) simulation is run on the PlanetLab workload, and the total allocated memory and the
+ * time spent in garbage collection are printed. The allocated memory is measured for the thread
+ * running the simulation, so the benchmark requires a JVM providing
+ * <tt>com.sun.management.ThreadMXBean</tt>.
+ *
+ * Usage: EventAllocationBenchmark [number of events per entity] [workload] [number of hosts]
+ * [simulation limit]
+ *
+ * If you are using any algorithms, policies or workload included in the power package please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ */
+public class EventAllocationBenchmark {
+
+	/** The folder of the PlanetLab workload, relative to the benchmarks directory. */
+	private static final String WORKLOAD_DIRECTORY = "../examples/workload/planetlab";
+
+	/** The number of entities sending events to each other. */
+	private static final int NUMBER_OF_ENTITIES = 100;
+
+	/** The capacities of the event pool that are compared, 0 disabling the recycling. */
+	private static final int[] EVENT_POOL_CAPACITIES = { 0, 4096 };
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the arguments
+	 * @throws Exception the exception
+	 */
+	public static void main(String[] args) throws Exception {
+		int eventsPerEntity = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		String workload = args.length > 1 ? args[1] : "20110303";
+		int numberOfHosts = args.length > 2 ? Integer.parseInt(args[2]) : 800;
+		double simulationLimit = args.length > 3 ? Double.parseDouble(args[3]) : 24 * 60 * 60;
+
+		String inputFolder = WORKLOAD_DIRECTORY + File.separator + workload;
+
+		Log.setDisabled(true);
+
+		// The first round warms up the JVM and is not reported
+		for (int round = 0; round <= 1; round++) {
+			for (String eventQueue : new String[] { "FutureQueue", "EventQueueBinaryHeap" }) {
+				for (int capacity : EVENT_POOL_CAPACITIES) {
+					long allocated = getAllocatedBytes();
+					long events = runEntities(eventsPerEntity, createEventQueue(eventQueue), capacity);
+					allocated = getAllocatedBytes() - allocated;
+					if (round > 0) {
+						System.out.println(String.format(
+								"Entities, %s, event pool %d: %d events, %.1f bytes/event",
+								eventQueue,
+								capacity,
+								events,
+								(double) allocated / events));
+					}
+				}
+			}
+
+			for (int capacity : EVENT_POOL_CAPACITIES) {
+				long allocated = getAllocatedBytes();
+				long gcTime = getGarbageCollectionTime();
+				long start = System.nanoTime();
+				PowerDatacenter datacenter = runPlanetLab(inputFolder, numberOfHosts, simulationLimit, capacity);
+				double wallTime = (System.nanoTime() - start) / 1e9;
+				allocated = getAllocatedBytes() - allocated;
+				gcTime = getGarbageCollectionTime() - gcTime;
+				if (round > 0) {
+					System.out.println(String.format(
+							"PlanetLab LR-MMT, event pool %d: %.3f sec, %.1f MB allocated, %.3f sec in GC, "
+									+ "energy %.2f kWh, %d migrations",
+							capacity,
+							wallTime,
+							allocated / 1e6,
+							gcTime / 1e3,
+							datacenter.getPower() / (3600 * 1000),
+							datacenter.getMigrationCount()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs a simulation of entities that only send events to each other.
+	 *
+	 * @param eventsPerEntity the number of events processed by each entity
+	 * @param eventQueue the future event queue
+	 * @param capacity the capacity of the event pool
+	 * @return the number of processed events
+	 */
+	protected static long runEntities(int eventsPerEntity, EventQueue eventQueue, int capacity) {
+		CloudSim.init(0, Calendar.getInstance(), false, eventQueue);
+		CloudSim.setEventPoolCapacity(capacity);
+
+		EventSender[] senders = new EventSender[NUMBER_OF_ENTITIES];
+		for (int i = 0; i < senders.length; i++) {
+			senders[i] = new EventSender("EventSender_" + i, eventsPerEntity);
+		}
+		for (int i = 0; i < senders.length; i++) {
+			senders[i].setPeer(senders[(i + 1) % senders.length].getId());
+		}
+
+		CloudSim.startSimulation();
+
+		long events = 0;
+		for (EventSender sender : senders) {
+			events += sender.getProcessedEvents();
+		}
+		return events;
+	}
+
+	/**
+	 * Runs the LR-MMT simulation on the PlanetLab workload.
+	 *
+	 * @param inputFolder the input folder
+	 * @param numberOfHosts the number of hosts
+	 * @param simulationLimit the simulation limit
+	 * @param capacity the capacity of the event pool
+	 * @return the datacenter
+	 * @throws Exception the exception
+	 */
+	protected static PowerDatacenter runPlanetLab(
+			String inputFolder,
+			int numberOfHosts,
+			double simulationLimit,
+			int capacity) throws Exception {
+		PowerDatacenter datacenter = EventQueueComparison.createSimulation(
+				inputFolder,
+				numberOfHosts,
+				new FutureQueue());
+		CloudSim.setEventPoolCapacity(capacity);
+
+		CloudSim.terminateSimulation(simulationLimit);
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		return datacenter;
+	}
+
+	/**
+	 * Gets the number of bytes allocated by the current thread.
+	 *
+	 * @return the number of bytes
+	 */
+	private static long getAllocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	/**
+	 * Gets the total time spent in garbage collection.
+	 *
+	 * @return the time in milliseconds
+	 */
+	private static long getGarbageCollectionTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(collector.getCollectionTime(), 0);
+		}
+		return time;
+	}
+
+	/**
+	 * Creates an empty event queue.
+	 *
+	 * @param name the name of the event queue class
+	 * @return the event queue
+	 */
+	private static EventQueue createEventQueue(String name) {
+		if (name.equals("EventQueueBinaryHeap")) {
+			return new EventQueueBinaryHeap();
+		}
+		return new FutureQueue();
+	}
+
+	/**
+	 * An entity that sends a new event to its peer for each event it receives.
+	 */
+	private static class EventSender extends SimEntity {
+
+		/** The tag of the events. */
+		private static final int PING = 1000;
+
+		/** The number of events to process. */
+		private final int eventsToProcess;
+
+		/** The id of the peer. */
+		private int peer;
+
+		/** The number of processed events. */
+		private int processedEvents = 0;
+
+		/**
+		 * Instantiates a new event sender.
+		 *
+		 * @param name the name
+		 * @param eventsToProcess the number of events to process
+		 */
+		public EventSender(String name, int eventsToProcess) {
+			super(name);
+			this.eventsToProcess = eventsToProcess;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.cloudbus.cloudsim.core.SimEntity#startEntity()
+		 */
+		@Override
+		public void startEntity() {
+			schedule(peer, 1.0, PING);
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.cloudbus.cloudsim.core.SimEntity#processEvent(org.cloudbus.cloudsim.core.SimEvent)
+		 */
+		@Override
+		public void processEvent(SimEvent ev) {
+			processedEvents++;
+			if (processedEvents < eventsToProcess) {
+				schedule(peer, 1.0 + (getId() % 7) * 0.1, PING);
+			}
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.cloudbus.cloudsim.core.SimEntity#shutdownEntity()
+		 */
+		@Override
+		public void shutdownEntity() {
+		}
+
+		/**
+		 * Sets the id of the peer.
+		 *
+		 * @param peer the id of the peer
+		 */
+		public void setPeer(int peer) {
+			this.peer = peer;
+		}
+
+		/**
+		 * Gets the number of processed events.
+		 *
+		 * @return the number of processed events
+		 */
+		public int getProcessedEvents() {
+			return processedEvents;
+		}
+
+	}
+
+}
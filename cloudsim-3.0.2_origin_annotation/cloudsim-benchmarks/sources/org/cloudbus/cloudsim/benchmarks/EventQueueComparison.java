@@ -0,0 +1,176 @@
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.io.File;
+import java.util.Calendar;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.EventQueue;
+import org.cloudbus.cloudsim.core.EventQueueBinaryHeap;
+import org.cloudbus.cloudsim.core.EventQueueCalendar;
+import org.cloudbus.cloudsim.core.FutureQueue;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.cloudbus.cloudsim.examples.power.planetlab.PlanetLabHelper;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationLocalRegression;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationStaticThreshold;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicy;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumMigrationTime;
+
+/**
+ * Compares the throughput of the future event queue implementations on the PlanetLab workload. The
+ * same Local Regression (LR) / Minimum Migration Time (MMT) simulation is run with each of
+ * {@link FutureQueue}, {@link EventQueueBinaryHeap} and {@link EventQueueCalendar}, and the wall
+ * clock time of each run is printed along with the energy consumption and the number of
+ * migrations, which must be identical for all the queues.
+ *
+ * Usage: EventQueueComparison [workload] [number of hosts] [simulation limit] [repetitions]
+ *
+ * If you are using any algorithms, policies or workload included in the power package please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ */
+public class EventQueueComparison {
+
+	/** The folder of the PlanetLab workload, relative to the benchmarks directory. */
+	private static final String WORKLOAD_DIRECTORY = "../examples/workload/planetlab";
+
+	/** The names of the compared event queues. */
+	private static final String[] EVENT_QUEUES = { "FutureQueue", "EventQueueBinaryHeap", "EventQueueCalendar" };
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the arguments
+	 * @throws Exception the exception
+	 */
+	public static void main(String[] args) throws Exception {
+		String workload = args.length > 0 ? args[0] : "20110303";
+		int numberOfHosts = args.length > 1 ? Integer.parseInt(args[1]) : 800;
+		double simulationLimit = args.length > 2 ? Double.parseDouble(args[2]) : 24 * 60 * 60;
+		int repetitions = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+		String inputFolder = WORKLOAD_DIRECTORY + File.separator + workload;
+
+		Log.setDisabled(true);
+
+		// The first round warms up the JVM and is not reported
+		for (int round = 0; round <= repetitions; round++) {
+			for (String eventQueue : EVENT_QUEUES) {
+				long start = System.nanoTime();
+				PowerDatacenter datacenter = runSimulation(
+						inputFolder,
+						numberOfHosts,
+						simulationLimit,
+						createEventQueue(eventQueue));
+				double wallTime = (System.nanoTime() - start) / 1e9;
+
+				if (round > 0) {
+					System.out.println(String.format(
+							"%s: round %d, %.3f sec, energy %.2f kWh, %d migrations",
+							eventQueue,
+							round,
+							wallTime,
+							datacenter.getPower() / (3600 * 1000),
+							datacenter.getMigrationCount()));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs the LR-MMT simulation.
+	 *
+	 * @param inputFolder the input folder
+	 * @param numberOfHosts the number of hosts
+	 * @param simulationLimit the simulation limit
+	 * @param eventQueue the future event queue
+	 * @return the datacenter
+	 * @throws Exception the exception
+	 */
+	protected static PowerDatacenter runSimulation(
+			String inputFolder,
+			int numberOfHosts,
+			double simulationLimit,
+			EventQueue eventQueue) throws Exception {
+		PowerDatacenter datacenter = createSimulation(inputFolder, numberOfHosts, eventQueue);
+
+		CloudSim.terminateSimulation(simulationLimit);
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		return datacenter;
+	}
+
+	/**
+	 * Initialises CloudSim and creates the entities of the LR-MMT simulation.
+	 *
+	 * @param inputFolder the input folder
+	 * @param numberOfHosts the number of hosts
+	 * @param eventQueue the future event queue
+	 * @return the datacenter
+	 * @throws Exception the exception
+	 */
+	protected static PowerDatacenter createSimulation(
+			String inputFolder,
+			int numberOfHosts,
+			EventQueue eventQueue) throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false, eventQueue);
+
+		DatacenterBroker broker = Helper.createBroker();
+		List<Cloudlet> cloudletList = PlanetLabHelper.createCloudletListPlanetLab(broker.getId(), inputFolder);
+		List<Vm> vmList = Helper.createVmList(broker.getId(), cloudletList.size());
+		List<PowerHost> hostList = Helper.createHostList(numberOfHosts);
+
+		PowerVmSelectionPolicy vmSelectionPolicy = new PowerVmSelectionPolicyMinimumMigrationTime();
+		PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList,
+				vmSelectionPolicy,
+				0.7);
+		PowerVmAllocationPolicyMigrationAbstract vmAllocationPolicy = new PowerVmAllocationPolicyMigrationLocalRegression(
+				hostList,
+				vmSelectionPolicy,
+				1.2,
+				Constants.SCHEDULING_INTERVAL,
+				fallbackVmAllocationPolicy);
+
+		PowerDatacenter datacenter = (PowerDatacenter) Helper.createDatacenter(
+				"Datacenter",
+				PowerDatacenter.class,
+				hostList,
+				vmAllocationPolicy);
+		datacenter.setDisableMigrations(false);
+
+		broker.submitVmList(vmList);
+		broker.submitCloudletList(cloudletList);
+
+		return datacenter;
+	}
+
+	/**
+	 * Creates an empty event queue.
+	 *
+	 * @param name the name of the event queue class
+	 * @return the event queue
+	 */
+	protected static EventQueue createEventQueue(String name) {
+		if (name.equals("EventQueueBinaryHeap")) {
+			return new EventQueueBinaryHeap();
+		} else if (name.equals("EventQueueCalendar")) {
+			return new EventQueueCalendar();
+		}
+		return new FutureQueue();
+	}
+
+}
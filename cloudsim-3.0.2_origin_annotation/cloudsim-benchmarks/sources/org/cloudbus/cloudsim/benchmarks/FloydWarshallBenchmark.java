@@ -0,0 +1,94 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.network.FloydWarshall_Float;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link FloydWarshall_Float#allPairsShortestPaths(float[][])}, which computes the delay
+ * matrix of the network topology, on a random connected graph with the given number of nodes.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FloydWarshallBenchmark {
+
+	/** The number of links of each node, besides the ring connecting all the nodes. */
+	private static final int LINKS_PER_NODE = 3;
+
+	/** The number of nodes. */
+	@Param({ "100", "500", "1000" })
+	public int nodes;
+
+	/** The adjacency matrix, 0 meaning no link. */
+	private float[][] adjacencyMatrix;
+
+	/**
+	 * Creates the graph.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Random random = new Random(1);
+		adjacencyMatrix = new float[nodes][nodes];
+		for (int i = 0; i < nodes; i++) {
+			link(i, (i + 1) % nodes, 1 + random.nextInt(100));
+			for (int j = 0; j < LINKS_PER_NODE; j++) {
+				int other = random.nextInt(nodes);
+				if (other != i) {
+					link(i, other, 1 + random.nextInt(100));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes the delays between all the pairs of nodes.
+	 *
+	 * @return the delay matrix
+	 */
+	@Benchmark
+	public float[][] allPairsShortestPaths() {
+		FloydWarshall_Float floydWarshall = new FloydWarshall_Float();
+		floydWarshall.initialize(nodes);
+		return floydWarshall.allPairsShortestPaths(adjacencyMatrix);
+	}
+
+	/**
+	 * Adds a bidirectional link.
+	 *
+	 * @param from a node
+	 * @param to the other node
+	 * @param delay the delay of the link
+	 */
+	private void link(int from, int to, float delay) {
+		adjacencyMatrix[from][to] = delay;
+		adjacencyMatrix[to][from] = delay;
+	}
+
+}
@@ -0,0 +1,205 @@
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.cloudbus.cloudsim.examples.power.planetlab.PlanetLabHelper;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerDatacenterBroker;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationLocalRegression;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationStaticThreshold;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicy;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumMigrationTime;
+
+/**
+ * Compares the sequential and the parallel execution of the entities on a federation of
+ * independent datacenters. Each datacenter runs the Local Regression (LR) / Minimum Migration Time
+ * (MMT) policy on the PlanetLab workload and is used by its own broker. The simulation is run with
+ * one thread and with the given number of threads, and the wall clock time of each run is printed
+ * along with the energy consumption and the number of migrations of each datacenter, which must
+ * be identical for both runs.
+ *
+ * Usage: ParallelExecutionComparison [workload] [number of datacenters] [number of hosts per
+ * datacenter] [simulation limit] [number of threads] [repetitions]
+ *
+ * If you are using any algorithms, policies or workload included in the power package please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ */
+public class ParallelExecutionComparison {
+
+	/** The folder of the PlanetLab workload, relative to the benchmarks directory. */
+	private static final String WORKLOAD_DIRECTORY = "../examples/workload/planetlab";
+
+	/**
+	 * The main method.
+	 *
+	 * @param args the arguments
+	 * @throws Exception the exception
+	 */
+	public static void main(String[] args) throws Exception {
+		String workload = args.length > 0 ? args[0] : "20110303";
+		int numberOfDatacenters = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+		int numberOfHosts = args.length > 2 ? Integer.parseInt(args[2]) : 800;
+		double simulationLimit = args.length > 3 ? Double.parseDouble(args[3]) : 24 * 60 * 60;
+		int numberOfThreads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime()
+				.availableProcessors();
+		int repetitions = args.length > 5 ? Integer.parseInt(args[5]) : 3;
+
+		String inputFolder = WORKLOAD_DIRECTORY + File.separator + workload;
+
+		Log.setDisabled(true);
+
+		// The first round warms up the JVM and is not reported
+		for (int round = 0; round <= repetitions; round++) {
+			String sequentialResults = null;
+			for (int threads : new int[] { 1, numberOfThreads }) {
+				long start = System.nanoTime();
+				List<PowerDatacenter> datacenters = runSimulation(
+						inputFolder,
+						numberOfDatacenters,
+						numberOfHosts,
+						simulationLimit,
+						threads);
+				double wallTime = (System.nanoTime() - start) / 1e9;
+
+				StringBuilder results = new StringBuilder();
+				for (PowerDatacenter datacenter : datacenters) {
+					results.append(String.format(
+							" [%s: energy %.2f kWh, %d migrations]",
+							datacenter.getName(),
+							datacenter.getPower() / (3600 * 1000),
+							datacenter.getMigrationCount()));
+				}
+				if (sequentialResults == null) {
+					sequentialResults = results.toString();
+				}
+
+				if (round > 0) {
+					System.out.println(String.format(
+							"%d thread(s): round %d, %.3f sec,%s%s",
+							threads,
+							round,
+							wallTime,
+							results,
+							results.toString().equals(sequentialResults) ? "" : " DIFFERENT"));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs the LR-MMT simulation on each datacenter of the federation.
+	 *
+	 * @param inputFolder the input folder
+	 * @param numberOfDatacenters the number of datacenters
+	 * @param numberOfHosts the number of hosts per datacenter
+	 * @param simulationLimit the simulation limit
+	 * @param numberOfThreads the number of threads running the entities
+	 * @return the datacenters
+	 * @throws Exception the exception
+	 */
+	protected static List<PowerDatacenter> runSimulation(
+			String inputFolder,
+			int numberOfDatacenters,
+			int numberOfHosts,
+			double simulationLimit,
+			int numberOfThreads) throws Exception {
+		CloudSim.init(numberOfDatacenters, Calendar.getInstance(), false);
+		CloudSim.setParallelExecution(numberOfThreads);
+
+		List<PowerDatacenter> datacenters = new ArrayList<PowerDatacenter>();
+		for (int i = 0; i < numberOfDatacenters; i++) {
+			List<PowerHost> hostList = Helper.createHostList(numberOfHosts);
+
+			PowerVmSelectionPolicy vmSelectionPolicy = new PowerVmSelectionPolicyMinimumMigrationTime();
+			PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+					hostList,
+					vmSelectionPolicy,
+					0.7);
+			PowerVmAllocationPolicyMigrationAbstract vmAllocationPolicy = new PowerVmAllocationPolicyMigrationLocalRegression(
+					hostList,
+					vmSelectionPolicy,
+					1.2,
+					Constants.SCHEDULING_INTERVAL,
+					fallbackVmAllocationPolicy);
+
+			PowerDatacenter datacenter = (PowerDatacenter) Helper.createDatacenter(
+					"Datacenter_" + i,
+					PowerDatacenter.class,
+					hostList,
+					vmAllocationPolicy);
+			datacenter.setDisableMigrations(false);
+			datacenters.add(datacenter);
+
+			FederationBroker broker = new FederationBroker("Broker_" + i, datacenter.getId());
+			List<Cloudlet> cloudletList = PlanetLabHelper.createCloudletListPlanetLab(broker.getId(), inputFolder);
+			List<Vm> vmList = Helper.createVmList(broker.getId(), cloudletList.size());
+			broker.submitVmList(vmList);
+			broker.submitCloudletList(cloudletList);
+		}
+
+		CloudSim.terminateSimulation(simulationLimit);
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		return datacenters;
+	}
+
+	/**
+	 * A broker that only uses one datacenter of the federation, so that the datacenters are
+	 * independent.
+	 */
+	private static class FederationBroker extends PowerDatacenterBroker {
+
+		/** The id of the datacenter. */
+		private final int datacenterId;
+
+		/**
+		 * Instantiates a new federation broker.
+		 *
+		 * @param name the name
+		 * @param datacenterId the id of the datacenter
+		 * @throws Exception the exception
+		 */
+		public FederationBroker(String name, int datacenterId) throws Exception {
+			super(name);
+			this.datacenterId = datacenterId;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see
+		 * org.cloudbus.cloudsim.DatacenterBroker#processResourceCharacteristicsRequest(org.cloudbus
+		 * .cloudsim.core.SimEvent)
+		 */
+		@Override
+		protected void processResourceCharacteristicsRequest(SimEvent ev) {
+			List<Integer> datacenterIds = new ArrayList<Integer>();
+			datacenterIds.add(datacenterId);
+			setDatacenterIdsList(datacenterIds);
+			setDatacenterCharacteristicsList(new HashMap<Integer, DatacenterCharacteristics>());
+			sendNow(datacenterId, CloudSimTags.RESOURCE_CHARACTERISTICS, getId());
+		}
+
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a whole simulation of the PlanetLab workload, as run by the power examples, with the
+ * given numbers of hosts and VMs and the given policies. The traces are loaded before each
+ * simulation and are not part of the measured time.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see PlanetLabSimulation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class PlanetLabBenchmark {
+
+	/** The folder of the PlanetLab workload. */
+	@Param({ "../examples/workload/planetlab" })
+	public String workloadDirectory;
+
+	/** The day of the workload. */
+	@Param({ "20110303" })
+	public String workload;
+
+	/** The number of hosts, which must be able to run all the VMs. */
+	@Param({ "800" })
+	public int hosts;
+
+	/** The number of VMs, 0 meaning one VM per trace of the workload. */
+	@Param({ "0" })
+	public int vms;
+
+	/** The VM allocation policy, as named in the power examples. */
+	@Param({ "dvfs", "thr", "iqr", "mad", "lr", "lrr" })
+	public String vmAllocationPolicy;
+
+	/** The VM selection policy, as named in the power examples; ignored by dvfs. */
+	@Param({ "mmt" })
+	public String vmSelectionPolicy;
+
+	/** The simulation limit. */
+	@Param({ "86400" })
+	public double simulationLimit;
+
+	/** The simulation. */
+	private PlanetLabSimulation simulation;
+
+	/**
+	 * Creates the simulation.
+	 *
+	 * @throws Exception the exception
+	 */
+	@Setup(Level.Invocation)
+	public void setUp() throws Exception {
+		simulation = new PlanetLabSimulation(
+				workloadDirectory + File.separator + workload,
+				hosts,
+				vms,
+				vmAllocationPolicy,
+				vmSelectionPolicy,
+				PlanetLabSimulation.getDefaultParameter(vmAllocationPolicy));
+	}
+
+	/**
+	 * Runs the simulation.
+	 *
+	 * @return the datacenter
+	 */
+	@Benchmark
+	public PowerDatacenter simulate() {
+		simulation.run(simulationLimit);
+		return simulation.getDatacenter();
+	}
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.UtilizationModel;
+import org.cloudbus.cloudsim.UtilizationModelNull;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationInterQuartileRange;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationLocalRegression;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationLocalRegressionRobust;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationStaticThreshold;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicySimple;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicy;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMaximumCorrelation;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumMigrationTime;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyMinimumUtilization;
+import org.cloudbus.cloudsim.power.PowerVmSelectionPolicyRandomSelection;
+
+/**
+ * A simulation of the PlanetLab workload, set up as in the power examples but with any number of
+ * hosts and VMs. The VMs run the traces of the workload in the order of their file names, the
+ * traces being reused if there are more VMs than traces.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see org.cloudbus.cloudsim.examples.power.planetlab.PlanetLabRunner
+ */
+public class PlanetLabSimulation {
+
+	/** The datacenter. */
+	private final PowerDatacenter datacenter;
+
+	/** The VM allocation policy. */
+	private final VmAllocationPolicy vmAllocationPolicy;
+
+	/**
+	 * Creates a simulation; {@link CloudSim} is initialized and the entities are created, but the
+	 * simulation is not started.
+	 *
+	 * @param inputFolder the folder of the traces of a day of the workload
+	 * @param numberOfHosts the number of hosts
+	 * @param numberOfVms the number of VMs, or 0 to use one VM per trace
+	 * @param vmAllocationPolicyName the VM allocation policy, as named in the power examples
+	 * @param vmSelectionPolicyName the VM selection policy, as named in the power examples
+	 * @param parameter the parameter of the VM allocation policy
+	 * @throws Exception the exception
+	 */
+	public PlanetLabSimulation(
+			String inputFolder,
+			int numberOfHosts,
+			int numberOfVms,
+			String vmAllocationPolicyName,
+			String vmSelectionPolicyName,
+			double parameter) throws Exception {
+		Log.setDisabled(true);
+		CloudSim.init(1, Calendar.getInstance(), false);
+
+		DatacenterBroker broker = Helper.createBroker();
+		List<Cloudlet> cloudletList = createCloudletList(broker.getId(), inputFolder, numberOfVms);
+		List<Vm> vmList = Helper.createVmList(broker.getId(), cloudletList.size());
+		List<PowerHost> hostList = Helper.createHostList(numberOfHosts);
+
+		vmAllocationPolicy = createVmAllocationPolicy(
+				hostList,
+				vmAllocationPolicyName,
+				vmSelectionPolicyName,
+				parameter);
+		datacenter = (PowerDatacenter) Helper.createDatacenter(
+				"Datacenter",
+				PowerDatacenter.class,
+				hostList,
+				vmAllocationPolicy);
+		datacenter.setDisableMigrations(false);
+
+		broker.submitVmList(vmList);
+		broker.submitCloudletList(cloudletList);
+	}
+
+	/**
+	 * Runs the simulation until the given time.
+	 *
+	 * @param simulationLimit the simulation limit
+	 */
+	public void run(double simulationLimit) {
+		CloudSim.terminateSimulation(simulationLimit);
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+	}
+
+	/**
+	 * Gets the datacenter.
+	 *
+	 * @return the datacenter
+	 */
+	public PowerDatacenter getDatacenter() {
+		return datacenter;
+	}
+
+	/**
+	 * Gets the VM allocation policy.
+	 *
+	 * @return the VM allocation policy
+	 */
+	public VmAllocationPolicy getVmAllocationPolicy() {
+		return vmAllocationPolicy;
+	}
+
+	/**
+	 * Creates the cloudlets running the traces, one per VM.
+	 *
+	 * @param brokerId the broker id
+	 * @param inputFolderName the folder of the traces
+	 * @param numberOfCloudlets the number of cloudlets, or 0 to create one cloudlet per trace
+	 * @return the cloudlets
+	 * @throws IOException if the folder contains no trace or a trace cannot be read
+	 */
+	public static List<Cloudlet> createCloudletList(int brokerId, String inputFolderName, int numberOfCloudlets)
+			throws IOException {
+		File[] files = new File(inputFolderName).listFiles();
+		if (files == null || files.length == 0) {
+			throw new FileNotFoundException("No trace found in " + inputFolderName);
+		}
+		Arrays.sort(files);
+		if (numberOfCloudlets <= 0) {
+			numberOfCloudlets = files.length;
+		}
+
+		UtilizationModel utilizationModelNull = new UtilizationModelNull();
+		List<Cloudlet> list = new ArrayList<Cloudlet>(numberOfCloudlets);
+		for (int i = 0; i < numberOfCloudlets; i++) {
+			Cloudlet cloudlet = new Cloudlet(
+					i,
+					Constants.CLOUDLET_LENGTH,
+					Constants.CLOUDLET_PES,
+					300,
+					300,
+					new UtilizationModelPlanetLabInMemory(
+							files[i % files.length].getAbsolutePath(),
+							Constants.SCHEDULING_INTERVAL),
+					utilizationModelNull,
+					utilizationModelNull);
+			cloudlet.setUserId(brokerId);
+			cloudlet.setVmId(i);
+			list.add(cloudlet);
+		}
+		return list;
+	}
+
+	/**
+	 * Creates a VM allocation policy, as the power examples do.
+	 *
+	 * @param hostList the hosts
+	 * @param vmAllocationPolicyName the VM allocation policy: iqr, mad, lr, lrr, thr or dvfs
+	 * @param vmSelectionPolicyName the VM selection policy: mc, mmt, mu or rs
+	 * @param parameter the parameter of the VM allocation policy
+	 * @return the VM allocation policy
+	 */
+	public static VmAllocationPolicy createVmAllocationPolicy(
+			List<PowerHost> hostList,
+			String vmAllocationPolicyName,
+			String vmSelectionPolicyName,
+			double parameter) {
+		if (vmAllocationPolicyName.equals("dvfs")) {
+			return new PowerVmAllocationPolicySimple(hostList);
+		}
+		PowerVmSelectionPolicy vmSelectionPolicy = createVmSelectionPolicy(vmSelectionPolicyName);
+		if (vmAllocationPolicyName.equals("thr")) {
+			return new PowerVmAllocationPolicyMigrationStaticThreshold(hostList, vmSelectionPolicy, parameter);
+		}
+		PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy = new PowerVmAllocationPolicyMigrationStaticThreshold(
+				hostList,
+				vmSelectionPolicy,
+				0.7);
+		if (vmAllocationPolicyName.equals("iqr")) {
+			return new PowerVmAllocationPolicyMigrationInterQuartileRange(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					fallbackVmAllocationPolicy);
+		} else if (vmAllocationPolicyName.equals("mad")) {
+			return new PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					fallbackVmAllocationPolicy);
+		} else if (vmAllocationPolicyName.equals("lr")) {
+			return new PowerVmAllocationPolicyMigrationLocalRegression(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					Constants.SCHEDULING_INTERVAL,
+					fallbackVmAllocationPolicy);
+		} else if (vmAllocationPolicyName.equals("lrr")) {
+			return new PowerVmAllocationPolicyMigrationLocalRegressionRobust(
+					hostList,
+					vmSelectionPolicy,
+					parameter,
+					Constants.SCHEDULING_INTERVAL,
+					fallbackVmAllocationPolicy);
+		}
+		throw new IllegalArgumentException("Unknown VM allocation policy: " + vmAllocationPolicyName);
+	}
+
+	/**
+	 * Creates a VM selection policy, as the power examples do.
+	 *
+	 * @param vmSelectionPolicyName the VM selection policy: mc, mmt, mu or rs
+	 * @return the VM selection policy
+	 */
+	public static PowerVmSelectionPolicy createVmSelectionPolicy(String vmSelectionPolicyName) {
+		if (vmSelectionPolicyName.equals("mc")) {
+			return new PowerVmSelectionPolicyMaximumCorrelation(new PowerVmSelectionPolicyMinimumMigrationTime());
+		} else if (vmSelectionPolicyName.equals("mmt")) {
+			return new PowerVmSelectionPolicyMinimumMigrationTime();
+		} else if (vmSelectionPolicyName.equals("mu")) {
+			return new PowerVmSelectionPolicyMinimumUtilization();
+		} else if (vmSelectionPolicyName.equals("rs")) {
+			return new PowerVmSelectionPolicyRandomSelection();
+		}
+		throw new IllegalArgumentException("Unknown VM selection policy: " + vmSelectionPolicyName);
+	}
+
+	/**
+	 * Gets the default parameter of a VM allocation policy, as used in the power examples.
+	 *
+	 * @param vmAllocationPolicyName the VM allocation policy
+	 * @return the parameter
+	 */
+	public static double getDefaultParameter(String vmAllocationPolicyName) {
+		if (vmAllocationPolicyName.equals("thr")) {
+			return 0.8;
+		} else if (vmAllocationPolicyName.equals("iqr")) {
+			return 1.5;
+		} else if (vmAllocationPolicyName.equals("mad")) {
+			return 2.5;
+		} else if (vmAllocationPolicyName.equals("lr") || vmAllocationPolicyName.equals("lrr")) {
+			return 1.2;
+		}
+		return 0;
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link PowerVmAllocationPolicyMigrationAbstract#optimizeAllocation(List)}, i.e. one
+ * round of the dynamic VM consolidation: the PlanetLab workload is simulated until the given time,
+ * so that the hosts have a utilization history, then each operation computes the migrations of the
+ * current allocation. The migrations are not performed, so each operation works on the same
+ * allocation.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see PlanetLabSimulation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PowerVmAllocationPolicyMigrationBenchmark {
+
+	/** The folder of the PlanetLab workload. */
+	@Param({ "../examples/workload/planetlab" })
+	public String workloadDirectory;
+
+	/** The day of the workload. */
+	@Param({ "20110303" })
+	public String workload;
+
+	/** The number of hosts, which must be able to run all the VMs. */
+	@Param({ "800" })
+	public int hosts;
+
+	/** The number of VMs, 0 meaning one VM per trace of the workload. */
+	@Param({ "0" })
+	public int vms;
+
+	/** The VM allocation policy, as named in the power examples. */
+	@Param({ "thr", "iqr", "mad", "lr", "lrr" })
+	public String vmAllocationPolicy;
+
+	/** The VM selection policy, as named in the power examples. */
+	@Param({ "mmt", "mc" })
+	public String vmSelectionPolicy;
+
+	/** The simulation time at which the allocation is optimized. */
+	@Param({ "21600" })
+	public double time;
+
+	/** The allocation policy. */
+	private PowerVmAllocationPolicyMigrationAbstract policy;
+
+	/** The datacenter. */
+	private PowerDatacenter datacenter;
+
+	/**
+	 * Simulates the workload until the given time.
+	 *
+	 * @throws Exception the exception
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		PlanetLabSimulation simulation = new PlanetLabSimulation(
+				workloadDirectory + File.separator + workload,
+				hosts,
+				vms,
+				vmAllocationPolicy,
+				vmSelectionPolicy,
+				PlanetLabSimulation.getDefaultParameter(vmAllocationPolicy));
+		simulation.run(time);
+		datacenter = simulation.getDatacenter();
+		policy = (PowerVmAllocationPolicyMigrationAbstract) simulation.getVmAllocationPolicy();
+	}
+
+	/**
+	 * Computes the migrations of the current allocation.
+	 *
+	 * @return the migrations
+	 */
+	@Benchmark
+	public List<Map<String, Object>> optimizeAllocation() {
+		return policy.optimizeAllocation(datacenter.getVmList());
+	}
+
+	/**
+	 * Clears the execution times recorded by the policy at each operation.
+	 */
+	@TearDown(Level.Iteration)
+	public void clearExecutionTimes() {
+		policy.getExecutionTimeHistoryHostSelection().clear();
+		policy.getExecutionTimeHistoryVmSelection().clear();
+		policy.getExecutionTimeHistoryVmReallocation().clear();
+		policy.getExecutionTimeHistoryTotal().clear();
+	}
+
+}
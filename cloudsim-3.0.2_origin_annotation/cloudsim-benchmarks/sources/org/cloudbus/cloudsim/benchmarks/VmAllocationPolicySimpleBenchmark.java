@@ -0,0 +1,84 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.examples.power.Helper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures {@link VmAllocationPolicySimple#allocateHostForVm(Vm)} on the hosts of the power
+ * examples. Half of the PEs of the hosts are used by VMs, and each operation allocates a host for
+ * one more VM and releases it.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VmAllocationPolicySimpleBenchmark {
+
+	/** The number of hosts. */
+	@Param({ "100", "800", "5000" })
+	public int hosts;
+
+	/** The allocation policy. */
+	private VmAllocationPolicySimple policy;
+
+	/** The VM allocated by the benchmark. */
+	private Vm vm;
+
+	/**
+	 * Creates the hosts and allocates the initial VMs.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Log.setDisabled(true);
+		policy = new VmAllocationPolicySimple(Helper.createHostList(hosts));
+		List<Vm> vms = Helper.createVmList(0, hosts + 1);
+		for (int i = 0; i < hosts; i++) {
+			if (!policy.allocateHostForVm(vms.get(i))) {
+				throw new IllegalStateException("Could not allocate the initial VMs.");
+			}
+		}
+		vm = vms.get(hosts);
+	}
+
+	/**
+	 * Allocates a host for the VM, then releases it.
+	 *
+	 * @return true if the VM was allocated
+	 */
+	@Benchmark
+	public boolean allocateHostForVm() {
+		boolean result = policy.allocateHostForVm(vm);
+		policy.deallocateHostForVm(vm);
+		return result;
+	}
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the deferred queue as used by the entities waiting for an event with a given tag: the
+ * queue holds the given number of events per entity, and each operation counts or removes the
+ * first event of an entity with a given tag, as {@link SimEntity#numEventsWaiting} and
+ * {@link SimEntity#getNextEvent} do.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see DeferredQueue
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeferredQueueBenchmark {
+
+	/** The number of destination entities. */
+	private static final int NUMBER_OF_ENTITIES = 16;
+
+	/** The number of distinct tags of the events. */
+	private static final int NUMBER_OF_TAGS = 32;
+
+	/** The number of events per entity. */
+	@Param({ "100", "10000" })
+	public int eventsPerEntity;
+
+	/** The deferred queue. */
+	private DeferredQueue deferredQueue;
+
+	/** The predicates matching each tag. */
+	private PredicateType[] predicates;
+
+	/** The random number generator. */
+	private Random random;
+
+	/** The time of the deferred events. */
+	private double clock;
+
+	/**
+	 * Fills the deferred queue.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		deferredQueue = new DeferredQueue();
+		predicates = new PredicateType[NUMBER_OF_TAGS];
+		for (int tag = 0; tag < NUMBER_OF_TAGS; tag++) {
+			predicates[tag] = new PredicateType(tag);
+		}
+		random = new Random(1);
+		clock = 0;
+		for (int i = 0; i < eventsPerEntity; i++) {
+			clock++;
+			for (int destination = 0; destination < NUMBER_OF_ENTITIES; destination++) {
+				deferredQueue.addEvent(new SimEvent(SimEvent.SEND, clock, destination, destination, random
+						.nextInt(NUMBER_OF_TAGS), null));
+			}
+		}
+	}
+
+	/**
+	 * Counts the events of an entity with a given tag.
+	 *
+	 * @return the number of events
+	 */
+	@Benchmark
+	public int size() {
+		return deferredQueue.size(random.nextInt(NUMBER_OF_ENTITIES), predicates[random.nextInt(NUMBER_OF_TAGS)]);
+	}
+
+	/**
+	 * Removes the first event of an entity with a given tag and defers it again.
+	 *
+	 * @return the removed event
+	 */
+	@Benchmark
+	public SimEvent removeFirst() {
+		int destination = random.nextInt(NUMBER_OF_ENTITIES);
+		SimEvent event = deferredQueue.removeFirst(destination, predicates[random.nextInt(NUMBER_OF_TAGS)]);
+		if (event != null) {
+			clock++;
+			event.init(SimEvent.SEND, clock, destination, destination, event.getTag(), null);
+			deferredQueue.addEvent(event);
+		}
+		return event;
+	}
+
+}
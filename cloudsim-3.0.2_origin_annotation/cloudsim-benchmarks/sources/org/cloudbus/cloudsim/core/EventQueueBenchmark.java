@@ -0,0 +1,148 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the future event queues with the hold model: the queue is filled with the given number
+ * of events, then each operation polls the first event and schedules it again at a random time in
+ * the future, so that the size of the queue stays constant. The cancellation of the events of an
+ * entity by tag, as done by the datacenters and the brokers, is measured as well.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see EventQueue
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventQueueBenchmark {
+
+	/** The number of entities sending the events. */
+	private static final int NUMBER_OF_ENTITIES = 64;
+
+	/** The number of distinct tags of the events. */
+	private static final int NUMBER_OF_TAGS = 8;
+
+	/** The name of the event queue class. */
+	@Param({ "FutureQueue", "EventQueueBinaryHeap", "EventQueueCalendar" })
+	public String queue;
+
+	/** The number of events in the queue. */
+	@Param({ "1000", "100000" })
+	public int size;
+
+	/** The event queue. */
+	private EventQueue eventQueue;
+
+	/** The random number generator of the event times. */
+	private Random random;
+
+	/** The time of the last polled event. */
+	private double clock;
+
+	/**
+	 * Fills the event queue.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		eventQueue = createEventQueue(queue);
+		random = new Random(1);
+		clock = 0;
+		for (int i = 0; i < size; i++) {
+			eventQueue.addEvent(createEvent(i % NUMBER_OF_ENTITIES, i % NUMBER_OF_TAGS));
+		}
+	}
+
+	/**
+	 * Polls the first event and schedules it again.
+	 *
+	 * @return the polled event
+	 */
+	@Benchmark
+	public SimEvent hold() {
+		SimEvent event = eventQueue.poll();
+		clock = event.eventTime();
+		event.init(SimEvent.SEND, clock + nextDelay(), event.getSource(), event.getDestination(), event
+				.getTag(), null);
+		eventQueue.addEvent(event);
+		return event;
+	}
+
+	/**
+	 * Cancels an event of an entity by tag and schedules it again.
+	 *
+	 * @return the cancelled event
+	 */
+	@Benchmark
+	public SimEvent cancel() {
+		int source = random.nextInt(NUMBER_OF_ENTITIES);
+		SimEvent event = eventQueue.cancel(source, new PredicateType(source % NUMBER_OF_TAGS));
+		event.init(SimEvent.SEND, clock + nextDelay(), source, event.getDestination(), event.getTag(), null);
+		eventQueue.addEvent(event);
+		return event;
+	}
+
+	/**
+	 * Creates an event scheduled at a random time in the future.
+	 *
+	 * @param source the id of the entity sending the event
+	 * @param tag the tag of the event
+	 * @return the event
+	 */
+	private SimEvent createEvent(int source, int tag) {
+		return new SimEvent(SimEvent.SEND, clock + nextDelay(), source, source, tag, null);
+	}
+
+	/**
+	 * Gets a random delay, with a few distinct values so that many events have the same time, as
+	 * the events of the datacenters in the simulations do.
+	 *
+	 * @return the delay
+	 */
+	private double nextDelay() {
+		return 1 + random.nextInt(300);
+	}
+
+	/**
+	 * Creates an empty event queue.
+	 *
+	 * @param name the name of the event queue class
+	 * @return the event queue
+	 */
+	static EventQueue createEventQueue(String name) {
+		if (name.equals("FutureQueue")) {
+			return new FutureQueue();
+		} else if (name.equals("EventQueueBinaryHeap")) {
+			return new EventQueueBinaryHeap();
+		} else if (name.equals("EventQueueCalendar")) {
+			return new EventQueueCalendar();
+		}
+		throw new IllegalArgumentException("Unknown event queue: " + name);
+	}
+
+}
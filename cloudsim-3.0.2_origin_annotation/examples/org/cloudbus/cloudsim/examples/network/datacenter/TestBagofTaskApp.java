@@ -24,6 +24,7 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.network.datacenter.AppCloudlet;
 import org.cloudbus.cloudsim.network.datacenter.NetworkCloudlet;
 import org.cloudbus.cloudsim.network.datacenter.NetworkConstants;
+import org.cloudbus.cloudsim.network.datacenter.NetworkDatacenterState;
 import org.cloudbus.cloudsim.network.datacenter.TaskStage;
 
 public class TestBagofTaskApp extends AppCloudlet {
@@ -44,11 +45,10 @@ public class TestBagofTaskApp extends AppCloudlet {
 		long outputSize = NetworkConstants.OUTPUT_SIZE;
 		int pesNumber = NetworkConstants.PES_NUMBER;
 		int stgId=0;
-		int t=NetworkConstants.currentCloudletId;
+		int t=NetworkDatacenterState.getInstance().getCurrentCloudletId();
 	  	for(int i=0;i<numbervm;i++){
     		UtilizationModel utilizationModel = new UtilizationModelFull();
-    		NetworkCloudlet cl = new NetworkCloudlet(NetworkConstants.currentCloudletId, executionTime/numbervm, pesNumber, fileSize, outputSize, memory, utilizationModel, utilizationModel, utilizationModel);
-    		NetworkConstants.currentCloudletId++;
+    		NetworkCloudlet cl = new NetworkCloudlet(NetworkDatacenterState.getInstance().nextCloudletId(), executionTime/numbervm, pesNumber, fileSize, outputSize, memory, utilizationModel, utilizationModel, utilizationModel);
     		cl.setUserId(userId);
 			cl.submittime=CloudSim.clock();
     		cl.currStagenum=-1;
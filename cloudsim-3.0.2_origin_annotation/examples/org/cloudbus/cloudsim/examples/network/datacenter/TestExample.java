@@ -15,10 +15,12 @@ import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.Storage;
 import org.cloudbus.cloudsim.VmSchedulerTimeShared;
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.lists.HostList;
 import org.cloudbus.cloudsim.network.datacenter.EdgeSwitch;
 import org.cloudbus.cloudsim.network.datacenter.NetDatacenterBroker;
 import org.cloudbus.cloudsim.network.datacenter.NetworkConstants;
 import org.cloudbus.cloudsim.network.datacenter.NetworkDatacenter;
+import org.cloudbus.cloudsim.network.datacenter.NetworkDatacenterState;
 import org.cloudbus.cloudsim.network.datacenter.NetworkHost;
 import org.cloudbus.cloudsim.network.datacenter.NetworkVm;
 import org.cloudbus.cloudsim.network.datacenter.NetworkVmAllocationPolicy;
@@ -75,8 +77,8 @@ public class TestExample {
 			List<Cloudlet> newList = broker.getCloudletReceivedList();
 			printCloudletList(newList);
 			System.out.println("numberofcloudlet " + newList.size() + " Cached "
-					+ NetDatacenterBroker.cachedcloudlet + " Data transfered "
-					+ NetworkConstants.totaldatatransfer);
+					+ NetDatacenterBroker.getCachedCloudlets() + " Data transfered "
+					+ NetworkDatacenterState.getInstance().getTotalDataTransfer());
 			// Print the debt of each user to each datacenter
 			datacenter0.printDebts();
 
@@ -101,7 +103,7 @@ public class TestExample {
 		// 1. We need to create a list to store
 		// our machine
 
-		List<NetworkHost> hostList = new ArrayList<NetworkHost>();
+		List<NetworkHost> hostList = HostList.<NetworkHost> createIndexedList();
 
 		// 2. A Machine contains one or more PEs or CPUs/Cores.
 		// In this example, it will have only one core.
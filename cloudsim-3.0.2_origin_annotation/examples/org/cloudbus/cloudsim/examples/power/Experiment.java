@@ -0,0 +1,114 @@
+package org.cloudbus.cloudsim.examples.power;
+
+/**
+ * A cell of an {@link ExperimentMatrix}: one simulation of a workload with a VM allocation policy,
+ * a VM selection policy and a parameter, named as in {@link RunnerAbstract}.
+ *
+ * If you are using any algorithms, policies or workload included in the power package, please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class Experiment {
+
+	/** The workload. */
+	private final String workload;
+
+	/** The vm allocation policy. */
+	private final String vmAllocationPolicy;
+
+	/** The vm selection policy, or an empty string if the allocation policy does not use one. */
+	private final String vmSelectionPolicy;
+
+	/** The parameter, or an empty string if the allocation policy does not use one. */
+	private final String parameter;
+
+	/**
+	 * Instantiates a new experiment.
+	 *
+	 * @param workload the workload
+	 * @param vmAllocationPolicy the vm allocation policy
+	 * @param vmSelectionPolicy the vm selection policy, or an empty string
+	 * @param parameter the parameter, or an empty string
+	 */
+	public Experiment(String workload, String vmAllocationPolicy, String vmSelectionPolicy, String parameter) {
+		if (workload == null || vmAllocationPolicy == null || vmSelectionPolicy == null || parameter == null) {
+			throw new IllegalArgumentException("The names of an experiment can't be null, use an empty string.");
+		}
+		this.workload = workload;
+		this.vmAllocationPolicy = vmAllocationPolicy;
+		this.vmSelectionPolicy = vmSelectionPolicy;
+		this.parameter = parameter;
+	}
+
+	/**
+	 * Gets the name of the experiment, e.g. 20110303_lr_mmt_1.2.
+	 *
+	 * @return the name
+	 */
+	public String getName() {
+		String[] names = { workload, vmAllocationPolicy, vmSelectionPolicy, parameter };
+		StringBuilder name = new StringBuilder();
+		for (int i = 0; i < names.length; i++) {
+			if (names[i].isEmpty()) {
+				continue;
+			}
+			if (i != 0) {
+				name.append("_");
+			}
+			name.append(names[i]);
+		}
+		return name.toString();
+	}
+
+	/**
+	 * Gets the workload.
+	 *
+	 * @return the workload
+	 */
+	public String getWorkload() {
+		return workload;
+	}
+
+	/**
+	 * Gets the vm allocation policy.
+	 *
+	 * @return the vm allocation policy
+	 */
+	public String getVmAllocationPolicy() {
+		return vmAllocationPolicy;
+	}
+
+	/**
+	 * Gets the vm selection policy.
+	 *
+	 * @return the vm selection policy
+	 */
+	public String getVmSelectionPolicy() {
+		return vmSelectionPolicy;
+	}
+
+	/**
+	 * Gets the parameter.
+	 *
+	 * @return the parameter
+	 */
+	public String getParameter() {
+		return parameter;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return getName();
+	}
+
+}
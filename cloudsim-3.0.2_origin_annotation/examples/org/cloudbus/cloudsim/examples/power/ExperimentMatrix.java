@@ -0,0 +1,124 @@
+package org.cloudbus.cloudsim.examples.power;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A declarative matrix of experiments: every workload is simulated with every VM allocation policy
+ * and each of its parameters, combined with every VM selection policy. The allocation policies
+ * that do not migrate VMs, such as dvfs, are simulated once per workload, without selection policy
+ * nor parameter. The names are the ones accepted by
+ * {@link Helper#createVmAllocationPolicy(List, String, String, String)}.
+ *
+ * If you are using any algorithms, policies or workload included in the power package, please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class ExperimentMatrix {
+
+	/** The allocation policy that does not migrate VMs. */
+	private static final String NO_MIGRATION_POLICY = "dvfs";
+
+	/** The workloads. */
+	private final List<String> workloads = new ArrayList<String>();
+
+	/** The parameters of each vm allocation policy, in the order the policies were added. */
+	private final Map<String, List<String>> vmAllocationPolicies = new LinkedHashMap<String, List<String>>();
+
+	/** The vm selection policies. */
+	private final List<String> vmSelectionPolicies = new ArrayList<String>();
+
+	/**
+	 * Adds workloads to the matrix.
+	 *
+	 * @param workloads the workloads, e.g. the names of the PlanetLab workload folders
+	 * @return this matrix
+	 */
+	public ExperimentMatrix addWorkloads(String... workloads) {
+		this.workloads.addAll(Arrays.asList(workloads));
+		return this;
+	}
+
+	/**
+	 * Adds a vm allocation policy to the matrix.
+	 *
+	 * @param vmAllocationPolicy the vm allocation policy, e.g. lr
+	 * @param parameters the parameters of the policy, e.g. 1.2; none for the policies that do not
+	 *            take a parameter
+	 * @return this matrix
+	 */
+	public ExperimentMatrix addVmAllocationPolicy(String vmAllocationPolicy, String... parameters) {
+		List<String> policyParameters = new ArrayList<String>(Arrays.asList(parameters));
+		if (policyParameters.isEmpty()) {
+			policyParameters.add("");
+		}
+		vmAllocationPolicies.put(vmAllocationPolicy, policyParameters);
+		return this;
+	}
+
+	/**
+	 * Adds vm selection policies to the matrix.
+	 *
+	 * @param vmSelectionPolicies the vm selection policies, e.g. mmt
+	 * @return this matrix
+	 */
+	public ExperimentMatrix addVmSelectionPolicies(String... vmSelectionPolicies) {
+		this.vmSelectionPolicies.addAll(Arrays.asList(vmSelectionPolicies));
+		return this;
+	}
+
+	/**
+	 * Gets the experiments of the matrix, ordered by workload, vm allocation policy, parameter and
+	 * vm selection policy.
+	 *
+	 * @return the experiments
+	 */
+	public List<Experiment> getExperiments() {
+		List<Experiment> experiments = new ArrayList<Experiment>();
+		for (String workload : workloads) {
+			for (Map.Entry<String, List<String>> policy : vmAllocationPolicies.entrySet()) {
+				String vmAllocationPolicy = policy.getKey();
+				if (vmAllocationPolicy.equals(NO_MIGRATION_POLICY)) {
+					experiments.add(new Experiment(workload, vmAllocationPolicy, "", ""));
+					continue;
+				}
+				for (String parameter : policy.getValue()) {
+					for (String vmSelectionPolicy : vmSelectionPolicies) {
+						experiments.add(new Experiment(workload, vmAllocationPolicy, vmSelectionPolicy, parameter));
+					}
+				}
+			}
+		}
+		return experiments;
+	}
+
+	/**
+	 * Gets the matrix of the power examples: the THR, IQR, MAD, LR and LRR policies with the
+	 * parameters used in the examples, combined with the MC, MMT, MU and RS selection policies, and
+	 * the DVFS policy.
+	 *
+	 * @param workloads the workloads
+	 * @return the matrix
+	 */
+	public static ExperimentMatrix getDefaultMatrix(String... workloads) {
+		return new ExperimentMatrix()
+				.addWorkloads(workloads)
+				.addVmAllocationPolicy("thr", "0.8")
+				.addVmAllocationPolicy("iqr", "1.5")
+				.addVmAllocationPolicy("mad", "2.5")
+				.addVmAllocationPolicy("lr", "1.2")
+				.addVmAllocationPolicy("lrr", "1.2")
+				.addVmAllocationPolicy(NO_MIGRATION_POLICY)
+				.addVmSelectionPolicies("mc", "mmt", "mu", "rs");
+	}
+
+}
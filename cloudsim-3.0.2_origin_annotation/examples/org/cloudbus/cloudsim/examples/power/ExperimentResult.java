@@ -0,0 +1,313 @@
+package org.cloudbus.cloudsim.examples.power;
+
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.util.MathUtil;
+
+/**
+ * The metrics of a finished {@link Experiment}, computed as in
+ * {@link Helper#printResults(PowerDatacenter, List, double, String, boolean, String)}, or the
+ * error that stopped it.
+ *
+ * If you are using any algorithms, policies or workload included in the power package, please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class ExperimentResult {
+
+	/** The experiment. */
+	private final Experiment experiment;
+
+	/** The error that stopped the experiment, or null if it finished. */
+	private final Throwable error;
+
+	/** The wall clock time taken by the experiment, in seconds. */
+	private final double executionTime;
+
+	/** The number of hosts. */
+	private int numberOfHosts;
+
+	/** The number of vms. */
+	private int numberOfVms;
+
+	/** The total simulation time. */
+	private double totalSimulationTime;
+
+	/** The energy consumption in kWh. */
+	private double energy;
+
+	/** The number of migrations. */
+	private int numberOfMigrations;
+
+	/** The SLA, i.e. the SLA time per active host times the degradation due to migration. */
+	private double sla;
+
+	/** The SLA time per active host. */
+	private double slaTimePerActiveHost;
+
+	/** The SLA degradation due to migration. */
+	private double slaDegradationDueToMigration;
+
+	/** The overall SLA violation. */
+	private double slaOverall;
+
+	/** The average SLA violation. */
+	private double slaAverage;
+
+	/** The number of host shutdowns. */
+	private int numberOfHostShutdowns;
+
+	/** The mean time before a host shutdown. */
+	private double meanTimeBeforeHostShutdown = Double.NaN;
+
+	/** The standard deviation of the time before a host shutdown. */
+	private double stDevTimeBeforeHostShutdown = Double.NaN;
+
+	/** The mean time before a vm migration. */
+	private double meanTimeBeforeVmMigration = Double.NaN;
+
+	/** The standard deviation of the time before a vm migration. */
+	private double stDevTimeBeforeVmMigration = Double.NaN;
+
+	/**
+	 * Instantiates the result of a finished experiment.
+	 *
+	 * @param experiment the experiment
+	 * @param datacenter the datacenter
+	 * @param vms the vms
+	 * @param lastClock the last clock
+	 * @param executionTime the wall clock time taken by the experiment, in seconds
+	 */
+	public ExperimentResult(
+			Experiment experiment,
+			PowerDatacenter datacenter,
+			List<Vm> vms,
+			double lastClock,
+			double executionTime) {
+		this.experiment = experiment;
+		this.executionTime = executionTime;
+		error = null;
+
+		List<Host> hosts = datacenter.getHostList();
+		numberOfHosts = hosts.size();
+		numberOfVms = vms.size();
+		totalSimulationTime = lastClock;
+		energy = datacenter.getPower() / (3600 * 1000);
+		numberOfMigrations = datacenter.getMigrationCount();
+
+		Map<String, Double> slaMetrics = Helper.getSlaMetrics(vms);
+		slaOverall = slaMetrics.get("overall");
+		slaAverage = slaMetrics.get("average");
+		slaDegradationDueToMigration = slaMetrics.get("underallocated_migration");
+		slaTimePerActiveHost = Helper.getSlaTimePerActiveHost(hosts);
+		sla = slaTimePerActiveHost * slaDegradationDueToMigration;
+
+		List<Double> timeBeforeHostShutdown = Helper.getTimesBeforeHostShutdown(hosts);
+		numberOfHostShutdowns = timeBeforeHostShutdown.size();
+		if (!timeBeforeHostShutdown.isEmpty()) {
+			meanTimeBeforeHostShutdown = MathUtil.mean(timeBeforeHostShutdown);
+			stDevTimeBeforeHostShutdown = MathUtil.stDev(timeBeforeHostShutdown);
+		}
+
+		List<Double> timeBeforeVmMigration = Helper.getTimesBeforeVmMigration(vms);
+		if (!timeBeforeVmMigration.isEmpty()) {
+			meanTimeBeforeVmMigration = MathUtil.mean(timeBeforeVmMigration);
+			stDevTimeBeforeVmMigration = MathUtil.stDev(timeBeforeVmMigration);
+		}
+	}
+
+	/**
+	 * Instantiates the result of an experiment stopped by an error.
+	 *
+	 * @param experiment the experiment
+	 * @param error the error
+	 * @param executionTime the wall clock time taken by the experiment, in seconds
+	 */
+	public ExperimentResult(Experiment experiment, Throwable error, double executionTime) {
+		this.experiment = experiment;
+		this.error = error;
+		this.executionTime = executionTime;
+	}
+
+	/**
+	 * Checks if the experiment has been stopped by an error.
+	 *
+	 * @return true, if the experiment failed
+	 */
+	public boolean isFailed() {
+		return error != null;
+	}
+
+	/**
+	 * Gets the experiment.
+	 *
+	 * @return the experiment
+	 */
+	public Experiment getExperiment() {
+		return experiment;
+	}
+
+	/**
+	 * Gets the error that stopped the experiment.
+	 *
+	 * @return the error, or null if the experiment finished
+	 */
+	public Throwable getError() {
+		return error;
+	}
+
+	/**
+	 * Gets the wall clock time taken by the experiment.
+	 *
+	 * @return the execution time in seconds
+	 */
+	public double getExecutionTime() {
+		return executionTime;
+	}
+
+	/**
+	 * Gets the number of hosts.
+	 *
+	 * @return the number of hosts
+	 */
+	public int getNumberOfHosts() {
+		return numberOfHosts;
+	}
+
+	/**
+	 * Gets the number of vms.
+	 *
+	 * @return the number of vms
+	 */
+	public int getNumberOfVms() {
+		return numberOfVms;
+	}
+
+	/**
+	 * Gets the total simulation time.
+	 *
+	 * @return the total simulation time
+	 */
+	public double getTotalSimulationTime() {
+		return totalSimulationTime;
+	}
+
+	/**
+	 * Gets the energy consumption.
+	 *
+	 * @return the energy in kWh
+	 */
+	public double getEnergy() {
+		return energy;
+	}
+
+	/**
+	 * Gets the number of migrations.
+	 *
+	 * @return the number of migrations
+	 */
+	public int getNumberOfMigrations() {
+		return numberOfMigrations;
+	}
+
+	/**
+	 * Gets the SLA.
+	 *
+	 * @return the SLA
+	 */
+	public double getSla() {
+		return sla;
+	}
+
+	/**
+	 * Gets the SLA time per active host.
+	 *
+	 * @return the SLA time per active host
+	 */
+	public double getSlaTimePerActiveHost() {
+		return slaTimePerActiveHost;
+	}
+
+	/**
+	 * Gets the SLA degradation due to migration.
+	 *
+	 * @return the SLA degradation due to migration
+	 */
+	public double getSlaDegradationDueToMigration() {
+		return slaDegradationDueToMigration;
+	}
+
+	/**
+	 * Gets the overall SLA violation.
+	 *
+	 * @return the overall SLA violation
+	 */
+	public double getSlaOverall() {
+		return slaOverall;
+	}
+
+	/**
+	 * Gets the average SLA violation.
+	 *
+	 * @return the average SLA violation
+	 */
+	public double getSlaAverage() {
+		return slaAverage;
+	}
+
+	/**
+	 * Gets the number of host shutdowns.
+	 *
+	 * @return the number of host shutdowns
+	 */
+	public int getNumberOfHostShutdowns() {
+		return numberOfHostShutdowns;
+	}
+
+	/**
+	 * Gets the mean time before a host shutdown.
+	 *
+	 * @return the mean time before a host shutdown
+	 */
+	public double getMeanTimeBeforeHostShutdown() {
+		return meanTimeBeforeHostShutdown;
+	}
+
+	/**
+	 * Gets the standard deviation of the time before a host shutdown.
+	 *
+	 * @return the standard deviation of the time before a host shutdown
+	 */
+	public double getStDevTimeBeforeHostShutdown() {
+		return stDevTimeBeforeHostShutdown;
+	}
+
+	/**
+	 * Gets the mean time before a vm migration.
+	 *
+	 * @return the mean time before a vm migration
+	 */
+	public double getMeanTimeBeforeVmMigration() {
+		return meanTimeBeforeVmMigration;
+	}
+
+	/**
+	 * Gets the standard deviation of the time before a vm migration.
+	 *
+	 * @return the standard deviation of the time before a vm migration
+	 */
+	public double getStDevTimeBeforeVmMigration() {
+		return stDevTimeBeforeVmMigration;
+	}
+
+}
@@ -0,0 +1,120 @@
+package org.cloudbus.cloudsim.examples.power;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Writes the results of all the experiments of a run to a single CSV file, one row per experiment
+ * in the order the experiments finish. Each row is flushed when it is written, so the results of
+ * the finished experiments are kept if the run is interrupted.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class ExperimentResultCsvSink implements ExperimentResultSink {
+
+	/** The delimeter. */
+	private static final String DELIMETER = ",";
+
+	/** The header of the file. */
+	private static final String HEADER = "experiment,workload,vm_allocation_policy,vm_selection_policy,"
+			+ "parameter,hosts,vms,simulation_time,energy,migrations,sla,sla_time_per_active_host,"
+			+ "sla_degradation_due_to_migration,sla_overall,sla_average,host_shutdowns,"
+			+ "mean_time_before_host_shutdown,stdev_time_before_host_shutdown,"
+			+ "mean_time_before_vm_migration,stdev_time_before_vm_migration,execution_time,error";
+
+	/** The writer. */
+	private final BufferedWriter writer;
+
+	/**
+	 * Instantiates a new sink writing to the given file, which is created or overwritten, and
+	 * writes the header.
+	 *
+	 * @param outputPath the path of the CSV file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public ExperimentResultCsvSink(String outputPath) throws IOException {
+		File folder = new File(outputPath).getAbsoluteFile().getParentFile();
+		if (!folder.exists()) {
+			folder.mkdirs();
+		}
+		writer = new BufferedWriter(new FileWriter(outputPath));
+		writer.write(HEADER);
+		writer.newLine();
+		writer.flush();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.examples.power.ExperimentResultSink#add(org.cloudbus.cloudsim.examples.power.ExperimentResult)
+	 */
+	@Override
+	public synchronized void add(ExperimentResult result) {
+		Experiment experiment = result.getExperiment();
+		StringBuilder data = new StringBuilder();
+		data.append(experiment.getName() + DELIMETER);
+		data.append(experiment.getWorkload() + DELIMETER);
+		data.append(experiment.getVmAllocationPolicy() + DELIMETER);
+		data.append(experiment.getVmSelectionPolicy() + DELIMETER);
+		data.append(experiment.getParameter() + DELIMETER);
+		if (result.isFailed()) {
+			for (int i = 0; i < 15; i++) {
+				data.append(DELIMETER);
+			}
+			data.append(format("%.2f", result.getExecutionTime()) + DELIMETER);
+			data.append(String.valueOf(result.getError()).replace(DELIMETER, ";").replace('\n', ' '));
+		} else {
+			data.append(format("%d", result.getNumberOfHosts()) + DELIMETER);
+			data.append(format("%d", result.getNumberOfVms()) + DELIMETER);
+			data.append(format("%.2f", result.getTotalSimulationTime()) + DELIMETER);
+			data.append(format("%.5f", result.getEnergy()) + DELIMETER);
+			data.append(format("%d", result.getNumberOfMigrations()) + DELIMETER);
+			data.append(format("%.10f", result.getSla()) + DELIMETER);
+			data.append(format("%.10f", result.getSlaTimePerActiveHost()) + DELIMETER);
+			data.append(format("%.10f", result.getSlaDegradationDueToMigration()) + DELIMETER);
+			data.append(format("%.10f", result.getSlaOverall()) + DELIMETER);
+			data.append(format("%.10f", result.getSlaAverage()) + DELIMETER);
+			data.append(format("%d", result.getNumberOfHostShutdowns()) + DELIMETER);
+			data.append(format("%.2f", result.getMeanTimeBeforeHostShutdown()) + DELIMETER);
+			data.append(format("%.2f", result.getStDevTimeBeforeHostShutdown()) + DELIMETER);
+			data.append(format("%.2f", result.getMeanTimeBeforeVmMigration()) + DELIMETER);
+			data.append(format("%.2f", result.getStDevTimeBeforeVmMigration()) + DELIMETER);
+			data.append(format("%.2f", result.getExecutionTime()) + DELIMETER);
+		}
+		try {
+			writer.write(data.toString());
+			writer.newLine();
+			writer.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException("Could not write the result of " + experiment.getName(), e);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.examples.power.ExperimentResultSink#close()
+	 */
+	@Override
+	public synchronized void close() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Formats a value independently of the default locale, so that the decimal separator is not
+	 * the delimeter.
+	 *
+	 * @param format the format
+	 * @param value the value
+	 * @return the formatted value
+	 */
+	private static String format(String format, Object value) {
+		return String.format(Locale.US, format, value);
+	}
+
+}
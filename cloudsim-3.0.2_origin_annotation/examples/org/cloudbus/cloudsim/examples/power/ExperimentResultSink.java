@@ -0,0 +1,24 @@
+package org.cloudbus.cloudsim.examples.power;
+
+/**
+ * The destination of the results of the experiments run by an {@link ExperimentRunner}. The
+ * results are added as the experiments finish, by the threads that ran them, so the
+ * implementations have to be thread-safe.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public interface ExperimentResultSink {
+
+	/**
+	 * Adds the result of an experiment.
+	 *
+	 * @param result the result
+	 */
+	void add(ExperimentResult result);
+
+	/**
+	 * Called once all the experiments have finished.
+	 */
+	void close();
+
+}
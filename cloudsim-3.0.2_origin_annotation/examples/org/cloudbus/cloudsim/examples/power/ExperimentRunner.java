@@ -0,0 +1,212 @@
+package org.cloudbus.cloudsim.examples.power;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.power.PowerDatacenter;
+import org.cloudbus.cloudsim.power.PowerDatacenterBroker;
+import org.cloudbus.cloudsim.power.PowerHost;
+
+/**
+ * Runs the experiments of an {@link ExperimentMatrix} concurrently in one JVM, on a bounded pool of
+ * threads. Each experiment is simulated as by {@link RunnerAbstract}, in its own simulation bound
+ * to the thread that runs it, and its result is added to an {@link ExperimentResultSink} as soon as
+ * it finishes. An experiment that fails is reported to the sink with its error instead of
+ * stopping the JVM. The log is disabled while the experiments run, since it is shared by all the
+ * simulations.
+ *
+ * If you are using any algorithms, policies or workload included in the power package, please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public abstract class ExperimentRunner {
+
+	/** The number of threads. */
+	private final int numberOfThreads;
+
+	/**
+	 * Instantiates a new experiment runner.
+	 *
+	 * @param numberOfThreads the maximum number of experiments run concurrently
+	 */
+	public ExperimentRunner(int numberOfThreads) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("The number of threads must be positive.");
+		}
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * Creates the cloudlets of a workload, one per VM.
+	 *
+	 * @param brokerId the broker id
+	 * @param workload the workload
+	 * @return the cloudlets
+	 * @throws Exception if the workload can't be read
+	 */
+	protected abstract List<Cloudlet> createCloudletList(int brokerId, String workload) throws Exception;
+
+	/**
+	 * Gets the number of hosts of the datacenter.
+	 *
+	 * @return the number of hosts
+	 */
+	protected abstract int getNumberOfHosts();
+
+	/**
+	 * Runs the experiments and adds their results to the sink, which is closed once all the
+	 * experiments have finished.
+	 *
+	 * @param experiments the experiments
+	 * @param sink the sink of the results
+	 * @return the results, in the order of the experiments
+	 * @throws InterruptedException if the thread is interrupted while waiting for the experiments
+	 */
+	public List<ExperimentResult> run(List<Experiment> experiments, final ExperimentResultSink sink)
+			throws InterruptedException {
+		boolean logDisabled = Log.isDisabled();
+		Log.disable();
+
+		ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads);
+		try {
+			List<Future<ExperimentResult>> futures = new ArrayList<Future<ExperimentResult>>();
+			for (final Experiment experiment : experiments) {
+				futures.add(executor.submit(new Callable<ExperimentResult>() {
+
+					@Override
+					public ExperimentResult call() {
+						ExperimentResult result = runExperiment(experiment);
+						sink.add(result);
+						return result;
+					}
+				}));
+			}
+
+			List<ExperimentResult> results = new ArrayList<ExperimentResult>();
+			for (Future<ExperimentResult> future : futures) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					}
+					if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw new IllegalStateException(cause);
+				}
+			}
+			return results;
+		} finally {
+			executor.shutdownNow();
+			sink.close();
+			Log.setDisabled(logDisabled);
+		}
+	}
+
+	/**
+	 * Simulates an experiment in the current thread.
+	 *
+	 * @param experiment the experiment
+	 * @return the result of the experiment
+	 */
+	protected ExperimentResult runExperiment(Experiment experiment) {
+		long start = System.nanoTime();
+		try {
+			CloudSim.init(1, Calendar.getInstance(), false);
+
+			DatacenterBroker broker = new ExperimentBroker();
+			int brokerId = broker.getId();
+
+			List<Cloudlet> cloudletList = createCloudletList(brokerId, experiment.getWorkload());
+			List<Vm> vmList = Helper.createVmList(brokerId, cloudletList.size());
+			List<PowerHost> hostList = Helper.createHostList(getNumberOfHosts());
+
+			VmAllocationPolicy vmAllocationPolicy = Helper.createVmAllocationPolicy(
+					hostList,
+					experiment.getVmAllocationPolicy(),
+					experiment.getVmSelectionPolicy(),
+					experiment.getParameter());
+			PowerDatacenter datacenter = (PowerDatacenter) Helper.createDatacenter(
+					"Datacenter",
+					PowerDatacenter.class,
+					hostList,
+					vmAllocationPolicy);
+			datacenter.setDisableMigrations(false);
+
+			broker.submitVmList(vmList);
+			broker.submitCloudletList(cloudletList);
+
+			CloudSim.terminateSimulation(Constants.SIMULATION_LIMIT);
+			double lastClock = CloudSim.startSimulation();
+			CloudSim.stopSimulation();
+
+			return new ExperimentResult(experiment, datacenter, vmList, lastClock, getExecutionTime(start));
+		} catch (Exception e) {
+			return new ExperimentResult(experiment, e, getExecutionTime(start));
+		}
+	}
+
+	/**
+	 * Gets the wall clock time elapsed since the given time.
+	 *
+	 * @param start the start time returned by {@link System#nanoTime()}
+	 * @return the elapsed time in seconds
+	 */
+	private static double getExecutionTime(long start) {
+		return (System.nanoTime() - start) / 1E9;
+	}
+
+	/**
+	 * A power datacenter broker that fails the experiment when a VM can't be created, instead of
+	 * stopping the JVM as {@link PowerDatacenterBroker} does.
+	 */
+	private static class ExperimentBroker extends PowerDatacenterBroker {
+
+		/**
+		 * Instantiates a new experiment broker.
+		 *
+		 * @throws Exception the exception
+		 */
+		public ExperimentBroker() throws Exception {
+			super("Broker");
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.cloudbus.cloudsim.power.PowerDatacenterBroker#processVmCreate(org.cloudbus.cloudsim.core.SimEvent)
+		 */
+		@Override
+		protected void processVmCreate(SimEvent ev) {
+			int[] data = (int[]) ev.getData();
+			if (data[2] != CloudSimTags.TRUE) {
+				throw new IllegalStateException("Creation of VM #" + data[1] + " failed in Datacenter #"
+						+ data[0]);
+			}
+			super.processVmCreate(ev);
+		}
+
+	}
+
+}
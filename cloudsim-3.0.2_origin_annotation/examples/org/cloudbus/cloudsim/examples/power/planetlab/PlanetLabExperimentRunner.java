@@ -0,0 +1,135 @@
+package org.cloudbus.cloudsim.examples.power.planetlab;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.examples.power.Experiment;
+import org.cloudbus.cloudsim.examples.power.ExperimentMatrix;
+import org.cloudbus.cloudsim.examples.power.ExperimentResultCsvSink;
+import org.cloudbus.cloudsim.examples.power.ExperimentRunner;
+import org.cloudbus.cloudsim.util.PlanetLabTraceStore;
+
+/**
+ * Runs a matrix of experiments on the PlanetLab workload concurrently. Each workload folder is
+ * converted once into a {@link PlanetLabTraceStore} in the trace folder, which is reused by the
+ * later runs as long as it is newer than the workload folder. The store is mapped once and shared
+ * by all the experiments of the workload.
+ *
+ * If you are using any algorithms, policies or workload included in the power package please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PlanetLabExperimentRunner extends ExperimentRunner {
+
+	/** The input folder. */
+	private final String inputFolder;
+
+	/** The folder of the trace stores. */
+	private final String traceFolder;
+
+	/** The number of hosts. */
+	private final int numberOfHosts;
+
+	/**
+	 * Instantiates a new PlanetLab experiment runner.
+	 *
+	 * @param inputFolder the folder of the PlanetLab workloads
+	 * @param traceFolder the folder of the trace stores converted from the workloads
+	 * @param numberOfHosts the number of hosts of the datacenter
+	 * @param numberOfThreads the maximum number of experiments run concurrently
+	 */
+	public PlanetLabExperimentRunner(
+			String inputFolder,
+			String traceFolder,
+			int numberOfHosts,
+			int numberOfThreads) {
+		super(numberOfThreads);
+		this.inputFolder = inputFolder;
+		this.traceFolder = traceFolder;
+		this.numberOfHosts = numberOfHosts;
+	}
+
+	/**
+	 * Runs the default matrix of experiments on the given PlanetLab workloads, or on all of them
+	 * if none is given, and writes the results to output/planetlab_experiments.csv. The trace stores
+	 * are kept in output/traces. The number of
+	 * hosts defaults to {@link PlanetLabConstants#NUMBER_OF_HOSTS} and can be set with the
+	 * planetlab.hosts system property.
+	 *
+	 * @param args the workloads
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws InterruptedException if the thread is interrupted
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		String inputFolder = PlanetLabExperimentRunner.class.getClassLoader().getResource("workload/planetlab").getPath();
+		String outputPath = "output/planetlab_experiments.csv";
+		String traceFolder = "output/traces";
+		int numberOfHosts = Integer.getInteger("planetlab.hosts", PlanetLabConstants.NUMBER_OF_HOSTS);
+		int numberOfThreads = Runtime.getRuntime().availableProcessors();
+
+		String[] workloads = args;
+		if (workloads.length == 0) {
+			workloads = new File(inputFolder).list();
+			Arrays.sort(workloads);
+		}
+
+		List<Experiment> experiments = ExperimentMatrix.getDefaultMatrix(workloads).getExperiments();
+		System.out.println("Running " + experiments.size() + " experiments on " + numberOfThreads + " threads");
+
+		long start = System.nanoTime();
+		new PlanetLabExperimentRunner(
+				inputFolder,
+				traceFolder,
+				numberOfHosts,
+				numberOfThreads).run(
+				experiments,
+				new ExperimentResultCsvSink(outputPath));
+		System.out.println(String.format(
+				"Finished in %.2f sec, results written to %s",
+				(System.nanoTime() - start) / 1E9,
+				outputPath));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.examples.power.ExperimentRunner#createCloudletList(int, java.lang.String)
+	 */
+	@Override
+	protected List<Cloudlet> createCloudletList(int brokerId, String workload) throws IOException {
+		return PlanetLabHelper.createCloudletListPlanetLab(brokerId, getTraceStore(workload));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.examples.power.ExperimentRunner#getNumberOfHosts()
+	 */
+	@Override
+	protected int getNumberOfHosts() {
+		return numberOfHosts;
+	}
+
+	/**
+	 * Gets the trace store of a workload, converting the workload folder if the store is outdated,
+	 * see {@link PlanetLabTraceStore#isOutdated(String, String)}. The conversion is done by the first thread that needs the
+	 * store while the other threads wait for it.
+	 *
+	 * @param workload the workload
+	 * @return the trace store
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	private synchronized PlanetLabTraceStore getTraceStore(String workload) throws IOException {
+		File workloadFolder = new File(inputFolder, workload);
+		File store = new File(traceFolder, workload + ".trace");
+		return PlanetLabTraceStore.openWorkload(workloadFolder.getPath(), store.getPath());
+	}
+
+}
@@ -2,14 +2,18 @@ package org.cloudbus.cloudsim.examples.power.planetlab;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.UtilizationModel;
 import org.cloudbus.cloudsim.UtilizationModelNull;
 import org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory;
+import org.cloudbus.cloudsim.UtilizationModelPlanetLabMapped;
 import org.cloudbus.cloudsim.examples.power.Constants;
+import org.cloudbus.cloudsim.util.PlanetLabTraceStore;
 
 /**
  * A helper class for the running examples for the PlanetLab workload.
@@ -27,8 +31,33 @@ import org.cloudbus.cloudsim.examples.power.Constants;
  */
 public class PlanetLabHelper {
 
+	/** Whether the workload folders are read through their trace store. */
+	private static volatile boolean traceStoreUsed = false;
+
+	/**
+	 * Checks whether the workload folders are read through their trace store.
+	 * 
+	 * @return true, if the trace store is used
+	 */
+	public static boolean isTraceStoreUsed() {
+		return traceStoreUsed;
+	}
+
+	/**
+	 * Sets whether the workload folders are read through their trace store, converted once into
+	 * the temporary directory, see {@link PlanetLabTraceStore#getWorkloadStorePath(String)},
+	 * instead of parsing their trace files. The trace store is not used by default.
+	 * 
+	 * @param traceStoreUsed true, to use the trace store
+	 */
+	public static void setTraceStoreUsed(boolean traceStoreUsed) {
+		PlanetLabHelper.traceStoreUsed = traceStoreUsed;
+	}
+
 	/**
-	 * Creates the cloudlet list planet lab.
+	 * Creates the cloudlet list planet lab. The trace files of the workload folder are parsed,
+	 * unless the trace store is used, see {@link #setTraceStoreUsed(boolean)}; they are then only
+	 * parsed if the store cannot be written.
 	 * 
 	 * @param brokerId the broker id
 	 * @param inputFolderName the input folder name
@@ -37,6 +66,35 @@ public class PlanetLabHelper {
 	 */
 	public static List<Cloudlet> createCloudletListPlanetLab(int brokerId, String inputFolderName)
 			throws FileNotFoundException {
+		if (!isTraceStoreUsed()) {
+			return createCloudletListPlanetLabFromFiles(brokerId, inputFolderName);
+		}
+		try {
+			String storePath = PlanetLabTraceStore.getWorkloadStorePath(inputFolderName);
+			Log.printLine("Reading " + inputFolderName + " through the trace store " + storePath);
+			return createCloudletListPlanetLab(
+					brokerId,
+					PlanetLabTraceStore.openWorkload(inputFolderName, storePath));
+		} catch (FileNotFoundException e) {
+			throw e;
+		} catch (IOException e) {
+			Log.printLine("The trace store of " + inputFolderName + " can't be used: " + e.getMessage());
+		} catch (IllegalArgumentException e) {
+			Log.printLine("The trace store of " + inputFolderName + " can't be used: " + e.getMessage());
+		}
+		return createCloudletListPlanetLabFromFiles(brokerId, inputFolderName);
+	}
+
+	/**
+	 * Creates the cloudlet list planet lab by parsing the trace files of the workload folder.
+	 * 
+	 * @param brokerId the broker id
+	 * @param inputFolderName the input folder name
+	 * @return the list
+	 * @throws FileNotFoundException the file not found exception
+	 */
+	public static List<Cloudlet> createCloudletListPlanetLabFromFiles(int brokerId, String inputFolderName)
+			throws FileNotFoundException {
 		List<Cloudlet> list = new ArrayList<Cloudlet>();//ʵִһб洢
 
 		long fileSize = 300;//ļСΪ300
@@ -70,4 +128,38 @@ public class PlanetLabHelper {
 		return list;
 	}
 
+	/**
+	 * Creates the cloudlet list of a PlanetLab workload converted into a trace store. The cloudlets
+	 * are the same as the ones created from the workload folder, but their utilization is read from
+	 * the store instead of parsing the trace files.
+	 * 
+	 * @param brokerId the broker id
+	 * @param store the trace store of the workload
+	 * @return the list
+	 */
+	public static List<Cloudlet> createCloudletListPlanetLab(int brokerId, PlanetLabTraceStore store) {
+		List<Cloudlet> list = new ArrayList<Cloudlet>();
+
+		long fileSize = 300;
+		long outputSize = 300;
+		UtilizationModel utilizationModelNull = new UtilizationModelNull();
+
+		for (int i = 0; i < store.getNumberOfTraces(); i++) {
+			Cloudlet cloudlet = new Cloudlet(
+					i,
+					Constants.CLOUDLET_LENGTH,
+					Constants.CLOUDLET_PES,
+					fileSize,
+					outputSize,
+					new UtilizationModelPlanetLabMapped(store, i, Constants.SCHEDULING_INTERVAL),
+					utilizationModelNull,
+					utilizationModelNull);
+			cloudlet.setUserId(brokerId);
+			cloudlet.setVmId(i);
+			list.add(cloudlet);
+		}
+
+		return list;
+	}
+
 }
@@ -0,0 +1,79 @@
+package org.cloudbus.cloudsim.examples.power.random;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.examples.power.Experiment;
+import org.cloudbus.cloudsim.examples.power.ExperimentMatrix;
+import org.cloudbus.cloudsim.examples.power.ExperimentResultCsvSink;
+import org.cloudbus.cloudsim.examples.power.ExperimentRunner;
+
+/**
+ * Runs a matrix of experiments on the random workload concurrently. The stochastic utilization
+ * models keep the history of the generated utilization, so each experiment creates its own
+ * workload from the seed of {@link RandomConstants}.
+ *
+ * If you are using any algorithms, policies or workload included in the power package please cite
+ * the following paper:
+ *
+ * Anton Beloglazov, and Rajkumar Buyya, "Optimal Online Deterministic Algorithms and Adaptive
+ * Heuristics for Energy and Performance Efficient Dynamic Consolidation of Virtual Machines in
+ * Cloud Data Centers", Concurrency and Computation: Practice and Experience (CCPE), Volume 24,
+ * Issue 13, Pages: 1397-1420, John Wiley & Sons, Ltd, New York, USA, 2012
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class RandomExperimentRunner extends ExperimentRunner {
+
+	/**
+	 * Instantiates a new random experiment runner.
+	 *
+	 * @param numberOfThreads the maximum number of experiments run concurrently
+	 */
+	public RandomExperimentRunner(int numberOfThreads) {
+		super(numberOfThreads);
+	}
+
+	/**
+	 * Runs the default matrix of experiments on the random workload and writes the results to
+	 * output/random_experiments.csv.
+	 *
+	 * @param args the arguments
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws InterruptedException if the thread is interrupted
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		String outputPath = "output/random_experiments.csv";
+		int numberOfThreads = Runtime.getRuntime().availableProcessors();
+
+		List<Experiment> experiments = ExperimentMatrix.getDefaultMatrix("random").getExperiments();
+		System.out.println("Running " + experiments.size() + " experiments on " + numberOfThreads + " threads");
+
+		long start = System.nanoTime();
+		new RandomExperimentRunner(numberOfThreads).run(experiments, new ExperimentResultCsvSink(outputPath));
+		System.out.println(String.format(
+				"Finished in %.2f sec, results written to %s",
+				(System.nanoTime() - start) / 1E9,
+				outputPath));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.examples.power.ExperimentRunner#createCloudletList(int, java.lang.String)
+	 */
+	@Override
+	protected List<Cloudlet> createCloudletList(int brokerId, String workload) {
+		return RandomHelper.createCloudletList(brokerId, RandomConstants.NUMBER_OF_VMS);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.examples.power.ExperimentRunner#getNumberOfHosts()
+	 */
+	@Override
+	protected int getNumberOfHosts() {
+		return RandomConstants.NUMBER_OF_HOSTS;
+	}
+
+}
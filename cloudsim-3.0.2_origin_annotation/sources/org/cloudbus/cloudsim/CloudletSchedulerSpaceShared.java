@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.lists.ResCloudletList;
 
 /**
  * CloudletSchedulerSpaceShared implements a policy of scheduling performed by a virtual machine. It
@@ -53,10 +54,10 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	 */
 	public CloudletSchedulerSpaceShared() {
 		super();
-		cloudletWaitingList = new ArrayList<ResCloudlet>();
-		cloudletExecList = new ArrayList<ResCloudlet>();
-		cloudletPausedList = new ArrayList<ResCloudlet>();
-		cloudletFinishedList = new ArrayList<ResCloudlet>();
+		cloudletWaitingList = ResCloudletList.<ResCloudlet> createIndexedList();
+		cloudletExecList = ResCloudletList.<ResCloudlet> createIndexedList();
+		cloudletPausedList = ResCloudletList.<ResCloudlet> createIndexedList();
+		cloudletFinishedList = ResCloudletList.<ResCloudlet> createIndexedList();
 		usedPes = 0;
 		currentCpus = 0;
 	}
@@ -158,41 +159,35 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	@Override
 	public Cloudlet cloudletCancel(int cloudletId) {
 		// First, looks in the finished queue
-		for (ResCloudlet rcl : getCloudletFinishedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				getCloudletFinishedList().remove(rcl);
-				return rcl.getCloudlet();
-			}
+		int position = ResCloudletList.getPositionById(getCloudletFinishedList(), cloudletId);
+		if (position >= 0) {
+			return getCloudletFinishedList().remove(position).getCloudlet();
 		}
 
 		// Then searches in the exec list
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				getCloudletExecList().remove(rcl);
-				if (rcl.getRemainingCloudletLength() == 0) {
-					cloudletFinish(rcl);
-				} else {
-					rcl.setCloudletStatus(Cloudlet.CANCELED);
-				}
-				return rcl.getCloudlet();
+		position = ResCloudletList.getPositionById(getCloudletExecList(), cloudletId);
+		if (position >= 0) {
+			ResCloudlet rcl = getCloudletExecList().remove(position);
+			if (rcl.getRemainingCloudletLength() == 0) {
+				cloudletFinish(rcl);
+			} else {
+				rcl.setCloudletStatus(Cloudlet.CANCELED);
 			}
+			return rcl.getCloudlet();
 		}
 
 		// Now, looks in the paused queue
-		for (ResCloudlet rcl : getCloudletPausedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				getCloudletPausedList().remove(rcl);
-				return rcl.getCloudlet();
-			}
+		position = ResCloudletList.getPositionById(getCloudletPausedList(), cloudletId);
+		if (position >= 0) {
+			return getCloudletPausedList().remove(position).getCloudlet();
 		}
 
 		// Finally, looks in the waiting list
-		for (ResCloudlet rcl : getCloudletWaitingList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				rcl.setCloudletStatus(Cloudlet.CANCELED);
-				getCloudletWaitingList().remove(rcl);
-				return rcl.getCloudlet();
-			}
+		position = ResCloudletList.getPositionById(getCloudletWaitingList(), cloudletId);
+		if (position >= 0) {
+			ResCloudlet rcl = getCloudletWaitingList().remove(position);
+			rcl.setCloudletStatus(Cloudlet.CANCELED);
+			return rcl.getCloudlet();
 		}
 
 		return null;
@@ -209,17 +204,9 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	 */
 	@Override
 	public boolean cloudletPause(int cloudletId) {
-		boolean found = false;
-		int position = 0;
-
 		// first, looks for the cloudlet in the exec list
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				break;
-			}
-			position++;
-		}
+		int position = ResCloudletList.getPositionById(getCloudletExecList(), cloudletId);
+		boolean found = position >= 0;
 
 		if (found) {
 			// moves to the paused list
@@ -235,15 +222,8 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 		}
 
 		// now, look for the cloudlet in the waiting list
-		position = 0;
-		found = false;
-		for (ResCloudlet rcl : getCloudletWaitingList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				break;
-			}
-			position++;
-		}
+		position = ResCloudletList.getPositionById(getCloudletWaitingList(), cloudletId);
+		found = position >= 0;
 
 		if (found) {
 			// moves to the paused list
@@ -286,17 +266,9 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	 */
 	@Override
 	public double cloudletResume(int cloudletId) {
-		boolean found = false;
-		int position = 0;
-
 		// look for the cloudlet in the paused list
-		for (ResCloudlet rcl : getCloudletPausedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				break;
-			}
-			position++;
-		}
+		int position = ResCloudletList.getPositionById(getCloudletPausedList(), cloudletId);
+		boolean found = position >= 0;
 
 		if (found) {
 			ResCloudlet rcl = getCloudletPausedList().remove(position);
@@ -418,22 +390,19 @@ public class CloudletSchedulerSpaceShared extends CloudletScheduler {
 	 */
 	@Override
 	public int getCloudletStatus(int cloudletId) {
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				return rcl.getCloudletStatus();
-			}
+		int position = ResCloudletList.getPositionById(getCloudletExecList(), cloudletId);
+		if (position >= 0) {
+			return getCloudletExecList().get(position).getCloudletStatus();
 		}
 
-		for (ResCloudlet rcl : getCloudletPausedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				return rcl.getCloudletStatus();
-			}
+		position = ResCloudletList.getPositionById(getCloudletPausedList(), cloudletId);
+		if (position >= 0) {
+			return getCloudletPausedList().get(position).getCloudletStatus();
 		}
 
-		for (ResCloudlet rcl : getCloudletWaitingList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				return rcl.getCloudletStatus();
-			}
+		position = ResCloudletList.getPositionById(getCloudletWaitingList(), cloudletId);
+		if (position >= 0) {
+			return getCloudletWaitingList().get(position).getCloudletStatus();
 		}
 
 		return -1;
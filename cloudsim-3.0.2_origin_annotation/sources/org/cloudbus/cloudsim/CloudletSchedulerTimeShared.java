@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.lists.ResCloudletList;
 
 /**
  * CloudletSchedulerTimeShared implements a policy of scheduling performed by a virtual machine.
@@ -43,9 +44,9 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	public CloudletSchedulerTimeShared() {
 		super();
-		cloudletExecList = new ArrayList<ResCloudlet>();//ȴִб
-		cloudletPausedList = new ArrayList<ResCloudlet>();//ȴͣб
-		cloudletFinishedList = new ArrayList<ResCloudlet>();//ȴб
+		cloudletExecList = ResCloudletList.<ResCloudlet> createIndexedList();//ȴִб
+		cloudletPausedList = ResCloudletList.<ResCloudlet> createIndexedList();//ȴͣб
+		cloudletFinishedList = ResCloudletList.<ResCloudlet> createIndexedList();//ȴб
 		currentCPUs = 0;//ǰcpuΪ0
 	}
 
@@ -143,32 +144,17 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	@Override
 	public Cloudlet cloudletCancel(int cloudletId) {
-		boolean found = false;
-		int position = 0;
-
 		// First, looks in the finished queue
-		found = false;
-		for (ResCloudlet rcl : getCloudletFinishedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				break;
-			}
-			position++;
-		}
+		int position = ResCloudletList.getPositionById(getCloudletFinishedList(), cloudletId);
+		boolean found = position >= 0;
 
 		if (found) {
 			return getCloudletFinishedList().remove(position).getCloudlet();
 		}
 
 		// Then searches in the exec list
-		position=0;
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				break;
-			}
-			position++;
-		}
+		position = ResCloudletList.getPositionById(getCloudletExecList(), cloudletId);
+		found = position >= 0;
 
 		if (found) {
 			ResCloudlet rcl = getCloudletExecList().remove(position);
@@ -181,19 +167,13 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 		}
 
 		// Now, looks in the paused queue
-		found = false;
-		position=0;
-		for (ResCloudlet rcl : getCloudletPausedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				rcl.setCloudletStatus(Cloudlet.CANCELED);
-				break;
-			}
-			position++;
-		}
+		position = ResCloudletList.getPositionById(getCloudletPausedList(), cloudletId);
+		found = position >= 0;
 
 		if (found) {
-			return getCloudletPausedList().remove(position).getCloudlet();
+			ResCloudlet rcl = getCloudletPausedList().remove(position);
+			rcl.setCloudletStatus(Cloudlet.CANCELED);
+			return rcl.getCloudlet();
 		}
 
 		return null;
@@ -209,16 +189,8 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	@Override
 	public boolean cloudletPause(int cloudletId) {
-		boolean found = false;
-		int position = 0;
-
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				break;
-			}
-			position++;
-		}
+		int position = ResCloudletList.getPositionById(getCloudletExecList(), cloudletId);
+		boolean found = position >= 0;
 
 		if (found) {
 			// remove cloudlet from the exec list and put it in the paused list
@@ -258,17 +230,9 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	@Override
 	public double cloudletResume(int cloudletId) {
-		boolean found = false;
-		int position = 0;
-
 		// look for the cloudlet in the paused list
-		for (ResCloudlet rcl : getCloudletPausedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				found = true;
-				break;
-			}
-			position++;
-		}
+		int position = ResCloudletList.getPositionById(getCloudletPausedList(), cloudletId);
+		boolean found = position >= 0;
 
 		if (found) {
 			ResCloudlet rgl = getCloudletPausedList().remove(position);
@@ -335,15 +299,13 @@ public class CloudletSchedulerTimeShared extends CloudletScheduler {
 	 */
 	@Override
 	public int getCloudletStatus(int cloudletId) {
-		for (ResCloudlet rcl : getCloudletExecList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				return rcl.getCloudletStatus();
-			}
+		int position = ResCloudletList.getPositionById(getCloudletExecList(), cloudletId);
+		if (position >= 0) {
+			return getCloudletExecList().get(position).getCloudletStatus();
 		}
-		for (ResCloudlet rcl : getCloudletPausedList()) {
-			if (rcl.getCloudletId() == cloudletId) {
-				return rcl.getCloudletStatus();
-			}
+		position = ResCloudletList.getPositionById(getCloudletPausedList(), cloudletId);
+		if (position >= 0) {
+			return getCloudletPausedList().get(position).getCloudletStatus();
 		}
 		return -1;
 	}
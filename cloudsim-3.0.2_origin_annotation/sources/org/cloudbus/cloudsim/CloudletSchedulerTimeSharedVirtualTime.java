@@ -0,0 +1,663 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.lists.ResCloudletList;
+
+/**
+ * CloudletSchedulerTimeSharedVirtualTime implements the same time-shared policy as
+ * {@link CloudletSchedulerTimeShared}, in which all the running cloudlets share the PEs of the VM
+ * and each PE of a cloudlet gets the same capacity, but computes the progress of the cloudlets
+ * analytically instead of updating each of them.
+ * <p>
+ * Since all the running cloudlets progress at the same rate per PE, the scheduler keeps a virtual
+ * time, which is the amount of MI executed so far by each PE of a cloudlet that would have run
+ * since the VM started. A cloudlet submitted at the virtual time <tt>v</tt> finishes when the
+ * virtual time reaches <tt>v</tt> plus its length per PE, which does not change while it runs. The
+ * running cloudlets are kept in a binary min-heap ordered by this virtual finish time, so that
+ * advancing the time is constant, and finding the next cloudlet to finish and removing the finished
+ * ones are logarithmic in the number of cloudlets. The progress of a cloudlet is only computed when
+ * it leaves the scheduler. This makes a difference for VMs running many small cloudlets.
+ * <p>
+ * The results are the same as with {@link CloudletSchedulerTimeShared} except for rounding, since
+ * the latter truncates the progress of each cloudlet to whole instructions at each update.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see CloudletSchedulerTimeShared
+ */
+public class CloudletSchedulerTimeSharedVirtualTime extends CloudletScheduler {
+
+	/** The running cloudlets, by cloudlet id, in the order of submission. */
+	private final Map<Integer, Entry> cloudletExecMap;
+
+	/** The heap of the running cloudlets, ordered by virtual finish time. */
+	private Entry[] heap;
+
+	/** The number of running cloudlets. */
+	private int size;
+
+	/** The cloudlet paused list. */
+	private List<ResCloudlet> cloudletPausedList;
+
+	/** The cloudlet finished list. */
+	private List<ResCloudlet> cloudletFinishedList;
+
+	/** The virtual time, i.e. the MI executed so far by each PE of a running cloudlet. */
+	private double virtualTime;
+
+	/** The number of PEs used by the running cloudlets. */
+	private int pesInUse;
+
+	/** The number of submitted cloudlets, used to keep the order of submission. */
+	private long submissions;
+
+	/** The current cp us. */
+	protected int currentCPUs;
+
+	/**
+	 * Creates a new CloudletSchedulerTimeSharedVirtualTime object. This method must be invoked
+	 * before starting the actual simulation.
+	 *
+	 * @pre $none
+	 * @post $none
+	 */
+	public CloudletSchedulerTimeSharedVirtualTime() {
+		super();
+		cloudletExecMap = new LinkedHashMap<Integer, Entry>();
+		heap = new Entry[16];
+		size = 0;
+		cloudletPausedList = ResCloudletList.<ResCloudlet> createIndexedList();
+		cloudletFinishedList = ResCloudletList.<ResCloudlet> createIndexedList();
+		virtualTime = 0;
+		pesInUse = 0;
+		submissions = 0;
+		currentCPUs = 0;
+	}
+
+	/**
+	 * Updates the processing of cloudlets running under management of this scheduler.
+	 *
+	 * @param currentTime current simulation time
+	 * @param mipsShare array with MIPS share of each processor available to the scheduler
+	 * @return time predicted completion time of the earliest finishing cloudlet, or 0 if there is
+	 *         no next events
+	 * @pre currentTime >= 0
+	 * @post $none
+	 */
+	@Override
+	public double updateVmProcessing(double currentTime, List<Double> mipsShare) {
+		setCurrentMipsShare(mipsShare);
+		double timeSpam = currentTime - getPreviousTime();
+		virtualTime += getCapacity(mipsShare) * timeSpam;
+
+		if (size == 0) {
+			setPreviousTime(currentTime);
+			return 0.0;
+		}
+
+		// check finished cloudlets
+		if (isFinished(heap[0])) {
+			List<Entry> finished = new ArrayList<Entry>();
+			while (size > 0 && isFinished(heap[0])) {
+				Entry entry = heap[0];
+				remove(entry);
+				finished.add(entry);
+			}
+			// the cloudlets finished at the same update are returned in the order of submission
+			Collections.sort(finished, SUBMISSION_ORDER);
+			for (Entry entry : finished) {
+				cloudletFinish(entry.rcl);
+			}
+		}
+
+		// estimate finish time of the next cloudlet
+		double nextEvent = Double.MAX_VALUE;
+		double capacity = getCapacity(mipsShare);
+		if (size > 0 && capacity > 0) {
+			// as in the time-shared scheduler, the estimate is based on the remaining whole MI
+			Entry entry = heap[0];
+			double remainingLength = Math.floor((entry.virtualFinishTime - virtualTime) * entry.rcl.getNumberOfPes());
+			nextEvent = currentTime + remainingLength / (capacity * entry.rcl.getNumberOfPes());
+			if (nextEvent - currentTime < 0.1) {
+				nextEvent = currentTime + 0.1;
+			}
+		}
+
+		setPreviousTime(currentTime);
+		return nextEvent;
+	}
+
+	/**
+	 * Gets the capacity of each PE of a running cloudlet.
+	 *
+	 * @param mipsShare the mips share
+	 * @return the capacity
+	 */
+	protected double getCapacity(List<Double> mipsShare) {
+		double capacity = 0.0;
+		int cpus = 0;
+		for (Double mips : mipsShare) {
+			capacity += mips;
+			if (mips > 0.0) {
+				cpus++;
+			}
+		}
+		currentCPUs = cpus;
+
+		if (pesInUse > currentCPUs) {
+			capacity /= pesInUse;
+		} else {
+			capacity /= currentCPUs;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Cancels execution of a cloudlet.
+	 *
+	 * @param cloudletId ID of the cloudlet being cancealed
+	 * @return the canceled cloudlet, $null if not found
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet cloudletCancel(int cloudletId) {
+		// First, looks in the finished queue
+		ResCloudlet rcl = removeById(getCloudletFinishedList(), cloudletId);
+		if (rcl != null) {
+			return rcl.getCloudlet();
+		}
+
+		// Then searches in the running cloudlets
+		Entry entry = cloudletExecMap.get(cloudletId);
+		if (entry != null) {
+			rcl = stop(entry);
+			if (rcl.getRemainingCloudletLength() == 0) {
+				cloudletFinish(rcl);
+			} else {
+				rcl.setCloudletStatus(Cloudlet.CANCELED);
+			}
+			return rcl.getCloudlet();
+		}
+
+		// Now, looks in the paused queue
+		rcl = removeById(getCloudletPausedList(), cloudletId);
+		if (rcl != null) {
+			rcl.setCloudletStatus(Cloudlet.CANCELED);
+			return rcl.getCloudlet();
+		}
+
+		return null;
+	}
+
+	/**
+	 * Pauses execution of a cloudlet.
+	 *
+	 * @param cloudletId ID of the cloudlet being paused
+	 * @return $true if cloudlet paused, $false otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public boolean cloudletPause(int cloudletId) {
+		Entry entry = cloudletExecMap.get(cloudletId);
+		if (entry == null) {
+			return false;
+		}
+
+		// remove cloudlet from the running cloudlets and put it in the paused list
+		ResCloudlet rcl = stop(entry);
+		if (rcl.getRemainingCloudletLength() == 0) {
+			cloudletFinish(rcl);
+		} else {
+			rcl.setCloudletStatus(Cloudlet.PAUSED);
+			getCloudletPausedList().add(rcl);
+		}
+		return true;
+	}
+
+	/**
+	 * Processes a finished cloudlet.
+	 *
+	 * @param rcl finished cloudlet
+	 * @pre rgl != $null
+	 * @post $none
+	 */
+	@Override
+	public void cloudletFinish(ResCloudlet rcl) {
+		rcl.setCloudletStatus(Cloudlet.SUCCESS);
+		rcl.finalizeCloudlet();
+		getCloudletFinishedList().add(rcl);
+	}
+
+	/**
+	 * Resumes execution of a paused cloudlet.
+	 *
+	 * @param cloudletId ID of the cloudlet being resumed
+	 * @return expected finish time of the cloudlet, 0.0 if queued
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public double cloudletResume(int cloudletId) {
+		ResCloudlet rgl = removeById(getCloudletPausedList(), cloudletId);
+		if (rgl == null) {
+			return 0.0;
+		}
+
+		rgl.setCloudletStatus(Cloudlet.INEXEC);
+		double remainingLength = rgl.getRemainingCloudletLength();
+		start(rgl, remainingLength / rgl.getNumberOfPes());
+
+		// calculate the expected time for cloudlet completion
+		return CloudSim.clock()
+				+ (remainingLength / (getCapacity(getCurrentMipsShare()) * rgl.getNumberOfPes()));
+	}
+
+	/**
+	 * Receives an cloudlet to be executed in the VM managed by this scheduler.
+	 *
+	 * @param cloudlet the submited cloudlet
+	 * @param fileTransferTime time required to move the required files from the SAN to the VM
+	 * @return expected finish time of this cloudlet
+	 * @pre gl != null
+	 * @post $none
+	 */
+	@Override
+	public double cloudletSubmit(Cloudlet cloudlet, double fileTransferTime) {
+		ResCloudlet rcl = new ResCloudlet(cloudlet);
+		rcl.setCloudletStatus(Cloudlet.INEXEC);
+		for (int i = 0; i < cloudlet.getNumberOfPes(); i++) {
+			rcl.setMachineAndPeId(0, i);
+		}
+
+		// the cloudlet is counted before the capacity is computed, as in the time-shared scheduler
+		pesInUse += cloudlet.getNumberOfPes();
+
+		// use the current capacity to estimate the extra amount of
+		// time to file transferring. It must be added to the cloudlet length
+		double extraSize = getCapacity(getCurrentMipsShare()) * fileTransferTime;
+		long length = (long) (cloudlet.getCloudletLength() + extraSize);
+		cloudlet.setCloudletLength(length);
+
+		pesInUse -= cloudlet.getNumberOfPes();
+		start(rcl, cloudlet.getCloudletLength());
+
+		return cloudlet.getCloudletLength() / getCapacity(getCurrentMipsShare());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#cloudletSubmit(cloudsim.Cloudlet)
+	 */
+	@Override
+	public double cloudletSubmit(Cloudlet cloudlet) {
+		return cloudletSubmit(cloudlet, 0.0);
+	}
+
+	/**
+	 * Gets the status of a cloudlet.
+	 *
+	 * @param cloudletId ID of the cloudlet
+	 * @return status of the cloudlet, -1 if cloudlet not found
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public int getCloudletStatus(int cloudletId) {
+		Entry entry = cloudletExecMap.get(cloudletId);
+		if (entry != null) {
+			return entry.rcl.getCloudletStatus();
+		}
+		int position = ResCloudletList.getPositionById(getCloudletPausedList(), cloudletId);
+		if (position >= 0) {
+			return getCloudletPausedList().get(position).getCloudletStatus();
+		}
+		return -1;
+	}
+
+	/**
+	 * Get utilization created by all cloudlets.
+	 *
+	 * @param time the time
+	 * @return total utilization
+	 */
+	@Override
+	public double getTotalUtilizationOfCpu(double time) {
+		double totalUtilization = 0;
+		for (Entry entry : cloudletExecMap.values()) {
+			totalUtilization += entry.rcl.getCloudlet().getUtilizationOfCpu(time);
+		}
+		return totalUtilization;
+	}
+
+	/**
+	 * Informs about completion of some cloudlet in the VM managed by this scheduler.
+	 *
+	 * @return $true if there is at least one finished cloudlet; $false otherwise
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public boolean isFinishedCloudlets() {
+		return getCloudletFinishedList().size() > 0;
+	}
+
+	/**
+	 * Returns the next cloudlet in the finished list, $null if this list is empty.
+	 *
+	 * @return a finished cloudlet
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet getNextFinishedCloudlet() {
+		if (getCloudletFinishedList().size() > 0) {
+			return getCloudletFinishedList().remove(0).getCloudlet();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the number of cloudlets runnning in the virtual machine.
+	 *
+	 * @return number of cloudlets runnning
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public int runningCloudlets() {
+		return size;
+	}
+
+	/**
+	 * Returns one cloudlet to migrate to another vm, which is the earliest submitted running
+	 * cloudlet.
+	 *
+	 * @return one running cloudlet
+	 * @pre $none
+	 * @post $none
+	 */
+	@Override
+	public Cloudlet migrateCloudlet() {
+		ResCloudlet rgl = stop(cloudletExecMap.values().iterator().next());
+		rgl.finalizeCloudlet();
+		return rgl.getCloudlet();
+	}
+
+	/**
+	 * Gets the cloudlet paused list.
+	 *
+	 * @return the cloudlet paused list
+	 */
+	protected List<ResCloudlet> getCloudletPausedList() {
+		return cloudletPausedList;
+	}
+
+	/**
+	 * Gets the cloudlet finished list.
+	 *
+	 * @return the cloudlet finished list
+	 */
+	protected List<ResCloudlet> getCloudletFinishedList() {
+		return cloudletFinishedList;
+	}
+
+	/**
+	 * Gets the virtual time, i.e. the MI executed so far by each PE of a cloudlet that would have
+	 * run since the VM started.
+	 *
+	 * @return the virtual time
+	 */
+	public double getVirtualTime() {
+		return virtualTime;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getCurrentRequestedMips()
+	 */
+	@Override
+	public List<Double> getCurrentRequestedMips() {
+		List<Double> mipsShare = new ArrayList<Double>();
+		return mipsShare;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getTotalCurrentAvailableMipsForCloudlet(cloudsim.ResCloudlet,
+	 * java.util.List)
+	 */
+	@Override
+	public double getTotalCurrentAvailableMipsForCloudlet(ResCloudlet rcl, List<Double> mipsShare) {
+		return getCapacity(getCurrentMipsShare());
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getTotalCurrentAllocatedMipsForCloudlet(cloudsim.ResCloudlet,
+	 * double)
+	 */
+	@Override
+	public double getTotalCurrentAllocatedMipsForCloudlet(ResCloudlet rcl, double time) {
+		return 0.0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see cloudsim.CloudletScheduler#getTotalCurrentRequestedMipsForCloudlet(cloudsim.ResCloudlet,
+	 * double)
+	 */
+	@Override
+	public double getTotalCurrentRequestedMipsForCloudlet(ResCloudlet rcl, double time) {
+		return 0.0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#getCurrentRequestedUtilizationOfRam()
+	 */
+	@Override
+	public double getCurrentRequestedUtilizationOfRam() {
+		double ram = 0;
+		for (Entry entry : cloudletExecMap.values()) {
+			ram += entry.rcl.getCloudlet().getUtilizationOfRam(CloudSim.clock());
+		}
+		return ram;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.CloudletScheduler#getCurrentRequestedUtilizationOfBw()
+	 */
+	@Override
+	public double getCurrentRequestedUtilizationOfBw() {
+		double bw = 0;
+		for (Entry entry : cloudletExecMap.values()) {
+			bw += entry.rcl.getCloudlet().getUtilizationOfBw(CloudSim.clock());
+		}
+		return bw;
+	}
+
+	/**
+	 * Starts running a cloudlet.
+	 *
+	 * @param rcl the cloudlet
+	 * @param remainingLengthPerPe the MI remaining to be executed by each PE of the cloudlet
+	 */
+	private void start(ResCloudlet rcl, double remainingLengthPerPe) {
+		Entry entry = new Entry(rcl, virtualTime, virtualTime + remainingLengthPerPe, submissions++);
+		cloudletExecMap.put(rcl.getCloudletId(), entry);
+		pesInUse += rcl.getNumberOfPes();
+		if (size == heap.length) {
+			Entry[] newHeap = new Entry[size * 2];
+			System.arraycopy(heap, 0, newHeap, 0, size);
+			heap = newHeap;
+		}
+		siftUp(size++, entry);
+	}
+
+	/**
+	 * Stops running a cloudlet before it finishes, and records the MI it executed.
+	 *
+	 * @param entry the running cloudlet
+	 * @return the cloudlet
+	 */
+	private ResCloudlet stop(Entry entry) {
+		remove(entry);
+		double executed = (virtualTime - entry.virtualStartTime) * entry.rcl.getNumberOfPes();
+		entry.rcl.updateCloudletFinishedSoFar((long) (executed * Consts.MILLION));
+		return entry.rcl;
+	}
+
+	/**
+	 * Removes a running cloudlet.
+	 *
+	 * @param entry the running cloudlet
+	 */
+	private void remove(Entry entry) {
+		cloudletExecMap.remove(entry.rcl.getCloudletId());
+		pesInUse -= entry.rcl.getNumberOfPes();
+		int index = entry.heapIndex;
+		entry.heapIndex = -1;
+		size--;
+		Entry last = heap[size];
+		heap[size] = null;
+		if (index < size) {
+			siftUp(index, last);
+			siftDown(last.heapIndex, last);
+		}
+	}
+
+	/**
+	 * Checks whether a running cloudlet has less than one MI left to execute, which is when the
+	 * time-shared scheduler considers it finished.
+	 *
+	 * @param entry the running cloudlet
+	 * @return true, if the cloudlet is finished
+	 */
+	private boolean isFinished(Entry entry) {
+		return (entry.virtualFinishTime - virtualTime) * entry.rcl.getNumberOfPes() < 1;
+	}
+
+	/**
+	 * Moves a cloudlet up from the given index of the heap until its parent does not finish later.
+	 *
+	 * @param index the index
+	 * @param entry the cloudlet
+	 */
+	private void siftUp(int index, Entry entry) {
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (heap[parent].virtualFinishTime <= entry.virtualFinishTime) {
+				break;
+			}
+			heap[index] = heap[parent];
+			heap[index].heapIndex = index;
+			index = parent;
+		}
+		heap[index] = entry;
+		entry.heapIndex = index;
+	}
+
+	/**
+	 * Moves a cloudlet down from the given index of the heap until its children do not finish
+	 * earlier.
+	 *
+	 * @param index the index
+	 * @param entry the cloudlet
+	 */
+	private void siftDown(int index, Entry entry) {
+		int half = size >>> 1;
+		while (index < half) {
+			int child = 2 * index + 1;
+			int right = child + 1;
+			if (right < size && heap[right].virtualFinishTime < heap[child].virtualFinishTime) {
+				child = right;
+			}
+			if (entry.virtualFinishTime <= heap[child].virtualFinishTime) {
+				break;
+			}
+			heap[index] = heap[child];
+			heap[index].heapIndex = index;
+			index = child;
+		}
+		heap[index] = entry;
+		entry.heapIndex = index;
+	}
+
+	/**
+	 * Removes a cloudlet from a list.
+	 *
+	 * @param list the list
+	 * @param cloudletId the cloudlet id
+	 * @return the removed cloudlet, or null if it is not in the list
+	 */
+	private static ResCloudlet removeById(List<ResCloudlet> list, int cloudletId) {
+		int position = ResCloudletList.getPositionById(list, cloudletId);
+		return position < 0 ? null : list.remove(position);
+	}
+
+	/** Orders the running cloudlets by submission. */
+	private static final Comparator<Entry> SUBMISSION_ORDER = new Comparator<Entry>() {
+
+		@Override
+		public int compare(Entry entry1, Entry entry2) {
+			return entry1.submission < entry2.submission ? -1 : (entry1.submission == entry2.submission ? 0 : 1);
+		}
+
+	};
+
+	/**
+	 * A running cloudlet.
+	 */
+	private static class Entry {
+
+		/** The cloudlet. */
+		private final ResCloudlet rcl;
+
+		/** The virtual time at which the cloudlet started running. */
+		private final double virtualStartTime;
+
+		/** The virtual time at which the cloudlet finishes. */
+		private final double virtualFinishTime;
+
+		/** The order of submission of the cloudlet. */
+		private final long submission;
+
+		/** The index of the cloudlet in the heap. */
+		private int heapIndex;
+
+		/**
+		 * Instantiates a new running cloudlet.
+		 *
+		 * @param rcl the cloudlet
+		 * @param virtualStartTime the virtual start time
+		 * @param virtualFinishTime the virtual finish time
+		 * @param submission the order of submission
+		 */
+		Entry(ResCloudlet rcl, double virtualStartTime, double virtualFinishTime, long submission) {
+			this.rcl = rcl;
+			this.virtualStartTime = virtualStartTime;
+			this.virtualFinishTime = virtualFinishTime;
+			this.submission = submission;
+			heapIndex = -1;
+		}
+
+	}
+
+}
@@ -57,6 +57,12 @@ public class Datacenter extends SimEntity {
 	/** The scheduling interval. */
 	private double schedulingInterval;
 
+	/** The next completion times of the hosts, or null if the cloudlets are not processed incrementally. */
+	private HostCompletionIndex hostCompletionIndex;
+
+	/** The hosts updated since the completion of their cloudlets was last checked. */
+	private List<Host> updatedHosts;
+
 	/**
 	 * Allocates a new PowerDatacenter object.
 	 * 
@@ -400,13 +406,13 @@ public class Datacenter extends SimEntity {
 				status = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
 						.getCloudletScheduler().getCloudletStatus(cloudletId);
 			} catch (Exception e) {
-				Log.printLine(getName() + ": Error in processing CloudSimTags.CLOUDLET_STATUS");
-				Log.printLine(e.getMessage());
+				Log.printLine(Log.Level.ERROR, getName() + ": Error in processing CloudSimTags.CLOUDLET_STATUS");
+				Log.printLine(Log.Level.ERROR, e.getMessage());
 				return;
 			}
 		} catch (Exception e) {
-			Log.printLine(getName() + ": Error in processing CloudSimTags.CLOUDLET_STATUS");
-			Log.printLine(e.getMessage());
+			Log.printLine(Log.Level.ERROR, getName() + ": Error in processing CloudSimTags.CLOUDLET_STATUS");
+			Log.printLine(Log.Level.ERROR, e.getMessage());
 			return;
 		}
 
@@ -429,7 +435,7 @@ public class Datacenter extends SimEntity {
 	 */
 	protected void processOtherEvent(SimEvent ev) {
 		if (ev == null) {
-			Log.printLine(getName() + ".processOtherEvent(): Error - an event is null.");
+			Log.printLine(Log.Level.ERROR, getName() + ".processOtherEvent(): Error - an event is null.");
 		}
 	}
 
@@ -478,6 +484,7 @@ public class Datacenter extends SimEntity {
 
 			vm.updateVmProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getVmScheduler()
 					.getAllocatedMipsForVm(vm));//Ĵ̡
+			updateHostProcessing(getVmAllocationPolicy().getHost(vm));
 		}
 
 	}
@@ -494,6 +501,7 @@ public class Datacenter extends SimEntity {
 	 */
 	protected void processVmDestroy(SimEvent ev, boolean ack) {
 		Vm vm = (Vm) ev.getData();
+		updateHostProcessing(getVmAllocationPolicy().getHost(vm));
 		getVmAllocationPolicy().deallocateHostForVm(vm);
 
 		if (ack) {
@@ -528,11 +536,14 @@ public class Datacenter extends SimEntity {
 		Vm vm = (Vm) migrate.get("vm");//ͨȡöӦ
 		Host host = (Host) migrate.get("host");//ͨȡöӦĿ
 
+		updateHostProcessing(getVmAllocationPolicy().getHost(vm));
+		updateHostProcessing(host);
+
 		getVmAllocationPolicy().deallocateHostForVm(vm);//PowerVmAllocationPolicyAbstract.java  ֮İ󶨡
 		host.removeMigratingInVm(vm);//ɾǨơprocessVmMigrate(...)ʱҪǰĿġ
 		boolean result = getVmAllocationPolicy().allocateHostForVm(vm, host);
 		if (!result) {
-			Log.printLine("[Datacenter.processVmMigrate] VM allocation to the destination host failed");
+			Log.printLine(Log.Level.ERROR, "[Datacenter.processVmMigrate] VM allocation to the destination host failed");
 			System.exit(0);
 		}
 
@@ -596,13 +607,13 @@ public class Datacenter extends SimEntity {
 				userId = cl.getUserId();
 				vmId = cl.getVmId();
 			} catch (Exception e) {
-				Log.printLine(super.getName() + ": Error in processing Cloudlet");
-				Log.printLine(e.getMessage());
+				Log.printLine(Log.Level.ERROR, super.getName() + ": Error in processing Cloudlet");
+				Log.printLine(Log.Level.ERROR, e.getMessage());
 				return;
 			}
 		} catch (Exception e) {
-			Log.printLine(super.getName() + ": Error in processing a Cloudlet.");
-			Log.printLine(e.getMessage());
+			Log.printLine(Log.Level.ERROR, super.getName() + ": Error in processing a Cloudlet.");
+			Log.printLine(Log.Level.ERROR, e.getMessage());
 			return;
 		}
 
@@ -653,6 +664,7 @@ public class Datacenter extends SimEntity {
 		int destId = array[4];
 
 		// get the cloudlet
+		updateHostProcessing(getVmAllocationPolicy().getHost(vmId, userId));
 		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
 				.getCloudletScheduler().cloudletCancel(cloudletId);
 
@@ -679,6 +691,7 @@ public class Datacenter extends SimEntity {
 				if (vm == null) {
 					failed = true;
 				} else {
+					updateHostProcessing(vm.getHost());
 					// time to transfer the files
 					double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
 					vm.getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
@@ -721,10 +734,12 @@ public class Datacenter extends SimEntity {
 			// checks whether this Cloudlet has finished or not  ȼһǷѾˡ
 			if (cl.isFinished()) {
 				String name = CloudSim.getEntityName(cl.getUserId());//ͨõӦûơ
-				Log.printLine(getName() + ": Warning - Cloudlet #" + cl.getCloudletId() + " owned by " + name
-						+ " is already completed/finished.");
-				Log.printLine("Therefore, it is not being executed again");
-				Log.printLine();
+				if (Log.isEnabled(Log.Level.WARNING)) {
+					Log.printLine(Log.Level.WARNING, getName() + ": Warning - Cloudlet #" + cl.getCloudletId()
+							+ " owned by " + name + " is already completed/finished.");
+					Log.printLine(Log.Level.WARNING, "Therefore, it is not being executed again");
+					Log.printLine(Log.Level.WARNING);
+				}
 
 				// NOTE: If a Cloudlet has finished, then it won't be processed.ʼǣһѾɣô
 				// So, if ack is required, this method sends back a result.ˣӦǱģһ
@@ -760,6 +775,7 @@ public class Datacenter extends SimEntity {
 			Host host = getVmAllocationPolicy().getHost(vmId, userId);//
 			Vm vm = host.getVm(vmId, userId);//
 			CloudletScheduler scheduler = vm.getCloudletScheduler();
+			updateHostProcessing(host);
 			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);//
 
 			// if this cloudlet is in the exec queue ִж
@@ -781,10 +797,10 @@ public class Datacenter extends SimEntity {
 				sendNow(cl.getUserId(), tag, data);//cl.getUserIdֵdestĿʵIDDatacenterIDΪԴID
 			}
 		} catch (ClassCastException c) {
-			Log.printLine(getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
+			Log.printLine(Log.Level.ERROR, getName() + ".processCloudletSubmit(): " + "ClassCastException error.");
 			c.printStackTrace();
 		} catch (Exception e) {
-			Log.printLine(getName() + ".processCloudletSubmit(): " + "Exception error.");
+			Log.printLine(Log.Level.ERROR, getName() + ".processCloudletSubmit(): " + "Exception error.");
 			e.printStackTrace();
 		}
 
@@ -826,6 +842,7 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletResume(int cloudletId, int userId, int vmId, boolean ack) {
+		updateHostProcessing(getVmAllocationPolicy().getHost(vmId, userId));
 		double eventTime = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
 				.getCloudletScheduler().cloudletResume(cloudletId);
 
@@ -861,6 +878,7 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletPause(int cloudletId, int userId, int vmId, boolean ack) {
+		updateHostProcessing(getVmAllocationPolicy().getHost(vmId, userId));
 		boolean status = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
 				.getCloudletScheduler().cloudletPause(cloudletId);
 
@@ -887,6 +905,7 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletCancel(int cloudletId, int userId, int vmId) {
+		updateHostProcessing(getVmAllocationPolicy().getHost(vmId, userId));
 		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getVm(vmId,userId)
 				.getCloudletScheduler().cloudletCancel(cloudletId);
 		sendNow(userId, CloudSimTags.CLOUDLET_CANCEL, cl);
@@ -895,28 +914,45 @@ public class Datacenter extends SimEntity {
 	/**
 	 * Updates processing of each cloudlet running in this PowerDatacenter. It is necessary because
 	 * Hosts and VirtualMachines are simple objects, not entities. So, they don't receive events and
-	 * updating cloudlets inside them must be called from the outside.
+	 * updating cloudlets inside them must be called from the outside. If the cloudlets are
+	 * processed incrementally, only the hosts that have changed or whose next cloudlet is due are
+	 * updated.
 	 * 
 	 * @pre $none
 	 * @post $none
+	 * @see #setIncrementalProcessing(boolean)
 	 */
 	protected void updateCloudletProcessing() {
 		// if some time passed since last processing
 		// R: for term is to allow loop at simulation start. Otherwise, one initial
 		// simulation step is skipped and schedulers are not properly initialized
 		if (CloudSim.clock() < 0.111 || CloudSim.clock() > getLastProcessTime() + 0.1) {
-			List<? extends Host> list = getVmAllocationPolicy().getHostList();
+			List<? extends Host> list;
+			if (isIncrementalProcessing()) {
+				// the hosts due within the minimal interval between two updates are updated now
+				list = hostCompletionIndex.pollHostsToUpdate(CloudSim.clock() + 0.1);
+			} else {
+				list = getVmAllocationPolicy().getHostList();
+			}
 			double smallerTime = Double.MAX_VALUE;
 			// for each host...
 			for (int i = 0; i < list.size(); i++) {
 				Host host = list.get(i);
 				// inform VMs to update processing ֪ͨеĴ̡
 				double time = host.updateVmsProcessing(CloudSim.clock());
+				if (isIncrementalProcessing()) {
+					hostCompletionIndex.setCompletionTime(host, time);
+					updatedHosts.add(host);
+				}
 				// what time do we expect that the next cloudlet will finish?
 				if (time < smallerTime) {
 					smallerTime = time;
 				}
 			}
+			if (isIncrementalProcessing()) {
+				// the hosts that were not updated keep their completion times
+				smallerTime = hostCompletionIndex.getNextCompletionTime();
+			}
 			// gurantees a minimal interval before scheduling the event
 			if (smallerTime < CloudSim.clock() + 0.11) {
 				smallerTime = CloudSim.clock() + 0.11;
@@ -930,13 +966,18 @@ public class Datacenter extends SimEntity {
 
 	/**
 	 * Verifies if some cloudlet inside this PowerDatacenter already finished. If yes, send it to
-	 * the User/Broker
+	 * the User/Broker. If the cloudlets are processed incrementally, only the hosts updated since
+	 * the last check are verified, as the cloudlets of the other hosts cannot have finished.
 	 * 
 	 * @pre $none
 	 * @post $none
 	 */
 	protected void checkCloudletCompletion() {
 		List<? extends Host> list = getVmAllocationPolicy().getHostList();//ȡб
+		if (isIncrementalProcessing()) {
+			list = new ArrayList<Host>(updatedHosts);
+			updatedHosts.clear();
+		}
 		for (int i = 0; i < list.size(); i++) {
 			Host host = list.get(i);//б
 			for (Vm vm : host.getVmList()) {//ϵÿ̨
@@ -950,6 +991,64 @@ public class Datacenter extends SimEntity {
 		}
 	}
 
+	/**
+	 * Brings the processing of the cloudlets of a host up to date before its VMs or cloudlets are
+	 * changed, and marks the host so that its next completion time is computed again at the next
+	 * update. This is only needed when the cloudlets are processed incrementally, since the hosts
+	 * are then not all updated at each event, and does nothing otherwise.
+	 * 
+	 * @param host the host, or <tt>null</tt>
+	 * @see #setIncrementalProcessing(boolean)
+	 */
+	protected void updateHostProcessing(Host host) {
+		if (isIncrementalProcessing() && host != null) {
+			host.updateVmsProcessing(CloudSim.clock());
+			hostCompletionIndex.markChanged(host);
+			updatedHosts.add(host);
+		}
+	}
+
+	/**
+	 * Sets whether the cloudlets are processed incrementally. By default, each update of the
+	 * processing of the cloudlets updates all the hosts, and each check of the completed cloudlets
+	 * looks at all the VMs. In the incremental mode, the datacenter keeps the time at which the
+	 * next cloudlet of each host is expected to finish in a priority index, and only updates the
+	 * hosts whose VMs or cloudlets have changed and the hosts whose next cloudlet is due. The cost
+	 * of an update then depends on the number of affected hosts rather than on the number of hosts,
+	 * which matters for large datacenters with mostly idle hosts.
+	 * <p>
+	 * The incremental mode assumes that the cloudlets of a host progress linearly as long as its
+	 * VMs and cloudlets do not change, as with {@link CloudletSchedulerTimeShared} and
+	 * {@link CloudletSchedulerSpaceShared}, and that the allocation of the VMs already on a host
+	 * does not change when a VM is created on it, as with {@link VmSchedulerTimeShared}. The
+	 * changes made other than through the events processed by the datacenter must be preceded by a
+	 * call to {@link #updateHostProcessing(Host)}. The progress of the cloudlets being computed over
+	 * longer intervals, the results may differ slightly from the default mode. Datacenters whose
+	 * hosts have to be updated periodically, such as the power-aware and the network datacenters,
+	 * do not support this mode.
+	 * 
+	 * @param incrementalProcessing true to only update the affected hosts
+	 */
+	public void setIncrementalProcessing(boolean incrementalProcessing) {
+		if (incrementalProcessing) {
+			hostCompletionIndex = new HostCompletionIndex(getVmAllocationPolicy().getHostList());
+			updatedHosts = new ArrayList<Host>();
+		} else {
+			hostCompletionIndex = null;
+			updatedHosts = null;
+		}
+	}
+
+	/**
+	 * Checks whether the cloudlets are processed incrementally.
+	 * 
+	 * @return true, if only the affected hosts are updated
+	 * @see #setIncrementalProcessing(boolean)
+	 */
+	public boolean isIncrementalProcessing() {
+		return hostCompletionIndex != null;
+	}
+
 	/**
 	 * Adds a file into the resource's storage before the experiment starts. If the file is a master
 	 * file, then it will be registered to the RC when the experiment begins.
@@ -82,9 +82,10 @@ public class DatacenterBroker extends SimEntity {
 	public DatacenterBroker(String name) throws Exception {
 		super(name);
 
-		setVmList(new ArrayList<Vm>());
-		setVmsCreatedList(new ArrayList<Vm>());
-		setCloudletList(new ArrayList<Cloudlet>());
+		// the VMs and the cloudlets are looked up by id for each cloudlet
+		setVmList(VmList.<Vm> createIndexedList());
+		setVmsCreatedList(VmList.<Vm> createIndexedList());
+		setCloudletList(CloudletList.<Cloudlet> createIndexedList());
 		setCloudletSubmittedList(new ArrayList<Cloudlet>());
 		setCloudletReceivedList(new ArrayList<Cloudlet>());
 
@@ -274,12 +275,16 @@ public class DatacenterBroker extends SimEntity {
 		if (result == CloudSimTags.TRUE) {//̓MCɹ
 			getVmsToDatacentersMap().put(vmId, datacenterId);//̓MCڔăȄɹһmapӛ䛣̓MCID͔ĵһӳPS̓MCc䌦ĔP
 			getVmsCreatedList().add(VmList.getById(getVmList(), vmId));//ɹ̓MCӛVmsCreatedListбԓбֱӽһVm
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": VM #" + vmId
-					+ " has been created in Datacenter #" + datacenterId + ", Host #"
-					+ VmList.getById(getVmsCreatedList(), vmId).getHost().getId());//vmIDvmsCreatedListбȡVm==>õɹVm==>ȡvm̨CHostID. UML⣬vmhostPPS
+			if (Log.isEnabled(Log.Level.INFO)) {
+				Log.printLine(CloudSim.clock() + ": " + getName() + ": VM #" + vmId
+						+ " has been created in Datacenter #" + datacenterId + ", Host #"
+						+ VmList.getById(getVmsCreatedList(), vmId).getHost().getId());//vmIDvmsCreatedListбȡVm==>õɹVm==>ȡvm̨CHostID. UML⣬vmhostPPS
+			}
 		} else {//ɹ_ݔw̨̓MCĂăȄʧ
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vmId
-					+ " failed in Datacenter #" + datacenterId);
+			if (Log.isEnabled(Log.Level.WARNING)) {
+				Log.printLine(Log.Level.WARNING, CloudSim.clock() + ": " + getName() + ": Creation of VM #" + vmId
+						+ " failed in Datacenter #" + datacenterId);
+			}
 		}
 
 		incrementVmsAcks();//yӋõޒ@һ^̡
@@ -327,7 +332,7 @@ public class DatacenterBroker extends SimEntity {
 				if (getVmsCreatedList().size() > 0) { // if some vm were created
 					submitCloudlets();//ύ
 				} else { // no vms created. abort   ûдõֹ
-					Log.printLine(CloudSim.clock() + ": " + getName()
+					Log.printLine(Log.Level.ERROR, CloudSim.clock() + ": " + getName()
 							+ ": none of the required VMs could be created. Aborting");
 					finishExecution();//һڲ¼ͨŷĽ
 				}
@@ -347,8 +352,10 @@ public class DatacenterBroker extends SimEntity {
 	protected void processCloudletReturn(SimEvent ev) {
 		Cloudlet cloudlet = (Cloudlet) ev.getData();//¼ȡѾɵ
 		getCloudletReceivedList().add(cloudlet);//һб¼յ.
-		Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
-				+ " received");
+		if (Log.isEnabled(Log.Level.INFO)) {
+			Log.printLine(CloudSim.clock() + ": " + getName() + ": Cloudlet " + cloudlet.getCloudletId()
+					+ " received");
+		}
 		cloudletsSubmitted--;
 		//ȴбΪ0ѾύбΪ0
 		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0) { // all cloudlets executed
@@ -378,11 +385,11 @@ public class DatacenterBroker extends SimEntity {
 	 */
 	protected void processOtherEvent(SimEvent ev) {
 		if (ev == null) {
-			Log.printLine(getName() + ".processOtherEvent(): " + "Error - an event is null.");
+			Log.printLine(Log.Level.ERROR, getName() + ".processOtherEvent(): " + "Error - an event is null.");
 			return;
 		}
 
-		Log.printLine(getName() + ".processOtherEvent(): "
+		Log.printLine(Log.Level.ERROR, getName() + ".processOtherEvent(): "
 				+ "Error - event unknown by this DatacenterBroker.");
 	}
 
@@ -399,8 +406,10 @@ public class DatacenterBroker extends SimEntity {
 		String datacenterName = CloudSim.getEntityName(datacenterId);//ͨĵIDõӦ֡ 
 		for (Vm vm : getVmList()) {//DatacenterBrokerCloudSimģʱúõvmList(Ҫ).
 			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {//̓MCһ̨ɹ̓MC  Ĵ˄ɹ̓MCIDcĔIDMapУ鿴Ƿ@_̓MC]У@ȻǄɹ̓MCҪȡĄ
-				Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
-						+ " in " + datacenterName);
+				if (Log.isEnabled(Log.Level.INFO)) {
+					Log.printLine(CloudSim.clock() + ": " + getName() + ": Trying to Create VM #" + vm.getId()
+							+ " in " + datacenterName);
+				}
 				sendNow(datacenterId, CloudSimTags.VM_CREATE_ACK, vm);//ϵذlһ̓MCՈoDatacenter.ﹲgetVmList().size()¼futureУȴһwhileѭµrunClockTick()Ǵfutureз뵽deffered棬ȴһwhileѭʵȥԼ¼
 				requestedVms++;//Ո̓MCۼӡyӋՈ󄓽̓MC
 			}
@@ -429,14 +438,18 @@ public class DatacenterBroker extends SimEntity {
 			} else { // submit to the specific vm  //Ǹոճʼģָύضϵġ       μpublic void bindCloudletToVm(int cloudletId, int vmId) {...}  ˵Щڵȴбǰ󶨺ǰѾúõġexample7.java
 				vm = VmList.getById(getVmsCreatedList(), cloudlet.getVmId());//ѾõбУȡ󶨵
 				if (vm == null) { // vm was not created  ѾѾõġ
-					Log.printLine(CloudSim.clock() + ": " + getName() + ": Postponing execution of cloudlet "
-							+ cloudlet.getCloudletId() + ": bount VM not available");//ӡxxDatacenterBroker1ƳִЩ˲õ
+					if (Log.isEnabled(Log.Level.INFO)) {
+						Log.printLine(CloudSim.clock() + ": " + getName() + ": Postponing execution of cloudlet "
+								+ cloudlet.getCloudletId() + ": bount VM not available");//ӡxxDatacenterBroker1ƳִЩ˲õ
+					}
 					continue;//жϱѭ
 				}
 			}
 			//ӡxxʱ:DatacenterBrokerid#id
-			Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
-					+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
+			if (Log.isEnabled(Log.Level.INFO)) {
+				Log.printLine(CloudSim.clock() + ": " + getName() + ": Sending cloudlet "
+						+ cloudlet.getCloudletId() + " to VM #" + vm.getId());
+			}
 			cloudlet.setVmId(vm.getId());//ϵһ
 			sendNow(getVmsToDatacentersMap().get(vm.getId()), CloudSimTags.CLOUDLET_SUBMIT, cloudlet);/*ύ¼futureУfutureٵdefferedУȴĴ¼
 			 																						   *
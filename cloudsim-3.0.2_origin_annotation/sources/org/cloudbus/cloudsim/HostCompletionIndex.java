@@ -0,0 +1,239 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The index of the next completion times of the hosts of a datacenter, used when the datacenter
+ * processes the cloudlets incrementally. The hosts running cloudlets are kept in an array-based
+ * binary min-heap ordered by the time at which their next cloudlet is expected to finish, so that
+ * the hosts due at a given time are found without looking at the other hosts. The index also
+ * records the hosts whose VMs or cloudlets have changed, which have to be updated whatever their
+ * completion time.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see Datacenter#setIncrementalProcessing(boolean)
+ */
+class HostCompletionIndex {
+
+	/** The hosts. */
+	private final List<? extends Host> hosts;
+
+	/** The positions of the hosts in the host list. */
+	private final Map<Host, Integer> positions;
+
+	/** The next completion time of each host, by position. */
+	private final double[] completionTimes;
+
+	/** The heap of the positions of the hosts that have a completion time. */
+	private final int[] heap;
+
+	/** The index of each host in the heap, by position, or -1 if the host is not in the heap. */
+	private final int[] heapIndexes;
+
+	/** The number of hosts in the heap. */
+	private int size;
+
+	/** Whether each host has changed since it was last updated, by position. */
+	private final boolean[] changed;
+
+	/** The positions of the changed hosts. */
+	private final int[] changedHosts;
+
+	/** The number of changed hosts. */
+	private int changedCount;
+
+	/**
+	 * Instantiates a new index, in which all the hosts are marked as changed.
+	 *
+	 * @param hosts the hosts of the datacenter
+	 */
+	HostCompletionIndex(List<? extends Host> hosts) {
+		this.hosts = hosts;
+		int n = hosts.size();
+		positions = new HashMap<Host, Integer>(n * 2);
+		completionTimes = new double[n];
+		heap = new int[n];
+		heapIndexes = new int[n];
+		changed = new boolean[n];
+		changedHosts = new int[n];
+		size = 0;
+		changedCount = 0;
+		for (int i = 0; i < n; i++) {
+			positions.put(hosts.get(i), i);
+			completionTimes[i] = Double.MAX_VALUE;
+			heapIndexes[i] = -1;
+			markChanged(i);
+		}
+	}
+
+	/**
+	 * Marks a host as changed, so that it is returned by the next call to
+	 * {@link #pollHostsToUpdate(double)}.
+	 *
+	 * @param host the host
+	 */
+	void markChanged(Host host) {
+		markChanged(getPosition(host));
+	}
+
+	/**
+	 * Sets the time at which the next cloudlet of a host is expected to finish.
+	 *
+	 * @param host the host
+	 * @param time the completion time, or {@link Double#MAX_VALUE} if the host runs no cloudlet
+	 */
+	void setCompletionTime(Host host, double time) {
+		int position = getPosition(host);
+		completionTimes[position] = time;
+		int index = heapIndexes[position];
+		if (time == Double.MAX_VALUE) {
+			if (index >= 0) {
+				removeAt(index);
+			}
+		} else if (index < 0) {
+			siftUp(size++, position);
+		} else {
+			siftUp(index, position);
+			siftDown(heapIndexes[position], position);
+		}
+	}
+
+	/**
+	 * Gets the earliest completion time of the hosts.
+	 *
+	 * @return the completion time, or {@link Double#MAX_VALUE} if no host runs a cloudlet
+	 */
+	double getNextCompletionTime() {
+		if (size == 0) {
+			return Double.MAX_VALUE;
+		}
+		return completionTimes[heap[0]];
+	}
+
+	/**
+	 * Removes and returns the hosts that have changed or whose completion time is not after the
+	 * given time, in the order of the host list. The completion times of the returned hosts have
+	 * to be set again once they are updated.
+	 *
+	 * @param time the time
+	 * @return the hosts
+	 */
+	List<Host> pollHostsToUpdate(double time) {
+		while (size > 0 && completionTimes[heap[0]] <= time) {
+			int position = heap[0];
+			removeAt(0);
+			completionTimes[position] = Double.MAX_VALUE;
+			markChanged(position);
+		}
+		Arrays.sort(changedHosts, 0, changedCount);
+		List<Host> result = new ArrayList<Host>(changedCount);
+		for (int i = 0; i < changedCount; i++) {
+			result.add(hosts.get(changedHosts[i]));
+			changed[changedHosts[i]] = false;
+		}
+		changedCount = 0;
+		return result;
+	}
+
+	/**
+	 * Marks the host at the given position as changed.
+	 *
+	 * @param position the position of the host
+	 */
+	private void markChanged(int position) {
+		if (!changed[position]) {
+			changed[position] = true;
+			changedHosts[changedCount++] = position;
+		}
+	}
+
+	/**
+	 * Gets the position of a host in the host list.
+	 *
+	 * @param host the host
+	 * @return the position
+	 */
+	private int getPosition(Host host) {
+		Integer position = positions.get(host);
+		if (position == null) {
+			throw new IllegalArgumentException("Host #" + host.getId() + " is not a host of the datacenter.");
+		}
+		return position;
+	}
+
+	/**
+	 * Removes the host at the given index of the heap.
+	 *
+	 * @param index the index in the heap
+	 */
+	private void removeAt(int index) {
+		heapIndexes[heap[index]] = -1;
+		size--;
+		if (index == size) {
+			return;
+		}
+		int last = heap[size];
+		siftUp(index, last);
+		siftDown(heapIndexes[last], last);
+	}
+
+	/**
+	 * Moves a host up from the given index until its parent does not complete later.
+	 *
+	 * @param index the index
+	 * @param position the position of the host
+	 */
+	private void siftUp(int index, int position) {
+		double time = completionTimes[position];
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			if (completionTimes[heap[parent]] <= time) {
+				break;
+			}
+			heap[index] = heap[parent];
+			heapIndexes[heap[index]] = index;
+			index = parent;
+		}
+		heap[index] = position;
+		heapIndexes[position] = index;
+	}
+
+	/**
+	 * Moves a host down from the given index until its children do not complete earlier.
+	 *
+	 * @param index the index
+	 * @param position the position of the host
+	 */
+	private void siftDown(int index, int position) {
+		double time = completionTimes[position];
+		int half = size >>> 1;
+		while (index < half) {
+			int child = 2 * index + 1;
+			int right = child + 1;
+			if (right < size && completionTimes[heap[right]] < completionTimes[heap[child]]) {
+				child = right;
+			}
+			if (time <= completionTimes[heap[child]]) {
+				break;
+			}
+			heap[index] = heap[child];
+			heapIndexes[heap[index]] = index;
+			index = child;
+		}
+		heap[index] = position;
+		heapIndexes[position] = index;
+	}
+
+}
@@ -9,7 +9,6 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -32,7 +31,7 @@ public class HostDynamicWorkload extends Host {
 	private double previousUtilizationMips;
 
 	/** The state history. */
-	private final List<HostStateHistoryEntry> stateHistory = new LinkedList<HostStateHistoryEntry>();
+	private final HostStateHistory stateHistory = new HostStateHistory();
 
 	/**
 	 * Instantiates a new host.
@@ -79,8 +78,11 @@ public class HostDynamicWorkload extends Host {
 			double totalRequestedMips = vm.getCurrentRequestedTotalMips();//ܵcpumips
 			double totalAllocatedMips = getVmScheduler().getTotalAllocatedMipsForVm(vm);//ܹcpumips
 
-			if (!Log.isDisabled()) {
+			// the allocation of each VM is only logged at the debug level, as it is logged at each step
+			boolean debug = Log.isEnabled(Log.Level.DEBUG);
+			if (debug) {
 				Log.formatLine(
+						Log.Level.DEBUG,
 						"%.2f: [Host #" + getId() + "] Total allocated MIPS for VM #" + vm.getId()
 								+ " (Host #" + vm.getHost().getId()
 								+ ") is %.2f, was requested %.2f out of total %.2f (%.2f%%)",
@@ -97,6 +99,7 @@ public class HostDynamicWorkload extends Host {
 							.getTotalAllocatedMipsForVm(vm)));
 				}
 				Log.formatLine(
+						Log.Level.DEBUG,
 						"%.2f: [Host #" + getId() + "] MIPS for VM #" + vm.getId() + " by PEs ("
 								+ getNumberOfPes() + " * " + getVmScheduler().getPeCapacity() + ")."
 								+ pesString,
@@ -104,12 +107,14 @@ public class HostDynamicWorkload extends Host {
 			}
 
 			if (getVmsMigratingIn().contains(vm)) {
-				Log.formatLine("%.2f: [Host #" + getId() + "] VM #" + vm.getId()
-						+ " is being migrated to Host #" + getId(), CloudSim.clock());
+				if (debug) {
+					Log.formatLine(Log.Level.DEBUG, "%.2f: [Host #" + getId() + "] VM #" + vm.getId()
+							+ " is being migrated to Host #" + getId(), CloudSim.clock());
+				}
 			} else {
-				if (totalAllocatedMips + 0.1 < totalRequestedMips) {
-					Log.formatLine("%.2f: [Host #" + getId() + "] Under allocated MIPS for VM #" + vm.getId()
-							+ ": %.2f", CloudSim.clock(), totalRequestedMips - totalAllocatedMips);
+				if (debug && totalAllocatedMips + 0.1 < totalRequestedMips) {
+					Log.formatLine(Log.Level.DEBUG, "%.2f: [Host #" + getId() + "] Under allocated MIPS for VM #"
+							+ vm.getId() + ": %.2f", CloudSim.clock(), totalRequestedMips - totalAllocatedMips);
 				}//CloudSim.clock#IDڷ䴦#IDֵ
 
 				vm.addStateHistoryEntry(//̨ǰҪϢʷ״̬Ŀб档
@@ -119,9 +124,12 @@ public class HostDynamicWorkload extends Host {
 						(vm.isInMigration() && !getVmsMigratingIn().contains(vm)));
 
 				if (vm.isInMigration()) {//жǷǨơ
-					Log.formatLine(
-							"%.2f: [Host #" + getId() + "] VM #" + vm.getId() + " is in migration",
-							CloudSim.clock());
+					if (debug) {
+						Log.formatLine(
+								Log.Level.DEBUG,
+								"%.2f: [Host #" + getId() + "] VM #" + vm.getId() + " is in migration",
+								CloudSim.clock());
+					}
 					totalAllocatedMips /= 0.9; // performance degradation due to migration - 10% Ǩ½10%
 				}
 			}
@@ -270,12 +278,12 @@ public class HostDynamicWorkload extends Host {
 	 * 
 	 * @return the state history
 	 */
-	public List<HostStateHistoryEntry> getStateHistory() {
+	public HostStateHistory getStateHistory() {
 		return stateHistory;
 	}
 
 	/**
-	 * Adds the state history entry.
+	 * Adds the state history entry, or replaces the last entry if it has the same time.
 	 * 
 	 * @param time the time
 	 * @param allocatedMips the allocated mips
@@ -286,19 +294,7 @@ public class HostDynamicWorkload extends Host {
 			void
 			addStateHistoryEntry(double time, double allocatedMips, double requestedMips, boolean isActive) {
 
-		HostStateHistoryEntry newState = new HostStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isActive);
-		if (!getStateHistory().isEmpty()) {
-			HostStateHistoryEntry previousState = getStateHistory().get(getStateHistory().size() - 1);
-			if (previousState.getTime() == time) {
-				getStateHistory().set(getStateHistory().size() - 1, newState);
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		getStateHistory().addEntry(time, allocatedMips, requestedMips, isActive);
 	}
 
 }
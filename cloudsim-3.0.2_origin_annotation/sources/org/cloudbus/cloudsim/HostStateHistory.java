@@ -0,0 +1,192 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The state history of a host, whose flag tells whether the host is active. Along with the entries
+ * kept, it computes the SLA violation time of the host and the times before the host shutdowns as
+ * the entries are added, so that they are known even if no entry is kept.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class HostStateHistory extends StateHistory<HostStateHistoryEntry> {
+
+	/** The total time. */
+	private double totalTime;
+
+	/** The time during which the allocated MIPS were lower than the requested MIPS. */
+	private double slaViolationTime;
+
+	/** The time during which the host was active. */
+	private double activeTime;
+
+	/**
+	 * The time during which the host was active and the allocated MIPS were lower than the requested
+	 * MIPS.
+	 */
+	private double activeSlaViolationTime;
+
+	/** The times between the host being switched on and being switched off. */
+	private double[] timesBeforeShutdown = new double[0];
+
+	/** The number of times before a shutdown. */
+	private int numberOfShutdowns;
+
+	/** Whether the host was active at the last entry passed to the metrics. */
+	private boolean previousIsActive = true;
+
+	/** The time at which the host was last switched on. */
+	private double lastTimeSwitchedOn;
+
+	/**
+	 * Instantiates a new host state history with the retention of the simulation of the calling
+	 * thread.
+	 */
+	public HostStateHistory() {
+		super();
+	}
+
+	/**
+	 * Instantiates a new host state history.
+	 *
+	 * @param retention {@link #RETAIN_ALL}, {@link #RETAIN_NONE} or the number of last entries kept
+	 */
+	public HostStateHistory(int retention) {
+		super(retention);
+	}
+
+	/**
+	 * Adds an entry, or replaces the last entry if it has the same time.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param isActive the is active
+	 */
+	public void addEntry(double time, double allocatedMips, double requestedMips, boolean isActive) {
+		addState(time, allocatedMips, requestedMips, isActive);
+	}
+
+	/**
+	 * Checks whether the host was active at an entry kept.
+	 *
+	 * @param index the index of the entry, 0 being the oldest entry kept
+	 * @return true, if the host was active
+	 */
+	public boolean isActive(int index) {
+		return getFlag(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public HostStateHistoryEntry get(int index) {
+		return new HostStateHistoryEntry(
+				getTime(index),
+				getAllocatedMips(index),
+				getRequestedMips(index),
+				isActive(index));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.StateHistory#updateMetrics(double, double, double, boolean, double)
+	 */
+	@Override
+	protected void updateMetrics(
+			double time,
+			double allocatedMips,
+			double requestedMips,
+			boolean isActive,
+			double nextTime) {
+		double timeDiff = nextTime - time;
+		totalTime += timeDiff;
+		if (allocatedMips < requestedMips) {
+			slaViolationTime += timeDiff;
+		}
+		if (isActive) {
+			activeTime += timeDiff;
+			if (allocatedMips < requestedMips) {
+				activeSlaViolationTime += timeDiff;
+			}
+		}
+
+		if (previousIsActive && !isActive) {
+			if (numberOfShutdowns == timesBeforeShutdown.length) {
+				timesBeforeShutdown = Arrays.copyOf(timesBeforeShutdown, Math.max(4, numberOfShutdowns * 2));
+			}
+			timesBeforeShutdown[numberOfShutdowns++] = time - lastTimeSwitchedOn;
+		}
+		if (!previousIsActive && isActive) {
+			lastTimeSwitchedOn = time;
+		}
+		previousIsActive = isActive;
+	}
+
+	/**
+	 * Gets the total time covered by the history, from the first entry to the last one.
+	 *
+	 * @return the total time
+	 */
+	public double getTotalTime() {
+		return totalTime;
+	}
+
+	/**
+	 * Gets the time during which the allocated MIPS were lower than the requested MIPS.
+	 *
+	 * @return the SLA violation time
+	 */
+	public double getSlaViolationTime() {
+		return slaViolationTime;
+	}
+
+	/**
+	 * Gets the time during which the host was active.
+	 *
+	 * @return the active time
+	 */
+	public double getActiveTime() {
+		return activeTime;
+	}
+
+	/**
+	 * Gets the time during which the host was active and the allocated MIPS were lower than the
+	 * requested MIPS.
+	 *
+	 * @return the SLA violation time of the active host
+	 */
+	public double getActiveSlaViolationTime() {
+		return activeSlaViolationTime;
+	}
+
+	/**
+	 * Gets the times between the host being switched on, or the beginning of the history, and the
+	 * host being switched off, in order.
+	 *
+	 * @return the times before the host shutdowns
+	 */
+	public List<Double> getTimesBeforeShutdown() {
+		List<Double> times = new ArrayList<Double>(numberOfShutdowns + 1);
+		for (int i = 0; i < numberOfShutdowns; i++) {
+			times.add(timesBeforeShutdown[i]);
+		}
+		if (hasLastEntry() && previousIsActive && !getLastFlag()) {
+			times.add(getLastTime() - lastTimeSwitchedOn);
+		}
+		return times;
+	}
+
+}
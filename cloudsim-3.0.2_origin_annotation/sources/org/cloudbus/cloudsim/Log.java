@@ -14,30 +14,76 @@ import java.io.OutputStream;
 /**
  * The Log class used for performing loggin of the simulation process. It provides the ability to
  * substitute the output stream by any OutputStream subclass.
+ * <p>
+ * Each message has a {@link Level}. The messages printed without a level are informative messages,
+ * and the messages above the current level are not printed. By default, all the messages are
+ * printed. The arguments of a message are evaluated before the message is passed to the log, so
+ * the messages built at each step of the simulation, whose strings or arguments are costly to
+ * build, should be guarded by {@link #isEnabled(Level)}, so that no string is built when they are
+ * not printed.
+ * <p>
+ * The output is shared by all the threads, but a thread can print to an output of its own, see
+ * {@link #setThreadOutput(OutputStream)}, for example to buffer its messages without changing the
+ * output of the other threads.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
 public class Log {
 
+	/**
+	 * The levels of the messages, from the most to the least important.
+	 */
+	public enum Level {
+
+		/** The errors of the simulation. */
+		ERROR,
+
+		/** The abnormal situations from which the simulation recovers. */
+		WARNING,
+
+		/** The progress of the simulation. */
+		INFO,
+
+		/** The details of each step of the simulation, such as the state of each host. */
+		DEBUG
+
+	}
+
 	/** The Constant LINE_SEPARATOR. */
 	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
 	/** The output. */
 	private static OutputStream output;
 
+	/** The output of the messages printed by each thread that has one, instead of the output. */
+	private static final ThreadLocal<OutputStream> threadOutput = new ThreadLocal<OutputStream>();
+
 	/** The disable output flag. */
 	private static boolean disabled;
 
+	/** The least important level of the printed messages. */
+	private static Level level = Level.DEBUG;
+
 	/**
 	 * Prints the message.
 	 * 
 	 * @param message the message
 	 */
 	public static void print(String message) {
-		if (!isDisabled()) {
+		print(Level.INFO, message);
+	}
+
+	/**
+	 * Prints the message if its level is enabled.
+	 * 
+	 * @param level the level of the message
+	 * @param message the message
+	 */
+	public static void print(Level level, String message) {
+		if (isEnabled(level)) {
 			try {
-				getOutput().write(message.getBytes());
+				getCurrentOutput().write(message.getBytes());
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -50,7 +96,7 @@ public class Log {
 	 * @param message the message
 	 */
 	public static void print(Object message) {
-		if (!isDisabled()) {
+		if (isEnabled(Level.INFO)) {
 			print(String.valueOf(message));
 		}
 	}
@@ -61,8 +107,18 @@ public class Log {
 	 * @param message the message
 	 */
 	public static void printLine(String message) {
-		if (!isDisabled()) {
-			print(message + LINE_SEPARATOR);
+		printLine(Level.INFO, message);
+	}
+
+	/**
+	 * Prints the line if its level is enabled.
+	 * 
+	 * @param level the level of the line
+	 * @param message the message
+	 */
+	public static void printLine(Level level, String message) {
+		if (isEnabled(level)) {
+			print(level, message + LINE_SEPARATOR);
 		}
 	}
 
@@ -70,8 +126,17 @@ public class Log {
 	 * Prints the empty line.
 	 */
 	public static void printLine() {
-		if (!isDisabled()) {
-			print(LINE_SEPARATOR);
+		printLine(Level.INFO);
+	}
+
+	/**
+	 * Prints the empty line if its level is enabled.
+	 * 
+	 * @param level the level of the line
+	 */
+	public static void printLine(Level level) {
+		if (isEnabled(level)) {
+			print(level, LINE_SEPARATOR);
 		}
 	}
 
@@ -81,7 +146,7 @@ public class Log {
 	 * @param message the message
 	 */
 	public static void printLine(Object message) {
-		if (!isDisabled()) {
+		if (isEnabled(Level.INFO)) {
 			printLine(String.valueOf(message));
 		}
 	}
@@ -93,7 +158,7 @@ public class Log {
 	 * @param args the args
 	 */
 	public static void format(String format, Object... args) {
-		if (!isDisabled()) {
+		if (isEnabled(Level.INFO)) {
 			print(String.format(format, args));
 		}
 	}
@@ -105,8 +170,20 @@ public class Log {
 	 * @param args the args
 	 */
 	public static void formatLine(String format, Object... args) {
-		if (!isDisabled()) {
-			printLine(String.format(format, args));
+		formatLine(Level.INFO, format, args);
+	}
+
+	/**
+	 * Prints a line formated as in String.format() if its level is enabled. The line is only
+	 * formatted if it is printed.
+	 * 
+	 * @param level the level of the line
+	 * @param format the format
+	 * @param args the args
+	 */
+	public static void formatLine(Level level, String format, Object... args) {
+		if (isEnabled(level)) {
+			printLine(level, String.format(format, args));
 		}
 	}
 
@@ -131,6 +208,31 @@ public class Log {
 		return output;
 	}
 
+	/**
+	 * Gets the output of the messages printed by the current thread: its own output if it has one,
+	 * or the shared output.
+	 * 
+	 * @return the output of the current thread
+	 */
+	public static OutputStream getCurrentOutput() {
+		OutputStream out = threadOutput.get();
+		return out != null ? out : getOutput();
+	}
+
+	/**
+	 * Sets the output of the messages printed by the current thread, which are printed to it
+	 * instead of the shared output.
+	 * 
+	 * @param _output the output of the thread, or null to print to the shared output again
+	 */
+	public static void setThreadOutput(OutputStream _output) {
+		if (_output == null) {
+			threadOutput.remove();
+		} else {
+			threadOutput.set(_output);
+		}
+	}
+
 	/**
 	 * Sets the disable output flag.
 	 * 
@@ -149,6 +251,38 @@ public class Log {
 		return disabled;
 	}
 
+	/**
+	 * Sets the least important level of the printed messages.
+	 * 
+	 * @param _level the new level
+	 */
+	public static void setLevel(Level _level) {
+		if (_level == null) {
+			throw new IllegalArgumentException("The log level cannot be null");
+		}
+		level = _level;
+	}
+
+	/**
+	 * Gets the least important level of the printed messages.
+	 * 
+	 * @return the level
+	 */
+	public static Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * Checks if the messages of a level are printed, i.e. if the output is enabled and the level is
+	 * not less important than the current level.
+	 * 
+	 * @param _level the level
+	 * @return true, if the messages of the level are printed
+	 */
+	public static boolean isEnabled(Level _level) {
+		return !disabled && _level.ordinal() <= level.ordinal();
+	}
+
 	/**
 	 * Disables the output.
 	 */
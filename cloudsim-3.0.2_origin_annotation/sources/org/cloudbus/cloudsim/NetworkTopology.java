@@ -9,10 +9,13 @@
 package org.cloudbus.cloudsim;
 
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.Simulation;
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
@@ -29,6 +32,28 @@ import org.cloudbus.cloudsim.network.TopologicalNode;
  * Nevertheless, each CloudSim entity must be mapped to one (and only one) BRITE node to allow
  * proper work of the network simulation. Each BRITE node can be mapped to only one entity at a
  * time.
+ * <p>
+ * Each simulation has its own network topology, see {@link Simulation#getNetworkTopology()}, and
+ * the static methods of this class act on the topology of the simulation of the calling thread. A
+ * topology built before {@link CloudSim#init(int, java.util.Calendar, boolean)} is kept by the
+ * simulation it initialises, as long as the calling thread is bound to a simulation or no
+ * simulation has been initialised yet; otherwise the topology has to be built after the call.
+ * <p>
+ * The links added by {@link #addLink(int, int, double, double)} before the first delay is asked
+ * for are all taken into account when the matrices are generated, on the first call to
+ * {@link #getDelay(int, int)}. Afterwards, a link added between two known nodes, or a link whose
+ * latency decreases, updates the delays in one pass over the delay matrix; the other changes make
+ * the matrices be generated again when the next delay is asked for.
+ * <p>
+ * The BRITE node of each entity is kept in an array indexed by the entity id. The delays between
+ * the mapped entities are copied from the delay matrix to a flat matrix indexed by the order of
+ * the entities, whose first row and column are zeros for the entities that are not mapped, so a
+ * delay is read without boxing, map lookups or exceptions. This matrix is copied again, when the
+ * next delay is asked for, after the mapping or the topology has changed.
+ * <p>
+ * The entities of a simulation running in parallel may ask for delays while the topology or the
+ * mapping changes: the changes are made while holding the lock of the topology, and the delays are
+ * read from an immutable copy of the entity delays published through a single volatile field.
  * 
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
@@ -36,17 +61,45 @@ import org.cloudbus.cloudsim.network.TopologicalNode;
  */
 public class NetworkTopology {
 
-	protected static int nextIdx = 0;
+	protected int nextIdx = 0;
+
+	private volatile boolean networkEnabled = false;
+
+	protected DelayMatrix_Float delayMatrix = null;
+
+	protected double[][] bwMatrix = null;
 
-	private static boolean networkEnabled = false;
+	protected TopologicalGraph graph = null;
 
-	protected static DelayMatrix_Float delayMatrix = null;
+	/** The BRITE node of each CloudSim entity, by entity id, or -1 if the entity is not mapped. */
+	protected int[] entityNodes = new int[0];
 
-	protected static double[][] bwMatrix = null;
+	/** The CloudSim entity mapped to each BRITE node, by node id, or -1 if the node is not used. */
+	protected int[] nodeEntities = new int[0];
 
-	protected static TopologicalGraph graph = null;
+	/** Whether the topology has changed since the matrices were generated. */
+	private boolean matricesOutdated = false;
+
+	/**
+	 * The delays between the mapped entities, or null if the topology or the mapping has changed
+	 * since they were copied.
+	 */
+	private volatile EntityDelays entityDelays = new EntityDelays(new int[0], new float[1], 1);
+
+	/**
+	 * The last link added between each pair of nodes, which sets their delay and bandwidth; created
+	 * when it is first needed.
+	 */
+	private Map<Long, TopologicalLink> links = null;
 
-	protected static Map<Integer, Integer> map = null;
+	/**
+	 * Gets the network topology of the simulation of the calling thread.
+	 * 
+	 * @return the network topology
+	 */
+	protected static NetworkTopology getInstance() {
+		return CloudSim.getSimulation().getNetworkTopology();
+	}
 
 	/**
 	 * Creates the network topology if file exists and if file can be succesfully parsed. File is
@@ -61,23 +114,27 @@ public class NetworkTopology {
 
 		// try to find the file
 		GraphReaderBrite reader = new GraphReaderBrite();
-
-		try {
-			graph = reader.readGraphFile(fileName);
-			map = new HashMap<Integer, Integer>();
-			generateMatrices();
-		} catch (IOException e) {
-			// problem with the file. Does not simulate network
-			Log.printLine("Problem in processing BRITE file. Network simulation is disabled. Error: "
-					+ e.getMessage());
+		NetworkTopology topology = getInstance();
+		synchronized (topology) {
+			try {
+				topology.graph = reader.readGraphFile(fileName);
+				topology.entityNodes = new int[0];
+				topology.nodeEntities = new int[topology.graph.getNumberOfNodes()];
+				Arrays.fill(topology.nodeEntities, -1);
+				topology.links = null;
+				topology.generateMatrices();
+			} catch (IOException e) {
+				// problem with the file. Does not simulate network
+				Log.printLine("Problem in processing BRITE file. Network simulation is disabled. Error: "
+						+ e.getMessage());
+			}
 		}
-
 	}
 
 	/**
 	 * Generates the matrices used internally to set latency and bandwidth between elements
 	 */
-	private static void generateMatrices() {
+	private void generateMatrices() {
 		// creates the delay matrix
 		delayMatrix = new DelayMatrix_Float(graph, false);
 
@@ -85,6 +142,134 @@ public class NetworkTopology {
 		bwMatrix = createBwMatrix(graph, false);
 
 		networkEnabled = true;
+		matricesOutdated = false;
+		entityDelays = null;
+	}
+
+	/**
+	 * Generates the matrices again if the topology has changed since they were generated, and
+	 * copies the delays between the mapped entities. The entities of a simulation running in
+	 * parallel may ask for delays at the same time.
+	 * 
+	 * @return the delays between the mapped entities
+	 */
+	private synchronized EntityDelays updateEntityDelays() {
+		if (entityDelays != null) {
+			return entityDelays;
+		}
+		if (matricesOutdated) {
+			generateMatrices();
+		}
+
+		int[] indices = new int[entityNodes.length];
+		int[] nodes = new int[entityNodes.length + 1];
+		int size = 1;
+		for (int entity = 0; entity < entityNodes.length; entity++) {
+			if (entityNodes[entity] >= 0) {
+				indices[entity] = size;
+				nodes[size++] = entityNodes[entity];
+			}
+		}
+		float[] delays = new float[size * size];
+		for (int i = 1; i < size; i++) {
+			for (int j = 1; j < size; j++) {
+				delays[i * size + j] = delayMatrix.getDelay(nodes[i], nodes[j]);
+			}
+		}
+
+		EntityDelays updated = new EntityDelays(indices, delays, size);
+		entityDelays = updated;
+		return updated;
+	}
+
+	/**
+	 * Maps a CloudSim entity to a node, growing the mapping arrays if needed.
+	 * 
+	 * @param cloudSimEntityID ID of the entity
+	 * @param briteID ID of the node
+	 */
+	private void setEntityNode(int cloudSimEntityID, int briteID) {
+		if (cloudSimEntityID >= entityNodes.length) {
+			int length = entityNodes.length;
+			entityNodes = Arrays.copyOf(entityNodes, Math.max(cloudSimEntityID + 1, length * 2));
+			Arrays.fill(entityNodes, length, entityNodes.length, -1);
+		}
+		if (briteID >= nodeEntities.length) {
+			int length = nodeEntities.length;
+			nodeEntities = Arrays.copyOf(nodeEntities, Math.max(briteID + 1, length * 2));
+			Arrays.fill(nodeEntities, length, nodeEntities.length, -1);
+		}
+		entityNodes[cloudSimEntityID] = briteID;
+		nodeEntities[briteID] = cloudSimEntityID;
+		entityDelays = null;
+	}
+
+	/**
+	 * Gets the node of a CloudSim entity.
+	 * 
+	 * @param cloudSimEntityID ID of the entity
+	 * @return ID of the node, or -1 if the entity is not mapped
+	 */
+	private int getEntityNode(int cloudSimEntityID) {
+		if (cloudSimEntityID < 0 || cloudSimEntityID >= entityNodes.length) {
+			return -1;
+		}
+		return entityNodes[cloudSimEntityID];
+	}
+
+	/**
+	 * Updates the matrices after a link has been added or its latency has changed, or marks them
+	 * as outdated if they cannot be updated.
+	 * 
+	 * @param link the link
+	 * @param previousDelay the delay between the nodes of the link before the change, or 0 if
+	 *            there was no link
+	 * @param newNodes whether nodes have been added along with the link
+	 */
+	private void updateMatrices(TopologicalLink link, float previousDelay, boolean newNodes) {
+		entityDelays = null;
+		if (delayMatrix == null || matricesOutdated || newNodes) {
+			matricesOutdated = true;
+			return;
+		}
+		float delay = link.getLinkDelay();
+		boolean shorter = delay > 0 && (previousDelay == 0 || delay <= previousDelay);
+		if (shorter && delayMatrix.addLink(link.getSrcNodeID(), link.getDestNodeID(), delay, false)) {
+			bwMatrix[link.getSrcNodeID()][link.getDestNodeID()] = link.getLinkBw();
+			bwMatrix[link.getDestNodeID()][link.getSrcNodeID()] = link.getLinkBw();
+		} else {
+			matricesOutdated = true;
+		}
+	}
+
+	/**
+	 * Gets the last link added between each pair of nodes, indexing the links of the graph if
+	 * needed.
+	 * 
+	 * @return the links by pair of nodes
+	 */
+	private Map<Long, TopologicalLink> getLinks() {
+		if (links == null) {
+			links = new HashMap<Long, TopologicalLink>();
+			Iterator<TopologicalLink> iter = graph.getLinkIterator();
+			while (iter.hasNext()) {
+				TopologicalLink link = iter.next();
+				links.put(getLinkKey(link.getSrcNodeID(), link.getDestNodeID()), link);
+			}
+		}
+		return links;
+	}
+
+	/**
+	 * Gets the key of a pair of nodes in the links, the same for both directions as the links are
+	 * undirected.
+	 * 
+	 * @param srcNode the first node
+	 * @param destNode the second node
+	 * @return the key
+	 */
+	private static long getLinkKey(int srcNode, int destNode) {
+		return ((long) Math.min(srcNode, destNode) << 32) | Math.max(srcNode, destNode);
 	}
 
 	/**
@@ -99,33 +284,72 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void addLink(int srcId, int destId, double bw, double lat) {
+		NetworkTopology topology = getInstance();
+		synchronized (topology) {
+			if (topology.graph == null) {
+				topology.graph = new TopologicalGraph();
+			}
 
-		if (graph == null) {
-			graph = new TopologicalGraph();
-		}
-
-		if (map == null) {
-			map = new HashMap<Integer, Integer>();
-		}
+			// maybe add the nodes
+			boolean newNodes = false;
+			if (topology.getEntityNode(srcId) < 0) {
+				topology.graph.addNode(new TopologicalNode(topology.nextIdx));
+				topology.setEntityNode(srcId, topology.nextIdx);
+				topology.nextIdx++;
+				newNodes = true;
+			}
 
-		// maybe add the nodes
-		if (!map.containsKey(srcId)) {
-			graph.addNode(new TopologicalNode(nextIdx));
-			map.put(srcId, nextIdx);
-			nextIdx++;
-		}
+			if (topology.getEntityNode(destId) < 0) {
+				topology.graph.addNode(new TopologicalNode(topology.nextIdx));
+				topology.setEntityNode(destId, topology.nextIdx);
+				topology.nextIdx++;
+				newNodes = true;
+			}
 
-		if (!map.containsKey(destId)) {
-			graph.addNode(new TopologicalNode(nextIdx));
-			map.put(destId, nextIdx);
-			nextIdx++;
+			// generate a new link
+			TopologicalLink link = new TopologicalLink(
+					topology.getEntityNode(srcId),
+					topology.getEntityNode(destId),
+					(float) lat,
+					(float) bw);
+			topology.graph.addLink(link);
+			TopologicalLink previousLink = topology.getLinks().put(
+					getLinkKey(link.getSrcNodeID(), link.getDestNodeID()),
+					link);
+
+			// the matrices are generated when the first delay is asked for
+			topology.updateMatrices(link, previousLink == null ? 0 : previousLink.getLinkDelay(), newNodes);
+			topology.networkEnabled = true;
 		}
+	}
 
-		// generate a new link
-		graph.addLink(new TopologicalLink(map.get(srcId), map.get(destId), (float) lat, (float) bw));
-
-		generateMatrices();
+	/**
+	 * Changes the latency of the link between two nodes of the network topology
+	 * 
+	 * @param srcId ID of the link's source
+	 * @param destId ID of the link's destination
+	 * @param lat link's new latency
+	 * @pre srcId > 0
+	 * @pre destId > 0
+	 * @post $none
+	 */
+	public static void setLinkLatency(int srcId, int destId, double lat) {
+		NetworkTopology topology = getInstance();
+		synchronized (topology) {
+			int srcNode = topology.getEntityNode(srcId);
+			int destNode = topology.getEntityNode(destId);
+			TopologicalLink link = srcNode < 0 || destNode < 0 ? null : topology.getLinks().get(
+					getLinkKey(srcNode, destNode));
+			if (link == null) {
+				Log.printLine("Error in network topology. No link between " + srcId + " and " + destId
+						+ ".");
+				return;
+			}
 
+			float previousDelay = link.getLinkDelay();
+			link.setLinkDelay((float) lat);
+			topology.updateMatrices(link, previousDelay, false);
+		}
 	}
 
 	/**
@@ -171,22 +395,22 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void mapNode(int cloudSimEntityID, int briteID) {
-		if (networkEnabled) {
-			try {
-				// this CloudSim entity was already mapped?
-				if (!map.containsKey(cloudSimEntityID)) {
-					if (!map.containsValue(briteID)) { // this BRITE node was already mapped?
-						map.put(cloudSimEntityID, briteID);
-					} else {
-						Log.printLine("Error in network mapping. BRITE node " + briteID + " already in use.");
-					}
-				} else {
+		NetworkTopology topology = getInstance();
+		synchronized (topology) {
+			if (topology.networkEnabled) {
+				if (cloudSimEntityID < 0 || briteID < 0 || briteID >= topology.graph.getNumberOfNodes()) {
+					Log.printLine("Error in network mapping. CloudSim node " + cloudSimEntityID
+							+ " not mapped to BRITE node " + briteID + ".");
+				} else if (topology.getEntityNode(cloudSimEntityID) >= 0) {
+					// this CloudSim entity was already mapped
 					Log.printLine("Error in network mapping. CloudSim entity " + cloudSimEntityID
 							+ " already mapped.");
+				} else if (briteID < topology.nodeEntities.length && topology.nodeEntities[briteID] >= 0) {
+					// this BRITE node was already mapped
+					Log.printLine("Error in network mapping. BRITE node " + briteID + " already in use.");
+				} else {
+					topology.setEntityNode(cloudSimEntityID, briteID);
 				}
-			} catch (Exception e) {
-				Log.printLine("Error in network mapping. CloudSim node " + cloudSimEntityID
-						+ " not mapped to BRITE node " + briteID + ".");
 			}
 		}
 	}
@@ -199,11 +423,15 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static void unmapNode(int cloudSimEntityID) {
-		if (networkEnabled) {
-			try {
-				map.remove(cloudSimEntityID);
-			} catch (Exception e) {
-				Log.printLine("Error in network unmapping. CloudSim node: " + cloudSimEntityID);
+		NetworkTopology topology = getInstance();
+		synchronized (topology) {
+			if (topology.networkEnabled) {
+				int briteID = topology.getEntityNode(cloudSimEntityID);
+				if (briteID >= 0) {
+					topology.entityNodes[cloudSimEntityID] = -1;
+					topology.nodeEntities[briteID] = -1;
+					topology.entityDelays = null;
+				}
 			}
 		}
 	}
@@ -219,17 +447,12 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static double getDelay(int srcID, int destID) {
-		if (networkEnabled) {
-			try {
-				// add the network latency
-				double delay = delayMatrix.getDelay(map.get(srcID), map.get(destID));
-
-				return delay;
-			} catch (Exception e) {
-				// in case of error, just keep running and return 0.0
-			}
+		NetworkTopology topology = getInstance();
+		EntityDelays delays = topology.entityDelays;
+		if (delays == null) {
+			delays = topology.updateEntityDelays();
 		}
-		return 0.0;
+		return delays.getDelay(srcID, destID);
 	}
 
 	/**
@@ -242,7 +465,58 @@ public class NetworkTopology {
 	 * @post $none
 	 */
 	public static boolean isNetworkEnabled() {
-		return networkEnabled;
+		return getInstance().networkEnabled;
+	}
+
+	/**
+	 * The delays between the mapped entities, copied from the delay matrix. A copy is never changed
+	 * once it is published, so it can be read without holding the lock of the topology.
+	 */
+	private static class EntityDelays {
+
+		/**
+		 * The index of each CloudSim entity in the delays, by entity id, or 0 if the entity is not
+		 * mapped.
+		 */
+		private final int[] indices;
+
+		/**
+		 * The delays between the mapped entities, row after row, with a first row and column of
+		 * zeros for the entities that are not mapped.
+		 */
+		private final float[] delays;
+
+		/** The number of rows of the delays, the number of mapped entities plus one. */
+		private final int size;
+
+		/**
+		 * Instantiates the delays between the mapped entities.
+		 * 
+		 * @param indices the index of each entity in the delays
+		 * @param delays the delays, row after row
+		 * @param size the number of rows of the delays
+		 */
+		public EntityDelays(int[] indices, float[] delays, int size) {
+			this.indices = indices;
+			this.delays = delays;
+			this.size = size;
+		}
+
+		/**
+		 * Gets the delay between two entities.
+		 * 
+		 * @param srcID ID of the source entity
+		 * @param destID ID of the destination entity
+		 * @return the delay, or 0 if one of the entities is not mapped
+		 */
+		public double getDelay(int srcID, int destID) {
+			// the entities that are not mapped have the index 0, whose delays are zeros
+			if (srcID < 0 || destID < 0 || srcID >= indices.length || destID >= indices.length) {
+				return 0.0;
+			}
+			return delays[indices[srcID] * size + indices[destID]];
+		}
+
 	}
 
 }
@@ -0,0 +1,363 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+
+/**
+ * The state history of a host or a VM: the allocated and requested MIPS and a flag at each time the
+ * state has been recorded. The entries are kept in columns of primitive arrays, and an entry added
+ * at the same time as the last one replaces it.
+ * <p>
+ * The number of entries kept is set by the retention: all the entries, the last entries only, or no
+ * entry at all. Whatever the retention, each entry is passed to
+ * {@link #updateMetrics(double, double, double, boolean, double)} when the next entry is added, so
+ * that the subclasses can compute the metrics of the whole run without keeping the history.
+ * <p>
+ * The history is a read-only list of the entries kept, from the oldest to the latest, so that it can
+ * be iterated as before; the entries of the list are created when they are read.
+ *
+ * @param <E> the type of the entries
+ * @since CloudSim Toolkit 3.0
+ */
+public abstract class StateHistory<E> extends AbstractList<E> {
+
+	/** The retention keeping all the entries. */
+	public static final int RETAIN_ALL = -1;
+
+	/** The retention keeping no entry. */
+	public static final int RETAIN_NONE = 0;
+
+	/** The initial capacity of the columns when all the entries are kept. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** The retention: {@link #RETAIN_ALL}, {@link #RETAIN_NONE} or the number of last entries kept. */
+	private int retention;
+
+	/** The times of the entries kept. */
+	private double[] times;
+
+	/** The allocated MIPS of the entries kept. */
+	private double[] allocatedMips;
+
+	/** The requested MIPS of the entries kept. */
+	private double[] requestedMips;
+
+	/** The flags of the entries kept. */
+	private boolean[] flags;
+
+	/** The index in the columns of the oldest entry kept. */
+	private int start;
+
+	/** The number of entries kept. */
+	private int size;
+
+	/** Whether an entry has been added. */
+	private boolean hasLastEntry;
+
+	/** The time of the last entry. */
+	private double lastTime;
+
+	/** The allocated MIPS of the last entry. */
+	private double lastAllocatedMips;
+
+	/** The requested MIPS of the last entry. */
+	private double lastRequestedMips;
+
+	/** The flag of the last entry. */
+	private boolean lastFlag;
+
+	/**
+	 * Instantiates a new state history with the retention of the simulation of the calling thread.
+	 *
+	 * @see CloudSim#setStateHistoryRetention(int)
+	 */
+	public StateHistory() {
+		this(CloudSim.getStateHistoryRetention());
+	}
+
+	/**
+	 * Instantiates a new state history.
+	 *
+	 * @param retention {@link #RETAIN_ALL}, {@link #RETAIN_NONE} or the number of last entries kept
+	 * @throws IllegalArgumentException if the retention is invalid
+	 */
+	public StateHistory(int retention) {
+		checkRetention(retention);
+		this.retention = retention;
+		int capacity = getCapacity(retention, 0);
+		times = new double[capacity];
+		allocatedMips = new double[capacity];
+		requestedMips = new double[capacity];
+		flags = new boolean[capacity];
+	}
+
+	/**
+	 * Gets the retention.
+	 *
+	 * @return {@link #RETAIN_ALL}, {@link #RETAIN_NONE} or the number of last entries kept
+	 */
+	public int getRetention() {
+		return retention;
+	}
+
+	/**
+	 * Sets the retention. The last entries kept that are within the new retention are still kept.
+	 *
+	 * @param retention {@link #RETAIN_ALL}, {@link #RETAIN_NONE} or the number of last entries kept
+	 * @throws IllegalArgumentException if the retention is invalid
+	 */
+	public void setRetention(int retention) {
+		checkRetention(retention);
+		int newSize = retention == RETAIN_ALL ? size : Math.min(size, retention);
+		int capacity = getCapacity(retention, newSize);
+		double[] newTimes = new double[capacity];
+		double[] newAllocatedMips = new double[capacity];
+		double[] newRequestedMips = new double[capacity];
+		boolean[] newFlags = new boolean[capacity];
+		for (int i = 0; i < newSize; i++) {
+			int index = getColumnIndex(size - newSize + i);
+			newTimes[i] = times[index];
+			newAllocatedMips[i] = allocatedMips[index];
+			newRequestedMips[i] = requestedMips[index];
+			newFlags[i] = flags[index];
+		}
+		this.retention = retention;
+		times = newTimes;
+		allocatedMips = newAllocatedMips;
+		requestedMips = newRequestedMips;
+		flags = newFlags;
+		start = 0;
+		size = newSize;
+		modCount++;
+	}
+
+	/**
+	 * Gets the time of an entry kept.
+	 *
+	 * @param index the index of the entry, 0 being the oldest entry kept
+	 * @return the time
+	 */
+	public double getTime(int index) {
+		return times[getColumnIndex(checkIndex(index))];
+	}
+
+	/**
+	 * Gets the allocated MIPS of an entry kept.
+	 *
+	 * @param index the index of the entry, 0 being the oldest entry kept
+	 * @return the allocated MIPS
+	 */
+	public double getAllocatedMips(int index) {
+		return allocatedMips[getColumnIndex(checkIndex(index))];
+	}
+
+	/**
+	 * Gets the requested MIPS of an entry kept.
+	 *
+	 * @param index the index of the entry, 0 being the oldest entry kept
+	 * @return the requested MIPS
+	 */
+	public double getRequestedMips(int index) {
+		return requestedMips[getColumnIndex(checkIndex(index))];
+	}
+
+	/**
+	 * Gets the flag of an entry kept.
+	 *
+	 * @param index the index of the entry, 0 being the oldest entry kept
+	 * @return the flag
+	 */
+	protected boolean getFlag(int index) {
+		return flags[getColumnIndex(checkIndex(index))];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Adds an entry, or replaces the last entry if it has the same time. The last entry is passed to
+	 * {@link #updateMetrics(double, double, double, boolean, double)} if it is not replaced.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param flag the flag
+	 */
+	protected void addState(double time, double allocatedMips, double requestedMips, boolean flag) {
+		if (hasLastEntry && lastTime == time) {
+			if (size > 0) {
+				int index = getColumnIndex(size - 1);
+				this.allocatedMips[index] = allocatedMips;
+				this.requestedMips[index] = requestedMips;
+				flags[index] = flag;
+			}
+		} else {
+			if (hasLastEntry) {
+				updateMetrics(lastTime, lastAllocatedMips, lastRequestedMips, lastFlag, time);
+			}
+			if (retention != RETAIN_NONE) {
+				int index;
+				if (size < times.length) {
+					index = getColumnIndex(size++);
+				} else if (retention == RETAIN_ALL) {
+					grow();
+					index = size++;
+				} else {
+					index = start;
+					start = start + 1 < times.length ? start + 1 : 0;
+				}
+				times[index] = time;
+				this.allocatedMips[index] = allocatedMips;
+				this.requestedMips[index] = requestedMips;
+				flags[index] = flag;
+			}
+			hasLastEntry = true;
+			lastTime = time;
+		}
+		lastAllocatedMips = allocatedMips;
+		lastRequestedMips = requestedMips;
+		lastFlag = flag;
+		modCount++;
+	}
+
+	/**
+	 * Updates the metrics with an entry, when the next entry is added. The state of the entry lasted
+	 * from its time to the time of the next entry. The entries are passed in order, once each.
+	 *
+	 * @param time the time of the entry
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param flag the flag
+	 * @param nextTime the time of the next entry
+	 */
+	protected abstract void updateMetrics(
+			double time,
+			double allocatedMips,
+			double requestedMips,
+			boolean flag,
+			double nextTime);
+
+	/**
+	 * Checks whether an entry has been added, even if it is not kept.
+	 *
+	 * @return true, if an entry has been added
+	 */
+	protected boolean hasLastEntry() {
+		return hasLastEntry;
+	}
+
+	/**
+	 * Gets the time of the last entry, which has not been passed to the metrics yet.
+	 *
+	 * @return the time of the last entry
+	 */
+	protected double getLastTime() {
+		return lastTime;
+	}
+
+	/**
+	 * Gets the flag of the last entry, which has not been passed to the metrics yet.
+	 *
+	 * @return the flag of the last entry
+	 */
+	protected boolean getLastFlag() {
+		return lastFlag;
+	}
+
+	/**
+	 * Doubles the capacity of the columns, moving the oldest entry to the first index.
+	 */
+	private void grow() {
+		int capacity = times.length * 2;
+		times = copyColumn(times, capacity);
+		allocatedMips = copyColumn(allocatedMips, capacity);
+		requestedMips = copyColumn(requestedMips, capacity);
+		boolean[] newFlags = new boolean[capacity];
+		System.arraycopy(flags, start, newFlags, 0, size - start);
+		System.arraycopy(flags, 0, newFlags, size - start, start);
+		flags = newFlags;
+		start = 0;
+	}
+
+	/**
+	 * Copies a full column to a larger array, from the oldest entry.
+	 *
+	 * @param column the column
+	 * @param capacity the length of the new array
+	 * @return the new column
+	 */
+	private double[] copyColumn(double[] column, int capacity) {
+		double[] newColumn = Arrays.copyOf(column, capacity);
+		if (start > 0) {
+			System.arraycopy(column, start, newColumn, 0, size - start);
+			System.arraycopy(column, 0, newColumn, size - start, start);
+		}
+		return newColumn;
+	}
+
+	/**
+	 * Gets the index in the columns of an entry kept.
+	 *
+	 * @param index the index of the entry, 0 being the oldest entry kept
+	 * @return the index in the columns
+	 */
+	private int getColumnIndex(int index) {
+		int i = start + index;
+		return i < times.length ? i : i - times.length;
+	}
+
+	/**
+	 * Checks the index of an entry kept.
+	 *
+	 * @param index the index
+	 * @return the index
+	 */
+	private int checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the capacity of the columns for a retention.
+	 *
+	 * @param retention the retention
+	 * @param size the number of entries to keep
+	 * @return the capacity
+	 */
+	private static int getCapacity(int retention, int size) {
+		if (retention == RETAIN_ALL) {
+			return Math.max(INITIAL_CAPACITY, size);
+		}
+		return retention;
+	}
+
+	/**
+	 * Checks a retention.
+	 *
+	 * @param retention the retention
+	 */
+	private static void checkRetention(int retention) {
+		if (retention < RETAIN_ALL) {
+			throw new IllegalArgumentException("Invalid state history retention: " + retention);
+		}
+	}
+
+}
@@ -30,7 +30,6 @@ public class UtilizationModelPlanetLabInMemory implements UtilizationModel {
 		int n = data.length;//	private final double[] data = new double[289];
 		for (int i = 0; i < n - 1; i++) {
 			data[i] = Integer.valueOf(input.readLine()) / 100.0;//ȡһı/100.0  磺workload/planetlab/888/surfsuel_dsl_internl_net_colostate_577µĵһУ24 data[1]=0.24
-			System.out.println(data[i]);//new add by dantefung
 		}
 		data[n - 1] = data[n - 2];//data[288] = data[287]
 		input.close();// رոͷ֮Դ
@@ -8,7 +8,6 @@
 package org.cloudbus.cloudsim;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -74,7 +73,7 @@ public class Vm {
 	private boolean beingInstantiated;
 
 	/** The mips allocation history. */
-	private final List<VmStateHistoryEntry> stateHistory = new LinkedList<VmStateHistoryEntry>();
+	private final VmStateHistory stateHistory = new VmStateHistory();
 
 	/**
 	 * Creates a new VMCharacteristics object.
@@ -574,12 +573,12 @@ public class Vm {
 	 * 
 	 * @return the state history
 	 */
-	public List<VmStateHistoryEntry> getStateHistory() {
+	public VmStateHistory getStateHistory() {
 		return stateHistory;
 	}
 
 	/**
-	 * Adds the state history entry.
+	 * Adds the state history entry, or replaces the last entry if it has the same time.
 	 * 
 	 * @param time the time
 	 * @param allocatedMips the allocated mips
@@ -591,19 +590,7 @@ public class Vm {
 			double allocatedMips,
 			double requestedMips,
 			boolean isInMigration) {
-		VmStateHistoryEntry newState = new VmStateHistoryEntry(
-				time,
-				allocatedMips,
-				requestedMips,
-				isInMigration);
-		if (!getStateHistory().isEmpty()) {
-			VmStateHistoryEntry previousState = getStateHistory().get(getStateHistory().size() - 1);//ȡһ״̬
-			if (previousState.getTime() == time) {//ϴ״̬ʱ̵ڵǰʱ䡣
-				getStateHistory().set(getStateHistory().size() - 1, newState);//滻ָλõԪء
-				return;
-			}
-		}
-		getStateHistory().add(newState);
+		getStateHistory().addEntry(time, allocatedMips, requestedMips, isInMigration);
 	}
 
 }
@@ -168,6 +168,8 @@ public class VmSchedulerTimeShared extends VmScheduler {
 	@Override
 	public void deallocatePesForVm(Vm vm) {
 		getMipsMapRequested().remove(vm.getUid());//
+		// the VM leaves the host, so it must not be degraded as migrating out if it comes back
+		getVmsMigratingOut().remove(vm.getUid());
 		setPesInUse(0);
 		getMipsMap().clear();
 		setAvailableMips(PeList.getTotalMips(getPeList()));
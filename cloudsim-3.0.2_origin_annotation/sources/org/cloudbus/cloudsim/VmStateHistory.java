@@ -0,0 +1,206 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The state history of a VM, whose flag tells whether the VM is in migration. Along with the
+ * entries kept, it computes the MIPS allocated to and requested by the VM over time, the MIPS not
+ * allocated during the migrations and the times before the migrations as the entries are added, so
+ * that they are known even if no entry is kept.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class VmStateHistory extends StateHistory<VmStateHistoryEntry> {
+
+	/** The sum of the allocated MIPS multiplied by the time during which they were allocated. */
+	private double totalAllocatedMips;
+
+	/** The sum of the requested MIPS multiplied by the time during which they were requested. */
+	private double totalRequestedMips;
+
+	/**
+	 * The sum of the requested MIPS that were not allocated during a migration, multiplied by the
+	 * time during which they were not allocated.
+	 */
+	private double underAllocatedMipsDueToMigration;
+
+	/** The sum of the fractions of the requested MIPS that were not allocated. */
+	private double slaViolationSum;
+
+	/** The number of entries whose allocated MIPS were lower than the requested MIPS. */
+	private int numberOfSlaViolations;
+
+	/** The times before the migrations. */
+	private double[] timesBeforeMigration = new double[0];
+
+	/** The number of times before a migration. */
+	private int numberOfMigrations;
+
+	/** Whether the VM was in migration at the last entry passed to the metrics. */
+	private boolean previousIsInMigration;
+
+	/** The time at which the VM last entered a migration. */
+	private double lastTimeMigrationStarted;
+
+	/**
+	 * Instantiates a new VM state history with the retention of the simulation of the calling
+	 * thread.
+	 */
+	public VmStateHistory() {
+		super();
+	}
+
+	/**
+	 * Instantiates a new VM state history.
+	 *
+	 * @param retention {@link #RETAIN_ALL}, {@link #RETAIN_NONE} or the number of last entries kept
+	 */
+	public VmStateHistory(int retention) {
+		super(retention);
+	}
+
+	/**
+	 * Adds an entry, or replaces the last entry if it has the same time.
+	 *
+	 * @param time the time
+	 * @param allocatedMips the allocated mips
+	 * @param requestedMips the requested mips
+	 * @param isInMigration the is in migration
+	 */
+	public void addEntry(double time, double allocatedMips, double requestedMips, boolean isInMigration) {
+		addState(time, allocatedMips, requestedMips, isInMigration);
+	}
+
+	/**
+	 * Checks whether the VM was in migration at an entry kept.
+	 *
+	 * @param index the index of the entry, 0 being the oldest entry kept
+	 * @return true, if the VM was in migration
+	 */
+	public boolean isInMigration(int index) {
+		return getFlag(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public VmStateHistoryEntry get(int index) {
+		return new VmStateHistoryEntry(
+				getTime(index),
+				getAllocatedMips(index),
+				getRequestedMips(index),
+				isInMigration(index));
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.StateHistory#updateMetrics(double, double, double, boolean, double)
+	 */
+	@Override
+	protected void updateMetrics(
+			double time,
+			double allocatedMips,
+			double requestedMips,
+			boolean isInMigration,
+			double nextTime) {
+		double timeDiff = nextTime - time;
+		totalAllocatedMips += allocatedMips * timeDiff;
+		totalRequestedMips += requestedMips * timeDiff;
+		if (allocatedMips < requestedMips) {
+			slaViolationSum += (requestedMips - allocatedMips) / requestedMips;
+			numberOfSlaViolations++;
+			if (isInMigration) {
+				underAllocatedMipsDueToMigration += (requestedMips - allocatedMips) * timeDiff;
+			}
+		}
+
+		if (previousIsInMigration && !isInMigration) {
+			if (numberOfMigrations == timesBeforeMigration.length) {
+				timesBeforeMigration = Arrays.copyOf(timesBeforeMigration, Math.max(4, numberOfMigrations * 2));
+			}
+			timesBeforeMigration[numberOfMigrations++] = time - lastTimeMigrationStarted;
+		}
+		if (!previousIsInMigration && isInMigration) {
+			lastTimeMigrationStarted = time;
+		}
+		previousIsInMigration = isInMigration;
+	}
+
+	/**
+	 * Gets the sum of the allocated MIPS multiplied by the time during which they were allocated.
+	 *
+	 * @return the total allocated MIPS
+	 */
+	public double getTotalAllocatedMips() {
+		return totalAllocatedMips;
+	}
+
+	/**
+	 * Gets the sum of the requested MIPS multiplied by the time during which they were requested.
+	 *
+	 * @return the total requested MIPS
+	 */
+	public double getTotalRequestedMips() {
+		return totalRequestedMips;
+	}
+
+	/**
+	 * Gets the sum of the requested MIPS that were not allocated during a migration, multiplied by
+	 * the time during which they were not allocated.
+	 *
+	 * @return the MIPS not allocated due to the migrations
+	 */
+	public double getUnderAllocatedMipsDueToMigration() {
+		return underAllocatedMipsDueToMigration;
+	}
+
+	/**
+	 * Gets the sum, over the entries whose allocated MIPS were lower than the requested MIPS, of the
+	 * fraction of the requested MIPS that were not allocated.
+	 *
+	 * @return the sum of the SLA violations
+	 */
+	public double getSlaViolationSum() {
+		return slaViolationSum;
+	}
+
+	/**
+	 * Gets the number of entries whose allocated MIPS were lower than the requested MIPS.
+	 *
+	 * @return the number of SLA violations
+	 */
+	public int getNumberOfSlaViolations() {
+		return numberOfSlaViolations;
+	}
+
+	/**
+	 * Gets the times before the VM migrations, as computed by the power examples: the time between
+	 * the entry at which the VM entered a migration and the entry at which it left it, for each
+	 * migration, in order.
+	 *
+	 * @return the times before the migrations
+	 */
+	public List<Double> getTimesBeforeMigration() {
+		List<Double> times = new ArrayList<Double>(numberOfMigrations + 1);
+		for (int i = 0; i < numberOfMigrations; i++) {
+			times.add(timesBeforeMigration[i]);
+		}
+		if (hasLastEntry() && previousIsInMigration && !getLastFlag()) {
+			times.add(getLastTime() - lastTimeMigrationStarted);
+		}
+		return times;
+	}
+
+}
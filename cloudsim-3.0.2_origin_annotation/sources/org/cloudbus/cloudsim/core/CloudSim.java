@@ -8,16 +8,10 @@
 
 package org.cloudbus.cloudsim.core;
 
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 
-import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.StateHistory;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
 import org.cloudbus.cloudsim.core.predicates.PredicateAny;
 import org.cloudbus.cloudsim.core.predicates.PredicateNone;
@@ -29,67 +23,57 @@ import org.cloudbus.cloudsim.core.predicates.PredicateNone;
  * network. Later, nodes in such file are mapped to CloudSim entities. Delay calculated from the
  * BRITE model are added to the messages send through CloudSim. Messages using the old model are
  * converted to the apropriate methods with the correct parameters.
- * 
+ * <p>
+ * The state of a simulation is kept in a {@link Simulation}, and the static methods of this class
+ * act on the simulation of the calling thread. {@link #init(int, Calendar, boolean)} creates a new
+ * simulation and binds it to the calling thread, so independent simulations can run concurrently
+ * by initialising and starting each one of them in its own thread. The threads that are not bound
+ * to a simulation use the default simulation, the last one initialised by the thread that
+ * initialised the first one, as long as this thread is alive; the simulations initialised
+ * concurrently by other threads do not replace it, so these threads have to bind the simulation
+ * they use, see {@link #setSimulation(Simulation)}.
+ *
  * @author Rodrigo N. Calheiros
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 1.0
  */
 public class CloudSim {
 
-	/** The Constant CLOUDSIM_VERSION_STRING. */
-	private static final String CLOUDSIM_VERSION_STRING = "3.0";
-
-	/** The id of CIS entity. */
-	private static int cisId = -1;
-
-	/** The id of CloudSimShutdown entity. */
-	@SuppressWarnings("unused")
-	private static int shutdownId = -1;
-
-	/** The CIS object. */
-	private static CloudInformationService cis = null;
-
-	/** The Constant NOT_FOUND. */
-	private static final int NOT_FOUND = -1;
+	/** The simulation bound to each thread. */
+	private static final ThreadLocal<Simulation> currentSimulation = new ThreadLocal<Simulation>();
 
-	/** The trace flag. */
-	@SuppressWarnings("unused")
-	private static boolean traceFlag = false;
+	/** The default simulation, used by the threads that are not bound to a simulation. */
+	private static volatile Simulation defaultSimulation = new Simulation();
 
-	/** The calendar. */
-	private static Calendar calendar = null;
-
-	/** The termination time. */
-	private static double terminateAt = -1;
+	/** The thread that initialised the default simulation, or null if none has been initialised. */
+	private static Thread defaultSimulationThread = null;
 
 	/**
-	 * Initialises all the common attributes.
+	 * Gets the simulation of the calling thread, i.e. the simulation bound to the thread or, if
+	 * there is none, the default simulation.
 	 * 
-	 * @param _calendar the _calendar
-	 * @param _traceFlag the _trace flag
-	 * @param numUser number of users
-	 * @throws Exception This happens when creating this entity before initialising CloudSim package
-	 *             or this entity name is <tt>null</tt> or empty
-	 * @pre $none
-	 * @post $none
+	 * @return the simulation
 	 */
-	private static void initCommonVariable(Calendar _calendar, boolean _traceFlag, int numUser)
-			throws Exception {
-		initialize();
-		// NOTE: the order for the below 3 lines are important
-		traceFlag = _traceFlag;
+	public static Simulation getSimulation() {
+		Simulation simulation = currentSimulation.get();
+		if (simulation == null) {
+			return defaultSimulation;
+		}
+		return simulation;
+	}
 
-		// Set the current Wall clock time as the starting time of
-		// simulation
-		if (_calendar == null) {
-			calendar = Calendar.getInstance();
+	/**
+	 * Binds a simulation to the calling thread, so that the entities created by the thread and the
+	 * static methods of this class called by the thread use it.
+	 * 
+	 * @param simulation the simulation, or <tt>null</tt> to unbind the thread
+	 */
+	public static void setSimulation(Simulation simulation) {
+		if (simulation == null) {
+			currentSimulation.remove();
 		} else {
-			calendar = _calendar;
+			currentSimulation.set(simulation);
 		}
-
-		// creates a CloudSimShutdown object
-		CloudSimShutdown shutdown = new CloudSimShutdown("CloudSimShutdown", numUser);
-		shutdownId = shutdown.getId();
 	}
 
 	/**
@@ -114,20 +98,71 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static void init(int numUser, Calendar cal, boolean traceFlag) {
-		try {
-			initCommonVariable(cal, traceFlag, numUser);
-
-			// create a GIS object  Ϣ
-			cis = new CloudInformationService("CloudInformationService");//ͨ췽ϢԼ뵽CloudSimеentityбС
-
-			// set all the above entity IDs
-			cisId = cis.getId();
-		} catch (IllegalArgumentException s) {
-			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
-			Log.printLine(s.getMessage());
-		} catch (Exception e) {
-			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
-			Log.printLine(e.getMessage());
+		init(numUser, cal, traceFlag, new FutureQueue());
+	}
+
+	/**
+	 * Initialises CloudSim parameters using the given implementation of the future event queue.
+	 * This method should be called before creating any entities. A new {@link Simulation} is
+	 * created and bound to the calling thread. It also becomes the default simulation, unless the
+	 * default simulation has been initialised by another thread that is still alive.
+	 * <p>
+	 * The new simulation keeps the network topology the thread built before calling this method,
+	 * in the simulation bound to the thread or, if there is none, in the default simulation as long
+	 * as it has not been initialised. A thread that is not bound to a simulation while another
+	 * thread initialised the default simulation has to build its topology after calling this
+	 * method, as it would otherwise change the topology of the default simulation.
+	 * 
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param futureQueue an empty future event queue, e.g. {@link FutureQueue},
+	 *            {@link EventQueueBinaryHeap} or {@link EventQueueCalendar}
+	 * @see #init(int, Calendar, boolean)
+	 * @pre numUser >= 0
+	 * @pre futureQueue != null
+	 * @post $none
+	 */
+	public static void init(int numUser, Calendar cal, boolean traceFlag, EventQueue futureQueue) {
+		Simulation previous = getSimulationBeforeInit();
+		Simulation simulation = new Simulation();
+		setSimulation(simulation);
+		setDefaultSimulation(simulation);
+		simulation.init(numUser, cal, traceFlag, futureQueue);
+		if (previous != null) {
+			simulation.inheritNetworkTopology(previous);
+		}
+	}
+
+	/**
+	 * Gets the simulation the calling thread used before initialising a new one, i.e. the
+	 * simulation bound to the thread or, if there is none, the default simulation as long as it
+	 * has not been initialised.
+	 * 
+	 * @return the simulation, or null if the thread used the simulation of another thread
+	 */
+	private static synchronized Simulation getSimulationBeforeInit() {
+		Simulation simulation = currentSimulation.get();
+		if (simulation == null && defaultSimulationThread == null) {
+			return defaultSimulation;
+		}
+		return simulation;
+	}
+
+	/**
+	 * Makes a simulation initialised by the calling thread the default simulation, unless the
+	 * default simulation has been initialised by another thread that is still alive.
+	 * 
+	 * @param simulation the simulation
+	 */
+	private static synchronized void setDefaultSimulation(Simulation simulation) {
+		Thread thread = Thread.currentThread();
+		if (defaultSimulationThread == null
+				|| defaultSimulationThread == thread
+				|| !defaultSimulationThread.isAlive()) {
+			defaultSimulation = simulation;
+			defaultSimulationThread = thread;
 		}
 	}
 
@@ -146,23 +181,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static double startSimulation() throws NullPointerException {
-		Log.printLine("Starting CloudSim version " + CLOUDSIM_VERSION_STRING);
-		try {
-			double clock = run();
-
-			// reset all static variables
-			cisId = -1;
-			shutdownId = -1;
-			cis = null;
-			calendar = null;
-			traceFlag = false;
-
-			return clock;
-		} catch (IllegalArgumentException e) {
-			e.printStackTrace();
-			throw new NullPointerException("CloudSim.startCloudSimulation() :"
-					+ " Error - you haven't initialized CloudSim.");
-		}
+		return getSimulation().startSimulation();
 	}
 
 	/**
@@ -178,12 +197,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static void stopSimulation() throws NullPointerException {
-		try {
-			runStop();
-		} catch (IllegalArgumentException e) {
-			throw new NullPointerException("CloudSim.stopCloudSimulation() : "
-					+ "Error - can't stop Cloud Simulation.");
-		}
+		getSimulation().stopSimulation();
 	}
 
 	/**
@@ -192,9 +206,7 @@ public class CloudSim {
 	 * @return true, if successful; false otherwise.
 	 */
 	public static boolean terminateSimulation() {
-		running = false;
-		printMessage("Simulation: Reached termination time.");
-		return true;
+		return getSimulation().terminateSimulation();
 	}
 
 	/**
@@ -204,12 +216,7 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean terminateSimulation(double time) {
-		if (time <= clock) {
-			return false;
-		} else {
-			terminateAt = time;
-		}
-		return true;
+		return getSimulation().terminateSimulation(time);
 	}
 
 	/**
@@ -222,13 +229,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static Calendar getSimulationCalendar() {
-		// make a new copy
-		Calendar clone = calendar;
-		if (calendar != null) {
-			clone = (Calendar) calendar.clone();
-		}
-
-		return clone;
+		return getSimulation().getSimulationCalendar();
 	}
 
 	/**
@@ -239,7 +240,7 @@ public class CloudSim {
 	 * @post $result >= -1
 	 */
 	public static int getCloudInfoServiceEntityId() {
-		return cisId;
+		return getSimulation().getCloudInfoServiceEntityId();
 	}
 
 	/**
@@ -252,59 +253,79 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static List<Integer> getCloudResourceList() {
-		if (cis == null) {
-			return null;
-		}
-
-		return cis.getList();
+		return getSimulation().getCloudResourceList();
 	}
 
 	// ======== SIMULATION METHODS ===============//
 
-	/** The entities. */
-	private static List<SimEntity> entities;
-
-	/** The future event queue. */
-	protected static FutureQueue future;
-
-	/** The deferred event queue. */
-	protected static DeferredQueue deferred;
-
-	/** The simulation clock. */
-	private static double clock;
-
-	/** Flag for checking if the simulation is running. */
-	private static boolean running;
-
-	/** The entities by name. */
-	private static Map<String, SimEntity> entitiesByName;
+	/**
+	 * Initialise the simulation for stand alone simulations. This function should be called at the
+	 * start of the simulation.
+	 */
+	protected static void initialize() {
+		initialize(new FutureQueue());
+	}
 
-	// The predicates used in entity wait methods ʵĵȴķ
-	/** The wait predicates. */
-	private static Map<Integer, Predicate> waitPredicates;
+	/**
+	 * Initialise the simulation for stand alone simulations using the given future event queue.
+	 * 
+	 * @param futureQueue the future event queue
+	 */
+	protected static void initialize(EventQueue futureQueue) {
+		getSimulation().initialize(futureQueue);
+	}
 
-	/** The paused. */
-	private static boolean paused = false;
+	/**
+	 * Sets the maximum number of recycled events kept by the event pool. The events processed by
+	 * the entities in {@link SimEntity#processEvent(SimEvent)} are returned to the pool, so an
+	 * entity that needs an event after processing it has to keep a copy; see {@link SimEventPool}.
+	 * This method has to be called after {@link #init(int, Calendar, boolean)}.
+	 * 
+	 * @param capacity the capacity of the pool, or 0 to disable the recycling of the events
+	 * @pre capacity >= 0
+	 */
+	public static void setEventPoolCapacity(int capacity) {
+		getSimulation().setEventPoolCapacity(capacity);
+	}
 
-	/** The pause at. */
-	private static long pauseAt = -1;
+	/**
+	 * Sets the number of threads used to run the entities that are runnable in the same clock
+	 * tick. With more than one thread, the entities processing events of the same time run in
+	 * parallel, and the results are identical to the ones of a sequential run as long as the
+	 * entities only share state through events; see {@link ParallelEntityExecutor} for the
+	 * requirements. The entities run sequentially by default. This method has to be called after
+	 * {@link #init(int, Calendar, boolean)} and before the simulation starts.
+	 * 
+	 * @param numberOfThreads the number of threads, or 1 to run the entities sequentially
+	 * @pre numberOfThreads >= 1
+	 */
+	public static void setParallelExecution(int numberOfThreads) {
+		getSimulation().setParallelExecution(numberOfThreads);
+	}
 
-	/** The abrupt terminate. */
-	private static boolean abruptTerminate = false;
+	/**
+	 * Gets the retention of the state histories of the hosts and VMs created from now on in the
+	 * simulation of the calling thread.
+	 * 
+	 * @return {@link StateHistory#RETAIN_ALL}, {@link StateHistory#RETAIN_NONE} or the number of
+	 *         last entries kept
+	 */
+	public static int getStateHistoryRetention() {
+		return getSimulation().getStateHistoryRetention();
+	}
 
 	/**
-	 * Initialise the simulation for stand alone simulations. This function should be called at the
-	 * start of the simulation.
+	 * Sets the retention of the state histories of the hosts and VMs created from now on in the
+	 * simulation of the calling thread, for example before creating the hosts and the VMs of a
+	 * large simulation that only needs the metrics. All the entries are kept by default. This
+	 * method has to be called after {@link #init(int, Calendar, boolean)}.
+	 * 
+	 * @param retention {@link StateHistory#RETAIN_ALL}, {@link StateHistory#RETAIN_NONE} or the
+	 *            number of last entries kept
+	 * @throws IllegalArgumentException if the retention is invalid
 	 */
-	protected static void initialize() {
-		Log.printLine("Initialising...");
-		entities = new ArrayList<SimEntity>();//ʵstartEntity()֮ʵĶ
-		entitiesByName = new LinkedHashMap<String, SimEntity>();//ͨʵȡӦʵ塣
-		future = new FutureQueue();//ȴ
-		deferred = new DeferredQueue();//ʱ
-		waitPredicates = new HashMap<Integer, Predicate>();
-		clock = 0;
-		running = false;
+	public static void setStateHistoryRetention(int retention) {
+		getSimulation().setStateHistoryRetention(retention);
 	}
 
 	// The two standard predicates
@@ -323,7 +344,7 @@ public class CloudSim {
 	 * @return the simulation time
 	 */
 	public static double clock() {
-		return clock;
+		return getSimulation().clock();
 	}
 
 	/**
@@ -332,7 +353,7 @@ public class CloudSim {
 	 * @return The number of entities
 	 */
 	public static int getNumEntities() {
-		return entities.size();
+		return getSimulation().getNumEntities();
 	}
 
 	/**
@@ -342,7 +363,7 @@ public class CloudSim {
 	 * @return The entity, or if it could not be found
 	 */
 	public static SimEntity getEntity(int id) {
-		return entities.get(id);
+		return getSimulation().getEntity(id);
 	}
 
 	/**
@@ -352,7 +373,7 @@ public class CloudSim {
 	 * @return The entity
 	 */
 	public static SimEntity getEntity(String name) {
-		return entitiesByName.get(name);
+		return getSimulation().getEntity(name);
 	}
 
 	/**
@@ -362,12 +383,7 @@ public class CloudSim {
 	 * @return The entity's unique id number
 	 */
 	public static int getEntityId(String name) {
-		SimEntity obj = entitiesByName.get(name);
-		if (obj == null) {
-			return NOT_FOUND;
-		} else {
-			return obj.getId();
-		}
+		return getSimulation().getEntityId(name);
 	}
 
 	/**
@@ -379,13 +395,7 @@ public class CloudSim {
 	 * @post $none
 	 */
 	public static String getEntityName(int entityID) {
-		try {
-			return getEntity(entityID).getName();
-		} catch (IllegalArgumentException e) {
-			return null;
-		} catch (Exception e) {
-			return null;
-		}
+		return getSimulation().getEntityName(entityID);
 	}
 
 	/**
@@ -409,11 +419,7 @@ public class CloudSim {
 	 * @return the entity iterator
 	 */
 	public static List<SimEntity> getEntityList() {
-		// create a new list to prevent the user from changing
-		// the list of entities used by Simulation
-		List<SimEntity> list = new LinkedList<SimEntity>();
-		list.addAll(entities);
-		return list;
+		return getSimulation().getEntityList();
 	}
 
 	// Public update methods
@@ -425,18 +431,7 @@ public class CloudSim {
 	 * @param e The new entity
 	 */
 	public static void addEntity(SimEntity e) {
-		SimEvent evt;
-		if (running) {
-			// Post an event to make this entity
-			evt = new SimEvent(SimEvent.CREATE, clock, 1, 0, 0, e);
-			future.addEvent(evt);
-		}
-		if (e.getId() == -1) { // Only add once!
-			int id = entities.size();
-			e.setId(id);
-			entities.add(e);
-			entitiesByName.put(e.getName(), e);
-		}
+		getSimulation().addEntity(e);
 	}
 
 	/**
@@ -446,12 +441,7 @@ public class CloudSim {
 	 * @param e The new entity
 	 */
 	protected static void addEntityDynamically(SimEntity e) {
-		if (e == null) {
-			throw new IllegalArgumentException("Adding null entity.");
-		} else {
-			printMessage("Adding: " + e.getName());
-		}
-		e.startEntity();
+		getSimulation().addEntityDynamically(e);
 	}
 
 	/**
@@ -461,60 +451,14 @@ public class CloudSim {
 	 * @return true, if successful otherwise
 	 */
 	public static boolean runClockTick() {
-		SimEntity ent;
-		boolean queue_empty;
-		int entities_size = entities.size();
-
-		//ȴʱ¼
-		for (int i = 0; i < entities_size; i++) {
-			ent = entities.get(i);
-			if (ent.getState() == SimEntity.RUNNABLE) {
-				ent.run();
-			}
-		}
-
-		//ٴȴ¼
-		// If there are more future events then deal with them
-		if (future.size() > 0) {
-			System.out.println("ʱfutureУ" + future.size() + "¼");
-			List<SimEvent> toRemove = new ArrayList<SimEvent>();
-			Iterator<SimEvent> it = future.iterator();
-			queue_empty = false;
-			SimEvent first = it.next();
-			processEvent(first);
-			future.remove(first);
-
-			it = future.iterator();
-
-			// Check if next events are at same time...  к¼Ƿͬʱύġ
-			boolean trymore = it.hasNext();
-			while (trymore) {
-				SimEvent next = it.next();
-				if (next.eventTime() == first.eventTime()) {//жϺ¼ǷǸһ¼ͬʱύġ
-					processEvent(next);
-					toRemove.add(next);
-					trymore = it.hasNext();
-				} else {
-					trymore = false;
-				}
-			}
-			
-			future.removeAll(toRemove);
-
-		} else {
-			queue_empty = true;
-			running = false;
-			printMessage("Simulation: No more future events");
-		}
-
-		return queue_empty;
+		return getSimulation().runClockTick();
 	}
 
 	/**
 	 * Internal method used to stop the simulation. This method should <b>not</b> be used directly.
 	 */
 	public static void runStop() {
-		printMessage("Simulation completed.");
+		getSimulation().runStop();
 	}
 
 	/**
@@ -524,9 +468,7 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void hold(int src, long delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
-		future.addEvent(e);
-		entities.get(src).setState(SimEntity.HOLDING);
+		getSimulation().hold(src, delay);
 	}
 
 	/**
@@ -536,9 +478,7 @@ public class CloudSim {
 	 * @param delay the delay
 	 */
 	public static void pause(int src, double delay) {
-		SimEvent e = new SimEvent(SimEvent.HOLD_DONE, clock + delay, src);
-		future.addEvent(e);
-		entities.get(src).setState(SimEntity.HOLDING);
+		getSimulation().pause(src, delay);
 	}
 
 	/**
@@ -551,12 +491,7 @@ public class CloudSim {
 	 * @param data the data
 	 */
 	public static void send(int src, int dest, double delay, int tag, Object data) {
-		if (delay < 0) {
-			throw new IllegalArgumentException("Send delay can't be negative.");
-		}
-
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
-		future.addEvent(e);
+		getSimulation().send(src, dest, delay, tag, data);
 	}
 
 	/**
@@ -569,12 +504,7 @@ public class CloudSim {
 	 * @param data the data
 	 */
 	public static void sendFirst(int src, int dest, double delay, int tag, Object data) {
-		if (delay < 0) {
-			throw new IllegalArgumentException("Send delay can't be negative.");
-		}
-
-		SimEvent e = new SimEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
-		future.addEventFirst(e);
+		getSimulation().sendFirst(src, dest, delay, tag, data);
 	}
 
 	/**
@@ -586,11 +516,7 @@ public class CloudSim {
 	 * @param p the p
 	 */
 	public static void wait(int src, Predicate p) {
-		entities.get(src).setState(SimEntity.WAITING);
-		if (p != SIM_ANY) {
-			// If a predicate has been used store it in order to check it
-			waitPredicates.put(src, p);
-		}
+		getSimulation().wait(src, p);
 	}
 
 	/**
@@ -602,16 +528,7 @@ public class CloudSim {
 	 * @return the int
 	 */
 	public static int waiting(int d, Predicate p) {
-		int count = 0;
-		SimEvent event;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			event = iterator.next();
-			if ((event.getDestination() == d) && (p.match(event))) {
-				count++;
-			}
-		}
-		return count;
+		return getSimulation().waiting(d, p);
 	}
 
 	/**
@@ -619,19 +536,10 @@ public class CloudSim {
 	 * 
 	 * @param src the src
 	 * @param p the p
-	 * @return the sim event
+	 * @return the sim event, or <tt>null</tt> if no event matches
 	 */
 	public static SimEvent select(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			ev = iterator.next();
-			if (ev.getDestination() == src && p.match(ev)) {//жĿʵidǷڱʵid
-				iterator.remove();//¼deferredƳ
-				break;
-			}
-		}
-		return ev;
+		return getSimulation().select(src, p);
 	}
 
 	/**
@@ -639,18 +547,10 @@ public class CloudSim {
 	 * 
 	 * @param src the src
 	 * @param p the p
-	 * @return the sim event
+	 * @return the sim event, or <tt>null</tt> if no event matches
 	 */
 	public static SimEvent findFirstDeferred(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iterator = deferred.iterator();
-		while (iterator.hasNext()) {
-			ev = iterator.next();
-			if (ev.getDestination() == src && p.match(ev)) {
-				break;
-			}
-		}
-		return ev;
+		return getSimulation().findFirstDeferred(src, p);
 	}
 
 	/**
@@ -661,104 +561,20 @@ public class CloudSim {
 	 * @return the sim event
 	 */
 	public static SimEvent cancel(int src, Predicate p) {
-		SimEvent ev = null;
-		Iterator<SimEvent> iter = future.iterator();
-		while (iter.hasNext()) {
-			ev = iter.next();
-			if (ev.getSource() == src && p.match(ev)) {
-				iter.remove();
-				break;
-			}
-		}
-
-		return ev;
+		return getSimulation().cancel(src, p);
 	}
 
 	/**
 	 * Removes all events that match a given predicate from the future event queue returns true if
-	 * at least one event has been cancelled; false otherwise.
+	 * at least one event has been cancelled; false otherwise. Only the events sent by the given
+	 * entity are visited, see {@link EventQueue#cancelAll(int, Predicate)}.
 	 * 
 	 * @param src the src
 	 * @param p the p
 	 * @return true, if successful
 	 */
 	public static boolean cancelAll(int src, Predicate p) {
-		SimEvent ev = null;
-		int previousSize = future.size();
-		Iterator<SimEvent> iter = future.iterator();
-		while (iter.hasNext()) {
-			ev = iter.next();
-			if (ev.getSource() == src && p.match(ev)) {
-				iter.remove();
-			}
-		}
-		return previousSize < future.size();
-	}
-
-	//
-	// Private internal methods
-	//
-
-	/**
-	 * Processes an event.
-	 * 
-	 * @param e the e
-	 */
-	private static void processEvent(SimEvent e) {
-		int dest, src;
-		SimEntity dest_ent;
-		// Update the system's clock
-		if (e.eventTime() < clock) {
-			throw new IllegalArgumentException("Past event detected.");
-		}
-		clock = e.eventTime();//ʱ䣬֮¼Яʱ䣬еǰģʱ䣬һһضĳϵԤʱ䡣ɵʱһڲ¼ʱı׼
-
-		// Ok now process it
-		switch (e.getType()) {//ȡ¼ڲ͡
-			case SimEvent.ENULL:
-				throw new IllegalArgumentException("Event has a null type.");
-
-			case SimEvent.CREATE:
-				SimEntity newe = (SimEntity) e.getData();
-				addEntityDynamically(newe);
-				break;
-
-			case SimEvent.SEND:
-				// Check for matching wait
-				dest = e.getDestination();//ȡ¼ָĿʵID
-				if (dest < 0) {
-					throw new IllegalArgumentException("Attempt to send to a null entity detected.");//⵽ͼ͸һʵ塣
-				} else {//ĿʵǴڵġ
-					int tag = e.getTag();//ȡ¼ⲿǩ
-					dest_ent = entities.get(dest);//¼ָĿʵIDʵбȡĿʵ塣
-					if (dest_ent.getState() == SimEntity.WAITING) {//鿴ʵǷһֱڵȴ
-						Integer destObj = Integer.valueOf(dest);//intתInteger
-						Predicate p = waitPredicates.get(destObj);//Mapȡ  ȴʵ  Ӧpredicate
-						if ((p == null) || (tag == 9999) || (p.match(e))) {
-							dest_ent.setEventBuffer((SimEvent) e.clone());
-							dest_ent.setState(SimEntity.RUNNABLE);//ڴڵȴ״ʵΪ״̬
-							waitPredicates.remove(destObj);//mapɾõȴ״̬ʵ塣
-						} else {
-							deferred.addEvent(e);
-						}
-					} else {//Ŀʵ岻Ǵһֱȴ״̬
-						deferred.addEvent(e);//¼뵽deffered档
-					}
-				}
-				break;
-
-			case SimEvent.HOLD_DONE:
-				src = e.getSource();
-				if (src < 0) {
-					throw new IllegalArgumentException("Null entity holding.");
-				} else {
-					entities.get(src).setState(SimEntity.RUNNABLE);
-				}
-				break;
-
-			default:
-				break;
-		}
+		return getSimulation().cancelAll(src, p);
 	}
 
 	/**
@@ -766,13 +582,7 @@ public class CloudSim {
 	 * simulations.
 	 */
 	public static void runStart() {
-		running = true;
-		// Start all the entities
-		for (SimEntity ent : entities) {
-			ent.startEntity();
-		}
-
-		printMessage("Entities started.");
+		getSimulation().runStart();
 	}
 
 	/**
@@ -782,7 +592,7 @@ public class CloudSim {
 	 * @return if the simulation is still running, otherwise
 	 */
 	public static boolean running() {
-		return running;
+		return getSimulation().running();
 	}
 
 	/**
@@ -791,8 +601,7 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean pauseSimulation() {
-		paused = true;
-		return paused;
+		return getSimulation().pauseSimulation();
 	}
 
 	/**
@@ -802,12 +611,7 @@ public class CloudSim {
 	 * @return true, if successful otherwise.
 	 */
 	public static boolean pauseSimulation(long time) {
-		if (time <= clock) {
-			return false;
-		} else {
-			pauseAt = time;
-		}
-		return true;
+		return getSimulation().pauseSimulation(time);
 	}
 
 	/**
@@ -816,13 +620,7 @@ public class CloudSim {
 	 * @return if the simulation has been restarted or or otherwise.
 	 */
 	public static boolean resumeSimulation() {
-		paused = false;
-
-		if (pauseAt <= clock) {
-			pauseAt = -1;
-		}
-
-		return !paused;
+		return getSimulation().resumeSimulation();
 	}
 
 	/**
@@ -832,43 +630,7 @@ public class CloudSim {
 	 * @return the double last clock value
 	 */
 	public static double run() {
-		if (!running) {
-			runStart();
-		}
-		while (true) {
-			if (runClockTick() || abruptTerminate) {
-				break;
-			}
-
-			// this block allows termination of simulation at a specific time
-			if (terminateAt > 0.0 && clock >= terminateAt) {
-				terminateSimulation();
-				clock = terminateAt;
-				break;
-			}
-
-			if (pauseAt != -1
-					&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.iterator().next()
-							.eventTime()) || future.size() == 0 && pauseAt <= clock)) {
-				pauseSimulation();
-				clock = pauseAt;
-			}
-
-			while (paused) {
-				try {
-					Thread.sleep(100);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-			}
-		}
-
-		double clock = clock();
-
-		finishSimulation();
-		runStop();
-
-		return clock;
+		return getSimulation().run();
 	}
 
 	/**
@@ -876,48 +638,14 @@ public class CloudSim {
 	 * in user simulations.
 	 */
 	public static void finishSimulation() {
-		// Allow all entities to exit their body method
-		if (!abruptTerminate) {
-			for (SimEntity ent : entities) {
-				if (ent.getState() != SimEntity.FINISHED) {
-					ent.run();
-				}
-			}
-		}
-
-		for (SimEntity ent : entities) {
-			ent.shutdownEntity();
-		}
-
-		// reset all static variables
-		// Private data members
-		entities = null;
-		entitiesByName = null;
-		future = null;
-		deferred = null;
-		clock = 0L;
-		running = false;
-
-		waitPredicates = null;
-		paused = false;
-		pauseAt = -1;
-		abruptTerminate = false;
+		getSimulation().finishSimulation();
 	}
 
 	/**
 	 * Abruptally terminate.
 	 */
 	public static void abruptallyTerminate() {
-		abruptTerminate = true;
-	}
-
-	/**
-	 * Prints a message about the progress of the simulation.
-	 * 
-	 * @param message the message
-	 */
-	private static void printMessage(String message) {
-		Log.printLine(message);
+		getSimulation().abruptallyTerminate();
 	}
 
 	/**
@@ -926,7 +654,7 @@ public class CloudSim {
 	 * @return true, if is paused
 	 */
 	public static boolean isPaused() {
-		return paused;
+		return getSimulation().isPaused();
 	}
 
 }
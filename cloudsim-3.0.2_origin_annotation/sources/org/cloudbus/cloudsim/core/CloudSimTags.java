@@ -269,6 +269,12 @@ public class CloudSimTags {
 
 	public static final int NextCycle = BASE + 48;
 
+	/**
+	 * Denotes the next end of a transfer or delivery of a packet in the flow-level network of a
+	 * network datacenter
+	 */
+	public static final int Network_Event_Flow = BASE + 49;
+
 	/** Private Constructor */
 	private CloudSimTags() {
 		throw new UnsupportedOperationException("CloudSim Tags cannot be instantiated");
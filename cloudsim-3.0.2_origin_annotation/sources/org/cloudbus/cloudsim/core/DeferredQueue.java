@@ -8,15 +8,23 @@
 
 package org.cloudbus.cloudsim.core;
 
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.ListIterator;
+import java.util.NoSuchElementException;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateAny;
+import org.cloudbus.cloudsim.core.predicates.PredicateNone;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
 /**
- * This class implements the deferred event queue used by {@link Simulation}. The event queue uses a
- * linked list to store the events.
- * 
+ * This class implements the deferred event queue used by {@link Simulation}. The events are stored
+ * in one mailbox per destination entity, so that looking up the events of an entity only costs as
+ * much as the backlog of that entity. Each mailbox keeps its events in a linked list ordered by
+ * event time, and additionally in one list per tag, so that events selected by a
+ * {@link PredicateType} are found without visiting the events with other tags. The lists are
+ * threaded through the events themselves.
+ *
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  * @see Simulation
@@ -24,65 +32,368 @@ import java.util.ListIterator;
  */
 public class DeferredQueue {
 
-	/** The list. */
-	private final List<SimEvent> list = new LinkedList<SimEvent>();
-
-	/** The max time. */
-	private double maxTime = -1;
+	/**
+	 * The mailboxes, indexed by destination entity id. Different mailboxes can be accessed
+	 * concurrently, as long as no event is added to the queue at the same time.
+	 */
+	private Mailbox[] mailboxes = new Mailbox[16];
 
 	/**
 	 * Adds a new event to the queue. Adding a new event to the queue preserves the temporal order
 	 * of the events.
-	 * 
+	 *
 	 * @param newEvent The event to be added to the queue.
 	 */
 	public void addEvent(SimEvent newEvent) {
-		// The event has to be inserted as the last of all events
-		// with the same event_time(). Yes, this matters.
-		double eventTime = newEvent.eventTime();
-		if (eventTime >= maxTime) {
-			list.add(newEvent);
-			maxTime = eventTime;
-			return;
+		int destination = newEvent.getDestination();
+		if (destination < 0) {
+			throw new IllegalArgumentException("Deferred events must have a destination.");
+		}
+		if (destination >= mailboxes.length) {
+			mailboxes = Arrays.copyOf(mailboxes, Math.max(mailboxes.length * 2, destination + 1));
 		}
+		Mailbox mailbox = mailboxes[destination];
+		if (mailbox == null) {
+			mailbox = new Mailbox();
+			mailboxes[destination] = mailbox;
+		}
+		mailbox.add(newEvent);
+	}
 
-		ListIterator<SimEvent> iterator = list.listIterator();
-		SimEvent event;
-		while (iterator.hasNext()) {
-			event = iterator.next();
-			if (event.eventTime() > eventTime) {
-				iterator.previous();
-				iterator.add(newEvent);
-				return;
-			}
+	/**
+	 * Returns the number of events for the given destination that match the predicate.
+	 *
+	 * @param destination the destination entity id
+	 * @param p the predicate
+	 * @return the number of events
+	 */
+	public int size(int destination, Predicate p) {
+		Mailbox mailbox = getMailbox(destination);
+		if (mailbox == null) {
+			return 0;
 		}
+		return mailbox.count(p);
+	}
 
-		list.add(newEvent);
+	/**
+	 * Returns the first event for the given destination that matches the predicate.
+	 *
+	 * @param destination the destination entity id
+	 * @param p the predicate
+	 * @return the event, or <tt>null</tt> if none matches
+	 */
+	public SimEvent findFirst(int destination, Predicate p) {
+		Mailbox mailbox = getMailbox(destination);
+		if (mailbox == null) {
+			return null;
+		}
+		return mailbox.findFirst(p);
 	}
 
 	/**
-	 * Returns an iterator to the events in the queue.
-	 * 
+	 * Removes and returns the first event for the given destination that matches the predicate.
+	 *
+	 * @param destination the destination entity id
+	 * @param p the predicate
+	 * @return the event, or <tt>null</tt> if none matches
+	 */
+	public SimEvent removeFirst(int destination, Predicate p) {
+		Mailbox mailbox = getMailbox(destination);
+		if (mailbox == null) {
+			return null;
+		}
+		SimEvent event = mailbox.findFirst(p);
+		if (event != null) {
+			mailbox.remove(event);
+		}
+		return event;
+	}
+
+	/**
+	 * Returns an iterator to the events in the queue. The events are iterated mailbox by mailbox,
+	 * in the temporal order within each mailbox.
+	 *
 	 * @return the iterator
 	 */
 	public Iterator<SimEvent> iterator() {
-		return list.iterator();
+		return new Iterator<SimEvent>() {
+
+			private int destination = -1;
+
+			private SimEvent next = null;
+
+			private SimEvent last = null;
+
+			@Override
+			public boolean hasNext() {
+				while (next == null || next == mailboxes[destination].head) {
+					destination++;
+					if (destination >= mailboxes.length) {
+						next = null;
+						return false;
+					}
+					if (mailboxes[destination] != null) {
+						next = mailboxes[destination].head.deferredNext;
+					}
+				}
+				return true;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				last = next;
+				next = next.deferredNext;
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				if (last == null) {
+					throw new IllegalStateException();
+				}
+				mailboxes[last.getDestination()].remove(last);
+				last = null;
+			}
+		};
 	}
 
 	/**
 	 * Returns the size of this event queue.
-	 * 
+	 *
 	 * @return the number of events in the queue.
 	 */
 	public int size() {
-		return list.size();
+		int size = 0;
+		for (Mailbox mailbox : mailboxes) {
+			if (mailbox != null) {
+				size += mailbox.size;
+			}
+		}
+		return size;
 	}
 
 	/**
 	 * Clears the queue.
 	 */
 	public void clear() {
-		list.clear();
+		Arrays.fill(mailboxes, null);
+	}
+
+	/**
+	 * Gets the mailbox of an entity.
+	 *
+	 * @param destination the destination entity id
+	 * @return the mailbox, or <tt>null</tt> if the entity has never received a deferred event
+	 */
+	private Mailbox getMailbox(int destination) {
+		if (destination < 0 || destination >= mailboxes.length) {
+			return null;
+		}
+		return mailboxes[destination];
+	}
+
+	/**
+	 * The deferred events of one destination entity. The events are kept in a circular doubly
+	 * linked list ordered by time, with the events of the same time in the order they were added,
+	 * and in one such list per tag.
+	 */
+	private static class Mailbox {
+
+		/** The sentinel of the list of all the events. */
+		private final SimEvent head = new SimEvent();
+
+		/** The lists of events with the same tag. */
+		private TagList[] tagLists = new TagList[4];
+
+		/** The number of tag lists. */
+		private int tagListCount = 0;
+
+		/** The number of events. */
+		private int size = 0;
+
+		/**
+		 * Instantiates a new mailbox.
+		 */
+		Mailbox() {
+			head.deferredPrev = head;
+			head.deferredNext = head;
+		}
+
+		/**
+		 * Adds an event after all the events with the same or an earlier time.
+		 *
+		 * @param event the event
+		 */
+		void add(SimEvent event) {
+			double time = event.eventTime();
+
+			SimEvent previous = head.deferredPrev;
+			while (previous != head && previous.eventTime() > time) {
+				previous = previous.deferredPrev;
+			}
+			event.deferredPrev = previous;
+			event.deferredNext = previous.deferredNext;
+			previous.deferredNext.deferredPrev = event;
+			previous.deferredNext = event;
+
+			TagList tagList = getTagList(event.getTag());
+			previous = tagList.head.indexPrev;
+			while (previous != tagList.head && previous.eventTime() > time) {
+				previous = previous.indexPrev;
+			}
+			event.indexPrev = previous;
+			event.indexNext = previous.indexNext;
+			previous.indexNext.indexPrev = event;
+			previous.indexNext = event;
+			tagList.size++;
+
+			size++;
+		}
+
+		/**
+		 * Removes an event.
+		 *
+		 * @param event the event
+		 */
+		void remove(SimEvent event) {
+			event.deferredPrev.deferredNext = event.deferredNext;
+			event.deferredNext.deferredPrev = event.deferredPrev;
+			event.deferredPrev = null;
+			event.deferredNext = null;
+
+			event.indexPrev.indexNext = event.indexNext;
+			event.indexNext.indexPrev = event.indexPrev;
+			event.indexPrev = null;
+			event.indexNext = null;
+			getTagList(event.getTag()).size--;
+
+			size--;
+		}
+
+		/**
+		 * Counts the events that match a predicate.
+		 *
+		 * @param p the predicate
+		 * @return the number of events
+		 */
+		int count(Predicate p) {
+			if (p instanceof PredicateAny) {
+				return size;
+			}
+			if (p instanceof PredicateNone) {
+				return 0;
+			}
+			int count = 0;
+			if (p instanceof PredicateType) {
+				PredicateType predicate = (PredicateType) p;
+				for (int i = 0; i < tagListCount; i++) {
+					if (predicate.matchTag(tagLists[i].tag)) {
+						count += tagLists[i].size;
+					}
+				}
+				return count;
+			}
+			for (SimEvent event = head.deferredNext; event != head; event = event.deferredNext) {
+				if (p.match(event)) {
+					count++;
+				}
+			}
+			return count;
+		}
+
+		/**
+		 * Finds the first event that matches a predicate.
+		 *
+		 * @param p the predicate
+		 * @return the event, or <tt>null</tt> if none matches
+		 */
+		SimEvent findFirst(Predicate p) {
+			if (p instanceof PredicateAny) {
+				return size > 0 ? head.deferredNext : null;
+			}
+			if (p instanceof PredicateNone) {
+				return null;
+			}
+			if (p instanceof PredicateType) {
+				PredicateType predicate = (PredicateType) p;
+				SimEvent first = null;
+				boolean tie = false;
+				for (int i = 0; i < tagListCount; i++) {
+					TagList tagList = tagLists[i];
+					if (tagList.size == 0 || !predicate.matchTag(tagList.tag)) {
+						continue;
+					}
+					SimEvent candidate = tagList.head.indexNext;
+					if (first == null || candidate.eventTime() < first.eventTime()) {
+						first = candidate;
+						tie = false;
+					} else if (candidate.eventTime() == first.eventTime()) {
+						tie = true;
+					}
+				}
+				// Events of different tags with the same time are ordered by the list of all events
+				if (!tie) {
+					return first;
+				}
+			}
+			for (SimEvent event = head.deferredNext; event != head; event = event.deferredNext) {
+				if (p.match(event)) {
+					return event;
+				}
+			}
+			return null;
+		}
+
+		/**
+		 * Gets the list of events with the given tag, creating it if needed.
+		 *
+		 * @param tag the tag
+		 * @return the tag list
+		 */
+		private TagList getTagList(int tag) {
+			for (int i = 0; i < tagListCount; i++) {
+				if (tagLists[i].tag == tag) {
+					return tagLists[i];
+				}
+			}
+			if (tagListCount == tagLists.length) {
+				tagLists = Arrays.copyOf(tagLists, tagListCount * 2);
+			}
+			TagList tagList = new TagList(tag);
+			tagLists[tagListCount++] = tagList;
+			return tagList;
+		}
+
+	}
+
+	/**
+	 * The events of a mailbox with the same tag.
+	 */
+	private static class TagList {
+
+		/** The tag. */
+		private final int tag;
+
+		/** The sentinel of the list. */
+		private final SimEvent head = new SimEvent();
+
+		/** The number of events. */
+		private int size = 0;
+
+		/**
+		 * Instantiates a new tag list.
+		 *
+		 * @param tag the tag
+		 */
+		TagList(int tag) {
+			this.tag = tag;
+			head.indexPrev = head;
+			head.indexNext = head;
+		}
+
 	}
 
-}
\ No newline at end of file
+}
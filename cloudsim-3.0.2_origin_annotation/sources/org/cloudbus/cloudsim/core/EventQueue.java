@@ -0,0 +1,407 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+
+/**
+ * EventQueue is an abstract class that represents the future event queue used by {@link CloudSim}.
+ * It has to be extended in order to provide a specific data structure for storing the events.
+ * Every implementation must deliver the events in the order defined by
+ * {@link SimEvent#compareTo(SimEvent)}, i.e. by event time and then by serial number. The serial
+ * numbers are assigned by this class when an event is added to the queue.
+ * <p>
+ * This class also keeps a secondary index of the events by source entity and tag, so that
+ * {@link #cancel(int, Predicate)} and {@link #cancelAll(int, Predicate)} only visit the events sent
+ * by the given entity, and only the events with the requested tags when the predicate is a
+ * {@link PredicateType}. The events with the same source and tag are kept in a circular doubly
+ * linked list threaded through the events themselves, so that the index is updated in constant
+ * time when an event leaves the queue.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see CloudSim#init(int, java.util.Calendar, boolean, EventQueue)
+ * @see FutureQueue
+ * @see EventQueueBinaryHeap
+ * @see EventQueueCalendar
+ */
+public abstract class EventQueue implements Iterable<SimEvent> {
+
+	/** The serial of the next event added to the tail of the queue. */
+	private long serial = 0;
+
+	/** The serial of the next event added to the head of the queue. */
+	private long firstSerial = Long.MIN_VALUE;
+
+	/**
+	 * The index of the events by source entity id. For each source, it holds the sentinels of the
+	 * lists of events with the same tag; the tag of a sentinel is the tag of its list.
+	 */
+	private SimEvent[][] index = new SimEvent[16][];
+
+	/**
+	 * Add a new event to the queue. Adding a new event to the queue preserves the temporal order of
+	 * the events in the queue.
+	 *
+	 * @param newEvent The event to be put in the queue.
+	 */
+	public void addEvent(SimEvent newEvent) {
+		newEvent.setSerial(serial++);
+		insert(newEvent);
+		addToIndex(newEvent);
+	}
+
+	/**
+	 * Add a new event to the head of the queue, i.e. before all the events with the same time that
+	 * were added using {@link #addEvent(SimEvent)}.
+	 *
+	 * @param newEvent The event to be put in the queue.
+	 */
+	public void addEventFirst(SimEvent newEvent) {
+		newEvent.setSerial(firstSerial++);
+		insert(newEvent);
+		addToIndex(newEvent);
+	}
+
+	/**
+	 * Removes and returns the first event of the queue.
+	 *
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	public SimEvent poll() {
+		SimEvent first = removeFirst();
+		if (first != null) {
+			removeFromIndex(first);
+		}
+		return first;
+	}
+
+	/**
+	 * Removes and returns the first event of the queue if it occurs at the given time. Calling this
+	 * method repeatedly drains all the events of that time in their order, without building a
+	 * temporary list of them.
+	 *
+	 * @param time the time, usually the time of the last polled event
+	 * @return the first event, or <tt>null</tt> if the queue is empty or its first event occurs at
+	 *         a different time
+	 */
+	public SimEvent pollAt(double time) {
+		SimEvent first = removeFirstAt(time);
+		if (first != null) {
+			removeFromIndex(first);
+		}
+		return first;
+	}
+
+	/**
+	 * Removes the event from the queue.
+	 *
+	 * @param event the event
+	 * @return true, if successful
+	 */
+	public boolean remove(SimEvent event) {
+		if (removeEvent(event)) {
+			removeFromIndex(event);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Removes all the events from the queue.
+	 *
+	 * @param events the events
+	 * @return true, if successful
+	 */
+	public boolean removeAll(Collection<SimEvent> events) {
+		boolean result = false;
+		for (SimEvent event : events) {
+			result |= remove(event);
+		}
+		return result;
+	}
+
+	/**
+	 * Removes the first event sent by the given entity that matches the predicate.
+	 *
+	 * @param source the id of the entity that sent the event
+	 * @param p the predicate
+	 * @return the removed event, or <tt>null</tt> if no event matches
+	 */
+	public SimEvent cancel(int source, Predicate p) {
+		SimEvent first = find(source, p);
+		if (first != null) {
+			remove(first);
+		}
+		return first;
+	}
+
+	/**
+	 * Returns the first event sent by the given entity that matches the predicate, without
+	 * removing it from the queue.
+	 *
+	 * @param source the id of the entity that sent the event
+	 * @param p the predicate
+	 * @return the event, or <tt>null</tt> if no event matches
+	 */
+	public SimEvent find(int source, Predicate p) {
+		SimEvent first = null;
+		if (source < 0) {
+			for (SimEvent event : this) {
+				if (event.getSource() == source && p.match(event)
+						&& (first == null || event.compareTo(first) < 0)) {
+					first = event;
+				}
+			}
+		} else if (source < index.length && index[source] != null) {
+			for (SimEvent sentinel : index[source]) {
+				if (sentinel == null) {
+					break;
+				}
+				if (!matchesTag(p, sentinel.getTag())) {
+					continue;
+				}
+				for (SimEvent event = sentinel.indexNext; event != sentinel; event = event.indexNext) {
+					if (p.match(event) && (first == null || event.compareTo(first) < 0)) {
+						first = event;
+					}
+				}
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Removes all the events sent by the given entity that match the predicate. Only the events of
+	 * the source are visited and, if the predicate is a {@link PredicateType}, only the ones with
+	 * the requested tags.
+	 *
+	 * @param source the id of the entity that sent the events
+	 * @param p the predicate
+	 * @return the number of removed events
+	 */
+	public int cancelAll(int source, Predicate p) {
+		int removed = 0;
+		if (source < 0) {
+			// the matches are collected in one pass, since the iterator does not support removal
+			List<SimEvent> matches = new ArrayList<SimEvent>();
+			for (SimEvent event : this) {
+				if (event.getSource() == source && p.match(event)) {
+					matches.add(event);
+				}
+			}
+			for (SimEvent event : matches) {
+				if (remove(event)) {
+					removed++;
+				}
+			}
+		} else if (source < index.length && index[source] != null) {
+			for (SimEvent sentinel : index[source]) {
+				if (sentinel == null) {
+					break;
+				}
+				if (!matchesTag(p, sentinel.getTag())) {
+					continue;
+				}
+				SimEvent event = sentinel.indexNext;
+				while (event != sentinel) {
+					SimEvent next = event.indexNext;
+					if (p.match(event) && remove(event)) {
+						removed++;
+					}
+					event = next;
+				}
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Clears the queue.
+	 */
+	public void clear() {
+		removeAllEvents();
+		for (SimEvent[] sentinels : index) {
+			if (sentinels == null) {
+				continue;
+			}
+			for (SimEvent sentinel : sentinels) {
+				if (sentinel == null) {
+					break;
+				}
+				SimEvent event = sentinel.indexNext;
+				while (event != sentinel) {
+					SimEvent next = event.indexNext;
+					event.indexPrev = null;
+					event.indexNext = null;
+					event = next;
+				}
+				sentinel.indexPrev = sentinel;
+				sentinel.indexNext = sentinel;
+			}
+		}
+	}
+
+	/**
+	 * Returns the first event of the queue without removing it.
+	 *
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	public abstract SimEvent peek();
+
+	/**
+	 * Returns an iterator to the queue. The order of the iteration is implementation specific and
+	 * the iterator is not required to support removal.
+	 *
+	 * @return the iterator
+	 */
+	@Override
+	public abstract Iterator<SimEvent> iterator();
+
+	/**
+	 * Returns the size of this event queue.
+	 *
+	 * @return the size
+	 */
+	public abstract int size();
+
+	/**
+	 * Inserts an event, which already has its serial number set, into the underlying data
+	 * structure.
+	 *
+	 * @param event the event
+	 */
+	protected abstract void insert(SimEvent event);
+
+	/**
+	 * Removes and returns the first event from the underlying data structure.
+	 *
+	 * @return the first event, or <tt>null</tt> if the queue is empty
+	 */
+	protected abstract SimEvent removeFirst();
+
+	/**
+	 * Removes and returns the first event from the underlying data structure if it occurs at the
+	 * given time. Implementations may override it to avoid looking the first event up twice.
+	 *
+	 * @param time the time
+	 * @return the first event, or <tt>null</tt> if the queue is empty or its first event occurs at
+	 *         a different time
+	 */
+	protected SimEvent removeFirstAt(double time) {
+		SimEvent first = peek();
+		if (first == null || first.eventTime() != time) {
+			return null;
+		}
+		return removeFirst();
+	}
+
+	/**
+	 * Removes an event from the underlying data structure.
+	 *
+	 * @param event the event
+	 * @return true, if the event was in the queue
+	 */
+	protected abstract boolean removeEvent(SimEvent event);
+
+	/**
+	 * Removes all the events from the underlying data structure.
+	 */
+	protected abstract void removeAllEvents();
+
+	/**
+	 * Removes an event that has been removed from the underlying data structure from the index.
+	 *
+	 * @param event the event
+	 */
+	protected void removeFromIndex(SimEvent event) {
+		if (event.indexNext == null) {
+			return;
+		}
+		event.indexPrev.indexNext = event.indexNext;
+		event.indexNext.indexPrev = event.indexPrev;
+		event.indexPrev = null;
+		event.indexNext = null;
+	}
+
+	/**
+	 * Adds an event to the tail of the list of its source and tag. Events without a source are not
+	 * indexed.
+	 *
+	 * @param event the event
+	 */
+	private void addToIndex(SimEvent event) {
+		int source = event.getSource();
+		if (source < 0) {
+			return;
+		}
+		SimEvent sentinel = getSentinel(source, event.getTag());
+		SimEvent tail = sentinel.indexPrev;
+		event.indexPrev = tail;
+		event.indexNext = sentinel;
+		tail.indexNext = event;
+		sentinel.indexPrev = event;
+	}
+
+	/**
+	 * Gets the sentinel of the list of events with the given source and tag, creating it if
+	 * needed.
+	 *
+	 * @param source the source entity id
+	 * @param tag the tag
+	 * @return the sentinel
+	 */
+	private SimEvent getSentinel(int source, int tag) {
+		if (source >= index.length) {
+			index = Arrays.copyOf(index, Math.max(index.length * 2, source + 1));
+		}
+		SimEvent[] sentinels = index[source];
+		int count = 0;
+		if (sentinels != null) {
+			for (; count < sentinels.length && sentinels[count] != null; count++) {
+				if (sentinels[count].getTag() == tag) {
+					return sentinels[count];
+				}
+			}
+		}
+
+		SimEvent sentinel = new SimEvent(SimEvent.ENULL, -1, source, -1, tag, null);
+		sentinel.indexPrev = sentinel;
+		sentinel.indexNext = sentinel;
+		if (sentinels == null) {
+			sentinels = new SimEvent[4];
+		} else if (count == sentinels.length) {
+			sentinels = Arrays.copyOf(sentinels, count * 2);
+		}
+		sentinels[count] = sentinel;
+		index[source] = sentinels;
+		return sentinel;
+	}
+
+	/**
+	 * Checks whether events with the given tag may match the predicate.
+	 *
+	 * @param p the predicate
+	 * @param tag the tag
+	 * @return false if the predicate is known to reject all the events with the tag
+	 */
+	private static boolean matchesTag(Predicate p, int tag) {
+		if (p instanceof PredicateType) {
+			return ((PredicateType) p).matchTag(tag);
+		}
+		return true;
+	}
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements the future event queue as an array-based binary min-heap. Adding, polling
+ * and removing an event cost O(log n) and, unlike {@link FutureQueue}, do not allocate a node per
+ * event. Each event records its position in the heap, so it can be removed without a search.
+ * The iterator traverses the events in heap order, not in their temporal order, and does not
+ * support removal.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see EventQueue
+ */
+public class EventQueueBinaryHeap extends EventQueue {
+
+	/** The default initial capacity of the heap. */
+	private static final int DEFAULT_INITIAL_CAPACITY = 64;
+
+	/** The heap. */
+	private SimEvent[] heap;
+
+	/** The number of events in the heap. */
+	private int size;
+
+	/**
+	 * Instantiates a new binary heap event queue.
+	 */
+	public EventQueueBinaryHeap() {
+		this(DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Instantiates a new binary heap event queue.
+	 *
+	 * @param initialCapacity the initial capacity of the heap
+	 */
+	public EventQueueBinaryHeap(int initialCapacity) {
+		heap = new SimEvent[Math.max(initialCapacity, 1)];
+		size = 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#insert(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void insert(SimEvent event) {
+		if (size == heap.length) {
+			heap = Arrays.copyOf(heap, heap.length * 2);
+		}
+		siftUp(size++, event);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#peek()
+	 */
+	@Override
+	public SimEvent peek() {
+		if (size == 0) {
+			return null;
+		}
+		return heap[0];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#removeFirst()
+	 */
+	@Override
+	protected SimEvent removeFirst() {
+		if (size == 0) {
+			return null;
+		}
+		SimEvent first = heap[0];
+		removeAt(0);
+		return first;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#iterator()
+	 */
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new Iterator<SimEvent>() {
+
+			private int cursor = 0;
+
+			@Override
+			public boolean hasNext() {
+				return cursor < size;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (cursor >= size) {
+					throw new NoSuchElementException();
+				}
+				return heap[cursor++];
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#removeEvent(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected boolean removeEvent(SimEvent event) {
+		int position = event.queuePosition;
+		if (position < 0 || position >= size || heap[position] != event) {
+			return false;
+		}
+		removeAt(position);
+		return true;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#removeAllEvents()
+	 */
+	@Override
+	protected void removeAllEvents() {
+		for (int i = 0; i < size; i++) {
+			heap[i].queuePosition = -1;
+		}
+		Arrays.fill(heap, 0, size, null);
+		size = 0;
+	}
+
+	/**
+	 * Removes the event at the given position of the heap.
+	 *
+	 * @param index the position of the event
+	 */
+	private void removeAt(int index) {
+		heap[index].queuePosition = -1;
+		int last = --size;
+		SimEvent moved = heap[last];
+		heap[last] = null;
+		if (index == last) {
+			return;
+		}
+		siftDown(index, moved);
+		if (heap[index] == moved) {
+			siftUp(index, moved);
+		}
+	}
+
+	/**
+	 * Moves an event up the heap until its parent precedes it.
+	 *
+	 * @param index the position where the event is initially placed
+	 * @param event the event
+	 */
+	private void siftUp(int index, SimEvent event) {
+		while (index > 0) {
+			int parent = (index - 1) >>> 1;
+			SimEvent parentEvent = heap[parent];
+			if (parentEvent.compareTo(event) <= 0) {
+				break;
+			}
+			heap[index] = parentEvent;
+			parentEvent.queuePosition = index;
+			index = parent;
+		}
+		heap[index] = event;
+		event.queuePosition = index;
+	}
+
+	/**
+	 * Moves an event down the heap until it precedes both its children.
+	 *
+	 * @param index the position where the event is initially placed
+	 * @param event the event
+	 */
+	private void siftDown(int index, SimEvent event) {
+		int half = size >>> 1;
+		while (index < half) {
+			int child = (index << 1) + 1;
+			SimEvent childEvent = heap[child];
+			int right = child + 1;
+			if (right < size && heap[right].compareTo(childEvent) < 0) {
+				child = right;
+				childEvent = heap[child];
+			}
+			if (event.compareTo(childEvent) <= 0) {
+				break;
+			}
+			heap[index] = childEvent;
+			childEvent.queuePosition = index;
+			index = child;
+		}
+		heap[index] = event;
+		event.queuePosition = index;
+	}
+
+}
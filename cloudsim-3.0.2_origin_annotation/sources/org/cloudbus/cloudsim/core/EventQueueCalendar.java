@@ -0,0 +1,490 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * This class implements the future event queue as a calendar queue (R. Brown, "Calendar Queues: A
+ * Fast O(1) Priority Queue Implementation for the Simulation Event Set Problem", Communications of
+ * the ACM, 31(10), 1988). The events are hashed by time into an array of buckets ("days") of a
+ * fixed width, and the queue is resized and the width is re-estimated when the number of events
+ * grows or shrinks by a factor of two. Adding and polling an event cost O(1) on average when the
+ * event times are reasonably spread.
+ * <p>
+ * Each bucket keeps its events sorted by {@link SimEvent#compareTo(SimEvent)}, so events with the
+ * same time are delivered in the same order as by {@link FutureQueue}. The iterator traverses the
+ * events bucket by bucket and does not support removal.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see EventQueue
+ */
+public class EventQueueCalendar extends EventQueue {
+
+	/** The minimum number of buckets. */
+	private static final int MIN_BUCKETS = 16;
+
+	/** The number of events sampled to estimate the bucket width. */
+	private static final int WIDTH_SAMPLE_SIZE = 25;
+
+	/** The buckets. */
+	private Bucket[] buckets;
+
+	/** The mask used to map a virtual bucket number to a bucket, i.e. the number of buckets - 1. */
+	private int mask;
+
+	/** The width of a bucket in simulation time. */
+	private double width;
+
+	/** The virtual bucket number (time / width) of the last dequeued event. */
+	private long currentBucket;
+
+	/** The number of events in the queue. */
+	private int size;
+
+	/** Whether the queue is being resized. */
+	private boolean resizing;
+
+	/**
+	 * Instantiates a new calendar event queue with the bucket width of 1.0.
+	 */
+	public EventQueueCalendar() {
+		this(1.0);
+	}
+
+	/**
+	 * Instantiates a new calendar event queue.
+	 *
+	 * @param initialWidth the initial width of a bucket in simulation time
+	 */
+	public EventQueueCalendar(double initialWidth) {
+		if (initialWidth <= 0) {
+			throw new IllegalArgumentException("The bucket width must be positive.");
+		}
+		width = initialWidth;
+		init(MIN_BUCKETS);
+		currentBucket = 0;
+		size = 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#insert(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void insert(SimEvent event) {
+		long virtualBucket = getVirtualBucket(event.eventTime());
+		if (size == 0 || virtualBucket < currentBucket) {
+			currentBucket = virtualBucket;
+		}
+		buckets[(int) (virtualBucket & mask)].add(event);
+		size++;
+		if (size > 2 * buckets.length) {
+			resize(buckets.length * 2);
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#peek()
+	 */
+	@Override
+	public SimEvent peek() {
+		Bucket bucket = findFirstBucket();
+		if (bucket == null) {
+			return null;
+		}
+		return bucket.first();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#removeFirst()
+	 */
+	@Override
+	protected SimEvent removeFirst() {
+		Bucket bucket = findFirstBucket();
+		if (bucket == null) {
+			return null;
+		}
+		return removeFirst(bucket);
+	}
+
+	/**
+	 * Removes and returns the first event of the queue if it occurs at the given time. The events
+	 * of the same time are contiguous at the head of the bucket of the last polled event, so they
+	 * are removed from that bucket directly without scanning the calendar.
+	 *
+	 * @param time the time
+	 * @return the first event, or <tt>null</tt> if the queue is empty or its first event occurs at
+	 *         a different time
+	 */
+	@Override
+	protected SimEvent removeFirstAt(double time) {
+		if (size == 0) {
+			return null;
+		}
+		long virtualBucket = getVirtualBucket(time);
+		if (virtualBucket == currentBucket) {
+			Bucket bucket = buckets[(int) (virtualBucket & mask)];
+			if (bucket.size > 0 && bucket.first().eventTime() == time) {
+				return removeFirst(bucket);
+			}
+			return null;
+		}
+		return super.removeFirstAt(time);
+	}
+
+	/**
+	 * Removes the first event of a bucket and shrinks the calendar if needed.
+	 *
+	 * @param bucket the bucket
+	 * @return the removed event
+	 */
+	private SimEvent removeFirst(Bucket bucket) {
+		SimEvent first = bucket.removeFirst();
+		size--;
+		if (size < buckets.length / 2 && buckets.length > MIN_BUCKETS) {
+			resize(buckets.length / 2);
+		}
+		return first;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#iterator()
+	 */
+	@Override
+	public Iterator<SimEvent> iterator() {
+		return new Iterator<SimEvent>() {
+
+			private int bucket = 0;
+
+			private int position = 0;
+
+			@Override
+			public boolean hasNext() {
+				while (bucket < buckets.length && position >= buckets[bucket].size) {
+					bucket++;
+					position = 0;
+				}
+				return bucket < buckets.length;
+			}
+
+			@Override
+			public SimEvent next() {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return buckets[bucket].get(position++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#removeEvent(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected boolean removeEvent(SimEvent event) {
+		long virtualBucket = getVirtualBucket(event.eventTime());
+		if (buckets[(int) (virtualBucket & mask)].remove(event)) {
+			size--;
+			return true;
+		}
+		return false;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#removeAllEvents()
+	 */
+	@Override
+	protected void removeAllEvents() {
+		init(MIN_BUCKETS);
+		currentBucket = 0;
+		size = 0;
+	}
+
+	/**
+	 * Gets the width of a bucket.
+	 *
+	 * @return the width
+	 */
+	public double getWidth() {
+		return width;
+	}
+
+	/**
+	 * Gets the number of buckets.
+	 *
+	 * @return the number of buckets
+	 */
+	public int getNumberOfBuckets() {
+		return buckets.length;
+	}
+
+	/**
+	 * Finds the bucket that holds the first event of the queue and moves the current position of
+	 * the calendar to it. The buckets of the current "year" are scanned first; if none of them
+	 * holds an event of that year, the minimum is found by a direct search over all the buckets.
+	 *
+	 * @return the bucket, or <tt>null</tt> if the queue is empty
+	 */
+	private Bucket findFirstBucket() {
+		if (size == 0) {
+			return null;
+		}
+		long virtualBucket = currentBucket;
+		for (int i = 0; i < buckets.length; i++, virtualBucket++) {
+			Bucket bucket = buckets[(int) (virtualBucket & mask)];
+			if (bucket.size > 0 && getVirtualBucket(bucket.first().eventTime()) == virtualBucket) {
+				currentBucket = virtualBucket;
+				return bucket;
+			}
+		}
+
+		Bucket min = null;
+		for (Bucket bucket : buckets) {
+			if (bucket.size > 0 && (min == null || bucket.first().compareTo(min.first()) < 0)) {
+				min = bucket;
+			}
+		}
+		currentBucket = getVirtualBucket(min.first().eventTime());
+		return min;
+	}
+
+	/**
+	 * Gets the virtual bucket number of a time, i.e. the number of bucket widths since time 0.
+	 *
+	 * @param time the time
+	 * @return the virtual bucket number
+	 */
+	private long getVirtualBucket(double time) {
+		return (long) Math.floor(time / width);
+	}
+
+	/**
+	 * Allocates empty buckets.
+	 *
+	 * @param numberOfBuckets the number of buckets, a power of two
+	 */
+	private void init(int numberOfBuckets) {
+		buckets = new Bucket[numberOfBuckets];
+		for (int i = 0; i < numberOfBuckets; i++) {
+			buckets[i] = new Bucket();
+		}
+		mask = numberOfBuckets - 1;
+	}
+
+	/**
+	 * Re-estimates the bucket width and redistributes all the events over the given number of
+	 * buckets.
+	 *
+	 * @param numberOfBuckets the new number of buckets, a power of two
+	 */
+	private void resize(int numberOfBuckets) {
+		if (resizing) {
+			return;
+		}
+		resizing = true;
+
+		double newWidth = estimateWidth();
+		Bucket[] oldBuckets = buckets;
+		init(numberOfBuckets);
+		if (newWidth > 0) {
+			width = newWidth;
+		}
+		size = 0;
+		for (Bucket bucket : oldBuckets) {
+			for (int i = 0; i < bucket.size; i++) {
+				insert(bucket.get(i));
+			}
+		}
+
+		resizing = false;
+	}
+
+	/**
+	 * Estimates a bucket width as three times the average separation of the first events of the
+	 * queue. Separations larger than twice the average are discarded as outliers, as well as
+	 * separations of zero, which occur when many events share the same time.
+	 *
+	 * @return the estimated width, or 0 if it cannot be estimated
+	 */
+	private double estimateWidth() {
+		int samples = Math.min(size, WIDTH_SAMPLE_SIZE);
+		if (samples < 2) {
+			return 0;
+		}
+
+		SimEvent[] sample = new SimEvent[samples];
+		for (int i = 0; i < samples; i++) {
+			sample[i] = removeFirst();
+		}
+		for (int i = 0; i < samples; i++) {
+			insert(sample[i]);
+		}
+
+		double sum = 0;
+		int count = 0;
+		for (int i = 1; i < samples; i++) {
+			double separation = sample[i].eventTime() - sample[i - 1].eventTime();
+			if (separation > 0) {
+				sum += separation;
+				count++;
+			}
+		}
+		if (count == 0) {
+			return 0;
+		}
+
+		double average = sum / count;
+		sum = 0;
+		count = 0;
+		for (int i = 1; i < samples; i++) {
+			double separation = sample[i].eventTime() - sample[i - 1].eventTime();
+			if (separation > 0 && separation <= 2 * average) {
+				sum += separation;
+				count++;
+			}
+		}
+		if (count == 0) {
+			return 3 * average;
+		}
+		return 3 * sum / count;
+	}
+
+	/**
+	 * A bucket of the calendar. The events are kept sorted in a circular array, so that removing
+	 * the first event and appending an event that follows all the others cost O(1).
+	 */
+	private static class Bucket {
+
+		/** The events. */
+		private SimEvent[] events = new SimEvent[4];
+
+		/** The position of the first event in the array. */
+		private int head = 0;
+
+		/** The number of events. */
+		private int size = 0;
+
+		/**
+		 * Gets the event at the given position.
+		 *
+		 * @param index the position
+		 * @return the event
+		 */
+		SimEvent get(int index) {
+			return events[(head + index) & (events.length - 1)];
+		}
+
+		/**
+		 * Sets the event at the given position.
+		 *
+		 * @param index the position
+		 * @param event the event
+		 */
+		private void set(int index, SimEvent event) {
+			events[(head + index) & (events.length - 1)] = event;
+		}
+
+		/**
+		 * Gets the first event.
+		 *
+		 * @return the first event
+		 */
+		SimEvent first() {
+			return events[head];
+		}
+
+		/**
+		 * Removes and returns the first event.
+		 *
+		 * @return the first event
+		 */
+		SimEvent removeFirst() {
+			SimEvent first = events[head];
+			events[head] = null;
+			head = (head + 1) & (events.length - 1);
+			size--;
+			return first;
+		}
+
+		/**
+		 * Inserts an event keeping the events sorted. The position is searched from the tail, as
+		 * new events usually follow the ones already in the bucket.
+		 *
+		 * @param event the event
+		 */
+		void add(SimEvent event) {
+			if (size == events.length) {
+				SimEvent[] newEvents = new SimEvent[events.length * 2];
+				for (int i = 0; i < size; i++) {
+					newEvents[i] = get(i);
+				}
+				events = newEvents;
+				head = 0;
+			}
+			int index = size;
+			while (index > 0 && get(index - 1).compareTo(event) > 0) {
+				set(index, get(index - 1));
+				index--;
+			}
+			set(index, event);
+			size++;
+		}
+
+		/**
+		 * Removes an event.
+		 *
+		 * @param event the event
+		 * @return true, if the event was in the bucket
+		 */
+		boolean remove(SimEvent event) {
+			int low = 0;
+			int high = size - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				int cmp = get(middle).compareTo(event);
+				if (cmp < 0) {
+					low = middle + 1;
+				} else if (cmp > 0) {
+					high = middle - 1;
+				} else {
+					for (int i = middle; i < size - 1; i++) {
+						set(i, get(i + 1));
+					}
+					set(size - 1, null);
+					size--;
+					return true;
+				}
+			}
+			return false;
+		}
+
+	}
+
+}
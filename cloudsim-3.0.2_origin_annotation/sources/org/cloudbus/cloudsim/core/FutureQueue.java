@@ -8,56 +8,84 @@
 
 package org.cloudbus.cloudsim.core;
 
-import java.util.Collection;
 import java.util.Iterator;
-import java.util.SortedSet;
+import java.util.NavigableSet;
 import java.util.TreeSet;
 
 /**
  * This class implements the future event queue used by {@link Simulation}. The event queue uses a
- * {@link TreeSet} in order to store the events.
+ * {@link TreeSet} in order to store the events. This is the default event queue.
  * 
  * @author Marcos Dias de Assuncao
  * @since CloudSim Toolkit 1.0
  * @see Simulation
  * @see java.util.TreeSet
  */
-public class FutureQueue {
+public class FutureQueue extends EventQueue {
 
 	/** The sorted set. */
-	private final SortedSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
+	private final NavigableSet<SimEvent> sortedSet = new TreeSet<SimEvent>();
 
-	/** The serial. */
-	private long serial = 0;
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#insert(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void insert(SimEvent event) {
+		sortedSet.add(event);
+	}
 
-	/**
-	 * Add a new event to the queue. Adding a new event to the queue preserves the temporal order of
-	 * the events in the queue.
-	 * 
-	 * @param newEvent The event to be put in the queue.
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#peek()
 	 */
-	public void addEvent(SimEvent newEvent) {
-		newEvent.setSerial(serial++);
-		sortedSet.add(newEvent);
+	@Override
+	public SimEvent peek() {
+		if (sortedSet.isEmpty()) {
+			return null;
+		}
+		return sortedSet.first();
 	}
 
-	/**
-	 * Add a new event to the head of the queue.
-	 * 
-	 * @param newEvent The event to be put in the queue.
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#removeFirst()
 	 */
-	public void addEventFirst(SimEvent newEvent) {
-		newEvent.setSerial(0);
-		sortedSet.add(newEvent);
+	@Override
+	protected SimEvent removeFirst() {
+		return sortedSet.pollFirst();
 	}
 
 	/**
-	 * Returns an iterator to the queue.
+	 * Returns an iterator to the queue. The events are iterated in their temporal order and the
+	 * iterator supports removal.
 	 * 
 	 * @return the iterator
 	 */
+	@Override
 	public Iterator<SimEvent> iterator() {
-		return sortedSet.iterator();
+		final Iterator<SimEvent> iterator = sortedSet.iterator();
+		return new Iterator<SimEvent>() {
+
+			private SimEvent last;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public SimEvent next() {
+				last = iterator.next();
+				return last;
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+				removeFromIndex(last);
+			}
+		};
 	}
 
 	/**
@@ -65,34 +93,26 @@ public class FutureQueue {
 	 * 
 	 * @return the size
 	 */
+	@Override
 	public int size() {
 		return sortedSet.size();
 	}
 
-	/**
-	 * Removes the event from the queue.
-	 * 
-	 * @param event the event
-	 * @return true, if successful
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#removeEvent(org.cloudbus.cloudsim.core.SimEvent)
 	 */
-	public boolean remove(SimEvent event) {
+	@Override
+	protected boolean removeEvent(SimEvent event) {
 		return sortedSet.remove(event);
 	}
 
-	/**
-	 * Removes all the events from the queue.
-	 * 
-	 * @param events the events
-	 * @return true, if successful
-	 */
-	public boolean removeAll(Collection<SimEvent> events) {
-		return sortedSet.removeAll(events);
-	}
-
-	/**
-	 * Clears the queue.
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.core.EventQueue#removeAllEvents()
 	 */
-	public void clear() {
+	@Override
+	protected void removeAllEvents() {
 		sortedSet.clear();
 	}
 
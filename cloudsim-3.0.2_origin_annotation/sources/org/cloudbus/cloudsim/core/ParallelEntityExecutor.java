@@ -0,0 +1,354 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+
+/**
+ * Runs the runnable entities of a clock tick in parallel. All the entities that are runnable at
+ * the beginning of a tick process the events of their own deferred mailboxes, so they handle
+ * events of the same time for disjoint destinations and can run concurrently, with no lookahead
+ * needed. The results are identical to the ones of the sequential engine:
+ * <ul>
+ * <li>the events sent by an entity are kept in a buffer of the entity while it runs, and the
+ * buffers are added to the future queue in the order of the entity ids once all the entities have
+ * finished, so that the events get the serial numbers they would get sequentially;
+ * <li>the events cancelled by an entity are looked up both in its buffer and in the future queue,
+ * which is locked while it is accessed;
+ * <li>the messages printed through {@link Log} are buffered per entity as well, through the output
+ * of the thread running the entity, and printed in the order of the entity ids to the output of
+ * the thread running the simulation, see {@link Log#getCurrentOutput()}; messages printed
+ * directly to <tt>System.out</tt> are not ordered. The shared output of the log is not changed, so
+ * the simulations running concurrently with this one keep printing to it;
+ * <li>the threads of the pool are bound to the simulation of the entities, so the static methods
+ * of {@link CloudSim} called by the entities act on it.
+ * </ul>
+ * The entities must not share mutable state other than through events, must only cancel the
+ * events they sent, and must not add entities or stop the simulation while running in parallel.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see CloudSim#setParallelExecution(int)
+ */
+class ParallelEntityExecutor {
+
+	/** The serial given to the first event buffered by {@link CloudSim#send}. */
+	private static final long BUFFERED_SERIAL = Long.MAX_VALUE / 2;
+
+	/** The serial given to the first event buffered by {@link CloudSim#sendFirst}. */
+	private static final long BUFFERED_FIRST_SERIAL = Long.MIN_VALUE / 2;
+
+	/** The simulation of the entities. */
+	private final Simulation simulation;
+
+	/** The number of threads. */
+	private final int numberOfThreads;
+
+	/** The thread pool, created when it is first needed. */
+	private ExecutorService executor;
+
+	/** The buffer of the entity run by the current thread, if it is a thread of the pool. */
+	private final ThreadLocal<EntityBuffer> currentBuffer = new ThreadLocal<EntityBuffer>();
+
+	/**
+	 * Instantiates a new parallel entity executor.
+	 *
+	 * @param simulation the simulation of the entities, which is bound to the threads of the pool
+	 * @param numberOfThreads the number of threads
+	 */
+	ParallelEntityExecutor(Simulation simulation, int numberOfThreads) {
+		this.simulation = simulation;
+		this.numberOfThreads = numberOfThreads;
+	}
+
+	/**
+	 * Runs the given entities, which must be runnable, and adds the events they send to the future
+	 * queue. If there are less than two entities, they are run in the current thread.
+	 *
+	 * @param entities the runnable entities, in the order of their ids
+	 * @param future the future queue
+	 */
+	void run(List<SimEntity> entities, final EventQueue future) {
+		if (entities.size() < 2) {
+			for (SimEntity entity : entities) {
+				entity.run();
+			}
+			return;
+		}
+
+		List<EntityBuffer> buffers = new ArrayList<EntityBuffer>(entities.size());
+		List<Callable<Object>> tasks = new ArrayList<Callable<Object>>(entities.size());
+		for (final SimEntity entity : entities) {
+			final EntityBuffer buffer = new EntityBuffer(future);
+			buffers.add(buffer);
+			tasks.add(new Callable<Object>() {
+
+				@Override
+				public Object call() {
+					CloudSim.setSimulation(simulation);
+					currentBuffer.set(buffer);
+					Log.setThreadOutput(buffer.log);
+					try {
+						entity.run();
+					} finally {
+						Log.setThreadOutput(null);
+						currentBuffer.remove();
+					}
+					return null;
+				}
+			});
+		}
+
+		List<Future<Object>> results;
+		try {
+			results = getExecutor().invokeAll(tasks);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while running the entities.", e);
+		}
+
+		for (int i = 0; i < buffers.size(); i++) {
+			EntityBuffer buffer = buffers.get(i);
+			if (buffer.log.size() > 0) {
+				try {
+					buffer.log.writeTo(Log.getCurrentOutput());
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+			rethrow(results.get(i));
+			buffer.flush();
+		}
+	}
+
+	/**
+	 * Buffers an event sent by the entity run by the current thread.
+	 *
+	 * @param event the event
+	 * @param first whether the event has to be added before the events of the same time
+	 * @return true if the event was buffered, false if the current thread does not run an entity
+	 */
+	boolean add(SimEvent event, boolean first) {
+		EntityBuffer buffer = currentBuffer.get();
+		if (buffer == null) {
+			return false;
+		}
+		buffer.add(event, first);
+		return true;
+	}
+
+	/**
+	 * Checks whether the current thread runs an entity.
+	 *
+	 * @return true, if the current thread is a thread of the pool running an entity
+	 */
+	boolean isRunningEntity() {
+		return currentBuffer.get() != null;
+	}
+
+	/**
+	 * Removes the first event sent by the given entity that matches the predicate, either from the
+	 * buffer of the entity run by the current thread or from the future queue.
+	 *
+	 * @param source the id of the entity that sent the event
+	 * @param p the predicate
+	 * @return the removed event, or <tt>null</tt> if no event matches
+	 */
+	SimEvent cancel(int source, Predicate p) {
+		return currentBuffer.get().cancel(source, p);
+	}
+
+	/**
+	 * Removes all the events sent by the given entity that match the predicate, both from the
+	 * buffer of the entity run by the current thread and from the future queue.
+	 *
+	 * @param source the id of the entity that sent the events
+	 * @param p the predicate
+	 * @return the number of removed events
+	 */
+	int cancelAll(int source, Predicate p) {
+		return currentBuffer.get().cancelAll(source, p);
+	}
+
+	/**
+	 * Stops the threads of the pool.
+	 */
+	void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+			executor = null;
+		}
+	}
+
+	/**
+	 * Gets the thread pool, creating it if needed. The threads are daemons so that they do not
+	 * prevent the JVM from exiting if the pool is not shut down.
+	 *
+	 * @return the thread pool
+	 */
+	private ExecutorService getExecutor() {
+		if (executor == null) {
+			executor = Executors.newFixedThreadPool(numberOfThreads, new ThreadFactory() {
+
+				private int count = 0;
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "CloudSim-entity-" + count++);
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return executor;
+	}
+
+	/**
+	 * Throws the exception thrown by an entity, if any.
+	 *
+	 * @param result the result of the entity
+	 */
+	private static void rethrow(Future<Object> result) {
+		try {
+			result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while running the entities.", e);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new IllegalStateException(cause);
+		}
+	}
+
+	/**
+	 * The events sent and the messages printed by an entity while it runs in parallel. Until they
+	 * are added to the future queue, the events have serial numbers that order them after the
+	 * events already in the queue, as they would be ordered sequentially.
+	 */
+	private static class EntityBuffer {
+
+		/** The future queue. */
+		private final EventQueue future;
+
+		/** The events, in the order they were sent. */
+		private final List<SimEvent> events = new ArrayList<SimEvent>();
+
+		/** The messages printed through the log. */
+		private final ByteArrayOutputStream log = new ByteArrayOutputStream();
+
+		/** The serial of the next event buffered by {@link CloudSim#send}. */
+		private long serial = BUFFERED_SERIAL;
+
+		/** The serial of the next event buffered by {@link CloudSim#sendFirst}. */
+		private long firstSerial = BUFFERED_FIRST_SERIAL;
+
+		/**
+		 * Instantiates a new entity buffer.
+		 *
+		 * @param future the future queue
+		 */
+		EntityBuffer(EventQueue future) {
+			this.future = future;
+		}
+
+		/**
+		 * Buffers an event.
+		 *
+		 * @param event the event
+		 * @param first whether the event has to be added before the events of the same time
+		 */
+		void add(SimEvent event, boolean first) {
+			event.setSerial(first ? firstSerial++ : serial++);
+			events.add(event);
+		}
+
+		/**
+		 * Removes the first matching event from the buffer or from the future queue.
+		 *
+		 * @param source the id of the entity that sent the event
+		 * @param p the predicate
+		 * @return the removed event, or <tt>null</tt> if no event matches
+		 */
+		SimEvent cancel(int source, Predicate p) {
+			SimEvent first = null;
+			for (SimEvent event : events) {
+				if (event.getSource() == source && p.match(event)
+						&& (first == null || event.compareTo(first) < 0)) {
+					first = event;
+				}
+			}
+			synchronized (future) {
+				SimEvent queued = future.find(source, p);
+				if (queued != null && (first == null || queued.compareTo(first) < 0)) {
+					future.remove(queued);
+					return queued;
+				}
+			}
+			if (first != null) {
+				events.remove(first);
+			}
+			return first;
+		}
+
+		/**
+		 * Removes all the matching events from the buffer and from the future queue.
+		 *
+		 * @param source the id of the entity that sent the events
+		 * @param p the predicate
+		 * @return the number of removed events
+		 */
+		int cancelAll(int source, Predicate p) {
+			int removed = 0;
+			for (int i = events.size() - 1; i >= 0; i--) {
+				SimEvent event = events.get(i);
+				if (event.getSource() == source && p.match(event)) {
+					events.remove(i);
+					removed++;
+				}
+			}
+			synchronized (future) {
+				removed += future.cancelAll(source, p);
+			}
+			return removed;
+		}
+
+		/**
+		 * Adds the buffered events to the future queue, in the order they were sent.
+		 */
+		void flush() {
+			for (SimEvent event : events) {
+				if (event.getSerial() < 0) {
+					future.addEventFirst(event);
+				} else {
+					future.addEvent(event);
+				}
+			}
+			events.clear();
+		}
+
+	}
+
+}
@@ -18,10 +18,10 @@ package org.cloudbus.cloudsim.core;
 public class SimEvent implements Cloneable, Comparable<SimEvent> {
 
 	/** internal event type **/
-	private final int etype;
+	private int etype;
 
 	/** time at which event should occur **/
-	private final double time;
+	private double time;
 
 	/** time that the event was removed from the queue for service **/
 	private double endWaitingTime;
@@ -33,13 +33,34 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 	private int entDst;
 
 	/** the user defined type of the event **/
-	private final int tag;
+	private int tag;
 
 	/** any data the event is carrying¼y͵Ĕ **/
-	private final Object data;
+	private Object data;
 
 	private long serial = -1;
 
+	/**
+	 * the previous event with the same source and tag in the index of the future queue, or with
+	 * the same destination and tag in the deferred queue
+	 **/
+	SimEvent indexPrev;
+
+	/**
+	 * the next event with the same source and tag in the index of the future queue, or with the
+	 * same destination and tag in the deferred queue
+	 **/
+	SimEvent indexNext;
+
+	/** the previous event with the same destination in the deferred queue **/
+	SimEvent deferredPrev;
+
+	/** the next event with the same destination in the deferred queue **/
+	SimEvent deferredNext;
+
+	/** the position of the event in the array of an array-based future queue **/
+	int queuePosition = -1;
+
 	// Internal event types
 
 	public static final int ENULL = 0;
@@ -73,6 +94,37 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		data = edata;
 	}
 
+	/**
+	 * Sets all the fields of a recycled event, as if it was newly created.
+	 * 
+	 * @param evtype the internal event type
+	 * @param time the time at which the event should occur
+	 * @param src the id of the entity that scheduled the event
+	 * @param dest the id of the entity the event will be sent to
+	 * @param tag the user defined type of the event
+	 * @param edata the data the event is carrying
+	 * @see SimEventPool
+	 */
+	void init(int evtype, double time, int src, int dest, int tag, Object edata) {
+		etype = evtype;
+		this.time = time;
+		endWaitingTime = 0;
+		entSrc = src;
+		entDst = dest;
+		this.tag = tag;
+		data = edata;
+		serial = -1;
+	}
+
+	/**
+	 * Clears the data of a recycled event, so that the pool does not keep it reachable.
+	 * 
+	 * @see SimEventPool
+	 */
+	void clear() {
+		data = null;
+	}
+
 	SimEvent(int evtype, double time, int src) {
 		etype = evtype;
 		this.time = time;
@@ -86,6 +138,15 @@ public class SimEvent implements Cloneable, Comparable<SimEvent> {
 		this.serial = serial;
 	}
 
+	/**
+	 * Gets the serial number that orders the event among the events of the same time.
+	 * 
+	 * @return the serial number
+	 */
+	long getSerial() {
+		return serial;
+	}
+
 	/**
 	 * Used to set the time at which this event finished waiting in the event
 	 * 
@@ -0,0 +1,78 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+/**
+ * A pool of recycled events, so that scheduling an event does not allocate a new object. The
+ * ownership of an event is handed off explicitly: the simulation owns the events it creates, lends
+ * each event to its destination entity while {@link SimEntity#processEvent(SimEvent)} runs, and
+ * returns the event to the pool once that method has returned. An entity that needs an event
+ * after processing it has to keep a copy made with {@link SimEvent#clone()}. The events obtained
+ * by the entities in any other way, e.g. through {@link SimEntity#getNextEvent()} or
+ * {@link SimEntity#cancelEvent(org.cloudbus.cloudsim.core.predicates.Predicate)}, are never
+ * recycled.
+ * <p>
+ * The pool is not thread-safe; it is only used by the thread running the simulation loop.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see CloudSim#setEventPoolCapacity(int)
+ */
+class SimEventPool {
+
+	/** The free events. */
+	private final SimEvent[] events;
+
+	/** The number of free events. */
+	private int size;
+
+	/**
+	 * Instantiates a new event pool.
+	 *
+	 * @param capacity the maximum number of free events kept by the pool, 0 to disable the pool
+	 */
+	SimEventPool(int capacity) {
+		events = new SimEvent[capacity];
+		size = 0;
+	}
+
+	/**
+	 * Gets an event from the pool, or creates a new one if the pool is empty.
+	 *
+	 * @param evtype the internal event type
+	 * @param time the time at which the event should occur
+	 * @param src the id of the entity that scheduled the event
+	 * @param dest the id of the entity the event will be sent to
+	 * @param tag the user defined type of the event
+	 * @param edata the data the event is carrying
+	 * @return the event
+	 */
+	SimEvent acquire(int evtype, double time, int src, int dest, int tag, Object edata) {
+		if (size == 0) {
+			return new SimEvent(evtype, time, src, dest, tag, edata);
+		}
+		SimEvent event = events[--size];
+		events[size] = null;
+		event.init(evtype, time, src, dest, tag, edata);
+		return event;
+	}
+
+	/**
+	 * Returns an event to the pool. The event must not be referenced anywhere else, in particular
+	 * it must not be in any event queue.
+	 *
+	 * @param event the event
+	 */
+	void release(SimEvent event) {
+		if (size < events.length) {
+			event.clear();
+			events[size++] = event;
+		}
+	}
+
+}
@@ -0,0 +1,1046 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.NetworkTopology;
+import org.cloudbus.cloudsim.StateHistory;
+import org.cloudbus.cloudsim.core.predicates.Predicate;
+import org.cloudbus.cloudsim.network.datacenter.NetworkDatacenterState;
+
+/**
+ * The state of a simulation: its clock, its event queues, its entities, its network topology and
+ * the state of its network datacenters. Each simulation keeps its state in its own instance, so
+ * independent simulations can run concurrently in the same JVM, each one in its own thread.
+ * <p>
+ * A simulation is created and bound to the current thread by
+ * {@link CloudSim#init(int, Calendar, boolean)}. The entities belong to the simulation of the
+ * thread that creates them, and the static methods of {@link CloudSim} act on the simulation of
+ * the calling thread, see {@link CloudSim#getSimulation()}. The output of the {@link Log} is shared
+ * by all the simulations, so the messages of simulations running concurrently are interleaved,
+ * unless each thread prints to its own output, see {@link Log#setThreadOutput(java.io.OutputStream)}.
+ *
+ * @since CloudSim Toolkit 3.0
+ * @see CloudSim
+ */
+public class Simulation {
+
+	/** The Constant CLOUDSIM_VERSION_STRING. */
+	private static final String CLOUDSIM_VERSION_STRING = "3.0";
+
+	/** The Constant NOT_FOUND. */
+	private static final int NOT_FOUND = -1;
+
+	/** The default maximum number of recycled events kept by the event pool. */
+	private static final int DEFAULT_EVENT_POOL_CAPACITY = 4096;
+
+	/** The id of CIS entity. */
+	private int cisId = -1;
+
+	/** The id of CloudSimShutdown entity. */
+	private int shutdownId = -1;
+
+	/** The CIS object. */
+	private CloudInformationService cis = null;
+
+	/** The trace flag. */
+	@SuppressWarnings("unused")
+	private boolean traceFlag = false;
+
+	/** The calendar. */
+	private Calendar calendar = null;
+
+	/** The termination time. */
+	private double terminateAt = -1;
+
+	/** The entities. */
+	private List<SimEntity> entities;
+
+	/** The future event queue. */
+	private EventQueue future;
+
+	/** The deferred event queue. */
+	private DeferredQueue deferred;
+
+	/** The simulation clock. */
+	private double clock;
+
+	/** Flag for checking if the simulation is running. */
+	private boolean running;
+
+	/** The entities by name. */
+	private Map<String, SimEntity> entitiesByName;
+
+	// The predicates used in entity wait methods ʵĵȴķ
+	/** The wait predicates. */
+	private Map<Integer, Predicate> waitPredicates;
+
+	/** The paused. */
+	private boolean paused = false;
+
+	/** The pause at. */
+	private long pauseAt = -1;
+
+	/** The abrupt terminate. */
+	private boolean abruptTerminate = false;
+
+	/** The executor of the entities in parallel, or null if they are run sequentially. */
+	private ParallelEntityExecutor parallelExecutor;
+
+	/** The pool of recycled events. */
+	private SimEventPool eventPool;
+
+	/** The network topology, created when it is first needed. */
+	private NetworkTopology networkTopology;
+
+	/** The state of the network datacenters, created when it is first needed. */
+	private NetworkDatacenterState networkDatacenterState;
+
+	/** The retention of the state histories of the hosts and VMs created from now on. */
+	private int stateHistoryRetention = StateHistory.RETAIN_ALL;
+
+	/**
+	 * Instantiates a new simulation, which has to be initialised before creating any entities.
+	 */
+	Simulation() {
+	}
+
+	/**
+	 * Initialises all the common attributes.
+	 * 
+	 * @param _calendar the _calendar
+	 * @param _traceFlag the _trace flag
+	 * @param numUser number of users
+	 * @throws Exception This happens when creating this entity before initialising CloudSim package
+	 *             or this entity name is <tt>null</tt> or empty
+	 * @pre $none
+	 * @post $none
+	 */
+	private void initCommonVariable(
+			Calendar _calendar,
+			boolean _traceFlag,
+			int numUser,
+			EventQueue futureQueue) throws Exception {
+		initialize(futureQueue);
+		// NOTE: the order for the below 3 lines are important
+		traceFlag = _traceFlag;
+
+		// Set the current Wall clock time as the starting time of
+		// simulation
+		if (_calendar == null) {
+			calendar = Calendar.getInstance();
+		} else {
+			calendar = _calendar;
+		}
+
+		// creates a CloudSimShutdown object
+		CloudSimShutdown shutdown = new CloudSimShutdown("CloudSimShutdown", numUser);
+		shutdownId = shutdown.getId();
+	}
+
+	/**
+	 * Initialises the simulation using the given implementation of the future event queue, and
+	 * creates its CloudInformationService and CloudSimShutdown entities. The simulation has to be
+	 * bound to the current thread.
+	 * 
+	 * @param numUser the number of User Entities created
+	 * @param cal starting time for this simulation. If it is <tt>null</tt>, then the time will be
+	 *            taken from <tt>Calendar.getInstance()</tt>
+	 * @param traceFlag <tt>true</tt> if CloudSim trace need to be written
+	 * @param futureQueue an empty future event queue
+	 * @see CloudSim#init(int, Calendar, boolean, EventQueue)
+	 * @pre numUser >= 0
+	 * @pre futureQueue != null
+	 * @post $none
+	 */
+	void init(int numUser, Calendar cal, boolean traceFlag, EventQueue futureQueue) {
+		try {
+			initCommonVariable(cal, traceFlag, numUser, futureQueue);
+
+			// create a GIS object  Ϣ
+			cis = new CloudInformationService("CloudInformationService");//ͨ췽ϢԼ뵽CloudSimеentityбС
+
+			// set all the above entity IDs
+			cisId = cis.getId();
+		} catch (IllegalArgumentException s) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(s.getMessage());
+		} catch (Exception e) {
+			Log.printLine("CloudSim.init(): The simulation has been terminated due to an unexpected error");
+			Log.printLine(e.getMessage());
+		}
+	}
+
+	/**
+	 * Starts the execution of the simulation. It waits for complete execution of all entities,
+	 * i.e. until all entities threads reach non-RUNNABLE state or there are no more events in the
+	 * future event queue.
+	 * 
+	 * @return the double
+	 * @throws NullPointerException This happens when the simulation has not been initialised
+	 * @see CloudSim#startSimulation()
+	 * @pre $none
+	 * @post $none
+	 */
+	public double startSimulation() throws NullPointerException {
+		Log.printLine("Starting CloudSim version " + CLOUDSIM_VERSION_STRING);
+		try {
+			double clock = run();
+
+			// reset all the variables
+			cisId = -1;
+			shutdownId = -1;
+			cis = null;
+			calendar = null;
+			traceFlag = false;
+
+			return clock;
+		} catch (IllegalArgumentException e) {
+			e.printStackTrace();
+			throw new NullPointerException("CloudSim.startCloudSimulation() :"
+					+ " Error - you haven't initialized CloudSim.");
+		}
+	}
+
+	/**
+	 * Stops the simulation.
+	 * 
+	 * @throws NullPointerException This happens when the simulation can't be stopped
+	 * @see CloudSim#stopSimulation()
+	 * @pre $none
+	 * @post $none
+	 */
+	public void stopSimulation() throws NullPointerException {
+		try {
+			runStop();
+		} catch (IllegalArgumentException e) {
+			throw new NullPointerException("CloudSim.stopCloudSimulation() : "
+					+ "Error - can't stop Cloud Simulation.");
+		}
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation.
+	 * 
+	 * @return true, if successful; false otherwise.
+	 */
+	public boolean terminateSimulation() {
+		running = false;
+		printMessage("Simulation: Reached termination time.");
+		return true;
+	}
+
+	/**
+	 * This method is called if one wants to terminate the simulation at a given time.
+	 * 
+	 * @param time the time at which the simulation has to be terminated
+	 * @return true, if successful otherwise.
+	 */
+	public boolean terminateSimulation(double time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			terminateAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets a new copy of initial simulation Calendar.
+	 * 
+	 * @return a new copy of Calendar object or if the simulation hasn't been initialized
+	 * @pre $none
+	 * @post $none
+	 */
+	public Calendar getSimulationCalendar() {
+		// make a new copy
+		Calendar clone = calendar;
+		if (calendar != null) {
+			clone = (Calendar) calendar.clone();
+		}
+
+		return clone;
+	}
+
+	/**
+	 * Gets the entity ID of <tt>CloudInformationService</tt>.
+	 * 
+	 * @return the Entity ID or if it is not found
+	 * @pre $none
+	 * @post $result >= -1
+	 */
+	public int getCloudInfoServiceEntityId() {
+		return cisId;
+	}
+
+	/**
+	 * Sends a request to Cloud Information Service (GIS) entity to get the list of all Cloud
+	 * hostList.
+	 * 
+	 * @return A List containing CloudResource ID (as an Integer object) or if a CIS entity hasn't
+	 *         been created before
+	 * @pre $none
+	 * @post $none
+	 */
+	public List<Integer> getCloudResourceList() {
+		if (cis == null) {
+			return null;
+		}
+
+		return cis.getList();
+	}
+
+	/**
+	 * Gets the network topology of the simulation, creating an empty one if needed.
+	 * 
+	 * @return the network topology
+	 */
+	public NetworkTopology getNetworkTopology() {
+		if (networkTopology == null) {
+			networkTopology = new NetworkTopology();
+		}
+		return networkTopology;
+	}
+
+	/**
+	 * Uses the network topology of another simulation, if it has one. The topology built by a
+	 * thread before it initialises a new simulation is kept this way, as it was when the topology
+	 * was shared by all the simulations.
+	 * 
+	 * @param simulation the simulation the thread used before initialising this one
+	 */
+	void inheritNetworkTopology(Simulation simulation) {
+		if (simulation.networkTopology != null) {
+			networkTopology = simulation.networkTopology;
+		}
+	}
+
+	/**
+	 * Gets the state shared by the network datacenters, brokers and applications of the
+	 * simulation, creating it if needed.
+	 * 
+	 * @return the network datacenter state
+	 */
+	public NetworkDatacenterState getNetworkDatacenterState() {
+		if (networkDatacenterState == null) {
+			networkDatacenterState = new NetworkDatacenterState();
+		}
+		return networkDatacenterState;
+	}
+
+	// ======== SIMULATION METHODS ===============//
+
+	/**
+	 * Initialise the simulation using the given future event queue.
+	 * 
+	 * @param futureQueue the future event queue
+	 */
+	void initialize(EventQueue futureQueue) {
+		if (futureQueue == null) {
+			throw new IllegalArgumentException("The future event queue can't be null.");
+		}
+		Log.printLine("Initialising...");
+		entities = new ArrayList<SimEntity>();//ʵstartEntity()֮ʵĶ
+		entitiesByName = new LinkedHashMap<String, SimEntity>();//ͨʵȡӦʵ塣
+		future = futureQueue;//ȴ
+		deferred = new DeferredQueue();//ʱ
+		waitPredicates = new HashMap<Integer, Predicate>();
+		clock = 0;
+		running = false;
+		setParallelExecution(1);
+		setEventPoolCapacity(DEFAULT_EVENT_POOL_CAPACITY);
+		stateHistoryRetention = StateHistory.RETAIN_ALL;
+		networkDatacenterState = null;
+	}
+
+	/**
+	 * Sets the maximum number of recycled events kept by the event pool.
+	 * 
+	 * @param capacity the capacity of the pool, or 0 to disable the recycling of the events
+	 * @see CloudSim#setEventPoolCapacity(int)
+	 * @pre capacity >= 0
+	 */
+	public void setEventPoolCapacity(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException("The capacity of the event pool can't be negative.");
+		}
+		eventPool = new SimEventPool(capacity);
+	}
+
+	/**
+	 * Sets the number of threads used to run the entities that are runnable in the same clock
+	 * tick.
+	 * 
+	 * @param numberOfThreads the number of threads, or 1 to run the entities sequentially
+	 * @see CloudSim#setParallelExecution(int)
+	 * @pre numberOfThreads >= 1
+	 */
+	public void setParallelExecution(int numberOfThreads) {
+		if (numberOfThreads < 1) {
+			throw new IllegalArgumentException("The number of threads must be positive.");
+		}
+		if (parallelExecutor != null) {
+			parallelExecutor.shutdown();
+		}
+		parallelExecutor = numberOfThreads > 1 ? new ParallelEntityExecutor(this, numberOfThreads) : null;
+	}
+
+	/**
+	 * Gets the retention of the state histories of the hosts and VMs created from now on.
+	 * 
+	 * @return {@link StateHistory#RETAIN_ALL}, {@link StateHistory#RETAIN_NONE} or the number of
+	 *         last entries kept
+	 * @see CloudSim#getStateHistoryRetention()
+	 */
+	public int getStateHistoryRetention() {
+		return stateHistoryRetention;
+	}
+
+	/**
+	 * Sets the retention of the state histories of the hosts and VMs created from now on.
+	 * 
+	 * @param retention {@link StateHistory#RETAIN_ALL}, {@link StateHistory#RETAIN_NONE} or the
+	 *            number of last entries kept
+	 * @see CloudSim#setStateHistoryRetention(int)
+	 */
+	public void setStateHistoryRetention(int retention) {
+		if (retention < StateHistory.RETAIN_ALL) {
+			throw new IllegalArgumentException("Invalid state history retention: " + retention);
+		}
+		stateHistoryRetention = retention;
+	}
+
+	// Public access methods
+
+	/**
+	 * Get the current simulation time.
+	 * 
+	 * @return the simulation time
+	 */
+	public double clock() {
+		return clock;
+	}
+
+	/**
+	 * Get the current number of entities in the simulation.
+	 * 
+	 * @return The number of entities
+	 */
+	public int getNumEntities() {
+		return entities.size();
+	}
+
+	/**
+	 * Get the entity with a given id.
+	 * 
+	 * @param id the entity's unique id number
+	 * @return The entity, or if it could not be found
+	 */
+	public SimEntity getEntity(int id) {
+		return entities.get(id);
+	}
+
+	/**
+	 * Get the entity with a given name.
+	 * 
+	 * @param name The entity's name
+	 * @return The entity
+	 */
+	public SimEntity getEntity(String name) {
+		return entitiesByName.get(name);
+	}
+
+	/**
+	 * Get the id of an entity with a given name.
+	 * 
+	 * @param name The entity's name
+	 * @return The entity's unique id number
+	 */
+	public int getEntityId(String name) {
+		SimEntity obj = entitiesByName.get(name);
+		if (obj == null) {
+			return NOT_FOUND;
+		} else {
+			return obj.getId();
+		}
+	}
+
+	/**
+	 * Gets name of the entity given its entity ID.
+	 * 
+	 * @param entityID the entity ID
+	 * @return the Entity name or if this object does not have one
+	 * @pre entityID > 0
+	 * @post $none
+	 */
+	public String getEntityName(int entityID) {
+		try {
+			return getEntity(entityID).getName();
+		} catch (IllegalArgumentException e) {
+			return null;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns a list of entities created for the simulation.
+	 * 
+	 * @return the entity iterator
+	 */
+	public List<SimEntity> getEntityList() {
+		// create a new list to prevent the user from changing
+		// the list of entities used by Simulation
+		List<SimEntity> list = new LinkedList<SimEntity>();
+		list.addAll(entities);
+		return list;
+	}
+
+	// Public update methods
+
+	/**
+	 * Add a new entity to the simulation. This is present for compatibility with existing
+	 * simulations since entities are automatically added to the simulation upon instantiation.
+	 * 
+	 * @param e The new entity
+	 */
+	public void addEntity(SimEntity e) {
+		SimEvent evt;
+		if (running) {
+			// Post an event to make this entity
+			evt = newEvent(SimEvent.CREATE, clock, 1, 0, 0, e);
+			future.addEvent(evt);
+		}
+		if (e.getId() == -1) { // Only add once!
+			int id = entities.size();
+			e.setId(id);
+			entities.add(e);
+			entitiesByName.put(e.getName(), e);
+		}
+	}
+
+	/**
+	 * Internal method used to add a new entity to the simulation when the simulation is running. It
+	 * should <b>not</b> be called from user simulations.
+	 * 
+	 * @param e The new entity
+	 */
+	void addEntityDynamically(SimEntity e) {
+		if (e == null) {
+			throw new IllegalArgumentException("Adding null entity.");
+		} else {
+			printMessage("Adding: " + e.getName());
+		}
+		e.startEntity();
+	}
+
+	/**
+	 * Internal method used to run one tick of the simulation. This method should <b>not</b> be
+	 * called in simulations.
+	 * 
+	 * @return true, if successful otherwise
+	 */
+	public boolean runClockTick() {
+		SimEntity ent;
+		boolean queue_empty;
+		int entities_size = entities.size();
+
+		//ȴʱ¼
+		if (parallelExecutor == null) {
+			for (int i = 0; i < entities_size; i++) {
+				ent = entities.get(i);
+				if (ent.getState() == SimEntity.RUNNABLE) {
+					ent.run();
+				}
+			}
+		} else {
+			// The entities created by init() have the lowest ids and their state is read directly
+			// by the other entities, e.g. the resource list of the CIS, so they are run first
+			List<SimEntity> runnable = new ArrayList<SimEntity>();
+			for (int i = 0; i < entities_size; i++) {
+				ent = entities.get(i);
+				if (ent.getState() == SimEntity.RUNNABLE) {
+					if (ent.getId() == shutdownId || ent.getId() == cisId) {
+						ent.run();
+					} else {
+						runnable.add(ent);
+					}
+				}
+			}
+			parallelExecutor.run(runnable, future);
+		}
+
+		//ٴȴ¼
+		// If there are more future events then deal with them
+		if (future.size() > 0) {
+			queue_empty = false;
+			SimEvent first = future.poll();
+			double time = first.eventTime();
+			processEvent(first);
+
+			// Check if next events are at same time...  к¼Ƿͬʱύġ
+			SimEvent next = future.pollAt(time);
+			while (next != null) {
+				processEvent(next);
+				next = future.pollAt(time);
+			}
+		} else {
+			queue_empty = true;
+			running = false;
+			printMessage("Simulation: No more future events");
+		}
+
+		return queue_empty;
+	}
+
+	/**
+	 * Internal method used to stop the simulation. This method should <b>not</b> be used directly.
+	 */
+	public void runStop() {
+		printMessage("Simulation completed.");
+	}
+
+	/**
+	 * Used to hold an entity for some time.
+	 * 
+	 * @param src the src
+	 * @param delay the delay
+	 */
+	public void hold(int src, long delay) {
+		SimEvent e = newEvent(SimEvent.HOLD_DONE, clock + delay, src, -1, -1, null);
+		addFutureEvent(e, false);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	/**
+	 * Used to pause an entity for some time.
+	 * 
+	 * @param src the src
+	 * @param delay the delay
+	 */
+	public void pause(int src, double delay) {
+		SimEvent e = newEvent(SimEvent.HOLD_DONE, clock + delay, src, -1, -1, null);
+		addFutureEvent(e, false);
+		entities.get(src).setState(SimEntity.HOLDING);
+	}
+
+	/**
+	 * Used to send an event from one entity to another.
+	 * 
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void send(int src, int dest, double delay, int tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = newEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		addFutureEvent(e, false);
+	}
+
+	/**
+	 * Used to send an event from one entity to another, with priority in the queue.
+	 * 
+	 * @param src the src
+	 * @param dest the dest
+	 * @param delay the delay
+	 * @param tag the tag
+	 * @param data the data
+	 */
+	public void sendFirst(int src, int dest, double delay, int tag, Object data) {
+		if (delay < 0) {
+			throw new IllegalArgumentException("Send delay can't be negative.");
+		}
+
+		SimEvent e = newEvent(SimEvent.SEND, clock + delay, src, dest, tag, data);
+		addFutureEvent(e, true);
+	}
+
+	/**
+	 * Sets an entity's state to be waiting. The predicate used to wait for an event is now passed
+	 * to Sim_system. Only events that satisfy the predicate will be passed to the entity. This is
+	 * done to avoid unnecessary context switches.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 */
+	public void wait(int src, Predicate p) {
+		entities.get(src).setState(SimEntity.WAITING);
+		if (p != CloudSim.SIM_ANY) {
+			// If a predicate has been used store it in order to check it
+			synchronized (waitPredicates) {
+				waitPredicates.put(src, p);
+			}
+		}
+	}
+
+	/**
+	 * Checks if events for a specific entity are present in the deferred event queue.
+	 * ǷһЩһضʵ崦¼ڵȴ¼档
+	 * 
+	 * @param d the d
+	 * @param p the p
+	 * @return the int
+	 */
+	public int waiting(int d, Predicate p) {
+		return deferred.size(d, p);
+	}
+
+	/**
+	 * Selects an event matching a predicate.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event, or <tt>null</tt> if no event matches
+	 */
+	public SimEvent select(int src, Predicate p) {
+		return deferred.removeFirst(src, p);
+	}
+
+	/**
+	 * Find first deferred event matching a predicate.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event, or <tt>null</tt> if no event matches
+	 */
+	public SimEvent findFirstDeferred(int src, Predicate p) {
+		return deferred.findFirst(src, p);
+	}
+
+	/**
+	 * Removes an event from the event queue.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return the sim event
+	 */
+	public SimEvent cancel(int src, Predicate p) {
+		if (parallelExecutor != null && parallelExecutor.isRunningEntity()) {
+			return parallelExecutor.cancel(src, p);
+		}
+		return future.cancel(src, p);
+	}
+
+	/**
+	 * Removes all events that match a given predicate from the future event queue returns true if
+	 * at least one event has been cancelled; false otherwise. Only the events sent by the given
+	 * entity are visited, see {@link EventQueue#cancelAll(int, Predicate)}.
+	 * 
+	 * @param src the src
+	 * @param p the p
+	 * @return true, if successful
+	 */
+	public boolean cancelAll(int src, Predicate p) {
+		if (parallelExecutor != null && parallelExecutor.isRunningEntity()) {
+			return parallelExecutor.cancelAll(src, p) > 0;
+		}
+		return future.cancelAll(src, p) > 0;
+	}
+
+	/**
+	 * Creates an event, reusing a recycled one if possible. The entities running in parallel always
+	 * get new events, since the event pool is not thread-safe.
+	 * 
+	 * @param type the internal event type
+	 * @param time the time at which the event should occur
+	 * @param src the src
+	 * @param dest the dest
+	 * @param tag the tag
+	 * @param data the data
+	 * @return the event
+	 */
+	private SimEvent newEvent(int type, double time, int src, int dest, int tag, Object data) {
+		if (parallelExecutor != null && parallelExecutor.isRunningEntity()) {
+			return new SimEvent(type, time, src, dest, tag, data);
+		}
+		return eventPool.acquire(type, time, src, dest, tag, data);
+	}
+
+	/**
+	 * Returns an event that has been processed to the event pool. Nothing may reference the event
+	 * afterwards.
+	 * 
+	 * @param e the event
+	 */
+	void releaseEvent(SimEvent e) {
+		if (parallelExecutor != null && parallelExecutor.isRunningEntity()) {
+			return;
+		}
+		eventPool.release(e);
+	}
+
+	/**
+	 * Adds an event to the future event queue or, if the entities are running in parallel, to the
+	 * buffer of the entity run by the current thread.
+	 * 
+	 * @param e the event
+	 * @param first whether the event has to be added before the events of the same time
+	 */
+	private void addFutureEvent(SimEvent e, boolean first) {
+		if (parallelExecutor != null && parallelExecutor.add(e, first)) {
+			return;
+		}
+		if (first) {
+			future.addEventFirst(e);
+		} else {
+			future.addEvent(e);
+		}
+	}
+
+	//
+	// Private internal methods
+	//
+
+	/**
+	 * Processes an event.
+	 * 
+	 * @param e the e
+	 */
+	private void processEvent(SimEvent e) {
+		int dest, src;
+		SimEntity dest_ent;
+		// Update the system's clock
+		if (e.eventTime() < clock) {
+			throw new IllegalArgumentException("Past event detected.");
+		}
+		clock = e.eventTime();//ʱ䣬֮¼Яʱ䣬еǰģʱ䣬һһضĳϵԤʱ䡣ɵʱһڲ¼ʱı׼
+
+		// Ok now process it
+		switch (e.getType()) {//ȡ¼ڲ͡
+			case SimEvent.ENULL:
+				throw new IllegalArgumentException("Event has a null type.");
+
+			case SimEvent.CREATE:
+				SimEntity newe = (SimEntity) e.getData();
+				addEntityDynamically(newe);
+				releaseEvent(e);
+				break;
+
+			case SimEvent.SEND:
+				// Check for matching wait
+				dest = e.getDestination();//ȡ¼ָĿʵID
+				if (dest < 0) {
+					throw new IllegalArgumentException("Attempt to send to a null entity detected.");//⵽ͼ͸һʵ塣
+				} else {//ĿʵǴڵġ
+					int tag = e.getTag();//ȡ¼ⲿǩ
+					dest_ent = entities.get(dest);//¼ָĿʵIDʵбȡĿʵ塣
+					if (dest_ent.getState() == SimEntity.WAITING) {//鿴ʵǷһֱڵȴ
+						Integer destObj = Integer.valueOf(dest);//intתInteger
+						Predicate p = waitPredicates.get(destObj);//Mapȡ  ȴʵ  Ӧpredicate
+						if ((p == null) || (tag == 9999) || (p.match(e))) {
+							dest_ent.setEventBuffer(e);
+							dest_ent.setState(SimEntity.RUNNABLE);//ڴڵȴ״ʵΪ״̬
+							waitPredicates.remove(destObj);//mapɾõȴ״̬ʵ塣
+						} else {
+							deferred.addEvent(e);
+						}
+					} else {//Ŀʵ岻Ǵһֱȴ״̬
+						deferred.addEvent(e);//¼뵽deffered档
+					}
+				}
+				break;
+
+			case SimEvent.HOLD_DONE:
+				src = e.getSource();
+				if (src < 0) {
+					throw new IllegalArgumentException("Null entity holding.");
+				} else {
+					entities.get(src).setState(SimEntity.RUNNABLE);
+				}
+				releaseEvent(e);
+				break;
+
+			default:
+				break;
+		}
+	}
+
+	/**
+	 * Internal method used to start the simulation. This method should <b>not</b> be used by user
+	 * simulations.
+	 */
+	public void runStart() {
+		running = true;
+		// Start all the entities
+		for (SimEntity ent : entities) {
+			ent.startEntity();
+		}
+
+		printMessage("Entities started.");
+	}
+
+	/**
+	 * Check if the simulation is still running. This method should be used by entities to check if
+	 * they should continue executing.
+	 * 
+	 * @return if the simulation is still running, otherwise
+	 */
+	public boolean running() {
+		return running;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation.
+	 * 
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation() {
+		paused = true;
+		return paused;
+	}
+
+	/**
+	 * This method is called if one wants to pause the simulation at a given time.
+	 * 
+	 * @param time the time at which the simulation has to be paused
+	 * @return true, if successful otherwise.
+	 */
+	public boolean pauseSimulation(long time) {
+		if (time <= clock) {
+			return false;
+		} else {
+			pauseAt = time;
+		}
+		return true;
+	}
+
+	/**
+	 * This method is called if one wants to resume the simulation that has previously been paused.
+	 * 
+	 * @return if the simulation has been restarted or or otherwise.
+	 */
+	public boolean resumeSimulation() {
+		paused = false;
+
+		if (pauseAt <= clock) {
+			pauseAt = -1;
+		}
+
+		return !paused;
+	}
+
+	/**
+	 * Start the simulation running. This should be called after all the entities have been setup
+	 * and added, and their ports linked.
+	 * 
+	 * @return the double last clock value
+	 */
+	public double run() {
+		if (!running) {
+			runStart();
+		}
+		while (true) {
+			if (runClockTick() || abruptTerminate) {
+				break;
+			}
+
+			// this block allows termination of simulation at a specific time
+			if (terminateAt > 0.0 && clock >= terminateAt) {
+				terminateSimulation();
+				clock = terminateAt;
+				break;
+			}
+
+			if (pauseAt != -1
+					&& ((future.size() > 0 && clock <= pauseAt && pauseAt <= future.peek().eventTime()) || future
+							.size() == 0 && pauseAt <= clock)) {
+				pauseSimulation();
+				clock = pauseAt;
+			}
+
+			while (paused) {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		double clock = clock();
+
+		finishSimulation();
+		runStop();
+
+		return clock;
+	}
+
+	/**
+	 * Internal method that allows the entities to terminate. This method should <b>not</b> be used
+	 * in user simulations.
+	 */
+	public void finishSimulation() {
+		// Allow all entities to exit their body method
+		if (!abruptTerminate) {
+			for (SimEntity ent : entities) {
+				if (ent.getState() != SimEntity.FINISHED) {
+					ent.run();
+				}
+			}
+		}
+
+		for (SimEntity ent : entities) {
+			ent.shutdownEntity();
+		}
+
+		// reset all the variables
+		// Private data members
+		entities = null;
+		entitiesByName = null;
+		future = null;
+		deferred = null;
+		clock = 0L;
+		running = false;
+
+		waitPredicates = null;
+		paused = false;
+		pauseAt = -1;
+		abruptTerminate = false;
+		setParallelExecution(1);
+	}
+
+	/**
+	 * Abruptally terminate.
+	 */
+	public void abruptallyTerminate() {
+		abruptTerminate = true;
+	}
+
+	/**
+	 * Prints a message about the progress of the simulation.
+	 * 
+	 * @param message the message
+	 */
+	private void printMessage(String message) {
+		Log.printLine(message);
+	}
+
+	/**
+	 * Checks if is paused.
+	 * 
+	 * @return true, if is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+
+}
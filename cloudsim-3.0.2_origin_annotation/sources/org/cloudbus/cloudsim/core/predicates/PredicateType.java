@@ -58,7 +58,16 @@ public class PredicateType extends Predicate {
 	 */
 	@Override
 	public boolean match(SimEvent ev) {
-		int tag = ev.getTag();
+		return matchTag(ev.getTag());
+	}
+
+	/**
+	 * Checks whether a tag is one of the tags of this predicate.
+	 * 
+	 * @param tag the tag
+	 * @return true, if match
+	 */
+	public boolean matchTag(int tag) {
 		for (int tag2 : tags) {
 			if (tag == tag2) {
 				return true;
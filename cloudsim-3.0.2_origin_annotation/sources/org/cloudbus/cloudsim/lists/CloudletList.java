@@ -30,6 +30,9 @@ public class CloudletList {
 	 * @return the by id
 	 */
 	public static <T extends Cloudlet> T getById(List<T> cloudletList, int id) {
+		if (cloudletList instanceof IndexedCloudletList) {
+			return ((IndexedCloudletList<T>) cloudletList).getById(id);
+		}
 		for (T cloudlet : cloudletList) {
 			if (cloudlet.getCloudletId() == id) {
 				return cloudlet;
@@ -45,6 +48,9 @@ public class CloudletList {
 	 * @return - the position of the cloudlet with that id, or -1 otherwise.
 	 */
 	public static <T extends Cloudlet> int getPositionById(List<T> cloudletList, int id) {
+		if (cloudletList instanceof IndexedCloudletList) {
+			return ((IndexedCloudletList<T>) cloudletList).getPositionById(id);
+		}
 		int i = 0 ;
 	        for (T cloudlet : cloudletList) {
 			if (cloudlet.getCloudletId() == id) {
@@ -88,4 +94,32 @@ public class CloudletList {
 		});
 	}
 
+	/**
+	 * Creates an empty list of cloudlets indexed by id, in which the lookups by id of this class do not
+	 * scan the list; see {@link IdIndexedList}.
+	 * 
+	 * @param <T> the type of the cloudlets
+	 * @return the list
+	 */
+	public static <T extends Cloudlet> List<T> createIndexedList() {
+		return new IndexedCloudletList<T>();
+	}
+
+	/**
+	 * A list of cloudlets indexed by the id of the cloudlet.
+	 * 
+	 * @param <T> the type of the cloudlets
+	 */
+	private static class IndexedCloudletList<T extends Cloudlet> extends IdIndexedList<T> {
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.cloudbus.cloudsim.lists.IdIndexedList#getId(java.lang.Object)
+		 */
+		@Override
+		protected int getId(T element) {
+			return element.getCloudletId();
+		}
+	}
+
 }
@@ -32,6 +32,9 @@ public class HostList {
 	 * @post $none
 	 */
 	public static <T extends Host> T getById(List<T> hostList, int id) {
+		if (hostList instanceof IndexedHostList) {
+			return ((IndexedHostList<T>) hostList).getById(id);
+		}
 		for (T host : hostList) {
 			if (host.getId() == id) {
 				return host;
@@ -145,4 +148,34 @@ public class HostList {
 		return host.setPeStatus(peId, status);
 	}
 
+	/**
+	 * Creates an empty list of hosts indexed by id, in which the lookups by id of this class do not
+	 * scan the list; see {@link IdIndexedList}. A datacenter keeps the list of hosts it is given, so
+	 * its lookups are only indexed if the list passed to its characteristics and allocation policy
+	 * is created by this method.
+	 * 
+	 * @param <T> the type of the hosts
+	 * @return the list
+	 */
+	public static <T extends Host> List<T> createIndexedList() {
+		return new IndexedHostList<T>();
+	}
+
+	/**
+	 * A list of hosts indexed by the id of the host.
+	 * 
+	 * @param <T> the type of the hosts
+	 */
+	private static class IndexedHostList<T extends Host> extends IdIndexedList<T> {
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.cloudbus.cloudsim.lists.IdIndexedList#getId(java.lang.Object)
+		 */
+		@Override
+		protected int getId(T element) {
+			return element.getId();
+		}
+	}
+
 }
@@ -0,0 +1,348 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.lists;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * A list of elements with an id, such as VMs, cloudlets or hosts, that finds the elements with a
+ * given id without scanning the list. Along with the elements, it keeps a hash table of primitive
+ * ints from each id to the positions of its first and last elements, and chains each element to
+ * the next element with the same id, so that the elements sharing an id, such as the VMs of
+ * different users, are visited without visiting the others. Adding elements at the end of the list
+ * updates the table and the chains; the other changes, which move the elements, only mark them as
+ * outdated, and they are built again at the next lookup.
+ * <p>
+ * The lookups of {@link VmList}, {@link CloudletList}, {@link HostList} and {@link ResCloudletList}
+ * use the table when they are given such a list, and scan the other lists as before. The ids of
+ * the elements must not change while they are in the list.
+ *
+ * @param <T> the type of the elements
+ * @since CloudSim Toolkit 3.0
+ */
+public abstract class IdIndexedList<T> extends AbstractList<T> implements RandomAccess {
+
+	/** The minimum capacity of the hash table. */
+	private static final int MIN_CAPACITY = 16;
+
+	/** The elements. */
+	private final ArrayList<T> elements;
+
+	/** The ids of the hash table. */
+	private int[] ids;
+
+	/** The positions of the first element of each id of the hash table, or -1 for a free slot. */
+	private int[] positions;
+
+	/** The positions of the last element of each id of the hash table. */
+	private int[] lastPositions;
+
+	/** The position of the next element with the same id of each element, or -1 for the last one. */
+	private int[] nextPositions = new int[MIN_CAPACITY];
+
+	/** The number of ids in the hash table. */
+	private int numberOfIds;
+
+	/** Whether the hash table must be built again before a lookup. */
+	private boolean indexOutdated;
+
+	/**
+	 * Creates an empty list.
+	 */
+	public IdIndexedList() {
+		elements = new ArrayList<T>();
+		allocateTable(MIN_CAPACITY);
+	}
+
+	/**
+	 * Creates a list with the elements of a collection, in the order of its iterator.
+	 *
+	 * @param collection the collection
+	 */
+	public IdIndexedList(Collection<? extends T> collection) {
+		elements = new ArrayList<T>(collection);
+		indexOutdated = true;
+		allocateTable(MIN_CAPACITY);
+	}
+
+	/**
+	 * Gets the id of an element.
+	 *
+	 * @param element the element
+	 * @return the id
+	 */
+	protected abstract int getId(T element);
+
+	/**
+	 * Gets the first element with an id.
+	 *
+	 * @param id the id
+	 * @return the element, or null if there is no element with this id
+	 */
+	public T getById(int id) {
+		int position = getPositionById(id);
+		return position < 0 ? null : elements.get(position);
+	}
+
+	/**
+	 * Gets the position of the first element with an id.
+	 *
+	 * @param id the id
+	 * @return the position, or -1 if there is no element with this id
+	 */
+	public int getPositionById(int id) {
+		if (indexOutdated) {
+			buildIndex();
+		}
+		int mask = ids.length - 1;
+		for (int slot = hash(id) & mask; positions[slot] >= 0; slot = (slot + 1) & mask) {
+			if (ids[slot] == id) {
+				return positions[slot];
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the position of the next element with the same id as the element at a position, so that
+	 * the elements with an id are visited from {@link #getPositionById(int)} in the order of the
+	 * list.
+	 *
+	 * @param position the position of an element
+	 * @return the position, or -1 if there is no element with this id after this one
+	 */
+	public int getNextPositionById(int position) {
+		if (indexOutdated) {
+			buildIndex();
+		}
+		return nextPositions[position];
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public T get(int index) {
+		return elements.get(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return elements.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractList#set(int, java.lang.Object)
+	 */
+	@Override
+	public T set(int index, T element) {
+		T previous = elements.set(index, element);
+		indexOutdated = true;
+		return previous;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractList#add(int, java.lang.Object)
+	 */
+	@Override
+	public void add(int index, T element) {
+		if (index == elements.size() && !indexOutdated) {
+			elements.add(element);
+			addToIndex(element, index);
+		} else {
+			elements.add(index, element);
+			indexOutdated = true;
+		}
+		modCount++;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractList#remove(int)
+	 */
+	@Override
+	public T remove(int index) {
+		T element = elements.remove(index);
+		indexOutdated = true;
+		modCount++;
+		return element;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#addAll(java.util.Collection)
+	 */
+	@Override
+	public boolean addAll(Collection<? extends T> collection) {
+		int position = elements.size();
+		boolean changed = elements.addAll(collection);
+		if (changed) {
+			if (!indexOutdated) {
+				for (int i = position; i < elements.size(); i++) {
+					addToIndex(elements.get(i), i);
+				}
+			}
+			modCount++;
+		}
+		return changed;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#removeAll(java.util.Collection)
+	 */
+	@Override
+	public boolean removeAll(Collection<?> collection) {
+		boolean changed = elements.removeAll(collection);
+		if (changed) {
+			indexOutdated = true;
+			modCount++;
+		}
+		return changed;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#retainAll(java.util.Collection)
+	 */
+	@Override
+	public boolean retainAll(Collection<?> collection) {
+		boolean changed = elements.retainAll(collection);
+		if (changed) {
+			indexOutdated = true;
+			modCount++;
+		}
+		return changed;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractList#clear()
+	 */
+	@Override
+	public void clear() {
+		elements.clear();
+		allocateTable(MIN_CAPACITY);
+		indexOutdated = false;
+		modCount++;
+	}
+
+	/**
+	 * Builds the hash table again from the elements.
+	 */
+	private void buildIndex() {
+		int capacity = MIN_CAPACITY;
+		while (capacity < 2 * elements.size()) {
+			capacity *= 2;
+		}
+		allocateTable(capacity);
+		if (nextPositions.length < elements.size()) {
+			nextPositions = new int[capacity];
+		}
+		indexOutdated = false;
+		for (int i = 0; i < elements.size(); i++) {
+			addToIndex(elements.get(i), i);
+		}
+	}
+
+	/**
+	 * Adds the position of an element, which is after all the elements already added, to the hash
+	 * table if no element before it has the same id, and to the end of the chain of its id
+	 * otherwise. The hash table is kept at most half full.
+	 *
+	 * @param element the element
+	 * @param position the position of the element
+	 */
+	private void addToIndex(T element, int position) {
+		if (position >= nextPositions.length) {
+			nextPositions = Arrays.copyOf(nextPositions, Math.max(2 * nextPositions.length, position + 1));
+		}
+		nextPositions[position] = -1;
+
+		int id = getId(element);
+		int mask = ids.length - 1;
+		int slot = hash(id) & mask;
+		while (positions[slot] >= 0) {
+			if (ids[slot] == id) {
+				nextPositions[lastPositions[slot]] = position;
+				lastPositions[slot] = position;
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		if (2 * (numberOfIds + 1) > ids.length) {
+			int[] oldIds = ids;
+			int[] oldPositions = positions;
+			int[] oldLastPositions = lastPositions;
+			allocateTable(ids.length * 2);
+			for (int oldSlot = 0; oldSlot < oldIds.length; oldSlot++) {
+				if (oldPositions[oldSlot] >= 0) {
+					putInTable(oldIds[oldSlot], oldPositions[oldSlot], oldLastPositions[oldSlot]);
+				}
+			}
+		}
+		putInTable(id, position, position);
+	}
+
+	/**
+	 * Puts an id that is not in the hash table yet in it.
+	 *
+	 * @param id the id
+	 * @param position the position of the first element with this id
+	 * @param lastPosition the position of the last element with this id
+	 */
+	private void putInTable(int id, int position, int lastPosition) {
+		int mask = ids.length - 1;
+		int slot = hash(id) & mask;
+		while (positions[slot] >= 0) {
+			slot = (slot + 1) & mask;
+		}
+		ids[slot] = id;
+		positions[slot] = position;
+		lastPositions[slot] = lastPosition;
+		numberOfIds++;
+	}
+
+	/**
+	 * Allocates an empty hash table.
+	 *
+	 * @param capacity the number of slots, a power of two
+	 */
+	private void allocateTable(int capacity) {
+		ids = new int[capacity];
+		positions = new int[capacity];
+		lastPositions = new int[capacity];
+		Arrays.fill(positions, -1);
+		numberOfIds = 0;
+	}
+
+	/**
+	 * Spreads the bits of an id, so that consecutive ids do not fill consecutive slots.
+	 *
+	 * @param id the id
+	 * @return the hash
+	 */
+	private static int hash(int id) {
+		int h = id * 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+}
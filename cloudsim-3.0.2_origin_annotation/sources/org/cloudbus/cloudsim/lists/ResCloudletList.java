@@ -38,6 +38,10 @@ public class ResCloudletList {
 			List<T> list,
 			int cloudletId,
 			int userId) {
+		if (list instanceof IndexedResCloudletList) {
+			int position = indexOf(list, cloudletId, userId);
+			return position < 0 ? null : list.get(position);
+		}
 		for (T rcl : list) {
 			if (rcl.getCloudletId() == cloudletId && rcl.getUserId() == userId) {
 				return rcl;
@@ -60,6 +64,16 @@ public class ResCloudletList {
 	 * @post $none
 	 */
 	public static <T extends ResCloudlet> int indexOf(List<T> list, int cloudletId, int userId) {
+		if (list instanceof IndexedResCloudletList) {
+			// only the cloudlets with this id are visited
+			IndexedResCloudletList<T> indexedList = (IndexedResCloudletList<T>) list;
+			for (int i = indexedList.getPositionById(cloudletId); i >= 0; i = indexedList.getNextPositionById(i)) {
+				if (indexedList.get(i).getUserId() == userId) {
+					return i;
+				}
+			}
+			return -1;
+		}
 		int i = 0;
 		for (T rcl : list) {
 			if (rcl.getCloudletId() == cloudletId && rcl.getUserId() == userId) {
@@ -96,6 +110,9 @@ public class ResCloudletList {
 	 * @return - the position of the cloudlet with that id, or -1 otherwise.
 	 */
 	public static <T extends ResCloudlet> int getPositionById(List<T> cloudletList, int id) {
+		if (cloudletList instanceof IndexedResCloudletList) {
+			return ((IndexedResCloudletList<T>) cloudletList).getPositionById(id);
+		}
 		int i = 0 ;
 	        for (T cloudlet : cloudletList) {
 			if (cloudlet.getCloudletId() == id) {
@@ -105,4 +122,33 @@ public class ResCloudletList {
 		}
 		return -1;
 	}
+
+	/**
+	 * Creates an empty list of cloudlets indexed by id, in which the lookups by id of this class do not
+	 * scan the list; see {@link IdIndexedList}.
+	 * 
+	 * @param <T> the type of the cloudlets
+	 * @return the list
+	 */
+	public static <T extends ResCloudlet> List<T> createIndexedList() {
+		return new IndexedResCloudletList<T>();
+	}
+
+	/**
+	 * A list of cloudlets indexed by the id of the cloudlet.
+	 * 
+	 * @param <T> the type of the cloudlets
+	 */
+	private static class IndexedResCloudletList<T extends ResCloudlet> extends IdIndexedList<T> {
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.cloudbus.cloudsim.lists.IdIndexedList#getId(java.lang.Object)
+		 */
+		@Override
+		protected int getId(T element) {
+			return element.getCloudletId();
+		}
+	}
+
 }
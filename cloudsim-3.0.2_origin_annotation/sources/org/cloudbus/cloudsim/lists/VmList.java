@@ -32,6 +32,9 @@ public class VmList {
 	 * @post $none
 	 */
 	public static <T extends Vm> T getById(List<T> vmList, int id) {
+		if (vmList instanceof IndexedVmList) {
+			return ((IndexedVmList<T>) vmList).getById(id);
+		}
 		for (T vm : vmList) {
 			if (vm.getId() == id) {
 				return vm;
@@ -51,6 +54,17 @@ public class VmList {
 	 * @post $none
 	 */
 	public static <T extends Vm> T getByIdAndUserId(List<T> vmList, int id, int userId) {
+		if (vmList instanceof IndexedVmList) {
+			// only the VMs with this id are visited
+			IndexedVmList<T> list = (IndexedVmList<T>) vmList;
+			for (int i = list.getPositionById(id); i >= 0; i = list.getNextPositionById(i)) {
+				T vm = list.get(i);
+				if (vm.getUserId() == userId) {
+					return vm;
+				}
+			}
+			return null;
+		}
 		for (T vm : vmList) {
 			if (vm.getId() == id && vm.getUserId() == userId) {
 				return vm;
@@ -59,4 +73,32 @@ public class VmList {
 		return null;
 	}
 
+	/**
+	 * Creates an empty list of VMs indexed by id, in which the lookups by id of this class do not
+	 * scan the list; see {@link IdIndexedList}.
+	 * 
+	 * @param <T> the type of the VMs
+	 * @return the list
+	 */
+	public static <T extends Vm> List<T> createIndexedList() {
+		return new IndexedVmList<T>();
+	}
+
+	/**
+	 * A list of VMs indexed by the id of the VM.
+	 * 
+	 * @param <T> the type of the VMs
+	 */
+	private static class IndexedVmList<T extends Vm> extends IdIndexedList<T> {
+
+		/*
+		 * (non-Javadoc)
+		 * @see org.cloudbus.cloudsim.lists.IdIndexedList#getId(java.lang.Object)
+		 */
+		@Override
+		protected int getId(T element) {
+			return element.getId();
+		}
+	}
+
 }
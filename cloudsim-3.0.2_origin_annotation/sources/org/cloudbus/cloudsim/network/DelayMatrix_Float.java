@@ -8,10 +8,17 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.util.Arrays;
 import java.util.Iterator;
 
 /**
  * This class represents an delay-topology storing every distance between connected nodes
+ * <p>
+ * The distances are either all calculated when the matrix is created, by
+ * {@link FloydWarshall_Float} in one flat matrix, or calculated from one node to all the others the
+ * first time a distance from this node is asked for, by {@link Dijkstra_Float}. The second way
+ * suits large sparse topologies, such as the BRITE ones, where only the nodes mapped to entities
+ * send messages.
  * 
  * @author Thomas Hohnstein
  * @since CloudSim Toolkit 1.0
@@ -19,9 +26,27 @@ import java.util.Iterator;
 public class DelayMatrix_Float {
 
 	/**
-	 * matrix holding delay information between any two nodes
+	 * the topologies with at least this number of nodes and at most
+	 * {@link #LAZY_MAX_AVERAGE_DEGREE} links per node are calculated lazily by default
 	 */
-	protected float[][] mDelayMatrix = null;
+	public static final int LAZY_MIN_NODES = 1024;
+
+	/**
+	 * the topologies with at least {@link #LAZY_MIN_NODES} nodes and at most this number of links
+	 * per node are calculated lazily by default
+	 */
+	public static final int LAZY_MAX_AVERAGE_DEGREE = 16;
+
+	/**
+	 * matrix holding delay information between any two nodes, row after row, or null if the
+	 * delays are calculated lazily
+	 */
+	protected float[] mDelayMatrix = null;
+
+	/**
+	 * the delays calculated lazily, or null if they are all in the matrix
+	 */
+	protected Dijkstra_Float mLazyDelays = null;
 
 	/**
 	 * number of nodes in the distance-aware-topology
@@ -36,18 +61,53 @@ public class DelayMatrix_Float {
 	};
 
 	/**
-	 * this constructor creates an correct initialized Float-Delay-Matrix
+	 * this constructor creates an correct initialized Float-Delay-Matrix, calculated lazily if the
+	 * graph is large and sparse
 	 * 
 	 * @param graph the topological graph as source-information
 	 * @param directed true if an directed matrix should be computed, false otherwise
 	 */
 	public DelayMatrix_Float(TopologicalGraph graph, boolean directed) {
+		this(graph, directed, isLargeAndSparse(graph));
+	}
 
-		// lets preinitialize the Delay-Matrix
-		createDelayMatrix(graph, directed);
+	/**
+	 * this constructor creates an correct initialized Float-Delay-Matrix
+	 * 
+	 * @param graph the topological graph as source-information
+	 * @param directed true if an directed matrix should be computed, false otherwise
+	 * @param lazy true if the delays from a node should be calculated when first asked for, false
+	 *            if all the delays should be calculated now
+	 */
+	public DelayMatrix_Float(TopologicalGraph graph, boolean directed, boolean lazy) {
+		mTotalNodeNum = graph.getNumberOfNodes();
+		if (lazy) {
+			mLazyDelays = new Dijkstra_Float(graph, directed);
+		} else {
+			// lets preinitialize the Delay-Matrix
+			createDelayMatrix(graph, directed);
+
+			// now its time to calculate all possible connection-delays
+			calculateShortestPath();
+		}
+	}
+
+	/**
+	 * checks whether a graph has enough nodes and few enough links to be calculated lazily
+	 * 
+	 * @param graph the topological graph
+	 * @return true if the graph is large and sparse
+	 */
+	private static boolean isLargeAndSparse(TopologicalGraph graph) {
+		int nodes = graph.getNumberOfNodes();
+		return nodes >= LAZY_MIN_NODES && graph.getNumberOfLinks() <= (long) nodes * LAZY_MAX_AVERAGE_DEGREE;
+	}
 
-		// now its time to calculate all possible connection-delays
-		calculateShortestPath();
+	/**
+	 * @return true if the delays are calculated lazily
+	 */
+	public boolean isLazy() {
+		return mLazyDelays != null;
 	}
 
 	/**
@@ -57,11 +117,81 @@ public class DelayMatrix_Float {
 	 */
 	public float getDelay(int srcID, int destID) {
 		// check the nodeIDs against internal array-boundarys
-		if (srcID > mTotalNodeNum || destID > mTotalNodeNum) {
+		if (srcID >= mTotalNodeNum || destID >= mTotalNodeNum || srcID < 0 || destID < 0) {
 			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
 		}
 
-		return mDelayMatrix[srcID][destID];
+		if (mLazyDelays != null) {
+			return mLazyDelays.getDelay(srcID, destID);
+		}
+		return mDelayMatrix[srcID * mTotalNodeNum + destID];
+	}
+
+	/**
+	 * updates the delays after a link has been added between two nodes of the matrix, or after the
+	 * delay of a link has been decreased. As a shortest path goes through the link at most once,
+	 * the delay between two nodes becomes the shortest of their delay and of their delays to the
+	 * ends of the link plus the delay of the link, which takes one pass over the matrix. The
+	 * delays calculated lazily are not updated.
+	 * 
+	 * @param srcID the id of the source-node of the link
+	 * @param destID the id of the destination-node of the link
+	 * @param delay the delay of the link
+	 * @param directed true if the link goes only from the source to the destination, false if it
+	 *            goes both ways
+	 * @return true if the delays have been updated, false if they have to be calculated again from
+	 *         the graph
+	 */
+	public boolean addLink(int srcID, int destID, float delay, boolean directed) {
+		int n = mTotalNodeNum;
+		if (mDelayMatrix == null || srcID < 0 || destID < 0 || srcID >= n || destID >= n
+				|| !(delay > 0 && delay < Float.MAX_VALUE)) {
+			return false;
+		}
+		if (srcID == destID) {
+			return true;
+		}
+
+		// the delays to and from the ends of the link before the update
+		float[] toSrc = new float[n];
+		float[] toDest = new float[n];
+		float[] fromSrc = new float[n];
+		float[] fromDest = new float[n];
+		for (int node = 0; node < n; ++node) {
+			toSrc[node] = mDelayMatrix[node * n + srcID];
+			toDest[node] = mDelayMatrix[node * n + destID];
+		}
+		System.arraycopy(mDelayMatrix, srcID * n, fromSrc, 0, n);
+		System.arraycopy(mDelayMatrix, destID * n, fromDest, 0, n);
+
+		for (int row = 0; row < n; ++row) {
+			int offset = row * n;
+			if (toSrc[row] != Float.MAX_VALUE) {
+				relax(offset, toSrc[row] + delay, fromDest);
+			}
+			if (!directed && toDest[row] != Float.MAX_VALUE) {
+				relax(offset, toDest[row] + delay, fromSrc);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * shortens the delays of a row through a node
+	 * 
+	 * @param offset the offset of the row in the matrix
+	 * @param delayToNode the delay from the node of the row to the intermediate node
+	 * @param delaysFromNode the delays from the intermediate node to the others
+	 */
+	private void relax(int offset, float delayToNode, float[] delaysFromNode) {
+		for (int col = 0; col < mTotalNodeNum; ++col) {
+			if (delaysFromNode[col] != Float.MAX_VALUE) {
+				float delay = delayToNode + delaysFromNode[col];
+				if (delay < mDelayMatrix[offset + col]) {
+					mDelayMatrix[offset + col] = delay;
+				}
+			}
+		}
 	}
 
 	/**
@@ -77,14 +207,10 @@ public class DelayMatrix_Float {
 		// number of nodes inside the network
 		mTotalNodeNum = graph.getNumberOfNodes();
 
-		mDelayMatrix = new float[mTotalNodeNum][mTotalNodeNum];
+		mDelayMatrix = new float[mTotalNodeNum * mTotalNodeNum];
 
-		// cleanup the complete distance-matrix with "0"s
-		for (int row = 0; row < mTotalNodeNum; ++row) {
-			for (int col = 0; col < mTotalNodeNum; ++col) {
-				mDelayMatrix[row][col] = Float.MAX_VALUE;
-			}
-		}
+		// cleanup the complete distance-matrix with "infinity"s
+		Arrays.fill(mDelayMatrix, Float.MAX_VALUE);
 
 		Iterator<TopologicalLink> itr = graph.getLinkIterator();
 
@@ -92,14 +218,24 @@ public class DelayMatrix_Float {
 		while (itr.hasNext()) {
 			edge = itr.next();
 
-			mDelayMatrix[edge.getSrcNodeID()][edge.getDestNodeID()] = edge.getLinkDelay();
+			mDelayMatrix[edge.getSrcNodeID() * mTotalNodeNum + edge.getDestNodeID()] = edge.getLinkDelay();
 
 			if (!directed) {
 				// according to aproximity of symmetry to all kommunication-paths
-				mDelayMatrix[edge.getDestNodeID()][edge.getSrcNodeID()] = edge.getLinkDelay();
+				mDelayMatrix[edge.getDestNodeID() * mTotalNodeNum + edge.getSrcNodeID()] = edge.getLinkDelay();
 			}
 
 		}
+
+		// a link without delay is no link, and a node is at no distance from itself
+		for (int i = 0; i < mDelayMatrix.length; i++) {
+			if (mDelayMatrix[i] == 0) {
+				mDelayMatrix[i] = Float.MAX_VALUE;
+			}
+		}
+		for (int node = 0; node < mTotalNodeNum; ++node) {
+			mDelayMatrix[node * mTotalNodeNum + node] = 0;
+		}
 	}
 
 	/**
@@ -109,7 +245,7 @@ public class DelayMatrix_Float {
 		FloydWarshall_Float floyd = new FloydWarshall_Float();
 
 		floyd.initialize(mTotalNodeNum);
-		mDelayMatrix = floyd.allPairsShortestPaths(mDelayMatrix);
+		floyd.allPairsShortestPaths(mDelayMatrix, null);
 	}
 
 	/**
@@ -131,10 +267,11 @@ public class DelayMatrix_Float {
 			buffer.append("\n" + row);
 
 			for (int col = 0; col < mTotalNodeNum; ++col) {
-				if (mDelayMatrix[row][col] == Float.MAX_VALUE) {
+				float delay = getDelay(row, col);
+				if (delay == Float.MAX_VALUE) {
 					buffer.append("\t" + "-");
 				} else {
-					buffer.append("\t" + mDelayMatrix[row][col]);
+					buffer.append("\t" + delay);
 				}
 			}
 		}
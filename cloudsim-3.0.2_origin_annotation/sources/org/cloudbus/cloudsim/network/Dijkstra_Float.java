@@ -0,0 +1,282 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Dijkstra algorithm to calculate the delays from one node to all the others, for sparse graphs
+ * where only a few rows of the all pairs delay matrix are used. The links are kept in adjacency
+ * arrays, and the rows are calculated when they are first asked for and then kept.
+ * <p>
+ * The links are read as {@link DelayMatrix_Float} does: the last link between two nodes replaces
+ * the previous ones, and a link without delay is no link. The delays are the same as the ones of
+ * {@link FloydWarshall_Float}, except maybe for the last bit when the shortest paths add up the
+ * same link delays in another order.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class Dijkstra_Float {
+
+	/**
+	 * number of nodes
+	 */
+	private final int numVertices;
+
+	/**
+	 * index of the first link of each node in the link arrays, and the number of links at the end
+	 */
+	private final int[] firstLinks;
+
+	/**
+	 * destination of each link, grouped by source
+	 */
+	private final int[] linkDestinations;
+
+	/**
+	 * delay of each link, grouped by source
+	 */
+	private final float[] linkDelays;
+
+	/**
+	 * rows of the delay matrix calculated so far
+	 */
+	private final float[][] rows;
+
+	/**
+	 * heap of the nodes to visit, by delay
+	 */
+	private final int[] heap;
+
+	/**
+	 * position of each node in the heap, or -1
+	 */
+	private final int[] heapPositions;
+
+	/**
+	 * creates the adjacency arrays of a graph
+	 *
+	 * @param graph the topological graph
+	 * @param directed true if the links are directed, false if they go both ways
+	 */
+	public Dijkstra_Float(TopologicalGraph graph, boolean directed) {
+		numVertices = graph.getNumberOfNodes();
+
+		// the last link between two nodes replaces the previous ones
+		Map<Long, Float> links = new HashMap<Long, Float>();
+		Iterator<TopologicalLink> itr = graph.getLinkIterator();
+		while (itr.hasNext()) {
+			TopologicalLink edge = itr.next();
+			links.put(getKey(edge.getSrcNodeID(), edge.getDestNodeID()), edge.getLinkDelay());
+			if (!directed) {
+				links.put(getKey(edge.getDestNodeID(), edge.getSrcNodeID()), edge.getLinkDelay());
+			}
+		}
+
+		firstLinks = new int[numVertices + 1];
+		for (Map.Entry<Long, Float> link : links.entrySet()) {
+			if (isLink(link)) {
+				firstLinks[getSource(link.getKey()) + 1]++;
+			}
+		}
+		for (int i = 0; i < numVertices; i++) {
+			firstLinks[i + 1] += firstLinks[i];
+		}
+		linkDestinations = new int[firstLinks[numVertices]];
+		linkDelays = new float[firstLinks[numVertices]];
+		int[] nextLinks = Arrays.copyOf(firstLinks, numVertices);
+		for (Map.Entry<Long, Float> link : links.entrySet()) {
+			if (isLink(link)) {
+				int index = nextLinks[getSource(link.getKey())]++;
+				linkDestinations[index] = getDestination(link.getKey());
+				linkDelays[index] = link.getValue();
+			}
+		}
+
+		rows = new float[numVertices][];
+		heap = new int[numVertices];
+		heapPositions = new int[numVertices];
+		Arrays.fill(heapPositions, -1);
+	}
+
+	/**
+	 * gets the delay between two nodes, calculating the delays from the source if needed
+	 *
+	 * @param srcID the id of the source node
+	 * @param destID the id of the destination node
+	 * @return the delay, or Float.MAX_VALUE if there is no path
+	 */
+	public float getDelay(int srcID, int destID) {
+		return getDelays(srcID)[destID];
+	}
+
+	/**
+	 * gets the delays from a node to all the others, calculating them if needed. The entities of a
+	 * simulation running in parallel may ask for delays at the same time.
+	 *
+	 * @param srcID the id of the source node
+	 * @return the delays, with Float.MAX_VALUE where there is no path
+	 */
+	public synchronized float[] getDelays(int srcID) {
+		float[] row = rows[srcID];
+		if (row == null) {
+			row = calculateDelays(srcID);
+			rows[srcID] = row;
+		}
+		return row;
+	}
+
+	/**
+	 * gets the number of nodes
+	 *
+	 * @return number of nodes
+	 */
+	public int getNumberOfNodes() {
+		return numVertices;
+	}
+
+	/**
+	 * calculates the delays from a node to all the others
+	 *
+	 * @param srcID the id of the source node
+	 * @return the delays
+	 */
+	private float[] calculateDelays(int srcID) {
+		float[] delays = new float[numVertices];
+		Arrays.fill(delays, Float.MAX_VALUE);
+		delays[srcID] = 0;
+		int heapSize = 0;
+		heap[heapSize] = srcID;
+		heapPositions[srcID] = heapSize++;
+
+		while (heapSize > 0) {
+			int node = heap[0];
+			heapPositions[node] = -1;
+			heapSize--;
+			if (heapSize > 0) {
+				heap[0] = heap[heapSize];
+				heapPositions[heap[0]] = 0;
+				siftDown(delays, 0, heapSize);
+			}
+
+			float delay = delays[node];
+			for (int link = firstLinks[node]; link < firstLinks[node + 1]; link++) {
+				int destination = linkDestinations[link];
+				float newDelay = delay + linkDelays[link];
+				if (newDelay < delays[destination]) {
+					delays[destination] = newDelay;
+					int position = heapPositions[destination];
+					if (position < 0) {
+						position = heapSize++;
+						heap[position] = destination;
+						heapPositions[destination] = position;
+					}
+					siftUp(delays, position);
+				}
+			}
+		}
+		return delays;
+	}
+
+	/**
+	 * moves a node of the heap up to its place
+	 *
+	 * @param delays the delays of the nodes
+	 * @param position the position of the node in the heap
+	 */
+	private void siftUp(float[] delays, int position) {
+		int node = heap[position];
+		while (position > 0) {
+			int parent = (position - 1) / 2;
+			if (delays[heap[parent]] <= delays[node]) {
+				break;
+			}
+			heap[position] = heap[parent];
+			heapPositions[heap[position]] = position;
+			position = parent;
+		}
+		heap[position] = node;
+		heapPositions[node] = position;
+	}
+
+	/**
+	 * moves a node of the heap down to its place
+	 *
+	 * @param delays the delays of the nodes
+	 * @param position the position of the node in the heap
+	 * @param heapSize the number of nodes in the heap
+	 */
+	private void siftDown(float[] delays, int position, int heapSize) {
+		int node = heap[position];
+		while (true) {
+			int child = 2 * position + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			if (child + 1 < heapSize && delays[heap[child + 1]] < delays[heap[child]]) {
+				child++;
+			}
+			if (delays[node] <= delays[heap[child]]) {
+				break;
+			}
+			heap[position] = heap[child];
+			heapPositions[heap[position]] = position;
+			position = child;
+		}
+		heap[position] = node;
+		heapPositions[node] = position;
+	}
+
+	/**
+	 * checks whether a link of the map is a link between two different nodes with a delay
+	 *
+	 * @param link the link
+	 * @return true if the link is used
+	 */
+	private static boolean isLink(Map.Entry<Long, Float> link) {
+		float delay = link.getValue();
+		return delay != 0 && delay != Float.MAX_VALUE
+				&& getSource(link.getKey()) != getDestination(link.getKey());
+	}
+
+	/**
+	 * gets the key of a link in the map of the links
+	 *
+	 * @param srcID the source node
+	 * @param destID the destination node
+	 * @return the key
+	 */
+	private static long getKey(int srcID, int destID) {
+		return ((long) srcID << 32) | (destID & 0xffffffffL);
+	}
+
+	/**
+	 * gets the source node of a link key
+	 *
+	 * @param key the key
+	 * @return the source node
+	 */
+	private static int getSource(long key) {
+		return (int) (key >>> 32);
+	}
+
+	/**
+	 * gets the destination node of a link key
+	 *
+	 * @param key the key
+	 * @return the destination node
+	 */
+	private static int getDestination(long key) {
+		return (int) key;
+	}
+
+}
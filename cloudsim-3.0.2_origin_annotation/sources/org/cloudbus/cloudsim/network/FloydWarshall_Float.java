@@ -8,8 +8,25 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
 /**
  * FloydWarshall algorithm to calculate all pairs delay and predecessor matrix.
+ * <p>
+ * The delays are kept in one flat matrix, row after row, that is updated in place. The matrix is
+ * processed in square blocks: for each block of intermediate nodes, the diagonal block is updated
+ * first, then the other blocks of its row and column, and then all the other blocks, so that the
+ * rows used by a block stay in the cache. The blocks of the last two steps are independent and are
+ * updated by several threads. A matrix with at most {@link #BLOCK_SIZE} nodes is a single block,
+ * processed as by the classic algorithm; otherwise a delay may differ in the last bit when the
+ * shortest paths add up the same link delays in another order.
  * 
  * @author Rahul Simha
  * @author Weishuai Yang
@@ -18,28 +35,25 @@ package org.cloudbus.cloudsim.network;
  */
 public class FloydWarshall_Float {
 
+	/**
+	 * Number of nodes of the blocks
+	 */
+	public static final int BLOCK_SIZE = 64;
+
 	/**
 	 * Number of vertices (when initialized)
 	 */
 	private int numVertices;
 
-	// /**
-	// * The adjacency matrix (given as input),
-	// * here I use float rather than double to save memory,
-	// * since there won't be a lot of spilting for delay,
-	// * and float is accurate enough.
-	// */
-	// private float[][] adjMatrix;
-
 	/**
-	 * Matrices used in dynamic programming
+	 * Number of threads updating the blocks
 	 */
-	private float[][] Dk, Dk_minus_one;
+	private int numThreads = Runtime.getRuntime().availableProcessors();
 
 	/**
-	 * Matrices used in dynamic programming
+	 * Predecessor matrix of the last call to {@link #allPairsShortestPaths(float[][])}
 	 */
-	private int[][] Pk, Pk_minus_one;
+	private int[][] Pk;
 
 	/**
 	 * initialization matrix
@@ -48,83 +62,150 @@ public class FloydWarshall_Float {
 	 */
 	public void initialize(int numVertices) {
 		this.numVertices = numVertices;
+		Pk = null;
+	}
 
-		// Initialize Dk matrices.
-		Dk = new float[numVertices][];
-		Dk_minus_one = new float[numVertices][];
-		for (int i = 0; i < numVertices; i++) {
-			Dk[i] = new float[numVertices];
-			Dk_minus_one[i] = new float[numVertices];
-		}
-
-		// Initialize Pk matrices.
-		Pk = new int[numVertices][];
-		Pk_minus_one = new int[numVertices][];
-		for (int i = 0; i < numVertices; i++) {
-			Pk[i] = new int[numVertices];
-			Pk_minus_one[i] = new int[numVertices];
+	/**
+	 * sets the number of threads updating the blocks
+	 * 
+	 * @param numThreads number of threads, 1 to update the blocks in the calling thread
+	 */
+	public void setNumThreads(int numThreads) {
+		if (numThreads < 1) {
+			throw new IllegalArgumentException("The number of threads must be positive: " + numThreads);
 		}
+		this.numThreads = numThreads;
+	}
 
+	/**
+	 * gets the number of threads updating the blocks
+	 * 
+	 * @return number of threads
+	 */
+	public int getNumThreads() {
+		return numThreads;
 	}
 
 	/**
-	 * calculates all pairs delay
+	 * calculates all pairs delay, along with the predecessor matrix returned by {@link #getPK()}
 	 * 
-	 * @param adjMatrix original delay matrix
+	 * @param adjMatrix original delay matrix, where 0 means no link
 	 * @return all pairs delay matrix
 	 */
 	public float[][] allPairsShortestPaths(float[][] adjMatrix) {
-		// Dk_minus_one = weights when k = -1
-		for (int i = 0; i < numVertices; i++) {
-			for (int j = 0; j < numVertices; j++) {
-				if (adjMatrix[i][j] != 0) {
-					Dk_minus_one[i][j] = adjMatrix[i][j];
-					Pk_minus_one[i][j] = i;
+		int n = numVertices;
+		float[] delays = new float[n * n];
+		int[] predecessors = new int[n * n];
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				float delay = adjMatrix[i][j];
+				if (i == j) {
+					delays[i * n + j] = 0;
+					predecessors[i * n + j] = -1;
+				} else if (delay != 0) {
+					delays[i * n + j] = delay;
+					predecessors[i * n + j] = i;
 				} else {
-					Dk_minus_one[i][j] = Float.MAX_VALUE;
-					Pk_minus_one[i][j] = -1;
+					delays[i * n + j] = Float.MAX_VALUE;
+					predecessors[i * n + j] = -1;
 				}
-				// NOTE: we have set the value to infinity and will exploit
-				// this to avoid a comparison.
 			}
 		}
 
-		// Now iterate over k.
-
-		for (int k = 0; k < numVertices; k++) {
+		allPairsShortestPaths(delays, predecessors);
 
-			// Compute Dk[i][j], for each i,j
+		float[][] Dk = new float[n][n];
+		Pk = new int[n][n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(delays, i * n, Dk[i], 0, n);
+			System.arraycopy(predecessors, i * n, Pk[i], 0, n);
+		}
+		return Dk;
+	}
 
-			for (int i = 0; i < numVertices; i++) {
-				for (int j = 0; j < numVertices; j++) {
-					if (i != j) {
+	/**
+	 * calculates all pairs delay in place
+	 * 
+	 * @param delays delay matrix of the initialized number of nodes, row after row, with
+	 *            Float.MAX_VALUE where there is no link and 0 on the diagonal
+	 * @param predecessors predecessor matrix, row after row, with the source of each link and -1
+	 *            elsewhere, or null if the predecessors are not needed
+	 */
+	public void allPairsShortestPaths(final float[] delays, final int[] predecessors) {
+		final int n = numVertices;
+		if (delays.length != n * n || (predecessors != null && predecessors.length != n * n)) {
+			throw new IllegalArgumentException("The matrices must have " + n + " x " + n + " elements");
+		}
+		final int numBlocks = (n + BLOCK_SIZE - 1) / BLOCK_SIZE;
+		ExecutorService executor = null;
+		if (numThreads > 1 && numBlocks > 1) {
+			executor = Executors.newFixedThreadPool(Math.min(numThreads, numBlocks), new ThreadFactory() {
+
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "FloydWarshall");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
 
-						// D_k[i][j] = min ( D_k-1[i][j], D_k-1[i][k] + D_k-1[k][j].
-						if (Dk_minus_one[i][j] <= Dk_minus_one[i][k] + Dk_minus_one[k][j]) {
-							Dk[i][j] = Dk_minus_one[i][j];
-							Pk[i][j] = Pk_minus_one[i][j];
-						} else {
-							Dk[i][j] = Dk_minus_one[i][k] + Dk_minus_one[k][j];
-							Pk[i][j] = Pk_minus_one[k][j];
-						}
-					} else {
-						Pk[i][j] = -1;
+		try {
+			for (int kb = 0; kb < numBlocks; kb++) {
+				final int k0 = kb * BLOCK_SIZE;
+				final int k1 = Math.min(k0 + BLOCK_SIZE, n);
+				final int diagonalBlock = kb;
+
+				// the diagonal block
+				updateBlock(delays, predecessors, n, k0, k1, k0, k1, k0, k1);
+
+				// the blocks of the row and the column of the diagonal block
+				List<Callable<Void>> tasks = new ArrayList<Callable<Void>>();
+				for (int b = 0; b < numBlocks; b++) {
+					if (b != kb) {
+						final int b0 = b * BLOCK_SIZE;
+						final int b1 = Math.min(b0 + BLOCK_SIZE, n);
+						tasks.add(new Callable<Void>() {
+
+							@Override
+							public Void call() {
+								updateBlock(delays, predecessors, n, k0, k1, b0, b1, k0, k1);
+								updateBlock(delays, predecessors, n, k0, k1, k0, k1, b0, b1);
+								return null;
+							}
+						});
 					}
 				}
-			}
-
-			// Now store current Dk into D_k-1
-			for (int i = 0; i < numVertices; i++) {
-				for (int j = 0; j < numVertices; j++) {
-					Dk_minus_one[i][j] = Dk[i][j];
-					Pk_minus_one[i][j] = Pk[i][j];
+				run(executor, tasks);
+
+				// the other blocks, one row of blocks per task
+				tasks.clear();
+				for (int b = 0; b < numBlocks; b++) {
+					if (b != kb) {
+						final int i0 = b * BLOCK_SIZE;
+						final int i1 = Math.min(i0 + BLOCK_SIZE, n);
+						tasks.add(new Callable<Void>() {
+
+							@Override
+							public Void call() {
+								for (int jb = 0; jb < numBlocks; jb++) {
+									if (jb != diagonalBlock) {
+										int j0 = jb * BLOCK_SIZE;
+										updateBlock(delays, predecessors, n, k0, k1, i0, i1, j0, Math.min(j0 + BLOCK_SIZE, n));
+									}
+								}
+								return null;
+							}
+						});
+					}
 				}
+				run(executor, tasks);
 			}
-
-		} // end-outermost-for
-
-		return Dk;
-
+		} finally {
+			if (executor != null) {
+				executor.shutdown();
+			}
+		}
 	}
 
 	/**
@@ -136,6 +217,79 @@ public class FloydWarshall_Float {
 		return Pk;
 	}
 
+	/**
+	 * updates a block of the delay matrix with the paths through a block of intermediate nodes
+	 * 
+	 * @param delays delay matrix
+	 * @param predecessors predecessor matrix, or null
+	 * @param n number of nodes
+	 * @param k0 first intermediate node
+	 * @param k1 last intermediate node, excluded
+	 * @param i0 first row of the block
+	 * @param i1 last row of the block, excluded
+	 * @param j0 first column of the block
+	 * @param j1 last column of the block, excluded
+	 */
+	private static void updateBlock(
+			float[] delays,
+			int[] predecessors,
+			int n,
+			int k0,
+			int k1,
+			int i0,
+			int i1,
+			int j0,
+			int j1) {
+		for (int k = k0; k < k1; k++) {
+			int rowK = k * n;
+			for (int i = i0; i < i1; i++) {
+				int rowI = i * n;
+				float delayIK = delays[rowI + k];
+				// there is no path through k, and MAX_VALUE plus a delay is never shorter
+				if (delayIK == Float.MAX_VALUE) {
+					continue;
+				}
+				for (int j = j0; j < j1; j++) {
+					float delay = delayIK + delays[rowK + j];
+					if (delay < delays[rowI + j]) {
+						delays[rowI + j] = delay;
+						if (predecessors != null) {
+							predecessors[rowI + j] = predecessors[rowK + j];
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * runs tasks in the executor and waits for them, or runs them in the calling thread
+	 * 
+	 * @param executor executor, or null
+	 * @param tasks tasks
+	 */
+	private static void run(ExecutorService executor, List<Callable<Void>> tasks) {
+		try {
+			if (executor == null) {
+				for (Callable<Void> task : tasks) {
+					task.call();
+				}
+			} else {
+				for (Future<Void> future : executor.invokeAll(tasks)) {
+					future.get();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while calculating the shortest paths", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e.getCause());
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new IllegalStateException(e);
+		}
+	}
 
 /*
   public static void main (String[] argv)
@@ -0,0 +1,430 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.predicates.PredicateType;
+
+/**
+ * FlowNetwork simulates the network of a NetworkDatacenter at the level of flows instead of
+ * packets. A packet sent to a VM on another host is a flow through the links from the host of the
+ * sender, up to the first switch common to both hosts, and down to the host of the receiver. The
+ * flows going through the same links share their bandwidth with max-min fairness: all the flows get
+ * the same rate until a link is full, then the other flows share the bandwidth left on their links,
+ * and so on. The rates are only computed again when flows start or end, so that the number of
+ * events depends on the number of flows and not on the number of packets forwarded by the switches.
+ * <p>
+ * A flow of <tt>data</tt> at the rate <tt>bandwidth</tt> lasts <tt>1000 * data / bandwidth</tt>, as
+ * a packet sent by a host or through the uplink of a switch does, and its packet is delivered to the
+ * host of the receiver after the delays of the switches on its path. Each direction of a link is
+ * shared separately: the link from a host to its edge switch has the bandwidth of the host, and the
+ * other links have the uplink bandwidth of their lower switch going up and the downlink bandwidth of
+ * their upper switch going down. As in the switches, each edge switch is connected to one aggregate
+ * switch, and each aggregate switch to one root switch.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class FlowNetwork {
+
+	/** Flows ending or delivered within this time are ended or delivered together. */
+	private static final double TIME_TOLERANCE = 1e-9;
+
+	/** The datacenter whose network is simulated. */
+	private final NetworkDatacenter dc;
+
+	/** The links used so far, by source and destination. */
+	private final Map<Long, Link> links = new LinkedHashMap<Long, Link>();
+
+	/** The flows being transferred. */
+	private final List<Flow> flows = new ArrayList<Flow>();
+
+	/** The flows transferred, to be delivered after the delays of their switches. */
+	private final PriorityQueue<Flow> deliveries = new PriorityQueue<Flow>(16, new Comparator<Flow>() {
+
+		@Override
+		public int compare(Flow flow1, Flow flow2) {
+			int result = Double.compare(flow1.deliveryTime, flow2.deliveryTime);
+			return result != 0 ? result : (flow1.id < flow2.id ? -1 : (flow1.id == flow2.id ? 0 : 1));
+		}
+	});
+
+	/** The number of flows started. */
+	private long numberOfFlows;
+
+	/** The data sent by the hosts as flows. */
+	private double totalDataTransfer;
+
+	/** The time up to which the data left of the flows has been updated. */
+	private double lastUpdateTime;
+
+	/** The time of the pending flow event, or Double.MAX_VALUE. */
+	private double nextEventTime = Double.MAX_VALUE;
+
+	/** Whether flows started since the rates were computed. */
+	private boolean ratesOutdated;
+
+	/**
+	 * Creates the flow-level network of a datacenter.
+	 *
+	 * @param dc the datacenter
+	 */
+	public FlowNetwork(NetworkDatacenter dc) {
+		this.dc = dc;
+	}
+
+	/**
+	 * Starts the flow of a packet sent by a host to a VM on another host. The rates of the flows
+	 * started at the same time are computed once, at the flow event scheduled for this time.
+	 *
+	 * @param host the host sending the packet
+	 * @param packet the packet
+	 */
+	public void startFlow(NetworkHost host, NetworkPacket packet) {
+		totalDataTransfer += packet.pkt.data;
+		Flow flow = createFlow(host, packet);
+		if (flow == null) {
+			Log.printLine(dc.getName() + ": No route for the packet from VM #" + packet.sendervmid
+					+ " to VM #" + packet.recievervmid);
+			return;
+		}
+		updateFlows(CloudSim.clock());
+		flows.add(flow);
+		for (Link link : flow.links) {
+			link.flows.add(flow);
+		}
+		ratesOutdated = true;
+		scheduleNextEvent();
+	}
+
+	/**
+	 * Processes a flow event: ends the flows transferred, delivers their packets when the delays of
+	 * the switches have passed, and computes the rates of the flows again if flows started or ended.
+	 */
+	public void processFlowEvent() {
+		double currentTime = CloudSim.clock();
+		nextEventTime = Double.MAX_VALUE;
+		updateFlows(currentTime);
+
+		Iterator<Flow> it = flows.iterator();
+		while (it.hasNext()) {
+			Flow flow = it.next();
+			if (flow.rate > 0 && 1000 * flow.remainingData / flow.rate <= TIME_TOLERANCE) {
+				it.remove();
+				for (Link link : flow.links) {
+					link.flows.remove(flow);
+				}
+				flow.deliveryTime = currentTime + flow.latency;
+				deliveries.add(flow);
+				ratesOutdated = true;
+			}
+		}
+
+		boolean delivered = false;
+		while (!deliveries.isEmpty() && deliveries.peek().deliveryTime <= currentTime + TIME_TOLERANCE) {
+			Flow flow = deliveries.poll();
+			flow.packet.recieverhostid = flow.destination.getId();
+			flow.packet.rtime = currentTime;
+			flow.destination.packetrecieved.add(flow.packet);
+			delivered = true;
+		}
+		if (delivered) {
+			// the receivers take the packets at the next update of the hosts
+			dc.schedule(dc.getId(), 0, CloudSimTags.VM_DATACENTER_EVENT);
+		}
+
+		if (ratesOutdated) {
+			allocateRates();
+		}
+		scheduleNextEvent();
+	}
+
+	/**
+	 * Gets the number of flows being transferred.
+	 *
+	 * @return the number of flows
+	 */
+	public int getNumberOfFlows() {
+		return flows.size();
+	}
+
+	/**
+	 * Gets the data sent by the hosts as flows since the simulation started, which the switches
+	 * add to {@link NetworkDatacenterState#getTotalDataTransfer()} instead.
+	 *
+	 * @return the data sent
+	 */
+	public double getTotalDataTransfer() {
+		return totalDataTransfer;
+	}
+
+	/**
+	 * Creates the flow of a packet through the links between two hosts.
+	 *
+	 * @param host the host sending the packet
+	 * @param packet the packet
+	 * @return the flow, or null if there is no route to the receiver
+	 */
+	private Flow createFlow(NetworkHost host, NetworkPacket packet) {
+		Integer destinationId = dc.VmtoHostlist.get(packet.recievervmid);
+		Integer destinationSwitchId = dc.VmToSwitchid.get(packet.recievervmid);
+		Switch sourceEdge = host.sw;
+		Switch destinationEdge = destinationSwitchId == null ? null : dc.Switchlist.get(destinationSwitchId);
+		if (destinationId == null || sourceEdge == null || destinationEdge == null
+				|| destinationEdge.hostlist == null) {
+			return null;
+		}
+		NetworkHost destination = destinationEdge.hostlist.get(destinationId);
+		if (destination == null) {
+			return null;
+		}
+
+		List<Link> path = new ArrayList<Link>();
+		double latency = getSwitchDelay(sourceEdge);
+		path.add(getLink(getHostNode(host), sourceEdge.getId(), host.bandwidth));
+		if (sourceEdge != destinationEdge) {
+			Switch sourceAgg = getUplinkSwitch(sourceEdge);
+			Switch destinationAgg = getUplinkSwitch(destinationEdge);
+			if (sourceAgg == null || destinationAgg == null) {
+				return null;
+			}
+			latency += getSwitchDelay(sourceAgg);
+			path.add(getLink(sourceEdge.getId(), sourceAgg.getId(), sourceEdge.uplinkbandwidth));
+			if (sourceAgg != destinationAgg) {
+				Switch root = getUplinkSwitch(sourceAgg);
+				if (root == null || root != getUplinkSwitch(destinationAgg)) {
+					return null;
+				}
+				latency += getSwitchDelay(root) + getSwitchDelay(destinationAgg);
+				path.add(getLink(sourceAgg.getId(), root.getId(), sourceAgg.uplinkbandwidth));
+				path.add(getLink(root.getId(), destinationAgg.getId(), root.downlinkbandwidth));
+			}
+			latency += getSwitchDelay(destinationEdge);
+			path.add(getLink(destinationAgg.getId(), destinationEdge.getId(), destinationAgg.downlinkbandwidth));
+		}
+		path.add(getLink(destinationEdge.getId(), getHostNode(destination), destinationEdge.downlinkbandwidth));
+
+		Flow flow = new Flow();
+		flow.id = numberOfFlows++;
+		flow.packet = packet;
+		flow.destination = destination;
+		flow.links = path.toArray(new Link[path.size()]);
+		flow.remainingData = packet.pkt.data;
+		flow.latency = latency;
+		return flow;
+	}
+
+	/**
+	 * Decreases the data left of the flows by the data transferred since the last update.
+	 *
+	 * @param currentTime the current time
+	 */
+	private void updateFlows(double currentTime) {
+		double timeSpan = currentTime - lastUpdateTime;
+		if (timeSpan > 0) {
+			for (Flow flow : flows) {
+				flow.remainingData = Math.max(0, flow.remainingData - flow.rate * timeSpan / 1000);
+			}
+		}
+		lastUpdateTime = currentTime;
+	}
+
+	/**
+	 * Computes the max-min fair rates of the flows by progressive filling: the link with the
+	 * smallest share of bandwidth per flow is the bottleneck of its flows, which get this share,
+	 * and the bandwidth left on the other links is shared again by the other flows.
+	 */
+	private void allocateRates() {
+		List<Link> activeLinks = new ArrayList<Link>();
+		for (Link link : links.values()) {
+			if (!link.flows.isEmpty()) {
+				link.remainingBandwidth = link.bandwidth;
+				link.numberOfUnallocatedFlows = link.flows.size();
+				activeLinks.add(link);
+			}
+		}
+		for (Flow flow : flows) {
+			flow.rate = -1;
+		}
+
+		while (!activeLinks.isEmpty()) {
+			int bottleneck = -1;
+			double share = Double.MAX_VALUE;
+			for (int i = 0; i < activeLinks.size(); i++) {
+				Link link = activeLinks.get(i);
+				if (link.numberOfUnallocatedFlows > 0) {
+					double linkShare = Math.max(0, link.remainingBandwidth) / link.numberOfUnallocatedFlows;
+					if (linkShare < share) {
+						share = linkShare;
+						bottleneck = i;
+					}
+				}
+			}
+			if (bottleneck < 0) {
+				break;
+			}
+			Link link = activeLinks.get(bottleneck);
+			for (Flow flow : link.flows) {
+				if (flow.rate < 0) {
+					flow.rate = share;
+					for (Link flowLink : flow.links) {
+						flowLink.remainingBandwidth -= share;
+						flowLink.numberOfUnallocatedFlows--;
+					}
+				}
+			}
+			activeLinks.set(bottleneck, activeLinks.get(activeLinks.size() - 1));
+			activeLinks.remove(activeLinks.size() - 1);
+		}
+		ratesOutdated = false;
+	}
+
+	/**
+	 * Schedules the flow event for the next flow to end or packet to be delivered, or for now if
+	 * flows started, replacing the pending flow event if it is not at the same time.
+	 */
+	private void scheduleNextEvent() {
+		double currentTime = CloudSim.clock();
+		double time = Double.MAX_VALUE;
+		if (ratesOutdated) {
+			time = currentTime;
+		} else {
+			for (Flow flow : flows) {
+				if (flow.rate > 0) {
+					time = Math.min(time, currentTime + 1000 * flow.remainingData / flow.rate);
+				}
+			}
+			if (!deliveries.isEmpty()) {
+				time = Math.min(time, deliveries.peek().deliveryTime);
+			}
+		}
+		if (time == nextEventTime) {
+			return;
+		}
+		if (nextEventTime != Double.MAX_VALUE) {
+			CloudSim.cancelAll(dc.getId(), new PredicateType(CloudSimTags.Network_Event_Flow));
+		}
+		if (time != Double.MAX_VALUE) {
+			dc.schedule(dc.getId(), Math.max(0, time - currentTime), CloudSimTags.Network_Event_Flow);
+		}
+		nextEventTime = time;
+	}
+
+	/**
+	 * Gets a link, creating it with a bandwidth if it is used for the first time.
+	 *
+	 * @param srcNode the switch or host node the link comes from
+	 * @param destNode the switch or host node the link goes to
+	 * @param bandwidth the bandwidth of a new link
+	 * @return the link
+	 */
+	private Link getLink(int srcNode, int destNode, double bandwidth) {
+		long key = ((long) srcNode << 32) | (destNode & 0xffffffffL);
+		Link link = links.get(key);
+		if (link == null) {
+			link = new Link();
+			link.bandwidth = bandwidth;
+			links.put(key, link);
+		}
+		return link;
+	}
+
+	/**
+	 * Gets the node of a host in the links, which is negative not to be mixed up with the ids of the
+	 * switches.
+	 *
+	 * @param host the host
+	 * @return the node
+	 */
+	private static int getHostNode(NetworkHost host) {
+		return -1 - host.getId();
+	}
+
+	/**
+	 * Gets the switch connected to the uplink of a switch.
+	 *
+	 * @param sw the switch
+	 * @return the upper switch, or null if there is none
+	 */
+	private static Switch getUplinkSwitch(Switch sw) {
+		if (sw.uplinkswitches == null || sw.uplinkswitches.isEmpty()) {
+			return null;
+		}
+		return sw.uplinkswitches.get(0);
+	}
+
+	/**
+	 * Gets the delay of a switch: the switching delay of an edge switch, and the latency of an
+	 * aggregate or root switch.
+	 *
+	 * @param sw the switch
+	 * @return the delay
+	 */
+	private static double getSwitchDelay(Switch sw) {
+		return sw.level == NetworkConstants.EDGE_LEVEL ? sw.switching_delay : sw.latency;
+	}
+
+	/**
+	 * A direction of a link, with the flows going through it.
+	 */
+	private static class Link {
+
+		/** The bandwidth. */
+		double bandwidth;
+
+		/** The flows going through the link. */
+		final List<Flow> flows = new ArrayList<Flow>();
+
+		/** The bandwidth not allocated yet while the rates are computed. */
+		double remainingBandwidth;
+
+		/** The number of flows without a rate yet while the rates are computed. */
+		int numberOfUnallocatedFlows;
+	}
+
+	/**
+	 * The flow of a packet.
+	 */
+	private static class Flow {
+
+		/** The number of the flow, ordering the flows delivered at the same time. */
+		long id;
+
+		/** The packet. */
+		NetworkPacket packet;
+
+		/** The host of the receiver. */
+		NetworkHost destination;
+
+		/** The links from the host of the sender to the host of the receiver. */
+		Link[] links;
+
+		/** The data left to transfer. */
+		double remainingData;
+
+		/** The rate, or -1 while the rates are computed. */
+		double rate;
+
+		/** The delays of the switches on the path. */
+		double latency;
+
+		/** The time at which the packet is delivered. */
+		double deliveryTime;
+	}
+
+}
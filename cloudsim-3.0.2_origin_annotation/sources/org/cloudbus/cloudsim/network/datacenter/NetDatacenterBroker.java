@@ -23,6 +23,7 @@ import org.cloudbus.cloudsim.core.CloudSimTags;
 import org.cloudbus.cloudsim.core.SimEntity;
 import org.cloudbus.cloudsim.core.SimEvent;
 import org.cloudbus.cloudsim.distributions.UniformDistr;
+import org.cloudbus.cloudsim.lists.CloudletList;
 import org.cloudbus.cloudsim.lists.VmList;
 
 /**
@@ -81,10 +82,24 @@ public class NetDatacenterBroker extends SimEntity {
 	/** The datacenter characteristics list. */
 	private Map<Integer, DatacenterCharacteristics> datacenterCharacteristicsList;
 
+	/**
+	 * The datacenter the brokers of the simulation that set it last link to.
+	 * 
+	 * @deprecated the datacenter is set per simulation, use {@link #getLinkDC()}; this field is only
+	 *             updated from the state and will be removed in the next release
+	 */
+	@Deprecated
 	public static NetworkDatacenter linkDC;
 
 	public boolean createvmflag = true;
 
+	/**
+	 * The number of cached cloudlets of the simulation that cached cloudlets last.
+	 * 
+	 * @deprecated the cloudlets are counted per simulation, use {@link #getCachedCloudlets()}; this
+	 *             field is only updated from the state and will be removed in the next release
+	 */
+	@Deprecated
 	public static int cachedcloudlet = 0;
 
 	/**
@@ -101,9 +116,9 @@ public class NetDatacenterBroker extends SimEntity {
 	public NetDatacenterBroker(String name) throws Exception {
 		super(name);
 
-		setVmList(new ArrayList<NetworkVm>());
-		setVmsCreatedList(new ArrayList<NetworkVm>());
-		setCloudletList(new ArrayList<NetworkCloudlet>());
+		setVmList(VmList.<NetworkVm> createIndexedList());
+		setVmsCreatedList(VmList.<NetworkVm> createIndexedList());
+		setCloudletList(CloudletList.<NetworkCloudlet> createIndexedList());
 		setAppCloudletList(new ArrayList<AppCloudlet>());
 		setCloudletSubmittedList(new ArrayList<Cloudlet>());
 		setCloudletReceivedList(new ArrayList<Cloudlet>());
@@ -146,8 +161,34 @@ public class NetDatacenterBroker extends SimEntity {
 		getCloudletList().addAll(list);
 	}
 
+	/**
+	 * Sets the datacenter the brokers of the simulation link to.
+	 * 
+	 * @param alinkDC the datacenter
+	 * @see NetworkDatacenterState#setLinkDC(NetworkDatacenter)
+	 */
 	public void setLinkDC(NetworkDatacenter alinkDC) {
-		linkDC = alinkDC;
+		NetworkDatacenterState.getInstance().setLinkDC(alinkDC);
+	}
+
+	/**
+	 * Gets the datacenter the brokers of the simulation of the current thread link to.
+	 * 
+	 * @return the datacenter
+	 * @see NetworkDatacenterState#getLinkDC()
+	 */
+	public static NetworkDatacenter getLinkDC() {
+		return NetworkDatacenterState.getInstance().getLinkDC();
+	}
+
+	/**
+	 * Gets the number of cached cloudlets of the simulation of the current thread.
+	 * 
+	 * @return the number of cached cloudlets
+	 * @see NetworkDatacenterState#getCachedCloudlets()
+	 */
+	public static int getCachedCloudlets() {
+		return NetworkDatacenterState.getInstance().getCachedCloudlets();
 	}
 
 	/**
@@ -181,7 +222,7 @@ public class NetDatacenterBroker extends SimEntity {
 				break;
 			case CloudSimTags.NextCycle:
 				if (NetworkConstants.BASE) {
-					createVmsInDatacenterBase(linkDC.getId());
+					createVmsInDatacenterBase(getLinkDC().getId());
 				}
 
 				break;
@@ -253,7 +294,8 @@ public class NetDatacenterBroker extends SimEntity {
 		getCloudletReceivedList().add(cloudlet);
 		cloudletsSubmitted--;
 		// all cloudlets executed
-		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0 && NetworkConstants.iteration > 10) {
+		if (getCloudletList().size() == 0 && cloudletsSubmitted == 0
+				&& NetworkDatacenterState.getInstance().getIteration() > 10) {
 			Log.printLine(CloudSim.clock() + ": " + getName() + ": All Cloudlets executed. Finishing...");
 			clearDatacenters();
 			finishExecution();
@@ -309,8 +351,12 @@ public class NetDatacenterBroker extends SimEntity {
 		// generate Application execution Requests
 		for (int i = 0; i < 100; i++) {
 			this.getAppCloudletList().add(
-					new WorkflowApp(AppCloudlet.APP_Workflow, NetworkConstants.currentAppId, 0, 0, getId()));
-			NetworkConstants.currentAppId++;
+					new WorkflowApp(
+							AppCloudlet.APP_Workflow,
+							NetworkDatacenterState.getInstance().nextAppId(),
+							0,
+							0,
+							getId()));
 
 		}
 		int k = 0;
@@ -319,7 +365,7 @@ public class NetDatacenterBroker extends SimEntity {
 		for (AppCloudlet app : this.getAppCloudletList()) {
 
 			List<Integer> vmids = new ArrayList<Integer>();
-			int numVms = linkDC.getVmList().size();
+			int numVms = getLinkDC().getVmList().size();
 			UniformDistr ufrnd = new UniformDistr(0, numVms, 5);
 			for (int i = 0; i < app.numbervm; i++) {
 
@@ -350,9 +396,9 @@ public class NetDatacenterBroker extends SimEntity {
 
 		}
 		setAppCloudletList(new ArrayList<AppCloudlet>());
-		if (NetworkConstants.iteration < 10) {
+		if (NetworkDatacenterState.getInstance().getIteration() < 10) {
 
-			NetworkConstants.iteration++;
+			NetworkDatacenterState.getInstance().incrementIteration();
 			this.schedule(getId(), NetworkConstants.nexttime, CloudSimTags.NextCycle);
 		}
 
@@ -362,7 +408,7 @@ public class NetDatacenterBroker extends SimEntity {
 
 	private void CreateVMs(int datacenterId) {
 		// two VMs per host
-		int numVM = linkDC.getHostList().size() * NetworkConstants.maxhostVM;
+		int numVM = getLinkDC().getHostList().size() * NetworkConstants.maxhostVM;
 		for (int i = 0; i < numVM; i++) {
 			int vmid = i;
 			int mips = 1;
@@ -383,7 +429,7 @@ public class NetDatacenterBroker extends SimEntity {
 					size,
 					vmm,
 					new NetworkCloudletSpaceSharedScheduler());
-			linkDC.processVmCreateNetwork(vm);
+			getLinkDC().processVmCreateNetwork(vm);
 			// add the VM to the vmList
 			getVmList().add(vm);
 			getVmsToDatacentersMap().put(vmid, datacenterId);
@@ -15,7 +15,24 @@ public class NetworkConstants {
 
 	public static double maxMemperVM = 1024 * 1024;// kb
 
+	/**
+	 * The id of the next cloudlet of the simulation that created a cloudlet last.
+	 * 
+	 * @deprecated the ids are counted per simulation, use
+	 *             {@link NetworkDatacenterState#getCurrentCloudletId()}; this field is only updated
+	 *             from the state and will be removed in the next release
+	 */
+	@Deprecated
 	public static int currentCloudletId = 0;
+
+	/**
+	 * The id of the next application of the simulation that created an application last.
+	 * 
+	 * @deprecated the ids are counted per simulation, use
+	 *             {@link NetworkDatacenterState#nextAppId()}; this field is only updated from the
+	 *             state and will be removed in the next release
+	 */
+	@Deprecated
 	public static int currentAppId = 0;
 
 	// stage type
@@ -55,8 +72,18 @@ public class NetworkConstants {
 
 	public static boolean logflag = false;
 
+	// the number of application cycles the simulations start from, counted per simulation by
+	// NetworkDatacenterState
 	public static int iteration = 10;
 	public static int nexttime = 1000;
 
+	/**
+	 * The amount of data transferred by the switches of the simulation that transferred data last.
+	 * 
+	 * @deprecated the data is counted per simulation, use
+	 *             {@link NetworkDatacenterState#getTotalDataTransfer()}; this field is only updated
+	 *             from the state and will be removed in the next release
+	 */
+	@Deprecated
 	public static int totaldatatransfer = 0;
 }
@@ -88,6 +88,9 @@ public class NetworkDatacenter extends Datacenter {
 
 	public Map<Integer, Integer> VmtoHostlist;
 
+	/** The flow-level network, or null if the packets go through the switches. */
+	private FlowNetwork flowNetwork;
+
 	/**
 	 * Get list of all EdgeSwitches in the Datacenter network One can design similar functions for
 	 * other type of switches.
@@ -226,4 +229,62 @@ public class NetworkDatacenter extends Datacenter {
 		checkCloudletCompletion();
 	}
 
+	/**
+	 * Selects how the packets sent between the hosts are simulated, before the simulation starts.
+	 * By default, each packet is forwarded by the switches, which share the bandwidth of their
+	 * ports between the packets they forward together. With the flow-level network, each packet
+	 * is a flow sharing the bandwidth of the links on its path with the other flows, which only
+	 * needs events when flows start or end; see {@link FlowNetwork}.
+	 * 
+	 * @param flowLevelNetwork true to simulate the packets as flows, false to forward them by the
+	 *        switches
+	 */
+	public void setFlowLevelNetwork(boolean flowLevelNetwork) {
+		flowNetwork = flowLevelNetwork ? new FlowNetwork(this) : null;
+	}
+
+	/**
+	 * Checks whether the packets sent between the hosts are simulated as flows.
+	 * 
+	 * @return true if the packets are simulated as flows
+	 */
+	public boolean isFlowLevelNetwork() {
+		return flowNetwork != null;
+	}
+
+	/**
+	 * Gets the flow-level network.
+	 * 
+	 * @return the flow-level network, or null if the packets are forwarded by the switches
+	 */
+	public FlowNetwork getFlowNetwork() {
+		return flowNetwork;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#processOtherEvent(org.cloudbus.cloudsim.core.SimEvent)
+	 */
+	@Override
+	protected void processOtherEvent(SimEvent ev) {
+		if (ev != null && ev.getTag() == CloudSimTags.Network_Event_Flow && flowNetwork != null) {
+			flowNetwork.processFlowEvent();
+			return;
+		}
+		super.processOtherEvent(ev);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#setIncrementalProcessing(boolean)
+	 */
+	@Override
+	public void setIncrementalProcessing(boolean incrementalProcessing) {
+		if (incrementalProcessing) {
+			throw new UnsupportedOperationException(
+					"The hosts of a network datacenter exchange packets at each update");
+		}
+		super.setIncrementalProcessing(incrementalProcessing);
+	}
+
 }
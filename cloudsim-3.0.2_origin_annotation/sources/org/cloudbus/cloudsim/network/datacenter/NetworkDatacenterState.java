@@ -0,0 +1,164 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.Simulation;
+
+/**
+ * The state shared by the network datacenters, brokers and applications of a simulation: the
+ * datacenter the brokers link to, the counters giving the ids of the applications and of their
+ * cloudlets, the number of application cycles generated and the amount of data transferred by the
+ * switches. Each simulation has its own state, see {@link Simulation#getNetworkDatacenterState()},
+ * so that network datacenter simulations running concurrently in the same JVM do not share it.
+ * <p>
+ * The deprecated static fields that used to keep this state, such as
+ * {@link NetDatacenterBroker#linkDC} or {@link NetworkConstants#totaldatatransfer}, are still
+ * updated with the values of the simulation that changed them last, for the code reading them;
+ * the values written to them are not read back.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class NetworkDatacenterState {
+
+	/** The datacenter the brokers link to. */
+	private NetworkDatacenter linkDC;
+
+	/** The number of cached cloudlets. */
+	private int cachedCloudlets = 0;
+
+	/** The id of the next cloudlet. */
+	private int currentCloudletId = 0;
+
+	/** The id of the next application. */
+	private int currentAppId = 0;
+
+	/** The number of application cycles generated, starting from {@link NetworkConstants#iteration}. */
+	private int iteration = NetworkConstants.iteration;
+
+	/** The amount of data transferred by the switches. */
+	private int totalDataTransfer = 0;
+
+	/**
+	 * Gets the state of the simulation of the current thread.
+	 *
+	 * @return the state
+	 */
+	public static NetworkDatacenterState getInstance() {
+		return CloudSim.getSimulation().getNetworkDatacenterState();
+	}
+
+	/**
+	 * Gets the datacenter the brokers link to.
+	 *
+	 * @return the datacenter
+	 */
+	public NetworkDatacenter getLinkDC() {
+		return linkDC;
+	}
+
+	/**
+	 * Sets the datacenter the brokers link to.
+	 *
+	 * @param linkDC the datacenter
+	 */
+	@SuppressWarnings("deprecation")
+	public void setLinkDC(NetworkDatacenter linkDC) {
+		this.linkDC = linkDC;
+		NetDatacenterBroker.linkDC = linkDC;
+	}
+
+	/**
+	 * Gets the number of cached cloudlets.
+	 *
+	 * @return the number of cached cloudlets
+	 */
+	public int getCachedCloudlets() {
+		return cachedCloudlets;
+	}
+
+	/**
+	 * Sets the number of cached cloudlets.
+	 *
+	 * @param cachedCloudlets the number of cached cloudlets
+	 */
+	@SuppressWarnings("deprecation")
+	public void setCachedCloudlets(int cachedCloudlets) {
+		this.cachedCloudlets = cachedCloudlets;
+		NetDatacenterBroker.cachedcloudlet = cachedCloudlets;
+	}
+
+	/**
+	 * Gets the id of the next cloudlet.
+	 *
+	 * @return the id
+	 */
+	public int getCurrentCloudletId() {
+		return currentCloudletId;
+	}
+
+	/**
+	 * Gets the id of the next cloudlet and moves on to the following one.
+	 *
+	 * @return the id
+	 */
+	@SuppressWarnings("deprecation")
+	public int nextCloudletId() {
+		NetworkConstants.currentCloudletId = currentCloudletId + 1;
+		return currentCloudletId++;
+	}
+
+	/**
+	 * Gets the id of the next application and moves on to the following one.
+	 *
+	 * @return the id
+	 */
+	@SuppressWarnings("deprecation")
+	public int nextAppId() {
+		NetworkConstants.currentAppId = currentAppId + 1;
+		return currentAppId++;
+	}
+
+	/**
+	 * Gets the number of application cycles generated.
+	 *
+	 * @return the number of cycles
+	 */
+	public int getIteration() {
+		return iteration;
+	}
+
+	/**
+	 * Counts a new application cycle.
+	 */
+	public void incrementIteration() {
+		iteration++;
+	}
+
+	/**
+	 * Gets the amount of data transferred by the switches.
+	 *
+	 * @return the amount of data
+	 */
+	public int getTotalDataTransfer() {
+		return totalDataTransfer;
+	}
+
+	/**
+	 * Adds to the amount of data transferred by the switches.
+	 *
+	 * @param data the amount of data
+	 */
+	@SuppressWarnings("deprecation")
+	public void addDataTransfer(double data) {
+		totalDataTransfer += data;
+		NetworkConstants.totaldatatransfer = totalDataTransfer;
+	}
+
+}
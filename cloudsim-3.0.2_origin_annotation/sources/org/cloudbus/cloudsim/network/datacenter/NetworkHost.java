@@ -182,12 +182,23 @@ public class NetworkHost extends Host {
 			}
 		}
 
-		// Sending packet to other VMs therefore packet is forwarded to a Edge switch
 		packetTosendLocal.clear();
+		if (getDatacenter() instanceof NetworkDatacenter
+				&& ((NetworkDatacenter) getDatacenter()).isFlowLevelNetwork()) {
+			// Sending packet to other VMs as flows sharing the links of the network
+			FlowNetwork flowNetwork = ((NetworkDatacenter) getDatacenter()).getFlowNetwork();
+			for (NetworkPacket hs : packetTosendGlobal) {
+				flowNetwork.startFlow(this, hs);
+			}
+			packetTosendGlobal.clear();
+			return;
+		}
+
+		// Sending packet to other VMs therefore packet is forwarded to a Edge switch
 		double avband = bandwidth / packetTosendGlobal.size();
 		for (NetworkPacket hs : packetTosendGlobal) {
 			double delay = (1000 * hs.pkt.data) / avband;
-			NetworkConstants.totaldatatransfer += hs.pkt.data;
+			NetworkDatacenterState.getInstance().addDataTransfer(hs.pkt.data);
 
 			CloudSim.send(getDatacenter().getId(), sw.getId(), delay, CloudSimTags.Network_Event_UP, hs);
 			// send to switch with delay
@@ -51,6 +51,9 @@ public class PowerDatacenter extends Datacenter {
 	/** The migration count. */
 	private int migrationCount;
 
+	/** The accumulator of the energy consumed by the hosts over each time frame. */
+	private final PowerEnergyAccumulator energyAccumulator = new PowerEnergyAccumulator();
+
 	/**
 	 * Instantiates a new datacenter. ʵһµ
 	 * 
@@ -190,8 +193,12 @@ public class PowerDatacenter extends Datacenter {
 		double timeDiff = currentTime - getLastProcessTime();
 		double timeFrameDatacenterEnergy = 0.0;
 
-		Log.printLine("\n\n--------------------------------------------------------------\n\n");
-		Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+		// the state of each host is only logged at the debug level, as it is logged at each step
+		boolean debug = Log.isEnabled(Log.Level.DEBUG);
+		if (debug) {
+			Log.printLine(Log.Level.DEBUG, "\n\n--------------------------------------------------------------\n\n");
+			Log.formatLine(Log.Level.DEBUG, "New resource usage for the time frame starting at %.2f:", currentTime);
+		}
 
 		/*ѭÿ̨֪ͨVMcurrentTime´һʱԤСʱ䣬ӡ
 		 * ǰʱ䣬ǰIDCPUʡ
@@ -208,18 +215,21 @@ public class PowerDatacenter extends Datacenter {
 		 * δ
 		 * */
 		for (PowerHost host : this.<PowerHost> getHostList()) {
-			Log.printLine();
+			Log.printLine(Log.Level.DEBUG);
 			//ỵ̨̈һԤɵʱ䡣
 			double time = host.updateVmsProcessing(currentTime); // inform VMs to update processing  ֪ͨȥĴ̣ԤҪɵʱ䡣
 			if (time < minTime) {//ȽϸԤɵʱ䡣
 				minTime = time;//صԤɵٵʱΪ´ڲ¼ʱı׼
 			}
 
-			Log.formatLine(
-					"%.2f: [Host #%d] utilization is %.2f%%",
-					currentTime,
-					host.getId(),
-					host.getUtilizationOfCpu() * 100);
+			if (debug) {
+				Log.formatLine(
+						Log.Level.DEBUG,
+						"%.2f: [Host #%d] utilization is %.2f%%",
+						currentTime,
+						host.getId(),
+						host.getUtilizationOfCpu() * 100);
+			}
 		}
 		
 		/*
@@ -253,39 +263,45 @@ public class PowerDatacenter extends Datacenter {
 		 * ԤСʱ䡣
 		 * */
 		if (timeDiff > 0) {
-			Log.formatLine(
-					"\nEnergy consumption for the last time frame from %.2f to %.2f:",
-					getLastProcessTime(),
-					currentTime);
-
-			for (PowerHost host : this.<PowerHost> getHostList()) {
-				double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
-				double utilizationOfCpu = host.getUtilizationOfCpu();
-				double timeFrameHostEnergy = host.getEnergyLinearInterpolation(
-						previousUtilizationOfCpu,
-						utilizationOfCpu,
-						timeDiff);
-				timeFrameDatacenterEnergy += timeFrameHostEnergy;
-
-				Log.printLine();
+			if (debug) {
 				Log.formatLine(
-						"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
-						currentTime,
-						host.getId(),
+						Log.Level.DEBUG,
+						"\nEnergy consumption for the last time frame from %.2f to %.2f:",
 						getLastProcessTime(),
-						previousUtilizationOfCpu * 100,
-						utilizationOfCpu * 100);
+						currentTime);
+			}
+
+			timeFrameDatacenterEnergy = energyAccumulator.accumulate(this.<PowerHost> getHostList(), timeDiff);
+
+			if (debug) {
+				int i = 0;
+				for (PowerHost host : this.<PowerHost> getHostList()) {
+					Log.printLine(Log.Level.DEBUG);
+					Log.formatLine(
+							Log.Level.DEBUG,
+							"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
+							currentTime,
+							host.getId(),
+							getLastProcessTime(),
+							energyAccumulator.getPreviousUtilization(i) * 100,
+							energyAccumulator.getUtilization(i) * 100);
+					Log.formatLine(
+							Log.Level.DEBUG,
+							"%.2f: [Host #%d] energy is %.2f W*sec",
+							currentTime,
+							host.getId(),
+							energyAccumulator.getEnergy(i));
+					i++;
+				}
+			}
+
+			if (debug) {
 				Log.formatLine(
-						"%.2f: [Host #%d] energy is %.2f W*sec",
+						Log.Level.DEBUG,
+						"\n%.2f: Data center's energy is %.2f W*sec\n",
 						currentTime,
-						host.getId(),
-						timeFrameHostEnergy);
+						timeFrameDatacenterEnergy);
 			}
-
-			Log.formatLine(
-					"\n%.2f: Data center's energy is %.2f W*sec\n",
-					currentTime,
-					timeFrameDatacenterEnergy);
 		}
 
 		setPower(getPower() + timeFrameDatacenterEnergy);
@@ -297,11 +313,13 @@ public class PowerDatacenter extends Datacenter {
 			for (Vm vm : host.getCompletedVms()) {
 				getVmAllocationPolicy().deallocateHostForVm(vm);
 				getVmList().remove(vm);
-				Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+				if (Log.isEnabled(Log.Level.INFO)) {
+					Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+				}
 			}
 		}
 
-		Log.printLine();
+		Log.printLine(Log.Level.DEBUG);
 
 		setLastProcessTime(currentTime);
 		return minTime;
@@ -332,6 +350,19 @@ public class PowerDatacenter extends Datacenter {
 		setCloudletSubmitted(CloudSim.clock());
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.Datacenter#setIncrementalProcessing(boolean)
+	 */
+	@Override
+	public void setIncrementalProcessing(boolean incrementalProcessing) {
+		if (incrementalProcessing) {
+			throw new UnsupportedOperationException(
+					"The hosts of a power datacenter are updated at each scheduling interval");
+		}
+		super.setIncrementalProcessing(incrementalProcessing);
+	}
+
 	/**
 	 * Gets the power.
 	 * 
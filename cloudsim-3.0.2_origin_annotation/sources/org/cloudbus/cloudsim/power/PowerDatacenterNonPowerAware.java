@@ -80,10 +80,14 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 			double timeDiff = currentTime - getLastProcessTime();
 			double minTime = Double.MAX_VALUE;
 
-			Log.printLine("\n");
+			// the state of each host is only logged at the debug level, as it is logged at each step
+			boolean debug = Log.isEnabled(Log.Level.DEBUG);
+			Log.printLine(Log.Level.DEBUG, "\n");
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
-				Log.formatLine("%.2f: Host #%d", CloudSim.clock(), host.getId());
+				if (debug) {
+					Log.formatLine(Log.Level.DEBUG, "%.2f: Host #%d", CloudSim.clock(), host.getId());
+				}
 
 				double hostPower = 0.0;
 
@@ -94,24 +98,36 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 					e.printStackTrace();
 				}
 
+				if (debug) {
+					Log.formatLine(
+							Log.Level.DEBUG,
+							"%.2f: Host #%d utilization is %.2f%%",
+							CloudSim.clock(),
+							host.getId(),
+							host.getUtilizationOfCpu() * 100);
+					Log.formatLine(
+							Log.Level.DEBUG,
+							"%.2f: Host #%d energy is %.2f W*sec",
+							CloudSim.clock(),
+							host.getId(),
+							hostPower);
+				}
+			}
+
+			if (debug) {
 				Log.formatLine(
-						"%.2f: Host #%d utilization is %.2f%%",
-						CloudSim.clock(),
-						host.getId(),
-						host.getUtilizationOfCpu() * 100);
-				Log.formatLine(
-						"%.2f: Host #%d energy is %.2f W*sec",
+						Log.Level.DEBUG,
+						"\n%.2f: Consumed energy is %.2f W*sec\n",
 						CloudSim.clock(),
-						host.getId(),
-						hostPower);
+						timeframePower);
 			}
 
-			Log.formatLine("\n%.2f: Consumed energy is %.2f W*sec\n", CloudSim.clock(), timeframePower);
-
-			Log.printLine("\n\n--------------------------------------------------------------\n\n");
+			Log.printLine(Log.Level.DEBUG, "\n\n--------------------------------------------------------------\n\n");
 
 			for (PowerHost host : this.<PowerHost> getHostList()) {
-				Log.formatLine("\n%.2f: Host #%d", CloudSim.clock(), host.getId());
+				if (debug) {
+					Log.formatLine(Log.Level.DEBUG, "\n%.2f: Host #%d", CloudSim.clock(), host.getId());
+				}
 
 				double time = host.updateVmsProcessing(currentTime); // inform VMs to update
 																		// processing
@@ -129,11 +145,13 @@ public class PowerDatacenterNonPowerAware extends PowerDatacenter {
 				for (Vm vm : host.getCompletedVms()) {
 					getVmAllocationPolicy().deallocateHostForVm(vm);
 					getVmList().remove(vm);
-					Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+					if (Log.isEnabled(Log.Level.INFO)) {
+						Log.printLine("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+					}
 				}
 			}
 
-			Log.printLine();
+			Log.printLine(Log.Level.DEBUG);
 
 			if (!isDisableMigrations()) {
 				List<Map<String, Object>> migrationMap = getVmAllocationPolicy().optimizeAllocation(
@@ -0,0 +1,220 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.power.models.PowerModel;
+
+/**
+ * Computes the energy consumed by the hosts of a datacenter over an interval in one batch. The
+ * power models and the previous and current CPU utilizations of the hosts are first read into
+ * arrays, then the energy of each host is computed from the arrays with the power of its model,
+ * using the linear interpolation of
+ * {@link PowerHost#getEnergyLinearInterpolation(double, double, double)}, and summed in the order of
+ * the hosts. The energy of the hosts overriding {@link PowerHost#getPower(double)} or
+ * {@link PowerHost#getEnergyLinearInterpolation(double, double, double)} is asked to the hosts
+ * themselves, so the energy of the interval is always the sum of the energies returned by the
+ * hosts.
+ * <p>
+ * The arrays are reused from one interval to the next, and the values of the last interval can be
+ * read back, for example to log the energy of each host.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerEnergyAccumulator {
+
+	/** The power models of the hosts, or null for the hosts computing their energy themselves. */
+	private PowerModel[] powerModels = new PowerModel[0];
+
+	/** The host classes, mapped to whether their energy is computed from their power model. */
+	private final Map<Class<?>, Boolean> energyComputedByModel = new HashMap<Class<?>, Boolean>();
+
+	/** The CPU utilizations of the hosts at the start of the last interval. */
+	private double[] previousUtilizations = new double[0];
+
+	/** The CPU utilizations of the hosts at the end of the last interval. */
+	private double[] utilizations = new double[0];
+
+	/** The energy consumed by each host over the last interval. */
+	private double[] energies = new double[0];
+
+	/** The number of hosts of the last interval. */
+	private int numberOfHosts;
+
+	/**
+	 * Computes the energy consumed by hosts over an interval, from their previous and current CPU
+	 * utilizations.
+	 *
+	 * @param hosts the hosts
+	 * @param time the length of the interval
+	 * @return the energy consumed by all the hosts, in W * sec
+	 */
+	public double accumulate(List<? extends PowerHost> hosts, double time) {
+		numberOfHosts = hosts.size();
+		if (powerModels.length < numberOfHosts) {
+			powerModels = new PowerModel[numberOfHosts];
+			previousUtilizations = new double[numberOfHosts];
+			utilizations = new double[numberOfHosts];
+			energies = new double[numberOfHosts];
+		}
+		int i = 0;
+		for (PowerHost host : hosts) {
+			previousUtilizations[i] = host.getPreviousUtilizationOfCpu();
+			utilizations[i] = host.getUtilizationOfCpu();
+			if (isEnergyComputedByModel(host)) {
+				powerModels[i] = host.getPowerModel();
+			} else {
+				powerModels[i] = null;
+				energies[i] = host.getEnergyLinearInterpolation(
+						previousUtilizations[i],
+						utilizations[i],
+						time);
+			}
+			i++;
+		}
+
+		double energy = 0;
+		for (i = 0; i < numberOfHosts; i++) {
+			if (powerModels[i] != null) {
+				energies[i] = getEnergyLinearInterpolation(
+						powerModels[i],
+						previousUtilizations[i],
+						utilizations[i],
+						time);
+			}
+			energy += energies[i];
+		}
+		return energy;
+	}
+
+	/**
+	 * Gets the number of hosts of the last interval.
+	 *
+	 * @return the number of hosts
+	 */
+	public int getNumberOfHosts() {
+		return numberOfHosts;
+	}
+
+	/**
+	 * Gets the CPU utilization of a host at the start of the last interval.
+	 *
+	 * @param index the index of the host in the list of the last interval
+	 * @return the utilization
+	 */
+	public double getPreviousUtilization(int index) {
+		return previousUtilizations[checkIndex(index)];
+	}
+
+	/**
+	 * Gets the CPU utilization of a host at the end of the last interval.
+	 *
+	 * @param index the index of the host in the list of the last interval
+	 * @return the utilization
+	 */
+	public double getUtilization(int index) {
+		return utilizations[checkIndex(index)];
+	}
+
+	/**
+	 * Gets the energy consumed by a host over the last interval.
+	 *
+	 * @param index the index of the host in the list of the last interval
+	 * @return the energy, in W * sec
+	 */
+	public double getEnergy(int index) {
+		return energies[checkIndex(index)];
+	}
+
+	/**
+	 * Gets the energy consumed over an interval using linear interpolation of the utilization
+	 * change, as {@link PowerHost#getEnergyLinearInterpolation(double, double, double)} does.
+	 *
+	 * @param powerModel the power model
+	 * @param fromUtilization the utilization at the start of the interval
+	 * @param toUtilization the utilization at the end of the interval
+	 * @param time the length of the interval
+	 * @return the energy
+	 */
+	private static double getEnergyLinearInterpolation(
+			PowerModel powerModel,
+			double fromUtilization,
+			double toUtilization,
+			double time) {
+		if (fromUtilization == 0) {
+			return 0;
+		}
+		double fromPower = PowerHost.getPowerOfModel(powerModel, fromUtilization);
+		if (toUtilization == fromUtilization) {
+			return fromPower * time;
+		}
+		double toPower = PowerHost.getPowerOfModel(powerModel, toUtilization);
+		return (fromPower + (toPower - fromPower) / 2) * time;
+	}
+
+	/**
+	 * Checks if the energy of a host is computed from its power model, that is if its class does not
+	 * override how the power or the energy of the host is computed.
+	 *
+	 * @param host the host
+	 * @return true, if the energy is computed from the power model
+	 */
+	private boolean isEnergyComputedByModel(PowerHost host) {
+		Class<?> hostClass = host.getClass();
+		Boolean computedByModel = energyComputedByModel.get(hostClass);
+		if (computedByModel == null) {
+			computedByModel = !isOverridden(hostClass, "getPower", double.class)
+					&& !isOverridden(
+							hostClass,
+							"getEnergyLinearInterpolation",
+							double.class,
+							double.class,
+							double.class);
+			energyComputedByModel.put(hostClass, computedByModel);
+		}
+		return computedByModel;
+	}
+
+	/**
+	 * Checks if a method of {@link PowerHost} is overridden by a host class.
+	 *
+	 * @param hostClass the host class
+	 * @param name the name of the method
+	 * @param parameterTypes the parameter types of the method
+	 * @return true, if the method is overridden
+	 */
+	private static boolean isOverridden(Class<?> hostClass, String name, Class<?>... parameterTypes) {
+		for (Class<?> c = hostClass; c != PowerHost.class; c = c.getSuperclass()) {
+			try {
+				c.getDeclaredMethod(name, parameterTypes);
+				return true;
+			} catch (NoSuchMethodException e) {
+				// not declared by this class
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Checks the index of a host of the last interval.
+	 *
+	 * @param index the index
+	 * @return the index
+	 */
+	private int checkIndex(int index) {
+		if (index < 0 || index >= numberOfHosts) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + numberOfHosts);
+		}
+		return index;
+	}
+
+}
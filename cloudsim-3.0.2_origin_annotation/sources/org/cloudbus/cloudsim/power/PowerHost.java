@@ -14,6 +14,7 @@ import org.cloudbus.cloudsim.HostDynamicWorkload;
 import org.cloudbus.cloudsim.Pe;
 import org.cloudbus.cloudsim.VmScheduler;
 import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelAbstract;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 
@@ -74,14 +75,7 @@ public class PowerHost extends HostDynamicWorkload {
 	 * @return the power
 	 */
 	protected double getPower(double utilization) {
-		double power = 0;
-		try {
-			power = getPowerModel().getPower(utilization);
-		} catch (Exception e) {
-			e.printStackTrace();
-			System.exit(0);
-		}
-		return power;
+		return getPowerOfModel(getPowerModel(), utilization);
 	}
 
 	/**
@@ -90,9 +84,26 @@ public class PowerHost extends HostDynamicWorkload {
 	 * @return the max power
 	 */
 	public double getMaxPower() {
+		return getPowerOfModel(getPowerModel(), 1);
+	}
+
+	/**
+	 * Gets the power consumed by a power model at a utilization. A utilization between 0 and 1 is
+	 * not checked again by the models extending {@link PowerModelAbstract}; any other utilization is
+	 * asked through {@link PowerModel#getPower(double)}, and the simulation stops if the model
+	 * rejects it.
+	 * 
+	 * @param powerModel the power model
+	 * @param utilization the utilization
+	 * @return the power
+	 */
+	static double getPowerOfModel(PowerModel powerModel, double utilization) {
+		if (utilization >= 0 && utilization <= 1 && powerModel instanceof PowerModelAbstract) {
+			return ((PowerModelAbstract) powerModel).getPowerUnchecked(utilization);
+		}
 		double power = 0;
 		try {
-			power = getPowerModel().getPower(1);
+			power = powerModel.getPower(utilization);
 		} catch (Exception e) {
 			e.printStackTrace();
 			System.exit(0);
@@ -113,6 +124,9 @@ public class PowerHost extends HostDynamicWorkload {
 			return 0;
 		}
 		double fromPower = getPower(fromUtilization);
+		if (toUtilization == fromUtilization) {
+			return fromPower * time;
+		}
 		double toPower = getPower(toUtilization);
 		return (fromPower + (toPower - fromPower) / 2) * time;
 	}
@@ -0,0 +1,363 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.Host;
+
+/**
+ * An index of the hosts of a migration policy, built at the beginning of an optimization of the VM
+ * allocation and used while the migrations are planned, so that finding a host for a VM and
+ * finding an under-utilized host do not scan all the hosts.
+ * <p>
+ * The hosts that have no VM, no utilization and have not been changed by the plan are grouped by
+ * their power model and free capacity. All the hosts of a group would give the same power increase
+ * for any VM, so only the first of them that is not excluded is a candidate; the other hosts, said
+ * to be active, are all candidates. A host becomes active for the rest of the optimization when the
+ * plan allocates or deallocates a VM on it. The hosts whose utilization is between 0 and 1 are
+ * sorted by utilization, which does not change while the migrations are planned.
+ * <p>
+ * The first host of each group and the first under-utilized host that are not excluded are
+ * remembered for each set of excluded hosts, along with the excluded hosts skipped to find them.
+ * They are found again from the beginning of the host list if one of the skipped hosts is no
+ * longer in the set, so a set may change in any way between two calls; the sets of the migration
+ * policies only grow during an optimization, so their candidates are kept. The candidates are
+ * returned in the order of the host list, so the host chosen among them is the same as the one
+ * chosen by scanning all the hosts.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerHostIndex {
+
+	/** The number of sets of excluded hosts for which the first candidates are remembered. */
+	private static final int NUMBER_OF_CURSORS = 4;
+
+	/** The host list. */
+	private final List<PowerHost> hostList;
+
+	/** The positions of the hosts in the host list. */
+	private final Map<Host, Integer> positions;
+
+	/** The positions of the active hosts. */
+	private final BitSet activeHosts;
+
+	/** The positions of the hosts of each group of empty hosts. */
+	private final List<BitSet> emptyHostGroups;
+
+	/** The group of each host, or -1 if the host is active. */
+	private final int[] groups;
+
+	/** The positions of the hosts with a utilization between 0 and 1, by utilization. */
+	private final int[] underUtilizedHosts;
+
+	/** The first candidates remembered for the last sets of excluded hosts. */
+	private final Cursor[] cursors = new Cursor[NUMBER_OF_CURSORS];
+
+	/** The index of the next cursor to replace. */
+	private int nextCursor;
+
+	/**
+	 * Builds the index of a host list.
+	 *
+	 * @param hostList the host list
+	 */
+	public PowerHostIndex(List<PowerHost> hostList) {
+		this.hostList = hostList;
+		int numberOfHosts = hostList.size();
+		positions = new HashMap<Host, Integer>(numberOfHosts * 2);
+		activeHosts = new BitSet(numberOfHosts);
+		emptyHostGroups = new ArrayList<BitSet>();
+		groups = new int[numberOfHosts];
+
+		Map<EmptyHostKey, Integer> groupsByKey = new HashMap<EmptyHostKey, Integer>();
+		List<Integer> underUtilized = new ArrayList<Integer>();
+		for (int i = 0; i < numberOfHosts; i++) {
+			PowerHost host = hostList.get(i);
+			positions.put(host, i);
+
+			double utilization = host.getUtilizationOfCpu();
+			if (utilization > 0 && utilization < 1) {
+				underUtilized.add(i);
+			}
+
+			if (host.getVmList().isEmpty() && host.getVmsMigratingIn().isEmpty() && utilization == 0) {
+				EmptyHostKey key = new EmptyHostKey(host);
+				Integer group = groupsByKey.get(key);
+				if (group == null) {
+					group = emptyHostGroups.size();
+					groupsByKey.put(key, group);
+					emptyHostGroups.add(new BitSet(numberOfHosts));
+				}
+				emptyHostGroups.get(group).set(i);
+				groups[i] = group;
+			} else {
+				activeHosts.set(i);
+				groups[i] = -1;
+			}
+		}
+
+		Integer[] sorted = underUtilized.toArray(new Integer[underUtilized.size()]);
+		Arrays.sort(sorted, new Comparator<Integer>() {
+
+			@Override
+			public int compare(Integer position1, Integer position2) {
+				int result = Double.compare(
+						PowerHostIndex.this.hostList.get(position1).getUtilizationOfCpu(),
+						PowerHostIndex.this.hostList.get(position2).getUtilizationOfCpu());
+				return result != 0 ? result : position1.compareTo(position2);
+			}
+		});
+		underUtilizedHosts = new int[sorted.length];
+		for (int i = 0; i < sorted.length; i++) {
+			underUtilizedHosts[i] = sorted[i];
+		}
+	}
+
+	/**
+	 * Marks a host as active, after the plan has allocated or deallocated a VM on it.
+	 *
+	 * @param host the host
+	 */
+	public void setActive(Host host) {
+		Integer position = positions.get(host);
+		if (position != null && groups[position] >= 0) {
+			emptyHostGroups.get(groups[position]).clear(position);
+			groups[position] = -1;
+			activeHosts.set(position);
+		}
+	}
+
+	/**
+	 * Gets the hosts that have to be considered to find a host for a VM: the active hosts and the
+	 * first host of each group of empty hosts that is not excluded, in the order of the host list.
+	 * The active hosts are returned even if they are excluded.
+	 *
+	 * @param excludedHosts the excluded hosts
+	 * @return the candidate hosts
+	 */
+	public List<PowerHost> getCandidateHosts(Set<? extends Host> excludedHosts) {
+		Cursor cursor = getCursor(excludedHosts);
+		int numberOfHosts = hostList.size();
+
+		int[] firstEmptyHosts = new int[emptyHostGroups.size()];
+		int numberOfFirstEmptyHosts = 0;
+		for (int group = 0; group < emptyHostGroups.size(); group++) {
+			BitSet emptyHosts = emptyHostGroups.get(group);
+			int position = emptyHosts.nextSetBit(cursor.emptyHostPositions[group]);
+			while (position >= 0 && excludedHosts.contains(hostList.get(position))) {
+				cursor.skippedHosts.add(hostList.get(position));
+				position = emptyHosts.nextSetBit(position + 1);
+			}
+			if (position < 0) {
+				cursor.emptyHostPositions[group] = numberOfHosts;
+			} else {
+				cursor.emptyHostPositions[group] = position;
+				firstEmptyHosts[numberOfFirstEmptyHosts++] = position;
+			}
+		}
+		Arrays.sort(firstEmptyHosts, 0, numberOfFirstEmptyHosts);
+
+		List<PowerHost> candidates = new ArrayList<PowerHost>(activeHosts.cardinality()
+				+ numberOfFirstEmptyHosts);
+		int next = 0;
+		for (int position = activeHosts.nextSetBit(0); position >= 0; position = activeHosts
+				.nextSetBit(position + 1)) {
+			while (next < numberOfFirstEmptyHosts && firstEmptyHosts[next] < position) {
+				candidates.add(hostList.get(firstEmptyHosts[next++]));
+			}
+			candidates.add(hostList.get(position));
+		}
+		while (next < numberOfFirstEmptyHosts) {
+			candidates.add(hostList.get(firstEmptyHosts[next++]));
+		}
+		return candidates;
+	}
+
+	/**
+	 * Gets the least utilized host, with a utilization between 0 and 1, that is not excluded and
+	 * that has a VM that is neither migrating out nor migrating in.
+	 *
+	 * @param excludedHosts the excluded hosts
+	 * @param policy the policy telling whether the VMs of a host are migrating
+	 * @return the under-utilized host, or null if there is none
+	 */
+	public PowerHost getUnderUtilizedHost(
+			Set<? extends Host> excludedHosts,
+			PowerVmAllocationPolicyMigrationAbstract policy) {
+		Cursor cursor = getCursor(excludedHosts);
+		int i = cursor.underUtilizedHostIndex;
+		while (i < underUtilizedHosts.length && excludedHosts.contains(hostList.get(underUtilizedHosts[i]))) {
+			cursor.skippedHosts.add(hostList.get(underUtilizedHosts[i]));
+			i++;
+		}
+		cursor.underUtilizedHostIndex = i;
+
+		for (; i < underUtilizedHosts.length; i++) {
+			PowerHost host = hostList.get(underUtilizedHosts[i]);
+			if (!excludedHosts.contains(host) && !policy.areAllVmsMigratingOutOrAnyVmMigratingIn(host)) {
+				return host;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the first candidates remembered for a set of excluded hosts. They are forgotten if a
+	 * host skipped to find them has been removed from the set since.
+	 *
+	 * @param excludedHosts the excluded hosts
+	 * @return the cursor
+	 */
+	private Cursor getCursor(Set<? extends Host> excludedHosts) {
+		for (Cursor cursor : cursors) {
+			if (cursor != null && cursor.excludedHosts == excludedHosts) {
+				if (!excludedHosts.containsAll(cursor.skippedHosts)) {
+					cursor.reset();
+				}
+				return cursor;
+			}
+		}
+		Cursor cursor = new Cursor(excludedHosts, emptyHostGroups.size());
+		cursors[nextCursor] = cursor;
+		nextCursor = (nextCursor + 1) % NUMBER_OF_CURSORS;
+		return cursor;
+	}
+
+	/**
+	 * The first candidates found for a set of excluded hosts: all the hosts before them are
+	 * excluded.
+	 */
+	private static class Cursor {
+
+		/** The excluded hosts. */
+		private final Set<? extends Host> excludedHosts;
+
+		/** The excluded hosts skipped to find the candidates. */
+		private final List<Host> skippedHosts = new ArrayList<Host>();
+
+		/** The position of the first host of each group of empty hosts. */
+		private final int[] emptyHostPositions;
+
+		/** The index of the first under-utilized host. */
+		private int underUtilizedHostIndex;
+
+		/**
+		 * Instantiates a new cursor.
+		 *
+		 * @param excludedHosts the excluded hosts
+		 * @param numberOfGroups the number of groups of empty hosts
+		 */
+		public Cursor(Set<? extends Host> excludedHosts, int numberOfGroups) {
+			this.excludedHosts = excludedHosts;
+			emptyHostPositions = new int[numberOfGroups];
+		}
+
+		/**
+		 * Forgets the candidates.
+		 */
+		public void reset() {
+			Arrays.fill(emptyHostPositions, 0);
+			underUtilizedHostIndex = 0;
+			skippedHosts.clear();
+		}
+
+	}
+
+	/**
+	 * The properties that make two empty hosts equivalent when looking for a host for a VM.
+	 */
+	private static class EmptyHostKey {
+
+		/** The class of the host. */
+		private final Class<?> hostClass;
+
+		/** The power model. */
+		private final Object powerModel;
+
+		/** The total MIPS. */
+		private final int totalMips;
+
+		/** The MIPS capacity of a PE. */
+		private final double peCapacity;
+
+		/** The available MIPS. */
+		private final double availableMips;
+
+		/** The available RAM. */
+		private final int availableRam;
+
+		/** The available BW. */
+		private final long availableBw;
+
+		/** The available storage. */
+		private final long storage;
+
+		/**
+		 * Instantiates the key of an empty host.
+		 *
+		 * @param host the host
+		 */
+		public EmptyHostKey(PowerHost host) {
+			hostClass = host.getClass();
+			powerModel = host.getPowerModel();
+			totalMips = host.getTotalMips();
+			peCapacity = host.getVmScheduler().getPeCapacity();
+			availableMips = host.getVmScheduler().getAvailableMips();
+			availableRam = host.getRamProvisioner().getAvailableRam();
+			availableBw = host.getBwProvisioner().getAvailableBw();
+			storage = host.getStorage();
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#equals(java.lang.Object)
+		 */
+		@Override
+		public boolean equals(Object object) {
+			if (!(object instanceof EmptyHostKey)) {
+				return false;
+			}
+			EmptyHostKey key = (EmptyHostKey) object;
+			return hostClass == key.hostClass
+					&& powerModel == key.powerModel
+					&& totalMips == key.totalMips
+					&& Double.compare(peCapacity, key.peCapacity) == 0
+					&& Double.compare(availableMips, key.availableMips) == 0
+					&& availableRam == key.availableRam
+					&& availableBw == key.availableBw
+					&& storage == key.storage;
+		}
+
+		/*
+		 * (non-Javadoc)
+		 * @see java.lang.Object#hashCode()
+		 */
+		@Override
+		public int hashCode() {
+			int result = System.identityHashCode(powerModel);
+			result = 31 * result + totalMips;
+			long bits = Double.doubleToLongBits(availableMips);
+			result = 31 * result + (int) (bits ^ (bits >>> 32));
+			result = 31 * result + availableRam;
+			result = 31 * result + (int) (availableBw ^ (availableBw >>> 32));
+			result = 31 * result + (int) (storage ^ (storage >>> 32));
+			return result;
+		}
+
+	}
+
+}
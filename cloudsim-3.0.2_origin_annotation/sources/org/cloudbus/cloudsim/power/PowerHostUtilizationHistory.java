@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Pe;
@@ -16,6 +17,7 @@ import org.cloudbus.cloudsim.power.models.PowerModel;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.UtilizationHistory;
 
 /**
  * The class of a host that stores its CPU utilization history. The history is used by VM allocation
@@ -34,6 +36,27 @@ import org.cloudbus.cloudsim.util.MathUtil;
  */
 public class PowerHostUtilizationHistory extends PowerHost {
 
+	/** The VMs whose utilization histories have been summed, in the order of the VM list. */
+	private PowerVm[] aggregatedVms = new PowerVm[0];
+
+	/** The number of values added to the history of each summed VM when it was summed. */
+	private long[] aggregatedVersions = new long[0];
+
+	/** The MIPS of each summed VM when it was summed. */
+	private double[] aggregatedMips = new double[0];
+
+	/**
+	 * The sums of the weighted utilization histories of the first k summed VMs, for each k from 0,
+	 * one after another.
+	 */
+	private double[] aggregatedHistories = new double[PowerVm.HISTORY_LENGTH];
+
+	/** The number of summed VMs. */
+	private int numberOfAggregatedVms;
+
+	/** The MIPS of the host when the VMs were summed. */
+	private double aggregatedHostMips;
+
 	/**
 	 * Instantiates a new power host utilization history.
 	 * 
@@ -57,19 +80,86 @@ public class PowerHostUtilizationHistory extends PowerHost {
 	}
 
 	/**
-	 * Gets the host utilization history.
-	 * 
+	 * Gets the host utilization history, the sum of the utilization histories of the VMs weighted by
+	 * their MIPS. A new array is returned, as the callers may sort it.
+	 *
 	 * @return the host utilization history
 	 */
 	protected double[] getUtilizationHistory() {
-		double[] utilizationHistory = new double[PowerVm.HISTORY_LENGTH];
+		return getUtilizationHistory(this.<PowerVm> getVmList());
+	}
+
+	/**
+	 * Gets the utilization history the host would have with a given VM list, such as the tentative
+	 * VM list of an allocation plan.
+	 *
+	 * @param vmList the VM list
+	 * @return the host utilization history
+	 */
+	protected double[] getUtilizationHistory(List<PowerVm> vmList) {
+		updateAggregatedHistories(vmList);
+		int offset = numberOfAggregatedVms * PowerVm.HISTORY_LENGTH;
+		double[] utilizationHistory = Arrays.copyOfRange(
+				aggregatedHistories,
+				offset,
+				offset + PowerVm.HISTORY_LENGTH);
+		return MathUtil.trimZeroTail(utilizationHistory);
+	}
+
+	/**
+	 * Updates the sums of the utilization histories of the first VMs. The sums of the VMs that are
+	 * still first in the VM list and whose history has not changed are kept, so the sums are only
+	 * computed again for the VMs added or moved since the last call. The sums are computed in the
+	 * order of the VM list, so they are the same as if they were all computed again.
+	 *
+	 * @param vmList the VM list
+	 */
+	private void updateAggregatedHistories(List<PowerVm> vmList) {
+		int numberOfVms = vmList.size();
 		double hostMips = getTotalMips();
-		for (PowerVm vm : this.<PowerVm> getVmList()) {
-			for (int i = 0; i < vm.getUtilizationHistory().size(); i++) {
-				utilizationHistory[i] += vm.getUtilizationHistory().get(i) * vm.getMips() / hostMips;
+		if (hostMips != aggregatedHostMips) {
+			numberOfAggregatedVms = 0;
+			aggregatedHostMips = hostMips;
+		}
+
+		int unchanged = 0;
+		int limit = Math.min(numberOfAggregatedVms, numberOfVms);
+		while (unchanged < limit) {
+			PowerVm vm = vmList.get(unchanged);
+			if (vm != aggregatedVms[unchanged]
+					|| vm.getUtilizationHistory().getNumberOfValuesAdded() != aggregatedVersions[unchanged]
+					|| vm.getMips() != aggregatedMips[unchanged]) {
+				break;
 			}
+			unchanged++;
 		}
-		return MathUtil.trimZeroTail(utilizationHistory);
+
+		if (aggregatedVms.length < numberOfVms) {
+			int capacity = Math.max(numberOfVms, aggregatedVms.length * 2);
+			aggregatedVms = Arrays.copyOf(aggregatedVms, capacity);
+			aggregatedVersions = Arrays.copyOf(aggregatedVersions, capacity);
+			aggregatedMips = Arrays.copyOf(aggregatedMips, capacity);
+			aggregatedHistories = Arrays.copyOf(aggregatedHistories, (capacity + 1) * PowerVm.HISTORY_LENGTH);
+		}
+
+		for (int k = unchanged; k < numberOfVms; k++) {
+			PowerVm vm = vmList.get(k);
+			UtilizationHistory history = vm.getUtilizationHistory();
+			double mips = vm.getMips();
+			int previous = k * PowerVm.HISTORY_LENGTH;
+			int current = previous + PowerVm.HISTORY_LENGTH;
+			System.arraycopy(aggregatedHistories, previous, aggregatedHistories, current, PowerVm.HISTORY_LENGTH);
+			for (int i = 0; i < history.size(); i++) {
+				aggregatedHistories[current + i] += history.getValue(i) * mips / hostMips;
+			}
+			aggregatedVms[k] = vm;
+			aggregatedVersions[k] = history.getNumberOfValuesAdded();
+			aggregatedMips[k] = mips;
+		}
+		if (numberOfAggregatedVms > numberOfVms) {
+			Arrays.fill(aggregatedVms, numberOfVms, numberOfAggregatedVms, null);
+		}
+		numberOfAggregatedVms = numberOfVms;
 	}
 
 }
@@ -8,13 +8,12 @@
 
 package org.cloudbus.cloudsim.power;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import org.cloudbus.cloudsim.CloudletScheduler;
 import org.cloudbus.cloudsim.Vm;
 import org.cloudbus.cloudsim.core.CloudSim;
-import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.UtilizationHistory;
 
 import flanagan.analysis.Stat;
 
@@ -39,7 +38,7 @@ public class PowerVm extends Vm {
 	public static final int HISTORY_LENGTH = 30;
 
 	/** The utilization history. */
-	private final List<Double> utilizationHistory = new LinkedList<Double>();
+	private final UtilizationHistory utilizationHistory = new UtilizationHistory(HISTORY_LENGTH);
 
 	/** The previous time. */
 	private double previousTime;
@@ -111,14 +110,11 @@ public class PowerVm extends Vm {
 	public double getUtilizationMad() {
 		double mad = 0;
 		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
-			double median = MathUtil.median(getUtilizationHistory());
-			double[] deviationSum = new double[n];
-			for (int i = 0; i < n; i++) {
-				deviationSum[i] = Math.abs(median - getUtilizationHistory().get(i));
+			double[] utilization = getUtilizationHistory().toDoubleArray();
+			double median = Stat.median(utilization);
+			double[] deviationSum = new double[utilization.length];
+			for (int i = 0; i < utilization.length; i++) {
+				deviationSum[i] = Math.abs(median - utilization[i]);
 			}
 			mad = Stat.median(deviationSum);
 		}
@@ -131,18 +127,7 @@ public class PowerVm extends Vm {
 	 * @return the utilization mean in MIPS
 	 */
 	public double getUtilizationMean() {
-		double mean = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
-			for (int i = 0; i < n; i++) {
-				mean += getUtilizationHistory().get(i);
-			}
-			mean /= n;
-		}
-		return mean * getMips();
+		return getUtilizationHistory().getMean() * getMips();
 	}
 
 	/**
@@ -151,20 +136,7 @@ public class PowerVm extends Vm {
 	 * @return the utilization variance in MIPS
 	 */
 	public double getUtilizationVariance() {
-		double mean = getUtilizationMean();
-		double variance = 0;
-		if (!getUtilizationHistory().isEmpty()) {
-			int n = HISTORY_LENGTH;
-			if (HISTORY_LENGTH > getUtilizationHistory().size()) {
-				n = getUtilizationHistory().size();
-			}
-			for (int i = 0; i < n; i++) {
-				double tmp = getUtilizationHistory().get(i) * getMips() - mean;
-				variance += tmp * tmp;
-			}
-			variance /= n;
-		}
-		return variance;
+		return getUtilizationHistory().getVariance() * getMips() * getMips();
 	}
 
 	/**
@@ -173,18 +145,15 @@ public class PowerVm extends Vm {
 	 * @param utilization the utilization
 	 */
 	public void addUtilizationHistoryValue(double utilization) {
-		getUtilizationHistory().add(0, utilization);
-		if (getUtilizationHistory().size() > HISTORY_LENGTH) {
-			getUtilizationHistory().remove(HISTORY_LENGTH);
-		}
+		getUtilizationHistory().addValue(utilization);
 	}
 
 	/**
-	 * Gets the utilization history.
+	 * Gets the utilization history, from the latest value to the oldest one.
 	 * 
 	 * @return the utilization history
 	 */
-	protected List<Double> getUtilizationHistory() {
+	protected UtilizationHistory getUtilizationHistory() {
 		return utilizationHistory;
 	}
 
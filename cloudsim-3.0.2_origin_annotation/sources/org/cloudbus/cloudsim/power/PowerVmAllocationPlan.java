@@ -0,0 +1,325 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Vm;
+
+/**
+ * A what-if view of the hosts used to plan VM migrations. The VMs are tentatively created on and
+ * destroyed from the hosts through the plan, which keeps the MIPS, RAM, BW and storage left on
+ * each changed host, so the provisioners and the VM schedulers of the hosts are never used while
+ * planning. The state of a host, along with a copy of its VM list, is copied from the host when the
+ * plan first changes it, and every change is recorded so that it can be rolled back. The hosts
+ * themselves are never changed: the policies read the tentative VM list of a host through
+ * {@link #getVmList(Host)}.
+ *
+ * The resources are accounted as done by the time-shared VM schedulers and the simple RAM and BW
+ * provisioners: a VM created by the plan is given the MIPS, RAM and BW it currently requests.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PowerVmAllocationPlan {
+
+	/** The state of the hosts changed by the plan. */
+	private final Map<Host, HostState> hostStates = new HashMap<Host, HostState>();
+
+	/** The changes made by the plan, in order. */
+	private final List<Change> changes = new ArrayList<Change>();
+
+	/**
+	 * Checks whether a host has enough resources left to create a VM.
+	 *
+	 * @param host the host
+	 * @param vm the VM
+	 * @return true, if the VM can be created on the host
+	 */
+	public boolean isSuitableForVm(Host host, Vm vm) {
+		HostState state = hostStates.get(host);
+		if (state == null) {
+			return host.getVmScheduler().getPeCapacity() >= vm.getCurrentRequestedMaxMips()
+					&& host.getVmScheduler().getAvailableMips() >= vm.getCurrentRequestedTotalMips()
+					&& host.getRamProvisioner().getAvailableRam()
+							+ host.getRamProvisioner().getAllocatedRamForVm(vm) >= getRequestedRam(vm)
+					&& host.getBwProvisioner().getAvailableBw()
+							+ host.getBwProvisioner().getAllocatedBwForVm(vm) >= vm.getCurrentRequestedBw();
+		}
+		return state.peCapacity >= vm.getCurrentRequestedMaxMips()
+				&& state.availableMips >= vm.getCurrentRequestedTotalMips()
+				&& state.availableRam >= getRequestedRam(vm)
+				&& state.availableBw >= vm.getCurrentRequestedBw();
+	}
+
+	/**
+	 * Gets the tentative VM list of a host: the VMs of the host, with the VMs created on it by the
+	 * plan and without the VMs destroyed on it by the plan. The list must not be changed.
+	 *
+	 * @param <T> the type of the VMs
+	 * @param host the host
+	 * @return the VM list
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Vm> List<T> getVmList(Host host) {
+		HostState state = hostStates.get(host);
+		if (state == null) {
+			return host.getVmList();
+		}
+		return (List<T>) state.vmList;
+	}
+
+	/**
+	 * Tentatively creates a VM on a host.
+	 *
+	 * @param host the host
+	 * @param vm the VM
+	 * @return true, if the host has enough resources left for the VM
+	 */
+	public boolean vmCreate(Host host, Vm vm) {
+		HostState state = getHostState(host);
+		double requestedMips = vm.getCurrentRequestedTotalMips();
+		int requestedRam = getRequestedRam(vm);
+		long requestedBw = vm.getCurrentRequestedBw();
+		if (state.storage < vm.getSize()
+				|| state.availableRam < requestedRam
+				|| state.availableBw < requestedBw
+				|| state.peCapacity < vm.getCurrentRequestedMaxMips()
+				|| state.availableMips < requestedMips) {
+			return false;
+		}
+
+		changes.add(new Change(host, vm, true, state.vmList.size(), state, requestedMips));
+		state.availableMips -= requestedMips;
+		state.availableRam -= requestedRam;
+		state.availableBw -= requestedBw;
+		state.storage -= vm.getSize();
+		state.allocatedMips.put(vm, requestedMips);
+		state.vmList.add(vm);
+		return true;
+	}
+
+	/**
+	 * Tentatively destroys a VM on a host. The resources of the VM are given back to the host.
+	 *
+	 * @param host the host
+	 * @param vm the VM
+	 */
+	public void vmDestroy(Host host, Vm vm) {
+		int index = getVmList(host).indexOf(vm);
+		if (index < 0) {
+			return;
+		}
+		HostState state = getHostState(host);
+		Double createdMips = state.allocatedMips.remove(vm);
+		changes.add(new Change(host, vm, false, index, state, createdMips));
+		if (createdMips != null) {
+			state.availableMips += createdMips;
+			state.availableRam += getRequestedRam(vm);
+			state.availableBw += vm.getCurrentRequestedBw();
+		} else {
+			state.availableMips += host.getTotalAllocatedMipsForVm(vm);
+			state.availableRam += host.getRamProvisioner().getAllocatedRamForVm(vm);
+			state.availableBw += host.getBwProvisioner().getAllocatedBwForVm(vm);
+		}
+		state.storage += vm.getSize();
+		state.vmList.remove(index);
+	}
+
+	/**
+	 * Gets the total MIPS allocated to a VM on a host, taking into account the VMs created by the
+	 * plan.
+	 *
+	 * @param host the host
+	 * @param vm the VM
+	 * @return the total allocated MIPS
+	 */
+	public double getTotalAllocatedMipsForVm(Host host, Vm vm) {
+		HostState state = hostStates.get(host);
+		if (state != null) {
+			Double mips = state.allocatedMips.get(vm);
+			if (mips != null) {
+				return mips;
+			}
+		}
+		return host.getTotalAllocatedMipsForVm(vm);
+	}
+
+	/**
+	 * Gets the number of changes made by the plan, which can be passed to {@link #rollback(int)}
+	 * to undo the changes made afterwards.
+	 *
+	 * @return the number of changes
+	 */
+	public int getNumberOfChanges() {
+		return changes.size();
+	}
+
+	/**
+	 * Undoes the changes made after the given number of changes, in reverse order.
+	 *
+	 * @param numberOfChanges the number of changes to keep
+	 */
+	public void rollback(int numberOfChanges) {
+		for (int i = changes.size() - 1; i >= numberOfChanges; i--) {
+			Change change = changes.remove(i);
+			HostState state = hostStates.get(change.host);
+			if (change.created) {
+				state.vmList.remove(change.index);
+				state.allocatedMips.remove(change.vm);
+			} else {
+				state.vmList.add(change.index, change.vm);
+				if (change.allocatedMips != null) {
+					state.allocatedMips.put(change.vm, change.allocatedMips);
+				}
+			}
+			state.availableMips = change.availableMips;
+			state.availableRam = change.availableRam;
+			state.availableBw = change.availableBw;
+			state.storage = change.storage;
+		}
+		if (numberOfChanges == 0) {
+			hostStates.clear();
+		}
+	}
+
+	/**
+	 * Undoes all the changes made by the plan, so that it reads the hosts as they are.
+	 */
+	public void rollback() {
+		rollback(0);
+	}
+
+	/**
+	 * Gets the state of a host, copying it from the host if the plan has not changed the host yet.
+	 *
+	 * @param host the host
+	 * @return the state of the host
+	 */
+	private HostState getHostState(Host host) {
+		HostState state = hostStates.get(host);
+		if (state == null) {
+			state = new HostState(host);
+			hostStates.put(host, state);
+		}
+		return state;
+	}
+
+	/**
+	 * Gets the RAM requested by a VM, which the simple RAM provisioner caps to the RAM of the VM.
+	 *
+	 * @param vm the VM
+	 * @return the requested RAM
+	 */
+	private static int getRequestedRam(Vm vm) {
+		return Math.min(vm.getCurrentRequestedRam(), vm.getRam());
+	}
+
+	/**
+	 * The resources left on a host changed by the plan, and its tentative VM list.
+	 */
+	private static class HostState {
+
+		/** The MIPS capacity of a PE. */
+		private final double peCapacity;
+
+		/** The available MIPS. */
+		private double availableMips;
+
+		/** The available RAM. */
+		private int availableRam;
+
+		/** The available BW. */
+		private long availableBw;
+
+		/** The available storage. */
+		private long storage;
+
+		/** The total MIPS allocated to the VMs created by the plan. */
+		private final Map<Vm, Double> allocatedMips = new HashMap<Vm, Double>();
+
+		/** The tentative VM list. */
+		private final List<Vm> vmList;
+
+		/**
+		 * Instantiates the state of a host from its provisioners and its VM list.
+		 *
+		 * @param host the host
+		 */
+		public HostState(Host host) {
+			peCapacity = host.getVmScheduler().getPeCapacity();
+			availableMips = host.getVmScheduler().getAvailableMips();
+			availableRam = host.getRamProvisioner().getAvailableRam();
+			availableBw = host.getBwProvisioner().getAvailableBw();
+			storage = host.getStorage();
+			vmList = new ArrayList<Vm>(host.getVmList());
+		}
+
+	}
+
+	/**
+	 * A change made by the plan, with the state of the host before the change.
+	 */
+	private static class Change {
+
+		/** The host. */
+		private final Host host;
+
+		/** The VM. */
+		private final Vm vm;
+
+		/** Whether the VM was created or destroyed. */
+		private final boolean created;
+
+		/** The index of the VM in the tentative VM list of the host. */
+		private final int index;
+
+		/** The total MIPS allocated to the VM by the plan, or null if it was not created by the plan. */
+		private final Double allocatedMips;
+
+		/** The available MIPS before the change. */
+		private final double availableMips;
+
+		/** The available RAM before the change. */
+		private final int availableRam;
+
+		/** The available BW before the change. */
+		private final long availableBw;
+
+		/** The available storage before the change. */
+		private final long storage;
+
+		/**
+		 * Instantiates a new change.
+		 *
+		 * @param host the host
+		 * @param vm the VM
+		 * @param created whether the VM was created or destroyed
+		 * @param index the index of the VM in the tentative VM list of the host
+		 * @param state the state of the host before the change
+		 * @param allocatedMips the total MIPS allocated to the VM by the plan
+		 */
+		public Change(Host host, Vm vm, boolean created, int index, HostState state, Double allocatedMips) {
+			this.host = host;
+			this.vm = vm;
+			this.created = created;
+			this.index = index;
+			this.allocatedMips = allocatedMips;
+			availableMips = state.availableMips;
+			availableRam = state.availableRam;
+			availableBw = state.availableBw;
+			storage = state.storage;
+		}
+
+	}
+
+}
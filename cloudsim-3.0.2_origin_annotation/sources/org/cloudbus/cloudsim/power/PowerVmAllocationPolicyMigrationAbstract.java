@@ -28,6 +28,12 @@ import org.cloudbus.cloudsim.util.ExecutionTimeMeasurer;
  * The class of an abstract power-aware VM allocation policy that dynamically optimizes the VM
  * allocation using migration.
  * 
+ * The new placements are tried on an {@link PowerVmAllocationPlan allocation plan} and the hosts are
+ * not changed until the migrations take place, so {@link Host#getVmList()} does not show the VMs
+ * placed or removed by the plan. The overrides of {@link #isHostOverUtilized(PowerHost)}, and any
+ * other method reading the VMs of a host while the allocation is being optimized, must read them
+ * through {@code getAllocationPlan().getVmList(host)}.
+ * 
  * If you are using any algorithms, policies or workload included in the power package, please cite
  * the following paper:
  * 
@@ -44,9 +50,15 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	/** The vm selection policy. */
 	private PowerVmSelectionPolicy vmSelectionPolicy;
 
+	/** The plan used to try the new VM placements without changing the allocation. */
+	private PowerVmAllocationPlan allocationPlan = new PowerVmAllocationPlan();
+
 	/** The saved allocation. */
 	private final List<Map<String, Object>> savedAllocation = new ArrayList<Map<String, Object>>();
 
+	/** The index of the hosts used while optimizing the allocation, or null otherwise. */
+	private PowerHostIndex hostIndex;
+
 	/** The utilization history. */
 	private final Map<Integer, List<Double>> utilizationHistory = new HashMap<Integer, List<Double>>();
 
@@ -92,30 +104,35 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	public List<Map<String, Object>> optimizeAllocation(List<? extends Vm> vmList) {
 		ExecutionTimeMeasurer.start("optimizeAllocationTotal");//ִʱ䡣
 
-		ExecutionTimeMeasurer.start("optimizeAllocationHostSelection");
-		List<PowerHostUtilizationHistory> overUtilizedHosts = getOverUtilizedHosts();//ȡֵ
-		getExecutionTimeHistoryHostSelection().add(
-				ExecutionTimeMeasurer.end("optimizeAllocationHostSelection"));
-
-		printOverUtilizedHosts(overUtilizedHosts);
+		setHostIndex(new PowerHostIndex(this.<PowerHost> getHostList()));
 
-		saveAllocation();
-
-		ExecutionTimeMeasurer.start("optimizeAllocationVmSelection");
-		List<? extends Vm> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
-		getExecutionTimeHistoryVmSelection().add(ExecutionTimeMeasurer.end("optimizeAllocationVmSelection"));
-
-		Log.printLine("Reallocation of VMs from the over-utilized hosts:");
-		ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
-		List<Map<String, Object>> migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<Host>(
-				overUtilizedHosts));
-		getExecutionTimeHistoryVmReallocation().add(
-				ExecutionTimeMeasurer.end("optimizeAllocationVmReallocation"));
-		Log.printLine();
-
-		migrationMap.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
+		List<Map<String, Object>> migrationMap;
+		try {
+			ExecutionTimeMeasurer.start("optimizeAllocationHostSelection");
+			List<PowerHostUtilizationHistory> overUtilizedHosts = getOverUtilizedHosts();//ȡֵ
+			getExecutionTimeHistoryHostSelection().add(
+					ExecutionTimeMeasurer.end("optimizeAllocationHostSelection"));
+
+			printOverUtilizedHosts(overUtilizedHosts);
+
+			ExecutionTimeMeasurer.start("optimizeAllocationVmSelection");
+			List<? extends Vm> vmsToMigrate = getVmsToMigrateFromHosts(overUtilizedHosts);
+			getExecutionTimeHistoryVmSelection().add(ExecutionTimeMeasurer.end("optimizeAllocationVmSelection"));
+
+			Log.printLine("Reallocation of VMs from the over-utilized hosts:");
+			ExecutionTimeMeasurer.start("optimizeAllocationVmReallocation");
+			migrationMap = getNewVmPlacement(vmsToMigrate, new HashSet<Host>(
+					overUtilizedHosts));
+			getExecutionTimeHistoryVmReallocation().add(
+					ExecutionTimeMeasurer.end("optimizeAllocationVmReallocation"));
+			Log.printLine();
 
-		restoreAllocation();
+			migrationMap.addAll(getMigrationMapFromUnderUtilizedHosts(overUtilizedHosts));
+		} finally {
+			// the plan is rolled back even if a policy fails, the hosts having never been changed
+			getAllocationPlan().rollback();
+			setHostIndex(null);
+		}
 
 		getExecutionTimeHistoryTotal().add(ExecutionTimeMeasurer.end("optimizeAllocationTotal"));
 
@@ -156,7 +173,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 				break;
 			}
 
-			Log.printLine("Under-utilized host: host #" + underUtilizedHost.getId() + "\n");
+			if (Log.isEnabled(Log.Level.INFO)) {
+				Log.printLine("Under-utilized host: host #" + underUtilizedHost.getId() + "\n");
+			}
 
 			excludedHostsForFindingUnderUtilizedHost.add(underUtilizedHost);
 			excludedHostsForFindingNewVmPlacement.add(underUtilizedHost);
@@ -167,7 +186,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			}
 
 			Log.print("Reallocation of VMs from the under-utilized host: ");
-			if (!Log.isDisabled()) {
+			if (Log.isEnabled(Log.Level.INFO)) {
 				for (Vm vm : vmsToMigrateFromUnderUtilizedHost) {
 					Log.print(vm.getId() + " ");
 				}
@@ -193,7 +212,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @param overUtilizedHosts the over utilized hosts
 	 */
 	protected void printOverUtilizedHosts(List<PowerHostUtilizationHistory> overUtilizedHosts) {
-		if (!Log.isDisabled()) {
+		if (Log.isEnabled(Log.Level.INFO)) {
 			Log.printLine("Over-utilized hosts:");
 			for (PowerHostUtilizationHistory host : overUtilizedHosts) {
 				Log.printLine("Host #" + host.getId());
@@ -213,11 +232,14 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		double minPower = Double.MAX_VALUE;
 		PowerHost allocatedHost = null;
 
-		for (PowerHost host : this.<PowerHost> getHostList()) {
+		List<PowerHost> hostList = getHostIndex() != null
+				? getHostIndex().getCandidateHosts(excludedHosts)
+				: this.<PowerHost> getHostList();
+		for (PowerHost host : hostList) {
 			if (excludedHosts.contains(host)) {
 				continue;
 			}
-			if (host.isSuitableForVm(vm)) {
+			if (getAllocationPlan().isSuitableForVm(host, vm)) {
 				if (getUtilizationOfCpuMips(host) != 0 && isHostOverUtilizedAfterAllocation(host, vm)) {
 					continue;
 				}
@@ -247,9 +269,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	protected boolean isHostOverUtilizedAfterAllocation(PowerHost host, Vm vm) {
 		boolean isHostOverUtilizedAfterAllocation = true;
-		if (host.vmCreate(vm)) {
+		int numberOfChanges = getAllocationPlan().getNumberOfChanges();
+		if (getAllocationPlan().vmCreate(host, vm)) {
 			isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
-			host.vmDestroy(vm);
+			getAllocationPlan().rollback(numberOfChanges);
 		}
 		return isHostOverUtilizedAfterAllocation;
 	}
@@ -298,8 +321,13 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
-				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
+				getAllocationPlan().vmCreate(allocatedHost, vm);
+				if (getHostIndex() != null) {
+					getHostIndex().setActive(allocatedHost);
+				}
+				if (Log.isEnabled(Log.Level.INFO)) {
+					Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
+				}
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
 				migrate.put("vm", vm);
@@ -321,12 +349,18 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			List<? extends Vm> vmsToMigrate,
 			Set<? extends Host> excludedHosts) {
 		List<Map<String, Object>> migrationMap = new LinkedList<Map<String, Object>>();
+		int numberOfChanges = getAllocationPlan().getNumberOfChanges();
 		PowerVmList.sortByCpuUtilization(vmsToMigrate);
 		for (Vm vm : vmsToMigrate) {
 			PowerHost allocatedHost = findHostForVm(vm, excludedHosts);
 			if (allocatedHost != null) {
-				allocatedHost.vmCreate(vm);
-				Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
+				getAllocationPlan().vmCreate(allocatedHost, vm);
+				if (getHostIndex() != null) {
+					getHostIndex().setActive(allocatedHost);
+				}
+				if (Log.isEnabled(Log.Level.INFO)) {
+					Log.printLine("VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
+				}
 
 				Map<String, Object> migrate = new HashMap<String, Object>();
 				migrate.put("vm", vm);
@@ -334,9 +368,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 				migrationMap.add(migrate);
 			} else {
 				Log.printLine("Not all VMs can be reallocated from the host, reallocation cancelled");
-				for (Map<String, Object> map : migrationMap) {
-					((Host) map.get("host")).vmDestroy((Vm) map.get("vm"));
-				}
+				getAllocationPlan().rollback(numberOfChanges);
 				migrationMap.clear();
 				break;
 			}
@@ -361,7 +393,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 					break;
 				}
 				vmsToMigrate.add(vm);
-				host.vmDestroy(vm);
+				getAllocationPlan().vmDestroy(host, vm);
+				if (getHostIndex() != null) {
+					getHostIndex().setActive(host);
+				}
 				if (!isHostOverUtilized(host)) {
 					break;
 				}
@@ -378,7 +413,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	protected List<? extends Vm> getVmsToMigrateFromUnderUtilizedHost(PowerHost host) {
 		List<Vm> vmsToMigrate = new LinkedList<Vm>();
-		for (Vm vm : host.getVmList()) {
+		for (Vm vm : getAllocationPlan().getVmList(host)) {
 			if (!vm.isInMigration()) {
 				vmsToMigrate.add(vm);
 			}
@@ -424,6 +459,9 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return the under utilized host
 	 */
 	protected PowerHost getUnderUtilizedHost(Set<? extends Host> excludedHosts) {
+		if (getHostIndex() != null) {
+			return getHostIndex().getUnderUtilizedHost(excludedHosts, this);
+		}
 		double minUtilization = 1;
 		PowerHost underUtilizedHost = null;
 		for (PowerHost host : this.<PowerHost> getHostList()) {
@@ -447,7 +485,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 * @return true, if successful
 	 */
 	protected boolean areAllVmsMigratingOutOrAnyVmMigratingIn(PowerHost host) {
-		for (PowerVm vm : host.<PowerVm> getVmList()) {
+		for (PowerVm vm : getAllocationPlan().<PowerVm> getVmList(host)) {
 			if (!vm.isInMigration()) {
 				return false;
 			}
@@ -459,7 +497,8 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Checks if is host over utilized.
+	 * Checks if is host over utilized. The VMs of the host must be read through
+	 * {@code getAllocationPlan().getVmList(host)}, which includes the placements being tried.
 	 * 
 	 * @param host the host
 	 * @return true, if is host over utilized
@@ -490,9 +529,62 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 		}
 	}
 
+	/**
+	 * Gets the power after allocation.
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * 
+	 * @return the power after allocation
+	 */
+	protected double getPowerAfterAllocation(PowerHost host, Vm vm) {
+		return PowerHost.getPowerOfModel(host.getPowerModel(), getMaxUtilizationAfterAllocation(host, vm));
+	}
+
+	/**
+	 * Gets the power after allocation. We assume that load is balanced between PEs. The only
+	 * restriction is: VM's max MIPS < PE's MIPS
+	 * 
+	 * @param host the host
+	 * @param vm the vm
+	 * 
+	 * @return the power after allocation
+	 */
+	protected double getMaxUtilizationAfterAllocation(PowerHost host, Vm vm) {
+		double requestedTotalMips = vm.getCurrentRequestedTotalMips();
+		double hostUtilizationMips = getUtilizationOfCpuMips(host);
+		double hostPotentialUtilizationMips = hostUtilizationMips + requestedTotalMips;
+		double pePotentialUtilization = hostPotentialUtilizationMips / host.getTotalMips();
+		return pePotentialUtilization;
+	}
+	
+	/**
+	 * Gets the utilization of the CPU in MIPS for the current potentially allocated VMs.
+	 *
+	 * @param host the host
+	 *
+	 * @return the utilization of the CPU in MIPS
+	 */
+	protected double getUtilizationOfCpuMips(PowerHost host) {
+		double hostUtilizationMips = 0;
+		for (Vm vm2 : getAllocationPlan().getVmList(host)) {
+			if (host.getVmsMigratingIn().contains(vm2)) {
+				// calculate additional potential CPU usage of a migrating in VM
+				hostUtilizationMips += getAllocationPlan().getTotalAllocatedMipsForVm(host, vm2) * 0.9 / 0.1;
+			}
+			hostUtilizationMips += getAllocationPlan().getTotalAllocatedMipsForVm(host, vm2);
+		}
+		return hostUtilizationMips;
+	}
+
 	/**
 	 * Save allocation.
+	 * 
+	 * @deprecated the allocation is no longer changed while it is optimized, so it does not need to
+	 *             be saved; the VMs are tentatively placed through {@link #getAllocationPlan()}
+	 *             instead, and this method is not called anymore
 	 */
+	@Deprecated
 	protected void saveAllocation() {
 		getSavedAllocation().clear();
 		for (Host host : getHostList()) {
@@ -510,7 +602,12 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 
 	/**
 	 * Restore allocation.
+	 * 
+	 * @deprecated the allocation is no longer changed while it is optimized, so it does not need to
+	 *             be restored; the plan is rolled back instead, and this method is not called
+	 *             anymore
 	 */
+	@Deprecated
 	protected void restoreAllocation() {
 		for (Host host : getHostList()) {
 			host.vmDestroyAll();
@@ -520,7 +617,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 			Vm vm = (Vm) map.get("vm");
 			PowerHost host = (PowerHost) map.get("host");
 			if (!host.vmCreate(vm)) {
-				Log.printLine("Couldn't restore VM #" + vm.getId() + " on host #" + host.getId());
+				Log.printLine(Log.Level.ERROR, "Couldn't restore VM #" + vm.getId() + " on host #" + host.getId());
 				System.exit(0);
 			}
 			getVmTable().put(vm.getUid(), host);
@@ -528,67 +625,49 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	}
 
 	/**
-	 * Gets the power after allocation.
+	 * Gets the plan used to try the new VM placements. The VMs are tentatively created and
+	 * destroyed through the plan while optimizing the allocation, and the plan is rolled back
+	 * before the migration map is returned. The threshold policies and the VM selection policy
+	 * read the VM lists of the hosts through the plan.
 	 * 
-	 * @param host the host
-	 * @param vm the vm
-	 * 
-	 * @return the power after allocation
+	 * @return the allocation plan
 	 */
-	protected double getPowerAfterAllocation(PowerHost host, Vm vm) {
-		double power = 0;
-		try {
-			power = host.getPowerModel().getPower(getMaxUtilizationAfterAllocation(host, vm));
-		} catch (Exception e) {
-			e.printStackTrace();
-			System.exit(0);
-		}
-		return power;
+	protected PowerVmAllocationPlan getAllocationPlan() {
+		return allocationPlan;
 	}
 
 	/**
-	 * Gets the power after allocation. We assume that load is balanced between PEs. The only
-	 * restriction is: VM's max MIPS < PE's MIPS
+	 * Sets the plan used to try the new VM placements, which is also given to the VM selection
+	 * policy. A fallback policy is given the plan of the policy using it, so that both read the same
+	 * tentative allocation.
 	 * 
-	 * @param host the host
-	 * @param vm the vm
-	 * 
-	 * @return the power after allocation
+	 * @param allocationPlan the new allocation plan
 	 */
-	protected double getMaxUtilizationAfterAllocation(PowerHost host, Vm vm) {
-		double requestedTotalMips = vm.getCurrentRequestedTotalMips();
-		double hostUtilizationMips = getUtilizationOfCpuMips(host);
-		double hostPotentialUtilizationMips = hostUtilizationMips + requestedTotalMips;
-		double pePotentialUtilization = hostPotentialUtilizationMips / host.getTotalMips();
-		return pePotentialUtilization;
+	public void setAllocationPlan(PowerVmAllocationPlan allocationPlan) {
+		this.allocationPlan = allocationPlan;
+		if (getVmSelectionPolicy() != null) {
+			getVmSelectionPolicy().setAllocationPlan(allocationPlan);
+		}
 	}
-	
+
 	/**
-	 * Gets the utilization of the CPU in MIPS for the current potentially allocated VMs.
-	 *
-	 * @param host the host
-	 *
-	 * @return the utilization of the CPU in MIPS
+	 * Gets the index of the hosts used to find the hosts for the VMs and the under-utilized hosts
+	 * while optimizing the allocation. It is built from the current allocation at the beginning of
+	 * each optimization, and the hosts are scanned when it is null.
+	 * 
+	 * @return the host index, or null if the allocation is not being optimized
 	 */
-	protected double getUtilizationOfCpuMips(PowerHost host) {
-		double hostUtilizationMips = 0;
-		for (Vm vm2 : host.getVmList()) {
-			if (host.getVmsMigratingIn().contains(vm2)) {
-				// calculate additional potential CPU usage of a migrating in VM
-				hostUtilizationMips += host.getTotalAllocatedMipsForVm(vm2) * 0.9 / 0.1;
-			}
-			hostUtilizationMips += host.getTotalAllocatedMipsForVm(vm2);
-		}
-		return hostUtilizationMips;
+	protected PowerHostIndex getHostIndex() {
+		return hostIndex;
 	}
 
 	/**
-	 * Gets the saved allocation.
+	 * Sets the host index.
 	 * 
-	 * @return the saved allocation
+	 * @param hostIndex the new host index
 	 */
-	protected List<Map<String, Object>> getSavedAllocation() {
-		return savedAllocation;
+	protected void setHostIndex(PowerHostIndex hostIndex) {
+		this.hostIndex = hostIndex;
 	}
 
 	/**
@@ -598,6 +677,20 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends PowerVmAl
 	 */
 	protected void setVmSelectionPolicy(PowerVmSelectionPolicy vmSelectionPolicy) {
 		this.vmSelectionPolicy = vmSelectionPolicy;
+		if (vmSelectionPolicy != null) {
+			vmSelectionPolicy.setAllocationPlan(getAllocationPlan());
+		}
+	}
+
+	/**
+	 * Gets the saved allocation.
+	 * 
+	 * @return the saved allocation
+	 * @deprecated the allocation is no longer saved, see {@link #saveAllocation()}
+	 */
+	@Deprecated
+	protected List<Map<String, Object>> getSavedAllocation() {
+		return savedAllocation;
 	}
 
 	/**
@@ -12,7 +12,7 @@ import java.util.List;
 
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.Vm;
-import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.LoessRegression;
 
 /**
  * The Local Regression (LR) VM allocation policy.
@@ -39,6 +39,9 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	/** The fallback vm allocation policy. */
 	private PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy;
 
+	/** The local regression of the last length of utilization history used. */
+	private LoessRegression localRegression;
+
 	/**
 	 * Instantiates a new power vm allocation policy migration local regression.
 	 * 
@@ -90,7 +93,8 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	@Override
 	protected boolean isHostOverUtilized(PowerHost host) {
 		PowerHostUtilizationHistory _host = (PowerHostUtilizationHistory) host;
-		double[] utilizationHistory = _host.getUtilizationHistory();
+		double[] utilizationHistory = _host.getUtilizationHistory(getAllocationPlan()
+				.<PowerVm> getVmList(host));
 		int length = 10; // we use 10 to make the regression responsive enough to latest values
 		if (utilizationHistory.length < length) {
 			return getFallbackVmAllocationPolicy().isHostOverUtilized(host);
@@ -121,7 +125,23 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 * @return the parameter estimates
 	 */
 	protected double[] getParameterEstimates(double[] utilizationHistoryReversed) {
-		return MathUtil.getLoessParameterEstimates(utilizationHistoryReversed);
+		return getLocalRegression(utilizationHistoryReversed.length).getParameterEstimates(
+				utilizationHistoryReversed,
+				new double[2]);
+	}
+
+	/**
+	 * Gets the local regression of a number of points. The weights and the moments of the
+	 * regression are computed once, and kept as long as the same number of points is used.
+	 * 
+	 * @param n the number of points
+	 * @return the local regression
+	 */
+	protected LoessRegression getLocalRegression(int n) {
+		if (localRegression == null || localRegression.getNumberOfPoints() != n) {
+			localRegression = new LoessRegression(n);
+		}
+		return localRegression;
 	}
 
 	/**
@@ -132,7 +152,7 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	 */
 	protected double getMaximumVmMigrationTime(PowerHost host) {
 		int maxRam = Integer.MIN_VALUE;
-		for (Vm vm : host.getVmList()) {
+		for (Vm vm : getAllocationPlan().getVmList(host)) {
 			int ram = vm.getRam();
 			if (ram > maxRam) {
 				maxRam = ram;
@@ -167,6 +187,22 @@ public class PowerVmAllocationPolicyMigrationLocalRegression extends PowerVmAllo
 	public void setFallbackVmAllocationPolicy(
 			PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy) {
 		this.fallbackVmAllocationPolicy = fallbackVmAllocationPolicy;
+		if (fallbackVmAllocationPolicy != null) {
+			fallbackVmAllocationPolicy.setAllocationPlan(getAllocationPlan());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract#setAllocationPlan(org.
+	 * cloudbus.cloudsim.power.PowerVmAllocationPlan)
+	 */
+	@Override
+	public void setAllocationPlan(PowerVmAllocationPlan allocationPlan) {
+		super.setAllocationPlan(allocationPlan);
+		if (getFallbackVmAllocationPolicy() != null) {
+			getFallbackVmAllocationPolicy().setAllocationPlan(allocationPlan);
+		}
 	}
 
 	/**
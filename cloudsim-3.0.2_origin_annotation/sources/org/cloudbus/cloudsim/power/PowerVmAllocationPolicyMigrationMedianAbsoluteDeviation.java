@@ -91,7 +91,7 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 		}
 		addHistoryEntry(host, upperThreshold);
 		double totalRequestedMips = 0;
-		for (Vm vm : host.getVmList()) {
+		for (Vm vm : getAllocationPlan().getVmList(host)) {
 			totalRequestedMips += vm.getCurrentRequestedTotalMips();
 		}
 		double utilization = totalRequestedMips / host.getTotalMips();
@@ -105,7 +105,7 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 	 * @return the host utilization mad
 	 */
 	protected double getHostUtilizationMad(PowerHostUtilizationHistory host) throws IllegalArgumentException {
-		double[] data = host.getUtilizationHistory();
+		double[] data = host.getUtilizationHistory(getAllocationPlan().<PowerVm> getVmList(host));
 		if (MathUtil.countNonZeroBeginning(data) >= 12) { // 12 has been suggested as a safe value
 			return MathUtil.mad(data);
 		}
@@ -143,6 +143,22 @@ public class PowerVmAllocationPolicyMigrationMedianAbsoluteDeviation extends
 	public void setFallbackVmAllocationPolicy(
 			PowerVmAllocationPolicyMigrationAbstract fallbackVmAllocationPolicy) {
 		this.fallbackVmAllocationPolicy = fallbackVmAllocationPolicy;
+		if (fallbackVmAllocationPolicy != null) {
+			fallbackVmAllocationPolicy.setAllocationPlan(getAllocationPlan());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract#setAllocationPlan(org.
+	 * cloudbus.cloudsim.power.PowerVmAllocationPlan)
+	 */
+	@Override
+	public void setAllocationPlan(PowerVmAllocationPlan allocationPlan) {
+		super.setAllocationPlan(allocationPlan);
+		if (getFallbackVmAllocationPolicy() != null) {
+			getFallbackVmAllocationPolicy().setAllocationPlan(allocationPlan);
+		}
 	}
 
 	/**
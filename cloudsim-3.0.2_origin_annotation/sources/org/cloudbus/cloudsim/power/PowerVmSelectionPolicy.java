@@ -29,6 +29,9 @@ import org.cloudbus.cloudsim.Vm;
  */
 public abstract class PowerVmSelectionPolicy {
 
+	/** The plan of the VM allocation policy using this policy, or null. */
+	private PowerVmAllocationPlan allocationPlan;
+
 	/**
 	 * Gets the vms to migrate.
 	 * 
@@ -38,14 +41,18 @@ public abstract class PowerVmSelectionPolicy {
 	public abstract Vm getVmToMigrate(PowerHost host);
 
 	/**
-	 * Gets the migratable vms.
+	 * Gets the migratable vms. The VMs of the host are read through the allocation plan, if any, so
+	 * that the VMs already selected to migrate from the host are left out.
 	 * 
 	 * @param host the host
 	 * @return the migratable vms
 	 */
 	protected List<PowerVm> getMigratableVms(PowerHost host) {
+		List<PowerVm> vmList = getAllocationPlan() != null
+				? getAllocationPlan().<PowerVm> getVmList(host)
+				: host.<PowerVm> getVmList();
 		List<PowerVm> migratableVms = new ArrayList<PowerVm>();
-		for (PowerVm vm : host.<PowerVm> getVmList()) {
+		for (PowerVm vm : vmList) {
 			if (!vm.isInMigration()) {
 				migratableVms.add(vm);
 			}
@@ -53,4 +60,23 @@ public abstract class PowerVmSelectionPolicy {
 		return migratableVms;
 	}
 
+	/**
+	 * Gets the plan of the VM allocation policy using this policy.
+	 * 
+	 * @return the allocation plan, or null if the VM lists of the hosts are read directly
+	 */
+	protected PowerVmAllocationPlan getAllocationPlan() {
+		return allocationPlan;
+	}
+
+	/**
+	 * Sets the plan of the VM allocation policy using this policy, through which the VM lists of
+	 * the hosts are read.
+	 * 
+	 * @param allocationPlan the new allocation plan
+	 */
+	public void setAllocationPlan(PowerVmAllocationPlan allocationPlan) {
+		this.allocationPlan = allocationPlan;
+	}
+
 }
@@ -8,12 +8,15 @@
 
 package org.cloudbus.cloudsim.power;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.Vm;
-
-import flanagan.analysis.Regression;
+import org.cloudbus.cloudsim.util.CorrelationMatrix;
+import org.cloudbus.cloudsim.util.UtilizationHistory;
 
 /**
  * The Maximum Correlation (MC) VM selection policy.
@@ -34,6 +37,24 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 	/** The fallback policy. */
 	private PowerVmSelectionPolicy fallbackPolicy;
 
+	/** The host of the correlation matrix. */
+	private PowerHost correlationHost;
+
+	/** The correlation matrix of the utilization histories of the VMs of the host. */
+	private CorrelationMatrix correlationMatrix;
+
+	/** The VMs of the correlation matrix, in the order of the matrix. */
+	private final List<PowerVm> correlatedVms = new ArrayList<PowerVm>();
+
+	/** The number of values added to the history of each VM when it was added to the matrix. */
+	private final List<Long> correlatedVersions = new ArrayList<Long>();
+
+	/**
+	 * Whether a subclass overrides how the correlation coefficients are computed, or null if it has
+	 * not been checked yet.
+	 */
+	private Boolean correlationCoefficientsOverridden;
+
 	/**
 	 * Instantiates a new power vm selection policy maximum correlation.
 	 * 
@@ -56,16 +77,25 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 		if (migratableVms.isEmpty()) {
 			return null;
 		}
-		List<Double> metrics = null;
+		double[] metrics = null;
 		try {
-			metrics = getCorrelationCoefficients(getUtilizationMatrix(migratableVms));
+			if (isCorrelationCoefficientsOverridden()) {
+				List<Double> coefficients = getCorrelationCoefficients(getUtilizationMatrix(migratableVms));
+				metrics = new double[coefficients.size()];
+				int i = 0;
+				for (double coefficient : coefficients) {
+					metrics[i++] = coefficient;
+				}
+			} else {
+				metrics = getCorrelationMatrix(host, migratableVms).getCoefficientsOfDetermination();
+			}
 		} catch (IllegalArgumentException e) { // the degrees of freedom must be greater than zero
 			return getFallbackPolicy().getVmToMigrate(host);
 		}
 		double maxMetric = Double.MIN_VALUE;
 		int maxIndex = 0;
-		for (int i = 0; i < metrics.size(); i++) {
-			double metric = metrics.get(i);
+		for (int i = 0; i < metrics.length; i++) {
+			double metric = metrics[i];
 			if (metric > maxMetric) {
 				maxMetric = metric;
 				maxIndex = i;
@@ -74,6 +104,57 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 		return migratableVms.get(maxIndex);
 	}
 
+	/**
+	 * Gets the correlation matrix of the utilization histories of the VMs of a host. The matrix of
+	 * the last host is kept, and when it is asked for the same host again, the VMs that have left
+	 * the host or whose history has changed since are removed from it, which is the case while the
+	 * VMs to migrate are removed from the host one at a time. The matrix is built again if other
+	 * VMs are on the host or if the length of the shortest history has changed.
+	 * 
+	 * @param host the host
+	 * @param vmList the VMs of the host
+	 * @return the correlation matrix, with the VMs in the order of the list
+	 */
+	protected CorrelationMatrix getCorrelationMatrix(PowerHost host, List<PowerVm> vmList) {
+		int numberOfSamples = getMinUtilizationHistorySize(vmList);
+		if (host != correlationHost
+				|| correlationMatrix == null
+				|| correlationMatrix.getNumberOfSamples() != numberOfSamples
+				|| !removeChangedVms(vmList)) {
+			correlationHost = host;
+			correlationMatrix = new CorrelationMatrix(numberOfSamples);
+			correlatedVms.clear();
+			correlatedVersions.clear();
+			for (PowerVm vm : vmList) {
+				correlationMatrix.addVariable(vm.getUtilizationHistory().toDoubleArray());
+				correlatedVms.add(vm);
+				correlatedVersions.add(vm.getUtilizationHistory().getNumberOfValuesAdded());
+			}
+		}
+		return correlationMatrix;
+	}
+
+	/**
+	 * Removes from the correlation matrix the VMs that are not in a list or whose history has
+	 * changed.
+	 * 
+	 * @param vmList the VMs
+	 * @return true, if the VMs left in the matrix are the VMs of the list, in the same order
+	 */
+	private boolean removeChangedVms(List<PowerVm> vmList) {
+		Set<PowerVm> vms = new HashSet<PowerVm>(vmList);
+		for (int i = correlatedVms.size() - 1; i >= 0; i--) {
+			PowerVm vm = correlatedVms.get(i);
+			if (!vms.contains(vm)
+					|| vm.getUtilizationHistory().getNumberOfValuesAdded() != correlatedVersions.get(i)) {
+				correlationMatrix.removeVariable(i);
+				correlatedVms.remove(i);
+				correlatedVersions.remove(i);
+			}
+		}
+		return correlatedVms.equals(vmList);
+	}
+
 	/**
 	 * Gets the utilization matrix.
 	 * 
@@ -85,9 +166,9 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 		int m = getMinUtilizationHistorySize(vmList);
 		double[][] utilization = new double[n][m];
 		for (int i = 0; i < n; i++) {
-			List<Double> vmUtilization = vmList.get(i).getUtilizationHistory();
-			for (int j = 0; j < vmUtilization.size(); j++) {
-				utilization[i][j] = vmUtilization.get(j);
+			UtilizationHistory vmUtilization = vmList.get(i).getUtilizationHistory();
+			for (int j = 0; j < m; j++) {
+				utilization[i][j] = vmUtilization.getValue(j);
 			}
 		}
 		return utilization;
@@ -111,27 +192,58 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 	}
 
 	/**
-	 * Gets the correlation coefficients.
+	 * Checks if a subclass overrides {@link #getCorrelationCoefficients(double[][])} or
+	 * {@link #getUtilizationMatrix(List)}, in which case the metrics are computed by these methods
+	 * rather than from the correlation matrix kept between the calls.
+	 * 
+	 * @return true, if one of the methods is overridden
+	 */
+	private boolean isCorrelationCoefficientsOverridden() {
+		if (correlationCoefficientsOverridden == null) {
+			correlationCoefficientsOverridden = isOverridden(
+					"getCorrelationCoefficients",
+					double[][].class) || isOverridden("getUtilizationMatrix", List.class);
+		}
+		return correlationCoefficientsOverridden;
+	}
+
+	/**
+	 * Checks if a method of this class is overridden by the class of the policy.
+	 * 
+	 * @param name the name of the method
+	 * @param parameterTypes the parameter types of the method
+	 * @return true, if the method is overridden
+	 */
+	private boolean isOverridden(String name, Class<?>... parameterTypes) {
+		Class<?> c = getClass();
+		while (c != PowerVmSelectionPolicyMaximumCorrelation.class) {
+			try {
+				c.getDeclaredMethod(name, parameterTypes);
+				return true;
+			} catch (NoSuchMethodException e) {
+				// not declared by this class
+			}
+			c = c.getSuperclass();
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the correlation coefficients. The policy computes them with this method, from the
+	 * matrix of {@link #getUtilizationMatrix(List)}, only when a subclass overrides one of the two
+	 * methods; otherwise they are computed from the correlation matrix kept between the calls.
 	 * 
 	 * @param data the data
 	 * @return the correlation coefficients
 	 */
 	protected List<Double> getCorrelationCoefficients(double[][] data) {
-		int n = data.length;
-		int m = data[0].length;
+		CorrelationMatrix matrix = new CorrelationMatrix(data[0].length);
+		for (double[] row : data) {
+			matrix.addVariable(row);
+		}
 		List<Double> correlationCoefficients = new LinkedList<Double>();
-		for (int i = 0; i < n; i++) {
-			double[][] x = new double[n - 1][m];
-			int k = 0;
-			for (int j = 0; j < n; j++) {
-				if (j != i) {
-					x[k++] = data[j];
-				}
-			}
-
-			Regression reg = new Regression(x, data[i]);
-			reg.linear();
-			correlationCoefficients.add(reg.getCoefficientOfDetermination());
+		for (double coefficient : matrix.getCoefficientsOfDetermination()) {
+			correlationCoefficients.add(coefficient);
 		}
 		return correlationCoefficients;
 	}
@@ -152,6 +264,23 @@ public class PowerVmSelectionPolicyMaximumCorrelation extends PowerVmSelectionPo
 	 */
 	public void setFallbackPolicy(PowerVmSelectionPolicy fallbackPolicy) {
 		this.fallbackPolicy = fallbackPolicy;
+		if (fallbackPolicy != null) {
+			fallbackPolicy.setAllocationPlan(getAllocationPlan());
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see
+	 * org.cloudbus.cloudsim.power.PowerVmSelectionPolicy#setAllocationPlan(org.cloudbus.cloudsim
+	 * .power.PowerVmAllocationPlan)
+	 */
+	@Override
+	public void setAllocationPlan(PowerVmAllocationPlan allocationPlan) {
+		super.setAllocationPlan(allocationPlan);
+		if (getFallbackPolicy() != null) {
+			getFallbackPolicy().setAllocationPlan(allocationPlan);
+		}
 	}
 
 }
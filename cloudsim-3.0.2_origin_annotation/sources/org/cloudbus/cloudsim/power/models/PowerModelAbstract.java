@@ -0,0 +1,45 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power.models;
+
+/**
+ * The abstract class of the power models that compute the power of a utilization already known to
+ * be between 0 and 1 without checking it again. The hosts check the utilization once and ask the
+ * power of these models through {@link #getPowerUnchecked(double)}, so that no exception can be
+ * thrown on their path; the other models are asked through {@link #getPower(double)}.
+ *
+ * The subclasses changing the power of a model must override {@link #getPowerUnchecked(double)},
+ * which {@link #getPower(double)} calls once the utilization is checked.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public abstract class PowerModelAbstract implements PowerModel {
+
+	/*
+	 * (non-Javadoc)
+	 * @see org.cloudbus.cloudsim.power.models.PowerModel#getPower(double)
+	 */
+	@Override
+	public double getPower(double utilization) throws IllegalArgumentException {
+		if (utilization < 0 || utilization > 1) {
+			throw new IllegalArgumentException("Utilization value must be between 0 and 1");
+		}
+		return getPowerUnchecked(utilization);
+	}
+
+	/**
+	 * Get power consumption by a utilization percentage that is already between 0 and 1, without
+	 * checking it.
+	 *
+	 * @param utilization the utilization, between 0 and 1
+	 * @return power consumption
+	 */
+	public abstract double getPowerUnchecked(double utilization);
+
+}
@@ -24,7 +24,7 @@ package org.cloudbus.cloudsim.power.models;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
-public class PowerModelLinear implements PowerModel {
+public class PowerModelLinear extends PowerModelAbstract {
 
 	/** The max power. */
 	private double maxPower;
@@ -49,13 +49,10 @@ public class PowerModelLinear implements PowerModel {
 
 	/*
 	 * (non-Javadoc)
-	 * @see cloudsim.power.PowerModel#getPower(double)
+	 * @see org.cloudbus.cloudsim.power.models.PowerModelAbstract#getPowerUnchecked(double)
 	 */
 	@Override
-	public double getPower(double utilization) throws IllegalArgumentException {
-		if (utilization < 0 || utilization > 1) {
-			throw new IllegalArgumentException("Utilization value must be between 0 and 1");
-		}
+	public double getPowerUnchecked(double utilization) {
 		if (utilization == 0) {
 			return 0;
 		}
@@ -8,6 +8,8 @@
 
 package org.cloudbus.cloudsim.power.models;
 
+import java.math.BigDecimal;
+
 /**
  * The abstract class of power models created based on data from SPECpower benchmark:
  * http://www.spec.org/power_ssj2008/
@@ -23,27 +25,21 @@ package org.cloudbus.cloudsim.power.models;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 3.0
  */
-public abstract class PowerModelSpecPower implements PowerModel {
+public abstract class PowerModelSpecPower extends PowerModelAbstract {
+
+	/** The number of intervals between the utilization values of the power data. */
+	private static final int NUMBER_OF_INTERVALS = 10;
+
+	/** The table of the power model, built when the power is first asked. */
+	private volatile PowerTable powerTable;
 
 	/*
 	 * (non-Javadoc)
-	 * @see org.cloudbus.cloudsim.power.models.PowerModel#getPower(double)
+	 * @see org.cloudbus.cloudsim.power.models.PowerModelAbstract#getPowerUnchecked(double)
 	 */
 	@Override
-	public double getPower(double utilization) throws IllegalArgumentException {
-		if (utilization < 0 || utilization > 1) {
-			throw new IllegalArgumentException("Utilization value must be between 0 and 1");
-		}
-		if (utilization % 0.1 == 0) {
-			return getPowerData((int) (utilization * 10));
-		}
-		int utilization1 = (int) Math.floor(utilization * 10);
-		int utilization2 = (int) Math.ceil(utilization * 10);
-		double power1 = getPowerData(utilization1);
-		double power2 = getPowerData(utilization2);
-		double delta = (power2 - power1) / 10;
-		double power = power1 + delta * (utilization - (double) utilization1 / 10) * 100;
-		return power;
+	public double getPowerUnchecked(double utilization) {
+		return getPowerTable().getPower(utilization);
 	}
 
 	/**
@@ -54,4 +50,84 @@ public abstract class PowerModelSpecPower implements PowerModel {
 	 */
 	protected abstract double getPowerData(int index);
 
+	/**
+	 * Gets the table of the power model. The power data must not change once the power has been
+	 * asked, as the table is built from it only once.
+	 * 
+	 * @return the power table
+	 */
+	protected PowerTable getPowerTable() {
+		PowerTable table = powerTable;
+		if (table == null) {
+			table = new PowerTable(this);
+			powerTable = table;
+		}
+		return table;
+	}
+
+	/**
+	 * The power data of a power model with the slope of each interval between two utilization
+	 * values, so that the power is interpolated without computing the interval of the utilization
+	 * with a remainder, a floor and a ceiling. The power is the same as computed from the power data
+	 * directly: the utilization values that are exact multiples of 0.1, for which the power data is
+	 * returned, are kept in the table too.
+	 */
+	protected static class PowerTable {
+
+		/** The power at each utilization value of the power data. */
+		private final double[] power = new double[NUMBER_OF_INTERVALS + 1];
+
+		/** The power added by each percent of utilization in each interval. */
+		private final double[] slope = new double[NUMBER_OF_INTERVALS];
+
+		/** The utilization at the start of each interval. */
+		private final double[] start = new double[NUMBER_OF_INTERVALS + 1];
+
+		/**
+		 * The utilization in each interval that is an exact multiple of 0.1, as a double, or NaN if
+		 * there is none.
+		 */
+		private final double[] multiples = new double[NUMBER_OF_INTERVALS + 1];
+
+		/**
+		 * Builds the table of a power model.
+		 * 
+		 * @param model the power model
+		 */
+		public PowerTable(PowerModelSpecPower model) {
+			for (int i = 0; i <= NUMBER_OF_INTERVALS; i++) {
+				power[i] = model.getPowerData(i);
+				start[i] = (double) i / 10;
+				multiples[i] = Double.NaN;
+			}
+			for (int i = 0; i < NUMBER_OF_INTERVALS; i++) {
+				slope[i] = (power[i + 1] - power[i]) / 10;
+			}
+			BigDecimal tenth = new BigDecimal(0.1);
+			for (int i = 0; i <= NUMBER_OF_INTERVALS; i++) {
+				BigDecimal multiple = tenth.multiply(BigDecimal.valueOf(i));
+				double utilization = multiple.doubleValue();
+				if (utilization <= 1 && new BigDecimal(utilization).compareTo(multiple) == 0) {
+					multiples[(int) (utilization * 10)] = utilization;
+				}
+			}
+		}
+
+		/**
+		 * Gets the power at a utilization between 0 and 1.
+		 * 
+		 * @param utilization the utilization
+		 * @return the power
+		 */
+		public double getPower(double utilization) {
+			double scaled = utilization * 10;
+			int i = (int) scaled;
+			if (utilization == multiples[i] || scaled == i) {
+				return power[i];
+			}
+			return power[i] + slope[i] * (utilization - start[i]) * 100;
+		}
+
+	}
+
 }
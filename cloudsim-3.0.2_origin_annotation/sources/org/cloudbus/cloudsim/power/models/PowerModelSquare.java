@@ -22,7 +22,7 @@ package org.cloudbus.cloudsim.power.models;
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 2.0
  */
-public class PowerModelSquare implements PowerModel {
+public class PowerModelSquare extends PowerModelAbstract {
 
 	/** The max power. */
 	private double maxPower;
@@ -47,13 +47,10 @@ public class PowerModelSquare implements PowerModel {
 
 	/*
 	 * (non-Javadoc)
-	 * @see gridsim.virtualization.power.PowerModel#getPower(double)
+	 * @see org.cloudbus.cloudsim.power.models.PowerModelAbstract#getPowerUnchecked(double)
 	 */
 	@Override
-	public double getPower(double utilization) throws IllegalArgumentException {
-		if (utilization < 0 || utilization > 1) {
-			throw new IllegalArgumentException("Utilization value must be between 0 and 1");
-		}
+	public double getPowerUnchecked(double utilization) {
 		if (utilization == 0) {
 			return 0;
 		}
@@ -0,0 +1,245 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+import flanagan.analysis.Regression;
+
+/**
+ * The sums and the cross products of a set of variables observed over the same samples, from which
+ * the coefficient of determination of the multiple linear regression of each variable on all the
+ * others is computed. The variables can be added and removed one at a time: adding a variable
+ * computes its products with the other variables, and removing a variable only drops its row and
+ * column, so the matrix can be kept while the variables change.
+ * <p>
+ * The coefficients of determination are all obtained from one Cholesky factorization of the
+ * covariance matrix: the coefficient of the variable i is 1 - 1 / (C[i][i] * inverse(C)[i][i]).
+ * They are the coefficients of the regressions with an intercept, as computed by
+ * {@code flanagan.analysis.Regression}.
+ * <p>
+ * When the covariance matrix is singular or nearly so, as with constant or collinear variables,
+ * the factorization cannot be used, and the coefficients are computed by one flanagan regression
+ * per variable, so that they are always the values flanagan returns.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class CorrelationMatrix {
+
+	/**
+	 * The pivots of the factorization smaller than this fraction of the largest variance make the
+	 * covariance matrix singular, in which case the regressions are computed by flanagan.
+	 */
+	private static final double SINGULARITY_TOLERANCE = 1e-10;
+
+	/** The number of samples of each variable. */
+	private final int numberOfSamples;
+
+	/** The number of variables. */
+	private int numberOfVariables;
+
+	/** The sum of the samples of each variable. */
+	private double[] sums;
+
+	/** The sums of the products of the samples of each pair of variables. */
+	private double[][] products;
+
+	/** The samples of each variable. */
+	private double[][] samples;
+
+	/**
+	 * Instantiates a new empty correlation matrix.
+	 *
+	 * @param numberOfSamples the number of samples of each variable
+	 */
+	public CorrelationMatrix(int numberOfSamples) {
+		this.numberOfSamples = numberOfSamples;
+		sums = new double[4];
+		products = new double[4][4];
+		samples = new double[4][];
+	}
+
+	/**
+	 * Adds a variable after the other variables.
+	 *
+	 * @param values the samples of the variable; only the first samples are used if there are more
+	 * @throws IllegalArgumentException if there are not enough samples
+	 */
+	public void addVariable(double[] values) {
+		if (values.length < numberOfSamples) {
+			throw new IllegalArgumentException("Expected " + numberOfSamples + " samples, got "
+					+ values.length);
+		}
+		if (numberOfVariables == sums.length) {
+			int capacity = numberOfVariables * 2;
+			sums = Arrays.copyOf(sums, capacity);
+			samples = Arrays.copyOf(samples, capacity);
+			double[][] newProducts = new double[capacity][capacity];
+			for (int i = 0; i < numberOfVariables; i++) {
+				System.arraycopy(products[i], 0, newProducts[i], 0, numberOfVariables);
+			}
+			products = newProducts;
+		}
+
+		int k = numberOfVariables;
+		double[] variable = Arrays.copyOf(values, numberOfSamples);
+		double sum = 0;
+		for (int s = 0; s < numberOfSamples; s++) {
+			sum += variable[s];
+		}
+		sums[k] = sum;
+		samples[k] = variable;
+		for (int i = 0; i <= k; i++) {
+			double[] other = samples[i];
+			double product = 0;
+			for (int s = 0; s < numberOfSamples; s++) {
+				product += variable[s] * other[s];
+			}
+			products[i][k] = product;
+			products[k][i] = product;
+		}
+		numberOfVariables++;
+	}
+
+	/**
+	 * Removes a variable. The variables after it are moved up by one.
+	 *
+	 * @param index the index of the variable
+	 */
+	public void removeVariable(int index) {
+		if (index < 0 || index >= numberOfVariables) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + numberOfVariables);
+		}
+		int last = numberOfVariables - 1;
+		for (int i = index; i < last; i++) {
+			sums[i] = sums[i + 1];
+			samples[i] = samples[i + 1];
+			double[] row = products[i];
+			products[i] = products[i + 1];
+			products[i + 1] = row;
+		}
+		for (int i = 0; i < last; i++) {
+			System.arraycopy(products[i], index + 1, products[i], index, last - index);
+		}
+		samples[last] = null;
+		numberOfVariables = last;
+	}
+
+	/**
+	 * Gets the number of variables.
+	 *
+	 * @return the number of variables
+	 */
+	public int getNumberOfVariables() {
+		return numberOfVariables;
+	}
+
+	/**
+	 * Gets the number of samples of each variable.
+	 *
+	 * @return the number of samples
+	 */
+	public int getNumberOfSamples() {
+		return numberOfSamples;
+	}
+
+	/**
+	 * Gets the coefficient of determination of the regression of each variable on all the others.
+	 *
+	 * @return the coefficients of determination, in the order of the variables
+	 * @throws IllegalArgumentException if the degrees of freedom of the regressions are not greater
+	 *             than zero
+	 */
+	public double[] getCoefficientsOfDetermination() {
+		int n = numberOfVariables;
+		if (n < 2 || numberOfSamples - n - 1 <= 0) {
+			throw new IllegalArgumentException("The degrees of freedom must be greater than zero: "
+					+ n + " variables and " + numberOfSamples + " samples");
+		}
+
+		double[][] factor = new double[n][n];
+		double[] variances = new double[n];
+		double maxVariance = 0;
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j <= i; j++) {
+				factor[i][j] = products[i][j] - sums[i] * sums[j] / numberOfSamples;
+			}
+			variances[i] = factor[i][i];
+			maxVariance = Math.max(maxVariance, variances[i]);
+		}
+
+		// Cholesky factorization of the covariance matrix, in place in the lower triangle
+		for (int j = 0; j < n; j++) {
+			double pivot = factor[j][j];
+			for (int k = 0; k < j; k++) {
+				pivot -= factor[j][k] * factor[j][k];
+			}
+			if (!(pivot > SINGULARITY_TOLERANCE * maxVariance)) {
+				return getCoefficientsOfDeterminationByRegression();
+			}
+			pivot = Math.sqrt(pivot);
+			factor[j][j] = pivot;
+			for (int i = j + 1; i < n; i++) {
+				double value = factor[i][j];
+				for (int k = 0; k < j; k++) {
+					value -= factor[i][k] * factor[j][k];
+				}
+				factor[i][j] = value / pivot;
+			}
+		}
+
+		// The diagonal of the inverse is the sum of the squares of each column of the inverse of
+		// the factor, which is lower triangular too
+		double[] inverseDiagonal = new double[n];
+		double[] column = new double[n];
+		for (int j = 0; j < n; j++) {
+			double squareSum = 0;
+			for (int i = j; i < n; i++) {
+				double value = i == j ? 1 : 0;
+				for (int k = j; k < i; k++) {
+					value -= factor[i][k] * column[k];
+				}
+				column[i] = value / factor[i][i];
+				squareSum += column[i] * column[i];
+			}
+			inverseDiagonal[j] = squareSum;
+		}
+
+		double[] coefficients = new double[n];
+		for (int i = 0; i < n; i++) {
+			coefficients[i] = 1 - 1 / (variances[i] * inverseDiagonal[i]);
+		}
+		return coefficients;
+	}
+
+	/**
+	 * Gets the coefficient of determination of the regression of each variable on all the others,
+	 * running one flanagan regression per variable.
+	 *
+	 * @return the coefficients of determination, in the order of the variables
+	 */
+	private double[] getCoefficientsOfDeterminationByRegression() {
+		int n = numberOfVariables;
+		double[] coefficients = new double[n];
+		for (int i = 0; i < n; i++) {
+			double[][] x = new double[n - 1][];
+			int k = 0;
+			for (int j = 0; j < n; j++) {
+				if (j != i) {
+					x[k++] = samples[j];
+				}
+			}
+			Regression regression = new Regression(x, samples[i]);
+			regression.linear();
+			coefficients[i] = regression.getCoefficientOfDetermination();
+		}
+		return coefficients;
+	}
+
+}
@@ -12,15 +12,22 @@ import java.util.HashMap;
 import java.util.Map;
 
 /**
- * The class for measuring the execution time.
+ * The class for measuring the execution time. The start times are kept per thread, so that the
+ * entities can measure their execution times when they run in parallel.
  * 
  * @author Anton Beloglazov
  * @since CloudSim Toolkit 3.0
  */
 public class ExecutionTimeMeasurer {
 
-	/** The execution times. */
-	private final static Map<String, Long> executionTimes = new HashMap<String, Long>();
+	/** The execution times of the current thread. */
+	private final static ThreadLocal<Map<String, Long>> executionTimes = new ThreadLocal<Map<String, Long>>() {
+
+		@Override
+		protected Map<String, Long> initialValue() {
+			return new HashMap<String, Long>();
+		}
+	};
 
 	/**
 	 * Start.
@@ -44,12 +51,12 @@ public class ExecutionTimeMeasurer {
 	}
 
 	/**
-	 * Gets the execution times.
+	 * Gets the execution times of the current thread.
 	 * 
 	 * @return the execution times
 	 */
 	public static Map<String, Long> getExecutionTimes() {
-		return executionTimes;
+		return executionTimes.get();
 	}
 
 }
@@ -0,0 +1,195 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * The local regression used to predict the utilization: a straight line fitted by weighted least
+ * squares to the points (1, y1), ..., (n, yn), with the tricube weights of
+ * {@link MathUtil#getTricubeWeigts(int)}, and optionally refitted with the bisquare weights of the
+ * residuals as done by {@link MathUtil#getTricubeBisquareWeigts(double[])}. These weights are the
+ * standard deviations of the points, so each point is weighted by the inverse of the square of its
+ * weight.
+ * <p>
+ * As the x values and the tricube weights only depend on n, their moments are computed once, and
+ * the line is computed in closed form in one pass over the y values. The instances keep the
+ * residuals of the last robust fit, so an instance must not be used by several threads at a time.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class LoessRegression {
+
+	/** The number of points. */
+	private final int n;
+
+	/** The tricube weights of the points, as used by the least squares. */
+	private final double[] weights;
+
+	/** The tricube weights of the points, as standard deviations. */
+	private final double[] tricubeWeights;
+
+	/** The sum of the weights. */
+	private final double weightSum;
+
+	/** The weighted mean of the x values. */
+	private final double xMean;
+
+	/** The differences between the x values and their weighted mean. */
+	private final double[] xDeviations;
+
+	/** The weighted sum of the squares of the differences between the x values and their mean. */
+	private final double xDeviationSquareSum;
+
+	/** The residuals of the first fit of the robust regression. */
+	private final double[] residuals;
+
+	/** The absolute residuals of the first fit of the robust regression, sorted. */
+	private final double[] sortedResiduals;
+
+	/**
+	 * Instantiates the local regression of n points.
+	 *
+	 * @param n the number of points
+	 * @throws IllegalArgumentException if there are less than 3 points, so that the degrees of
+	 *             freedom of the regression are not greater than zero
+	 */
+	public LoessRegression(int n) {
+		if (n < 3) {
+			throw new IllegalArgumentException("The local regression needs at least 3 points: " + n);
+		}
+		this.n = n;
+		tricubeWeights = MathUtil.getTricubeWeigts(n);
+		weights = new double[n];
+		double sum = 0;
+		double xSum = 0;
+		for (int i = 0; i < n; i++) {
+			weights[i] = 1 / (tricubeWeights[i] * tricubeWeights[i]);
+			sum += weights[i];
+			xSum += weights[i] * (i + 1);
+		}
+		weightSum = sum;
+		xMean = xSum / sum;
+		xDeviations = new double[n];
+		double squareSum = 0;
+		for (int i = 0; i < n; i++) {
+			xDeviations[i] = i + 1 - xMean;
+			squareSum += weights[i] * xDeviations[i] * xDeviations[i];
+		}
+		xDeviationSquareSum = squareSum;
+		residuals = new double[n];
+		sortedResiduals = new double[n];
+	}
+
+	/**
+	 * Gets the number of points.
+	 *
+	 * @return the number of points
+	 */
+	public int getNumberOfPoints() {
+		return n;
+	}
+
+	/**
+	 * Fits the line to the points with the tricube weights.
+	 *
+	 * @param y the y values of the points
+	 * @param estimates the array receiving the intercept and the slope
+	 * @return the estimates
+	 */
+	public double[] getParameterEstimates(double[] y, double[] estimates) {
+		checkLength(y);
+		double ySum = 0;
+		double xyDeviationSum = 0;
+		for (int i = 0; i < n; i++) {
+			double weightedY = weights[i] * y[i];
+			ySum += weightedY;
+			xyDeviationSum += weightedY * xDeviations[i];
+		}
+		double slope = xyDeviationSum / xDeviationSquareSum;
+		estimates[0] = ySum / weightSum - slope * xMean;
+		estimates[1] = slope;
+		return estimates;
+	}
+
+	/**
+	 * Fits the line to the points with the tricube weights, and then again with the tricube weights
+	 * multiplied by the bisquare weights of the residuals of the first fit.
+	 *
+	 * @param y the y values of the points
+	 * @param estimates the array receiving the intercept and the slope
+	 * @return the estimates
+	 * @throws IllegalArgumentException if the second fit is singular, which happens when most of
+	 *             the points are on the first line
+	 */
+	public double[] getRobustParameterEstimates(double[] y, double[] estimates) {
+		getParameterEstimates(y, estimates);
+		double intercept = estimates[0];
+		double slope = estimates[1];
+		for (int i = 0; i < n; i++) {
+			residuals[i] = y[i] - (intercept + slope * (i + 1));
+			sortedResiduals[i] = Math.abs(residuals[i]);
+		}
+		Arrays.sort(sortedResiduals);
+		int middle = n / 2;
+		double median = n % 2 == 0
+				? (sortedResiduals[middle - 1] + sortedResiduals[middle]) / 2
+				: sortedResiduals[middle];
+		double s6 = median * 6;
+
+		double weightSum = 0;
+		double xSum = 0;
+		double ySum = 0;
+		double xxSum = 0;
+		double xySum = 0;
+		double firstWeight = 0;
+		for (int i = n - 1; i >= 0; i--) {
+			double weight;
+			if (i >= 2) {
+				double r = residuals[i] / s6;
+				double k = (1 - r * r) * (1 - r * r);
+				double deviation = k > 0 ? tricubeWeights[i] / k : Double.MAX_VALUE;
+				weight = 1 / (deviation * deviation);
+				if (i == 2) {
+					firstWeight = weight;
+				}
+			} else {
+				weight = firstWeight;
+			}
+			double x = i + 1;
+			weightSum += weight;
+			xSum += weight * x;
+			ySum += weight * y[i];
+			xxSum += weight * x * x;
+			xySum += weight * x * y[i];
+		}
+		double determinant = weightSum * xxSum - xSum * xSum;
+		double robustSlope = (weightSum * xySum - xSum * ySum) / determinant;
+		double robustIntercept = (ySum - robustSlope * xSum) / weightSum;
+		if (Double.isNaN(robustSlope) || Double.isInfinite(robustSlope)
+				|| Double.isNaN(robustIntercept) || Double.isInfinite(robustIntercept)) {
+			throw new IllegalArgumentException("The robust local regression is singular");
+		}
+		estimates[0] = robustIntercept;
+		estimates[1] = robustSlope;
+		return estimates;
+	}
+
+	/**
+	 * Checks the number of y values.
+	 *
+	 * @param y the y values
+	 */
+	private void checkLength(double[] y) {
+		if (y.length != n) {
+			throw new IllegalArgumentException("Expected " + n + " points, got " + y.length);
+		}
+	}
+
+}
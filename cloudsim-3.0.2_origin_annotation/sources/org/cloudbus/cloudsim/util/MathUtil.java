@@ -11,7 +11,6 @@ package org.cloudbus.cloudsim.util;
 import java.util.Arrays;
 import java.util.List;
 
-import flanagan.analysis.Regression;
 import flanagan.analysis.Stat;
 
 /**
@@ -191,18 +190,7 @@ public class MathUtil {
 	 * @return the loess parameter estimates
 	 */
 	public static double[] getLoessParameterEstimates(double[] y) {
-		int n = y.length;
-		double[] x = new double[n];
-		for (int i = 0; i < n; i++) {
-			x[i] = i + 1;
-		}
-		Regression regression = new Regression(x, y, getTricubeWeigts(n));
-		regression.linear();
-		double[] estimates = regression.getBestEstimates();
-		if (estimates[0] == Double.NaN || estimates[1] == Double.NaN) {
-			return regression.getBestEstimates();
-		}
-		return estimates;
+		return new LoessRegression(y.length).getParameterEstimates(y, new double[2]);
 	}
 
 	/**
@@ -212,20 +200,7 @@ public class MathUtil {
 	 * @return the robust loess parameter estimates
 	 */
 	public static double[] getRobustLoessParameterEstimates(double[] y) {
-		int n = y.length;
-		double[] x = new double[n];
-		for (int i = 0; i < n; i++) {
-			x[i] = i + 1;
-		}
-		Regression regression = new Regression(x, y, getTricubeWeigts(n));
-		regression.linear();
-		Regression regression2 = new Regression(x, y, getTricubeBisquareWeigts(regression.getResiduals()));
-		regression2.linear();
-		double[] estimates = regression2.getBestEstimates();
-		if (estimates[0] == Double.NaN || estimates[1] == Double.NaN) {
-			return regression.getBestEstimates();
-		}
-		return estimates;
+		return new LoessRegression(y.length).getRobustParameterEstimates(y, new double[2]);
 	}
 
 	/**
@@ -0,0 +1,346 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A read-only store of the PlanetLab utilization traces of a workload folder, kept in a compact
+ * binary file that is memory-mapped. Each utilization value of the traces is an integer percentage,
+ * so it is stored in one byte, and the samples of each trace are stored contiguously. A workload
+ * folder is converted once by {@link #convert(String, String)}; the file is then opened by
+ * {@link #open(String)}, which maps it only once per JVM as long as it does not change, so the
+ * traces are shared by all the cloudlets and all the simulations that use them.
+ * {@link #openWorkload(String)} does both, keeping the converted folders in the temporary
+ * directory. The file is laid out as follows:
+ * <ul>
+ * <li>the magic number, the version, the number of traces, the number of samples per trace and the
+ * length in bytes of the names, as ints;
+ * <li>the names of the traces, in UTF-8, each one followed by a new line;
+ * <li>the samples of each trace, one byte each.
+ * </ul>
+ * The traces are stored in the order of {@link File#listFiles()}, which is the order used by the
+ * examples to create the cloudlets, and the last sample of each trace is repeated, as done by
+ * {@link org.cloudbus.cloudsim.UtilizationModelPlanetLabInMemory}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class PlanetLabTraceStore {
+
+	/** The magic number of the files. */
+	private static final int MAGIC = 0x504C5452;
+
+	/** The version of the file format. */
+	private static final int VERSION = 1;
+
+	/** The length of the header. */
+	private static final int HEADER_LENGTH = 5 * 4;
+
+	/** The number of values read from each trace file (5 min * 288 = 24 hours). */
+	public static final int NUMBER_OF_VALUES = 288;
+
+	/** The folder of the temporary directory where {@link #openWorkload(String)} converts the workloads. */
+	private static final String WORKLOAD_CACHE_FOLDER = "cloudsim-planetlab-traces";
+
+	/** The stores opened so far, by canonical path. */
+	private static final ConcurrentMap<String, PlanetLabTraceStore> stores = new ConcurrentHashMap<String, PlanetLabTraceStore>();
+
+	/** The last modification time of the file when it was mapped. */
+	private final long lastModified;
+
+	/** The length of the file when it was mapped. */
+	private final long length;
+
+	/** The names of the traces. */
+	private final String[] names;
+
+	/** The number of samples per trace. */
+	private final int numberOfSamples;
+
+	/** The samples of all the traces. */
+	private final ByteBuffer samples;
+
+	/**
+	 * Instantiates a new store from a mapped file.
+	 *
+	 * @param path the path of the file
+	 * @param buffer the mapped file
+	 * @param lastModified the last modification time of the file
+	 * @param length the length of the file
+	 * @throws IOException if the file is not a trace store
+	 */
+	private PlanetLabTraceStore(String path, ByteBuffer buffer, long lastModified, long length)
+			throws IOException {
+		this.lastModified = lastModified;
+		this.length = length;
+		if (buffer.capacity() < HEADER_LENGTH || buffer.getInt(0) != MAGIC) {
+			throw new IOException(path + " is not a PlanetLab trace store");
+		}
+		if (buffer.getInt(4) != VERSION) {
+			throw new IOException(path + " has the unsupported version " + buffer.getInt(4));
+		}
+		int numberOfTraces = buffer.getInt(8);
+		numberOfSamples = buffer.getInt(12);
+		int namesLength = buffer.getInt(16);
+		if ((long) HEADER_LENGTH + namesLength + (long) numberOfTraces * numberOfSamples != buffer.capacity()) {
+			throw new IOException(path + " is truncated");
+		}
+
+		byte[] nameBytes = new byte[namesLength];
+		buffer.position(HEADER_LENGTH);
+		buffer.get(nameBytes);
+		names = numberOfTraces == 0 ? new String[0] : new String(nameBytes, "UTF-8").split("\n", -1);
+		if (numberOfTraces > 0 && names.length != numberOfTraces + 1) {
+			throw new IOException(path + " has " + (names.length - 1) + " names for " + numberOfTraces
+					+ " traces");
+		}
+
+		buffer.position(HEADER_LENGTH + namesLength);
+		samples = buffer.slice();
+	}
+
+	/**
+	 * Converts the trace files of a PlanetLab workload folder into a store file. The file is
+	 * written under a temporary name and then renamed, so that a partially written file is never
+	 * opened, and the store previously opened from this file, if any, is no longer returned by
+	 * {@link #open(String)}.
+	 *
+	 * @param inputFolderName the workload folder
+	 * @param outputPath the path of the store file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws IllegalArgumentException if a value of a trace does not fit in a byte
+	 */
+	public static void convert(String inputFolderName, String outputPath) throws IOException {
+		File[] files = new File(inputFolderName).listFiles();
+		if (files == null) {
+			throw new FileNotFoundException("Workload folder not found: " + inputFolderName);
+		}
+
+		int numberOfSamples = NUMBER_OF_VALUES + 1;
+		byte[] data = new byte[files.length * numberOfSamples];
+		StringBuilder names = new StringBuilder();
+		for (int i = 0; i < files.length; i++) {
+			int offset = i * numberOfSamples;
+			BufferedReader input = new BufferedReader(new FileReader(files[i]));
+			try {
+				for (int j = 0; j < NUMBER_OF_VALUES; j++) {
+					String line = input.readLine();
+					if (line == null) {
+						throw new IOException(files[i] + " has less than " + NUMBER_OF_VALUES + " values");
+					}
+					int value = Integer.parseInt(line.trim());
+					if (value < 0 || value > 255) {
+						throw new IllegalArgumentException(files[i] + " has the value " + value
+								+ ", which is not a percentage");
+					}
+					data[offset + j] = (byte) value;
+				}
+			} finally {
+				input.close();
+			}
+			data[offset + NUMBER_OF_VALUES] = data[offset + NUMBER_OF_VALUES - 1];
+			names.append(files[i].getName()).append('\n');
+		}
+		byte[] nameBytes = names.toString().getBytes("UTF-8");
+
+		File output = new File(outputPath).getAbsoluteFile();
+		File folder = output.getParentFile();
+		if (!folder.exists()) {
+			folder.mkdirs();
+		}
+		File temp = File.createTempFile(output.getName(), ".tmp", folder);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+		try {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(files.length);
+			out.writeInt(numberOfSamples);
+			out.writeInt(nameBytes.length);
+			out.write(nameBytes);
+			out.write(data);
+		} finally {
+			out.close();
+		}
+		if (!temp.renameTo(output)) {
+			output.delete();
+			if (!temp.renameTo(output)) {
+				temp.delete();
+				throw new IOException("Could not write " + outputPath);
+			}
+		}
+		stores.remove(output.getCanonicalPath());
+	}
+
+	/**
+	 * Opens the store of a PlanetLab workload folder. The folder is converted into a store file in
+	 * the temporary directory, see {@link #getWorkloadStorePath(String)}, the first time, and again
+	 * when the store is outdated.
+	 *
+	 * @param inputFolderName the workload folder
+	 * @return the store
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws IllegalArgumentException if a value of a trace does not fit in a byte
+	 */
+	public static PlanetLabTraceStore openWorkload(String inputFolderName) throws IOException {
+		return openWorkload(inputFolderName, getWorkloadStorePath(inputFolderName));
+	}
+
+	/**
+	 * Opens the store of a PlanetLab workload folder kept in a given file. The folder is converted
+	 * into the file first if the store is outdated, see {@link #isOutdated(String, String)}.
+	 *
+	 * @param inputFolderName the workload folder
+	 * @param storePath the path of the store file
+	 * @return the store
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @throws IllegalArgumentException if a value of a trace does not fit in a byte
+	 */
+	public static PlanetLabTraceStore openWorkload(String inputFolderName, String storePath)
+			throws IOException {
+		synchronized (PlanetLabTraceStore.class) {
+			if (isOutdated(inputFolderName, storePath)) {
+				convert(inputFolderName, storePath);
+			}
+		}
+		return open(storePath);
+	}
+
+	/**
+	 * Checks whether the store of a PlanetLab workload folder must be converted again, that is
+	 * whether the store file does not exist or is older than the folder or one of its trace files.
+	 * The modification time of the folder alone is not enough, as editing a trace file in place
+	 * does not change it.
+	 *
+	 * @param inputFolderName the workload folder
+	 * @param storePath the path of the store file
+	 * @return true, if the store is outdated
+	 * @throws FileNotFoundException if the workload folder does not exist
+	 */
+	public static boolean isOutdated(String inputFolderName, String storePath)
+			throws FileNotFoundException {
+		File inputFolder = new File(inputFolderName);
+		File[] files = inputFolder.listFiles();
+		if (files == null) {
+			throw new FileNotFoundException("Workload folder not found: " + inputFolderName);
+		}
+		File store = new File(storePath);
+		if (!store.exists()) {
+			return true;
+		}
+		long lastModified = inputFolder.lastModified();
+		for (File file : files) {
+			lastModified = Math.max(lastModified, file.lastModified());
+		}
+		return store.lastModified() < lastModified;
+	}
+
+	/**
+	 * Gets the path of the store file where {@link #openWorkload(String)} converts a PlanetLab
+	 * workload folder, in the temporary directory.
+	 *
+	 * @param inputFolderName the workload folder
+	 * @return the path of the store file
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static String getWorkloadStorePath(String inputFolderName) throws IOException {
+		File inputFolder = new File(inputFolderName).getCanonicalFile();
+		return new File(
+				new File(System.getProperty("java.io.tmpdir"), WORKLOAD_CACHE_FOLDER),
+				inputFolder.getName() + "-" + Integer.toHexString(inputFolder.getPath().hashCode())
+						+ ".trace").getPath();
+	}
+
+	/**
+	 * Opens a store file. The file is mapped the first time it is opened, and the same store is
+	 * returned afterwards, until the file is converted again or its modification time or length
+	 * changes.
+	 *
+	 * @param path the path of the store file
+	 * @return the store
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static PlanetLabTraceStore open(String path) throws IOException {
+		File storeFile = new File(path).getCanonicalFile();
+		String key = storeFile.getPath();
+		long lastModified = storeFile.lastModified();
+		long length = storeFile.length();
+		PlanetLabTraceStore store = stores.get(key);
+		if (store == null || store.lastModified != lastModified || store.length != length) {
+			RandomAccessFile file = new RandomAccessFile(key, "r");
+			try {
+				FileChannel channel = file.getChannel();
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+				store = new PlanetLabTraceStore(path, buffer, lastModified, length);
+			} finally {
+				file.close();
+			}
+			stores.put(key, store);
+		}
+		return store;
+	}
+
+	/**
+	 * Gets the number of traces.
+	 *
+	 * @return the number of traces
+	 */
+	public int getNumberOfTraces() {
+		return names.length == 0 ? 0 : names.length - 1;
+	}
+
+	/**
+	 * Gets the number of samples per trace.
+	 *
+	 * @return the number of samples
+	 */
+	public int getNumberOfSamples() {
+		return numberOfSamples;
+	}
+
+	/**
+	 * Gets the name of the file a trace was read from.
+	 *
+	 * @param trace the index of the trace
+	 * @return the name
+	 */
+	public String getTraceName(int trace) {
+		if (trace < 0 || trace >= getNumberOfTraces()) {
+			throw new IndexOutOfBoundsException("Trace " + trace + " of " + getNumberOfTraces());
+		}
+		return names[trace];
+	}
+
+	/**
+	 * Gets a sample of a trace, as a fraction of the capacity.
+	 *
+	 * @param trace the index of the trace
+	 * @param sample the index of the sample
+	 * @return the utilization
+	 */
+	public double getUtilization(int trace, int sample) {
+		if (sample < 0 || sample >= numberOfSamples) {
+			throw new IndexOutOfBoundsException("Sample " + sample + " of " + numberOfSamples);
+		}
+		return (samples.get(trace * numberOfSamples + sample) & 0xFF) / 100.0;
+	}
+
+}
@@ -0,0 +1,186 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.AbstractList;
+
+/**
+ * A utilization history of fixed length, kept in a ring buffer of doubles. The latest value has the
+ * index 0, and the oldest value is dropped when a value is added to a full history. The mean and
+ * the variance of the values are updated as the values are added, and they are recomputed from the
+ * values each time the history has been filled again, so that the rounding errors do not
+ * accumulate.
+ *
+ * The history is a read-only list of the values, from the latest to the oldest, so that it can be
+ * passed where a list is expected; the values are added by {@link #addValue(double)} and read
+ * without boxing by {@link #getValue(int)}.
+ *
+ * @since CloudSim Toolkit 3.0
+ */
+public class UtilizationHistory extends AbstractList<Double> {
+
+	/** The values. */
+	private final double[] values;
+
+	/** The index of the latest value in the array. */
+	private int head;
+
+	/** The number of values in the history. */
+	private int size;
+
+	/** The number of values added since the history was created. */
+	private long numberOfValuesAdded;
+
+	/** The mean of the values. */
+	private double mean;
+
+	/** The sum of the squared differences between the values and their mean. */
+	private double squaredDeviationSum;
+
+	/**
+	 * Instantiates a new utilization history.
+	 *
+	 * @param length the maximum number of values kept
+	 * @throws IllegalArgumentException if the length is not positive
+	 */
+	public UtilizationHistory(int length) {
+		if (length <= 0) {
+			throw new IllegalArgumentException("The length of the history must be positive: " + length);
+		}
+		values = new double[length];
+	}
+
+	/**
+	 * Adds the latest value, dropping the oldest one if the history is full.
+	 *
+	 * @param value the value
+	 */
+	public void addValue(double value) {
+		head = head == 0 ? values.length - 1 : head - 1;
+		if (size < values.length) {
+			size++;
+			double delta = value - mean;
+			mean += delta / size;
+			squaredDeviationSum += delta * (value - mean);
+		} else {
+			double oldValue = values[head];
+			double oldMean = mean;
+			mean += (value - oldValue) / size;
+			squaredDeviationSum += (value - oldValue) * (value - mean + oldValue - oldMean);
+		}
+		values[head] = value;
+		numberOfValuesAdded++;
+		modCount++;
+
+		if (numberOfValuesAdded % values.length == 0) {
+			updateStatistics();
+		} else if (squaredDeviationSum < 0) {
+			squaredDeviationSum = 0;
+		}
+	}
+
+	/**
+	 * Gets a value.
+	 *
+	 * @param index the index of the value, 0 being the latest
+	 * @return the value
+	 */
+	public double getValue(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+		}
+		int i = head + index;
+		return values[i < values.length ? i : i - values.length];
+	}
+
+	/**
+	 * Copies the values to an array, from the latest to the oldest.
+	 *
+	 * @return the values
+	 */
+	public double[] toDoubleArray() {
+		double[] array = new double[size];
+		int first = Math.min(size, values.length - head);
+		System.arraycopy(values, head, array, 0, first);
+		System.arraycopy(values, 0, array, first, size - first);
+		return array;
+	}
+
+	/**
+	 * Gets the mean of the values.
+	 *
+	 * @return the mean, or 0 if the history is empty
+	 */
+	public double getMean() {
+		return mean;
+	}
+
+	/**
+	 * Gets the population variance of the values.
+	 *
+	 * @return the variance, or 0 if the history is empty
+	 */
+	public double getVariance() {
+		return size == 0 ? 0 : squaredDeviationSum / size;
+	}
+
+	/**
+	 * Gets the maximum number of values kept.
+	 *
+	 * @return the length
+	 */
+	public int getLength() {
+		return values.length;
+	}
+
+	/**
+	 * Gets the number of values added since the history was created, which changes each time the
+	 * history changes.
+	 *
+	 * @return the number of values added
+	 */
+	public long getNumberOfValuesAdded() {
+		return numberOfValuesAdded;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractList#get(int)
+	 */
+	@Override
+	public Double get(int index) {
+		return getValue(index);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.util.AbstractCollection#size()
+	 */
+	@Override
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Recomputes the mean and the variance from the values.
+	 */
+	private void updateStatistics() {
+		double sum = 0;
+		for (int i = 0; i < size; i++) {
+			sum += getValue(i);
+		}
+		mean = sum / size;
+		squaredDeviationSum = 0;
+		for (int i = 0; i < size; i++) {
+			double deviation = getValue(i) - mean;
+			squaredDeviationSum += deviation * deviation;
+		}
+	}
+
+}